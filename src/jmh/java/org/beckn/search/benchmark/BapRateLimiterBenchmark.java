@@ -0,0 +1,54 @@
+package org.beckn.search.benchmark;
+
+import org.beckn.search.ratelimit.BapRateLimiter;
+import org.beckn.search.ratelimit.RateLimitProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one per-BAP rate limit check, with many threads spread over a set of BAPs and
+ * with all threads hammering the same BAP (the contended worst case). The limit is set
+ * high enough that every check is admitted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class BapRateLimiterBenchmark {
+    private BapRateLimiter limiter;
+    private String[] baps;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Tier tier = new RateLimitProperties.Tier();
+        tier.setRate(1e9);
+        tier.setBurst(1_000_000);
+        properties.setTiers(Map.of("standard", tier));
+        limiter = new BapRateLimiter(properties);
+        baps = new String[256];
+        for (int i = 0; i < baps.length; i++) {
+            baps[i] = "bap-" + i + ".example.org";
+        }
+    }
+
+    @Benchmark
+    public void manyBaps() {
+        limiter.acquire(baps[ThreadLocalRandom.current().nextInt(baps.length)]);
+    }
+
+    @Benchmark
+    public void singleBap() {
+        limiter.acquire(baps[0]);
+    }
+}
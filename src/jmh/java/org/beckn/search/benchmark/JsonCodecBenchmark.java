@@ -0,0 +1,65 @@
+package org.beckn.search.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.transformer.ProviderFragmentCache;
+import org.beckn.search.transformer.SearchResponseTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the default reflective ObjectMapper against the precompiled
+ * {@link BecknJsonCodec} (with Blackbird) on the sample bodies from src/test/resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonCodecBenchmark {
+    private ObjectMapper defaultMapper;
+    private BecknJsonCodec codec;
+    private byte[] requestBody;
+    private SearchResponseDto response;
+
+    @Setup
+    public void setUp() throws IOException {
+        defaultMapper = new ObjectMapper();
+        codec = new BecknJsonCodec(new ObjectMapper().registerModule(new BlackbirdModule()));
+
+        requestBody = new ClassPathResource("search_intent_body_sample.json").getInputStream().readAllBytes();
+        String catalog = new String(new ClassPathResource("beckn_catalog.json").getInputStream().readAllBytes());
+        response = new SearchResponseTransformer(defaultMapper, new ProviderFragmentCache(DataSize.ofMegabytes(1))).transformToResponse(catalog);
+    }
+
+    @Benchmark
+    public SearchRequestDto readRequestDefault() throws IOException {
+        return defaultMapper.readValue(requestBody, SearchRequestDto.class);
+    }
+
+    @Benchmark
+    public SearchRequestDto readRequestCodec() throws IOException {
+        return codec.read(SearchRequestDto.class, requestBody);
+    }
+
+    @Benchmark
+    public byte[] writeResponseDefault() throws IOException {
+        return defaultMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeResponseCodec() throws IOException {
+        return codec.writeAsBytes(response);
+    }
+}
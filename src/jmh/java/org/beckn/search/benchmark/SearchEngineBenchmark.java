@@ -0,0 +1,187 @@
+package org.beckn.search.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.http.HttpHost;
+import org.beckn.search.elasticsearch.ElasticsearchSearchEngine;
+import org.beckn.search.elasticsearch.FacetAggregationBuilder;
+import org.beckn.search.elasticsearch.SearchConcurrencyLimiter;
+import org.beckn.search.elasticsearch.SearchHedger;
+import org.beckn.search.engine.EngineQuery;
+import org.beckn.search.engine.EngineResult;
+import org.beckn.search.engine.QueryNode;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.lucene.LuceneSearchEngine;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.store.CatalogStore;
+import org.elasticsearch.client.RestClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The embedded Lucene engine against Elasticsearch on the same generated catalog documents
+ * and queries, through the {@link SearchEngine} interface the service uses. The ES index is
+ * created with the managed template's mappings. Needs Elasticsearch at
+ * {@code -Dbenchmark.es-uri} (default http://localhost:9200) for the elasticsearch runs:
+ * {@code ./gradlew jmh -PjmhIncludes=SearchEngineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchEngineBenchmark {
+    private static final String INDEX = "benchmark-catalog";
+    private static final String[] WORDS = {"milk", "bread", "rice", "paneer", "butter", "tea", "coffee", "sugar",
+        "atta", "dal", "oil", "soap", "biscuit", "juice", "curd", "ghee"};
+    private static final String[] CATEGORIES = {"dairy", "bakery", "staples", "beverages", "personal-care", "snacks"};
+
+    @Param({"lucene", "elasticsearch"})
+    public String engineName;
+
+    @Param({"10000"})
+    public int documents;
+
+    private SearchEngine engine;
+    private Path luceneDir;
+    private RestClient restClient;
+    private EngineQuery match;
+    private EngineQuery geoAndMatch;
+    private EngineQuery facets;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Map<String, Object>> catalog = generate(documents);
+        if (engineName.equals("lucene")) {
+            luceneDir = Files.createTempDirectory("lucene-benchmark");
+            LuceneSearchEngine lucene = new LuceneSearchEngine(new ObjectMapper(), luceneDir, Duration.ofHours(1),
+                Duration.ofHours(1), 20, List.of("0-100", "100-500", "500-1000", "1000-"));
+            lucene.index(INDEX, catalog);
+            lucene.refresh();
+            engine = lucene;
+        } else {
+            restClient = RestClient.builder(HttpHost.create(System.getProperty("benchmark.es-uri", "http://localhost:9200"))).build();
+            ElasticsearchClient client = new ElasticsearchClient(new RestClientTransport(restClient, new JacksonJsonpMapper()));
+            loadElasticsearch(client, catalog);
+            SearchConcurrencyLimiter concurrencyLimiter = new SearchConcurrencyLimiter(false, 20, 4, 200, Duration.ofSeconds(1), 1000);
+            engine = new ElasticsearchSearchEngine(client, new FacetAggregationBuilder(), concurrencyLimiter,
+                new SearchHedger(false, 0.95, Duration.ofMillis(10), 0.1, 64, concurrencyLimiter),
+                // Both engines return catalogs from their own documents
+                new CatalogStore(false, Path.of("data/catalog-store"), DataSize.ofMegabytes(256), DataSize.ofGigabytes(4)));
+        }
+
+        QueryNode milk = new QueryNode.Match("items_descriptor_name", "milk", 2.0f);
+        match = query(milk);
+        geoAndMatch = query(QueryNode.Bool.must(List.of(milk,
+            new QueryNode.GeoDistance("providers_locations_gps", 12.97, 77.59, "5km"))));
+        facets = EngineQuery.builder()
+            .indices(List.of(INDEX))
+            .query(QueryNode.Bool.should(List.of(milk, new QueryNode.Match("items_descriptor_name", "bread", null)), 1))
+            .size(0)
+            .facets(new LinkedHashSet<>(List.of(FacetType.CATEGORY, FacetType.PRICE)))
+            .trackTotalHits(true)
+            .build();
+    }
+
+    private static EngineQuery query(QueryNode node) {
+        return EngineQuery.builder().indices(List.of(INDEX)).query(node).size(20).build();
+    }
+
+    // Providers around Bangalore with a few items each; seeded, so both engines get the same data
+    private static List<Map<String, Object>> generate(int count) {
+        Random random = new Random(42);
+        List<Map<String, Object>> catalog = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> names = new ArrayList<>();
+            List<String> categories = new ArrayList<>();
+            List<Double> prices = new ArrayList<>();
+            int items = 1 + random.nextInt(4);
+            for (int item = 0; item < items; item++) {
+                names.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+                categories.add(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                prices.add((double) random.nextInt(1500));
+            }
+            Map<String, Object> document = new HashMap<>();
+            document.put("provider_id", "provider-" + i);
+            document.put("items_descriptor_name", names);
+            document.put("items_category_ids", categories);
+            document.put("items_price_value", prices);
+            document.put("providers_locations_gps", (12.8 + random.nextDouble() * 0.4) + "," + (77.4 + random.nextDouble() * 0.4));
+            document.put("raw_catalog", "{\"message\": {\"catalog\": {\"providers\": [{\"id\": \"provider-" + i + "\"}]}}}");
+            catalog.add(document);
+        }
+        return catalog;
+    }
+
+    private static void loadElasticsearch(ElasticsearchClient client, List<Map<String, Object>> catalog) throws IOException {
+        if (client.indices().exists(e -> e.index(INDEX)).value()) {
+            client.indices().delete(d -> d.index(INDEX));
+        }
+        ObjectNode template;
+        try (InputStream in = new ClassPathResource("elasticsearch/catalog-index-template.json").getInputStream()) {
+            template = (ObjectNode) new ObjectMapper().readTree(in);
+        }
+        template.remove("version");
+        String body = template.toString();
+        client.indices().create(c -> c.index(INDEX).withJson(new StringReader(body)));
+        for (int from = 0; from < catalog.size(); from += 1000) {
+            BulkRequest.Builder bulk = new BulkRequest.Builder();
+            catalog.subList(from, Math.min(catalog.size(), from + 1000))
+                .forEach(document -> bulk.operations(op -> op.index(idx -> idx.index(INDEX).document(document))));
+            client.bulk(bulk.build());
+        }
+        client.indices().refresh(r -> r.index(INDEX));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (engine instanceof LuceneSearchEngine lucene) {
+            lucene.close();
+            FileSystemUtils.deleteRecursively(luceneDir);
+        }
+        if (restClient != null) {
+            restClient.close();
+        }
+    }
+
+    @Benchmark
+    public EngineResult matchSearch() throws IOException {
+        return engine.search(match);
+    }
+
+    @Benchmark
+    public EngineResult geoAndMatchSearch() throws IOException {
+        return engine.search(geoAndMatch);
+    }
+
+    @Benchmark
+    public EngineResult facetSearch() throws IOException {
+        return engine.search(facets);
+    }
+}
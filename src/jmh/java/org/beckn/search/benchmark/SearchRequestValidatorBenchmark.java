@@ -0,0 +1,54 @@
+package org.beckn.search.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.validation.SearchRequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request validation cost: the Bean Validation sweep that used to run twice per
+ * request against the single-pass {@link SearchRequestValidator}. Run with
+ * {@code -prof gc} to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchRequestValidatorBenchmark {
+    private Validator beanValidator;
+    private SearchRequestValidator requestValidator;
+    private SearchRequestDto request;
+
+    @Setup
+    public void setUp() throws IOException {
+        beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+        requestValidator = new SearchRequestValidator(100, 1000, 64);
+        byte[] body = new ClassPathResource("search_intent_body_sample.json").getInputStream().readAllBytes();
+        request = new ObjectMapper().readValue(body, SearchRequestDto.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<SearchRequestDto>> beanValidationTwice() {
+        beanValidator.validate(request);
+        return beanValidator.validate(request);
+    }
+
+    @Benchmark
+    public SearchRequestDto singlePass() {
+        requestValidator.validate(request);
+        return request;
+    }
+}
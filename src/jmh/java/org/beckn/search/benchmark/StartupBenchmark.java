@@ -0,0 +1,154 @@
+package org.beckn.search.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to first successful search: launches the service in a fresh JVM and posts the
+ * sample search until it gets a 200. {@code boot-jar} is the plain {@code bootJar} output;
+ * {@code fast-startup} is the AOT-processed CDS layout from
+ * {@code ./gradlew -PfastStartup cdsArchive}. Needs Elasticsearch with the catalog
+ * indices at {@code -Dbenchmark.es-uri} (default http://localhost:9200).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+    private static final Duration STARTUP_LIMIT = Duration.ofMinutes(2);
+
+    @Param({"boot-jar", "fast-startup"})
+    public String layout;
+
+    private Path buildDir;
+    private byte[] searchBody;
+    private HttpClient httpClient;
+    private Path workDir;
+    private Process process;
+
+    @Setup
+    public void setUp() throws IOException {
+        buildDir = Path.of(System.getProperty("benchmark.build-dir", "build"));
+        searchBody = new ClassPathResource("search_intent_body_sample.json").getInputStream().readAllBytes();
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void createWorkDir() throws IOException {
+        // A fresh working directory, so no outbox or warm-up log carries over between runs
+        workDir = Files.createTempDirectory("startup-benchmark");
+    }
+
+    @Benchmark
+    public int timeToFirstSearch() throws IOException, InterruptedException {
+        int port = freePort();
+        process = new ProcessBuilder(command(port))
+            .directory(workDir.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(workDir.resolve("service.log").toFile())
+            .start();
+        HttpRequest search = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/search"))
+            .timeout(Duration.ofSeconds(5))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(searchBody))
+            .build();
+        long deadline = System.nanoTime() + STARTUP_LIMIT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue()
+                    + ", see " + workDir.resolve("service.log"));
+            }
+            try {
+                HttpResponse<Void> response = httpClient.send(search, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No successful search within " + STARTUP_LIMIT);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException, IOException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+        FileSystemUtils.deleteRecursively(workDir);
+    }
+
+    private List<String> command(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xms512m");
+        command.add("-Xmx1024m");
+        if (layout.equals("fast-startup")) {
+            Path cds = buildDir.resolve("cds");
+            requireFile(cds.resolve("beckn-search.jsa"), "./gradlew -PfastStartup cdsArchive");
+            command.add("-XX:SharedArchiveFile=" + cds.resolve("beckn-search.jsa").toAbsolutePath());
+            command.add("-Dspring.aot.enabled=true");
+            command.add("-jar");
+            command.add(cds.resolve("beckn-search.jar").toAbsolutePath().toString());
+            command.add("--spring.profiles.active=fast-startup");
+        } else {
+            command.add("-jar");
+            command.add(bootJar().toAbsolutePath().toString());
+        }
+        command.add("--server.port=" + port);
+        command.add("--spring.elasticsearch.uris=" + System.getProperty("benchmark.es-uri", "http://localhost:9200"));
+        return command;
+    }
+
+    private Path bootJar() throws IOException {
+        Path libs = buildDir.resolve("libs");
+        requireFile(libs, "./gradlew bootJar");
+        try (Stream<Path> jars = Files.list(libs)) {
+            return jars
+                .filter(jar -> jar.getFileName().toString().endsWith(".jar")
+                    && !jar.getFileName().toString().endsWith("-plain.jar"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No boot jar in " + libs + ", run ./gradlew bootJar"));
+        }
+    }
+
+    private static void requireFile(Path path, String buildCommand) {
+        if (!Files.exists(path)) {
+            throw new IllegalStateException(path + " is missing, run " + buildCommand);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package org.beckn;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BecknSearchApplication {
     public static void main(String[] args) {
         SpringApplication.run(BecknSearchApplication.class, args);
@@ -0,0 +1,37 @@
+package org.beckn.search.api;
+
+import lombok.RequiredArgsConstructor;
+import org.beckn.search.cache.SearchCacheInvalidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Cache invalidation for pipelines that write catalogs to Elasticsearch directly rather
+ * than through this service. Disabled unless {@code search.admin.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/cache")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.admin.enabled", havingValue = "true")
+public class CacheAdminController {
+    private final SearchCacheInvalidator cacheInvalidator;
+
+    // Without provider_id parameters the whole domain is evicted
+    @PostMapping("/{domain}/invalidate")
+    public ResponseEntity<Void> invalidate(@PathVariable("domain") String domain,
+                                           @RequestParam(value = "provider_id", required = false) List<String> providerIds) {
+        if (providerIds == null || providerIds.isEmpty()) {
+            cacheInvalidator.domainChanged(domain);
+        } else {
+            cacheInvalidator.providersChanged(domain, providerIds);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
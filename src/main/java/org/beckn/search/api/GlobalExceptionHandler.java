@@ -4,7 +4,11 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.beckn.search.elasticsearch.RebuildInProgressException;
+import org.beckn.search.elasticsearch.SearchOverloadedException;
 import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.ratelimit.RateLimitExceededException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -87,6 +91,50 @@ public class GlobalExceptionHandler {
                 .body(errorResponse);
     }
 
+    @ExceptionHandler(RebuildInProgressException.class)
+    @ResponseBody
+    public ResponseEntity<SearchResponseDto> handleRebuildInProgressException(RebuildInProgressException ex) {
+        SearchResponseDto errorResponse = new SearchResponseDto();
+        SearchResponseDto.Error error = new SearchResponseDto.Error();
+        error.setCode("CONFLICT");
+        error.setMessage(ex.getMessage());
+        errorResponse.setError(error);
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(SearchOverloadedException.class)
+    @ResponseBody
+    public ResponseEntity<SearchResponseDto> handleSearchOverloadedException(SearchOverloadedException ex) {
+        SearchResponseDto errorResponse = new SearchResponseDto();
+        SearchResponseDto.Error error = new SearchResponseDto.Error();
+        error.setCode("SERVICE_UNAVAILABLE");
+        error.setMessage(ex.getMessage());
+        errorResponse.setError(error);
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    @ResponseBody
+    public ResponseEntity<SearchResponseDto> handleRateLimitExceededException(RateLimitExceededException ex) {
+        SearchResponseDto errorResponse = new SearchResponseDto();
+        SearchResponseDto.Error error = new SearchResponseDto.Error();
+        error.setCode("RATE_LIMITED");
+        error.setMessage(ex.getMessage());
+        errorResponse.setError(error);
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(IOException.class)
     @ResponseBody
     public ResponseEntity<SearchResponseDto> handleIOException(IOException ex) {
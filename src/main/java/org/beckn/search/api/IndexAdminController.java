@@ -0,0 +1,61 @@
+package org.beckn.search.api;
+
+import lombok.RequiredArgsConstructor;
+import org.beckn.search.elasticsearch.CatalogIngestService;
+import org.beckn.search.elasticsearch.IndexRebuildService;
+import org.beckn.search.model.IndexRebuildStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index maintenance endpoints. Disabled unless {@code search.admin.enabled=true}, and
+ * meant to be reachable from the internal network only.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/indices")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.admin.enabled", havingValue = "true")
+public class IndexAdminController {
+    private final IndexRebuildService rebuildService;
+    private final CatalogIngestService ingestService;
+
+    // Accepted once the batch is in the durable outbox; indexing follows in the background
+    @PostMapping(value = "/{domain}/documents", consumes = MediaType.APPLICATION_JSON_VALUE,
+                 produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Integer>> ingest(@PathVariable("domain") String domain,
+                                                       @RequestBody List<Map<String, Object>> documents) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("accepted", ingestService.submit(domain, documents)));
+    }
+
+    @PostMapping(value = "/{domain}/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IndexRebuildStatus> rebuild(@PathVariable("domain") String domain) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(rebuildService.startRebuild(domain));
+    }
+
+    @GetMapping(value = "/{domain}/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IndexRebuildStatus> rebuildStatus(@PathVariable("domain") String domain) {
+        IndexRebuildStatus status = rebuildService.getStatus(domain);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(status);
+    }
+}
@@ -1,11 +1,21 @@
 package org.beckn.search.api;
 
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.async.AsyncSearchService;
 import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.AckResponseDto;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
 import org.beckn.search.model.SearchRequestDto;
 import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.ratelimit.BapRateLimitFilter;
+import org.beckn.search.ratelimit.BapRateLimiter;
 import org.beckn.search.validation.SearchRequestValidator;
+import org.beckn.search.warmup.FirstSearchTimer;
+import org.beckn.search.warmup.SearchReplayRecorder;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -14,8 +24,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -23,33 +35,58 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 @Validated
 public class SearchController {
     private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+    // Per-request search deadline, sent to ES as the search timeout
+    static final String TIMEOUT_HEADER = "X-Search-Timeout";
     private final SearchService searchService;
     private final SearchRequestValidator requestValidator;
-    private final ObjectMapper objectMapper;
+    private final BecknJsonCodec jsonCodec;
+    private final BapRateLimiter rateLimiter;
+    private final SearchReplayRecorder replayRecorder;
+    private final AsyncSearchService asyncSearchService;
+    private final FirstSearchTimer firstSearchTimer;
 
     @Autowired
     public SearchController(SearchService searchService,
                           SearchRequestValidator requestValidator,
-                          ObjectMapper objectMapper) {
+                          BecknJsonCodec jsonCodec,
+                          BapRateLimiter rateLimiter,
+                          SearchReplayRecorder replayRecorder,
+                          AsyncSearchService asyncSearchService,
+                          FirstSearchTimer firstSearchTimer) {
         this.searchService = searchService;
         this.requestValidator = requestValidator;
-        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.jsonCodec = jsonCodec;
+        this.rateLimiter = rateLimiter;
+        this.replayRecorder = replayRecorder;
+        this.asyncSearchService = asyncSearchService;
+        this.firstSearchTimer = firstSearchTimer;
     }
 
     @PostMapping(value = "/search", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<SearchResponseDto> search(
-            @Valid @RequestBody SearchRequestDto request,
-            @RequestParam(value = "operator", defaultValue = "AND") String operator) throws IOException {
+    public ResponseEntity<?> search(
+            @RequestBody SearchRequestDto request,
+            @RequestParam(value = "operator", defaultValue = "AND") String operator,
+            @RequestParam(value = "facets", required = false) List<String> facets,
+            @RequestParam(value = "facets_only", defaultValue = "false") boolean facetsOnly,
+            @RequestParam(value = "track_total_hits", defaultValue = "false") boolean trackTotalHits,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) String timeout,
+            @RequestParam(value = "async", defaultValue = "false") boolean async,
+            HttpServletRequest httpRequest) throws IOException {
         // Log the incoming request
         try {
-            logger.info("Search request received: {}", objectMapper.writeValueAsString(request));
+            logger.info("Search request received: {}", jsonCodec.writeRequestForLog(request));
         } catch (Exception e) {
             logger.warn("Failed to log request body", e);
         }
 
-        // Validate the request
+        // Validate the request; this is the only validation pass (no @Valid on the body)
         requestValidator.validate(request);
 
+        // Only when BapRateLimitFilter didn't run; context.bap_id is unverified, so it is never the key
+        if (httpRequest.getAttribute(BapRateLimitFilter.CHARGED_ATTRIBUTE) == null) {
+            rateLimiter.acquire(BapRateLimitFilter.rateLimitKey(httpRequest));
+        }
+
         // Extract pagination parameters from the message
         int pageNum = 0;
         int pageSize = 10;
@@ -60,11 +97,64 @@ public class SearchController {
                 request.getMessage().getIntent().getLimit() : 10;
         }
         
-        // Get response directly from service
-        SearchResponseDto responseDto = searchService.searchAndGetResponse(request, operator);
+        SearchOptions options = buildOptions(facets, facetsOnly, trackTotalHits, timeout);
+
+        // Beckn async mode: ACK now, the results go to the BAP's on_search
+        if (async) {
+            asyncSearchService.submit(request, operator, options);
+            replayRecorder.record(request, operator, options);
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(AckResponseDto.ack());
+        }
+
+        // Get response directly from service, with facet counts and the total when requested
+        SearchResponseDto responseDto = options.hasFacets() || options.isTrackTotalHits() || options.getTimeout() != null
+            ? searchService.searchAndGetResponse(request, operator, options)
+            : searchService.searchAndGetResponse(request, operator);
+
+        // Remembered for the warm-up replay after the next restart
+        replayRecorder.record(request, operator, options);
+        firstSearchTimer.searchSucceeded();
 
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_JSON)
             .body(responseDto);
     }
-} 
\ No newline at end of file
+
+    private SearchOptions buildOptions(List<String> facets, boolean facetsOnly, boolean trackTotalHits, String timeout) {
+        Set<FacetType> facetTypes = EnumSet.noneOf(FacetType.class);
+        if (facets != null) {
+            facets.stream()
+                .filter(facet -> !facet.isBlank())
+                .map(FacetType::fromKey)
+                .forEach(facetTypes::add);
+        }
+        if (facetsOnly && facetTypes.isEmpty()) {
+            throw new IllegalArgumentException("facets_only requires at least one facet");
+        }
+        return SearchOptions.builder()
+            .facets(facetTypes)
+            .facetsOnly(facetsOnly)
+            .trackTotalHits(trackTotalHits)
+            .timeout(parseTimeout(timeout))
+            .build();
+    }
+
+    // Milliseconds ("250") or a duration with a unit ("250ms", "2s")
+    private static Duration parseTimeout(String timeout) {
+        if (timeout == null || timeout.isBlank()) {
+            return null;
+        }
+        Duration parsed;
+        try {
+            parsed = DurationStyle.detectAndParse(timeout.trim());
+        } catch (IllegalArgumentException e) {
+            parsed = null;
+        }
+        if (parsed == null || parsed.isNegative() || parsed.isZero()) {
+            throw new IllegalArgumentException("Invalid " + TIMEOUT_HEADER + " header: '" + timeout + "'");
+        }
+        return parsed;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package org.beckn.search.api;
+
+import lombok.RequiredArgsConstructor;
+import org.beckn.search.model.SuggestResponseDto;
+import org.beckn.search.suggest.SuggestionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class SuggestController {
+    private final SuggestionService suggestionService;
+
+    @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SuggestResponseDto> suggest(
+            @RequestParam("domain") String domain,
+            @RequestParam("q") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        SuggestResponseDto response = new SuggestResponseDto(domain, suggestionService.suggest(domain, prefix, limit));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(response);
+    }
+}
@@ -0,0 +1,141 @@
+package org.beckn.search.async;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.elasticsearch.SearchOverloadedException;
+import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.model.Context;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Beckn's asynchronous search: the request is acknowledged at once, searched on a bounded
+ * worker pool, and the result is posted to the BAP as {@code on_search}. Workers only run
+ * the search; the callback is sent without holding one, so slow BAPs can't stall the pool.
+ * When the queue is full the search is refused with {@link SearchOverloadedException}.
+ */
+@Slf4j
+@Component
+public class AsyncSearchService implements MeterBinder {
+    private final SearchService searchService;
+    private final OnSearchCallbackClient callbackClient;
+    private final ThreadPoolExecutor workers;
+    private final long retryAfterSeconds;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AsyncSearchService(SearchService searchService,
+                              OnSearchCallbackClient callbackClient,
+                              @Value("${search.async.workers:8}") int workers,
+                              @Value("${search.async.queue-capacity:1000}") int queueCapacity,
+                              @Value("${search.async.retry-after:1s}") Duration retryAfter) {
+        this.searchService = searchService;
+        this.callbackClient = callbackClient;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "async-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Queues the search. Throws IllegalArgumentException when the request has no usable or
+     * allowed {@code bap_uri}, and SearchOverloadedException when the queue is full.
+     */
+    public void submit(SearchRequestDto request, String operator, SearchOptions options) {
+        if (request.getContext() == null) {
+            throw new IllegalArgumentException("Context is required for asynchronous search");
+        }
+        callbackClient.checkCallback(request.getContext().getBapUri());
+        try {
+            workers.execute(() -> run(request, operator, options));
+            accepted.increment();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SearchOverloadedException("Asynchronous search queue is full, retry later", retryAfterSeconds);
+        }
+    }
+
+    private void run(SearchRequestDto request, String operator, SearchOptions options) {
+        SearchResponseDto response;
+        try {
+            response = searchService.searchAndGetResponse(request, operator, options);
+        } catch (Exception e) {
+            log.debug("Asynchronous search {} failed: {}", request.getContext().getTransactionId(), e.getMessage());
+            response = errorResponse(e);
+        }
+        callbackClient.deliver(request.getContext().getBapUri(), onSearch(request.getContext(), response));
+    }
+
+    // Cached responses are shared, so the callback gets its own copy with the on_search context
+    static SearchResponseDto onSearch(Context requestContext, SearchResponseDto response) {
+        Context context = new Context();
+        context.setDomain(requestContext.getDomain());
+        context.setLocation(requestContext.getLocation());
+        context.setBapId(requestContext.getBapId());
+        context.setBapUri(requestContext.getBapUri());
+        context.setTransactionId(requestContext.getTransactionId());
+        context.setMessageId(requestContext.getMessageId());
+        context.setCoreVersion(requestContext.getCoreVersion());
+        context.setAction("on_search");
+        context.setTimestamp(Instant.now().toString());
+        return new SearchResponseDto(context, response.getMessage(), response.getError());
+    }
+
+    // Same codes the synchronous API answers with
+    private static SearchResponseDto errorResponse(Exception e) {
+        SearchResponseDto.Error error = new SearchResponseDto.Error();
+        if (e instanceof IllegalArgumentException) {
+            error.setCode("INVALID_REQUEST");
+            error.setMessage(e.getMessage());
+        } else if (e instanceof SearchOverloadedException || e instanceof IOException) {
+            error.setCode("SERVICE_UNAVAILABLE");
+            error.setMessage("Search service temporarily unavailable");
+        } else {
+            error.setCode("INTERNAL_ERROR");
+            error.setMessage("An unexpected error occurred: " + e.getMessage());
+        }
+        SearchResponseDto response = new SearchResponseDto();
+        response.setError(error);
+        return response;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.async.requests", accepted, LongAdder::sum)
+            .tag("result", "accepted")
+            .description("Asynchronous searches by admission outcome")
+            .register(registry);
+        FunctionCounter.builder("search.async.requests", rejected, LongAdder::sum)
+            .tag("result", "rejected")
+            .description("Asynchronous searches by admission outcome")
+            .register(registry);
+        Gauge.builder("search.async.queue", workers, executor -> executor.getQueue().size())
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,110 @@
+package org.beckn.search.async;
+
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.EdECPrivateKeySpec;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Signs outgoing Beckn requests the way the protocol requires: an ed25519 signature over
+ * {@code (created)}, {@code (expires)} and the BLAKE2b-512 digest of the body, sent as
+ * {@code Authorization: Signature keyId="<subscriber_id>|<unique_key_id>|ed25519",...}.
+ * BAPs look the key up in the registry and drop callbacks that don't verify.
+ *
+ * The private key is base64: a raw 32-byte seed, the 64-byte seed and public key that
+ * libsodium produces, or PKCS#8 DER. Without one, nothing can be signed.
+ */
+@Component
+public class BecknSigner {
+    private static final String ALGORITHM = "ed25519";
+
+    private final String keyId;
+    private final PrivateKey privateKey;
+    private final long validitySeconds;
+    private final Clock clock;
+
+    @Autowired
+    public BecknSigner(@Value("${search.async.callback.signing.subscriber-id:}") String subscriberId,
+                       @Value("${search.async.callback.signing.unique-key-id:}") String uniqueKeyId,
+                       @Value("${search.async.callback.signing.private-key:}") String privateKey,
+                       @Value("${search.async.callback.signing.validity:5m}") Duration validity) {
+        this(subscriberId, uniqueKeyId, privateKey, validity, Clock.systemUTC());
+    }
+
+    BecknSigner(String subscriberId, String uniqueKeyId, String privateKey, Duration validity, Clock clock) {
+        boolean configured = privateKey != null && !privateKey.isBlank();
+        if (configured && (subscriberId == null || subscriberId.isBlank() || uniqueKeyId == null || uniqueKeyId.isBlank())) {
+            throw new IllegalArgumentException("A signing key needs search.async.callback.signing.subscriber-id and unique-key-id");
+        }
+        this.keyId = configured ? subscriberId + "|" + uniqueKeyId + "|" + ALGORITHM : null;
+        this.privateKey = configured ? privateKey(privateKey) : null;
+        this.validitySeconds = Math.max(1, validity.toSeconds());
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return privateKey != null;
+    }
+
+    /**
+     * The {@code Authorization} header value for a request with this body.
+     */
+    public String authorization(byte[] body) {
+        if (privateKey == null) {
+            throw new IllegalStateException("No signing key is configured");
+        }
+        long created = clock.instant().getEpochSecond();
+        long expires = created + validitySeconds;
+        String signingString = signingString(created, expires, digest(body));
+        byte[] signature;
+        try {
+            Signature signer = Signature.getInstance("Ed25519");
+            signer.initSign(privateKey);
+            signer.update(signingString.getBytes(StandardCharsets.UTF_8));
+            signature = signer.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign request: " + e.getMessage(), e);
+        }
+        return "Signature keyId=\"" + keyId + "\",algorithm=\"" + ALGORITHM + "\",created=\"" + created
+            + "\",expires=\"" + expires + "\",headers=\"(created) (expires) digest\",signature=\""
+            + Base64.getEncoder().encodeToString(signature) + "\"";
+    }
+
+    static String signingString(long created, long expires, String digest) {
+        return "(created): " + created + "\n(expires): " + expires + "\ndigest: " + digest;
+    }
+
+    static String digest(byte[] body) {
+        Blake2bDigest blake = new Blake2bDigest(512);
+        blake.update(body, 0, body.length);
+        byte[] hash = new byte[blake.getDigestSize()];
+        blake.doFinal(hash, 0);
+        return "BLAKE-512=" + Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static PrivateKey privateKey(String base64) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(base64.trim());
+            KeyFactory factory = KeyFactory.getInstance("Ed25519");
+            if (bytes.length == 32 || bytes.length == 64) {
+                return factory.generatePrivate(new EdECPrivateKeySpec(NamedParameterSpec.ED25519, Arrays.copyOf(bytes, 32)));
+            }
+            return factory.generatePrivate(new PKCS8EncodedKeySpec(bytes));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search.async.callback.signing.private-key: " + e.getMessage(), e);
+        }
+    }
+}
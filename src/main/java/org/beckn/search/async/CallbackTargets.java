@@ -0,0 +1,111 @@
+package org.beckn.search.async;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides where {@code on_search} callbacks may go. {@code context.bap_uri} comes from the
+ * caller, so unchecked it would let anyone make this service POST to whatever it can reach.
+ * The host must be on {@code allowed-hosts} ({@code *.example.org} covers subdomains), and
+ * every address it resolves to must be public: loopback, private, link-local (cloud
+ * metadata), carrier-grade NAT and unique-local addresses are refused. The addresses are
+ * checked again before every attempt, so a name re-pointed after the search was accepted
+ * is caught as well.
+ */
+@Component
+public class CallbackTargets {
+
+    @FunctionalInterface
+    interface Resolver {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    private final List<String> allowedHosts;
+    private final boolean allowPrivateAddresses;
+    private final Resolver resolver;
+
+    @Autowired
+    public CallbackTargets(@Value("${search.async.callback.allowed-hosts:}") List<String> allowedHosts,
+                           @Value("${search.async.callback.allow-private-addresses:false}") boolean allowPrivateAddresses) {
+        this(allowedHosts, allowPrivateAddresses, InetAddress::getAllByName);
+    }
+
+    CallbackTargets(List<String> allowedHosts, boolean allowPrivateAddresses, Resolver resolver) {
+        this.allowedHosts = allowedHosts.stream()
+            .map(host -> host.trim().toLowerCase(Locale.ROOT))
+            .filter(host -> !host.isEmpty())
+            .toList();
+        this.allowPrivateAddresses = allowPrivateAddresses;
+        this.resolver = resolver;
+    }
+
+    /**
+     * The callback address for a BAP, or IllegalArgumentException when it has no usable
+     * one or its host is not allowed.
+     */
+    public URI callbackUri(String bapUri) {
+        if (bapUri == null || bapUri.isBlank()) {
+            throw new IllegalArgumentException("context.bap_uri is required for asynchronous search");
+        }
+        URI uri;
+        try {
+            uri = URI.create(bapUri.endsWith("/") ? bapUri + "on_search" : bapUri + "/on_search");
+        } catch (IllegalArgumentException e) {
+            uri = null;
+        }
+        if (uri == null || uri.getHost() == null || uri.getRawUserInfo() != null
+            || !("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))) {
+            throw new IllegalArgumentException("Invalid context.bap_uri: '" + bapUri + "'");
+        }
+        if (!isAllowed(uri.getHost())) {
+            throw new IllegalArgumentException("context.bap_uri host '" + uri.getHost() + "' is not allowed for callbacks");
+        }
+        return uri;
+    }
+
+    /**
+     * Resolves the host and throws IllegalArgumentException if any of its addresses is not public.
+     */
+    public void checkAddresses(URI target) throws UnknownHostException {
+        if (allowPrivateAddresses) {
+            return;
+        }
+        for (InetAddress address : resolver.resolve(target.getHost())) {
+            if (!isPublic(address)) {
+                throw new IllegalArgumentException("Callback host '" + target.getHost() + "' resolves to non-public address "
+                    + address.getHostAddress());
+            }
+        }
+    }
+
+    private boolean isAllowed(String host) {
+        String name = host.toLowerCase(Locale.ROOT);
+        for (String allowed : allowedHosts) {
+            if (allowed.startsWith("*.") ? name.endsWith(allowed.substring(1)) : name.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+            || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            // 100.64.0.0/10, carrier-grade NAT
+            return !((bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64);
+        }
+        // fc00::/7, IPv6 unique local
+        return (bytes[0] & 0xfe) != 0xfc;
+    }
+}
@@ -0,0 +1,235 @@
+package org.beckn.search.async;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.outbox.Outbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Posts {@code on_search} callbacks to {@code <bap_uri>/on_search}. One shared JDK
+ * {@link HttpClient} pools connections and speaks HTTP/2 where the BAP supports it, so
+ * concurrent callbacks to a BAP share one multiplexed connection. Each BAP gets at most
+ * {@code max-connections-per-bap} callbacks in flight; the rest wait their turn without
+ * holding a thread. Network errors, 429 and 5xx replies are retried with jittered
+ * exponential backoff, other replies are final.
+ *
+ * Each callback is kept in the {@link Outbox} until it is delivered or given up on, so
+ * callbacks cut off by a restart are sent when the service is back.
+ *
+ * Callbacks only go to hosts {@link CallbackTargets} allows, re-checked before every
+ * attempt, and every attempt is signed afresh by the {@link BecknSigner}.
+ */
+@Slf4j
+@Component
+public class OnSearchCallbackClient implements MeterBinder {
+    private static final long PERMIT_WAIT_MILLIS = 20;
+
+    private final BecknJsonCodec jsonCodec;
+    private final Outbox outbox;
+    private final CallbackTargets targets;
+    private final BecknSigner signer;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final int maxConnectionsPerBap;
+    private final Cache<String, Semaphore> permits;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "on-search-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public OnSearchCallbackClient(BecknJsonCodec jsonCodec,
+                                  Outbox outbox,
+                                  CallbackTargets targets,
+                                  BecknSigner signer,
+                                  @Value("${search.async.callback.connect-timeout:2s}") Duration connectTimeout,
+                                  @Value("${search.async.callback.request-timeout:10s}") Duration requestTimeout,
+                                  @Value("${search.async.callback.max-attempts:3}") int maxAttempts,
+                                  @Value("${search.async.callback.initial-backoff:200ms}") Duration initialBackoff,
+                                  @Value("${search.async.callback.max-connections-per-bap:16}") int maxConnectionsPerBap) {
+        this.jsonCodec = jsonCodec;
+        this.outbox = outbox;
+        this.targets = targets;
+        this.signer = signer;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxConnectionsPerBap = maxConnectionsPerBap;
+        this.permits = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+        outbox.onReplay(Outbox.Kind.ON_SEARCH, this::redeliver);
+    }
+
+    /**
+     * Throws IllegalArgumentException unless a callback to the BAP can be sent: its
+     * {@code bap_uri} must be allowed and there must be a key to sign with.
+     */
+    public URI checkCallback(String bapUri) {
+        if (!signer.isEnabled()) {
+            throw new IllegalArgumentException("Asynchronous search is not available: no key to sign on_search callbacks with");
+        }
+        return targets.callbackUri(bapUri);
+    }
+
+    /**
+     * Sends the callback in the background. The future completes with whether the BAP
+     * accepted it, after any retries.
+     */
+    public CompletableFuture<Boolean> deliver(String bapUri, SearchResponseDto onSearch) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            URI target = checkCallback(bapUri);
+            byte[] body = jsonCodec.writeAsBytes(onSearch);
+            long outboxId = outbox.append(Outbox.Kind.ON_SEARCH, toOutboxEntry(bapUri, body));
+            result.whenComplete((sent, error) -> outbox.complete(outboxId));
+            attempt(target, body, 1, result);
+        } catch (IOException | IllegalArgumentException e) {
+            failed.increment();
+            log.warn("Could not send on_search to {}: {}", bapUri, e.getMessage());
+            result.complete(false);
+        }
+        return result;
+    }
+
+    // A callback left over from before a restart, already serialized
+    private void redeliver(Outbox.Entry entry) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        result.whenComplete((sent, error) -> outbox.complete(entry.id()));
+        try {
+            byte[] payload = entry.payload();
+            int newline = indexOf(payload, (byte) '\n');
+            String bapUri = new String(payload, 0, newline, StandardCharsets.UTF_8);
+            attempt(checkCallback(bapUri), Arrays.copyOfRange(payload, newline + 1, payload.length), 1, result);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Dropping on_search from the outbox: {}", e.getMessage());
+            result.complete(false);
+        }
+    }
+
+    private static byte[] toOutboxEntry(String bapUri, byte[] body) {
+        byte[] uri = bapUri.getBytes(StandardCharsets.UTF_8);
+        byte[] entry = new byte[uri.length + 1 + body.length];
+        System.arraycopy(uri, 0, entry, 0, uri.length);
+        entry[uri.length] = '\n';
+        System.arraycopy(body, 0, entry, uri.length + 1, body.length);
+        return entry;
+    }
+
+    private static int indexOf(byte[] bytes, byte value) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No callback address");
+    }
+
+    private void attempt(URI target, byte[] body, int attempt, CompletableFuture<Boolean> result) {
+        try {
+            targets.checkAddresses(target);
+        } catch (IOException e) {
+            retryOrFail(target, body, attempt, result, true, e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            retryOrFail(target, body, attempt, result, false, e.getMessage());
+            return;
+        }
+        Semaphore semaphore = permits.get(target.getAuthority(), authority -> new Semaphore(maxConnectionsPerBap));
+        if (!semaphore.tryAcquire()) {
+            scheduler.schedule(() -> attempt(target, body, attempt, result), PERMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(target)
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("Authorization", signer.authorization(body))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                semaphore.release();
+                if (error == null && response.statusCode() / 100 == 2) {
+                    delivered.increment();
+                    result.complete(true);
+                    return;
+                }
+                boolean retryable = error != null || response.statusCode() == 429 || response.statusCode() >= 500;
+                retryOrFail(target, body, attempt, result, retryable,
+                    error != null ? error.getMessage() : "HTTP " + response.statusCode());
+            });
+    }
+
+    private void retryOrFail(URI target, byte[] body, int attempt, CompletableFuture<Boolean> result,
+                             boolean retryable, String reason) {
+        if (retryable && attempt < maxAttempts) {
+            retries.increment();
+            scheduler.schedule(() -> attempt(target, body, attempt + 1, result), backoffMillis(attempt),
+                TimeUnit.MILLISECONDS);
+            return;
+        }
+        failed.increment();
+        log.warn("on_search to {} failed after {} attempts: {}", target, attempt, reason);
+        result.complete(false);
+    }
+
+    // Jittered, so BAPs recovering from an outage don't get every retry at once
+    private long backoffMillis(int attempt) {
+        long ceiling = initialBackoffMillis << Math.min(attempt - 1, 16);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.async.callbacks", delivered, LongAdder::sum)
+            .tag("result", "delivered")
+            .description("on_search callbacks by final outcome")
+            .register(registry);
+        FunctionCounter.builder("search.async.callbacks", failed, LongAdder::sum)
+            .tag("result", "failed")
+            .description("on_search callbacks by final outcome")
+            .register(registry);
+        FunctionCounter.builder("search.async.callback_retries", retries, LongAdder::sum)
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,76 @@
+package org.beckn.search.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.beckn.search.engine.IndexNames;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.engine.IndexPatterns;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchRequestDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Caches facet counts per (indices, filter fingerprint, facet set). The indices are those
+ * the request's domain resolves to, without boosts, which don't change counts. Pagination
+ * is not part of the key, so every page of the same query shares one entry.
+ */
+@Component
+public class FacetCache {
+    private final SearchFingerprint fingerprint;
+    private final Cache<String, Map<String, List<FacetBucket>>> cache;
+
+    public FacetCache(SearchFingerprint fingerprint,
+                      @Value("${search.facets.cache.ttl:60s}") Duration ttl,
+                      @Value("${search.facets.cache.max-entries:10000}") long maxEntries) {
+        this.fingerprint = fingerprint;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxEntries)
+            .build();
+    }
+
+    public String key(SearchRequestDto request, SearchQueryBuilder.LogicalOperator operator, Set<FacetType> facets) {
+        String facetKeys = facets.stream()
+            .map(FacetType::getKey)
+            .sorted()
+            .collect(Collectors.joining(","));
+        String indices = String.join(",", IndexNames.resolve(request.getContext().getDomain()).getIndices());
+        return indices + "|" + fingerprint.of(request, operator) + "|" + facetKeys;
+    }
+
+    public Map<String, List<FacetBucket>> get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, Map<String, List<FacetBucket>> facets) {
+        cache.put(key, facets);
+    }
+
+    // Counts depend on every document they searched, so a change in the domain's index drops
+    // every entry whose indices or wildcards cover it
+    public void invalidateDomain(String domain) {
+        String index = IndexNames.forDomain(domain);
+        cache.asMap().keySet().removeIf(key -> covers(key, index));
+    }
+
+    private static boolean covers(String key, String index) {
+        for (String name : key.substring(0, key.indexOf('|')).split(",")) {
+            if (IndexPatterns.matches(name, index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,354 @@
+package org.beckn.search.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.SearchResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Shared second-level search cache in a Redis-protocol store, so a response computed on
+ * one node serves the others. Values are the serialized {@link SearchResponseDto},
+ * deflated when large, behind a small header holding the write time (so stale-while-
+ * revalidate ages carry over between nodes).
+ *
+ * A node's lookups share one connection, on which Lettuce pipelines commands: a GET is
+ * written without waiting for earlier replies, and SETs are never awaited. Every lookup is
+ * bounded by {@code timeout} and fails open to a miss; after a failure the store is
+ * skipped for {@code cooldown} so an outage costs one timeout, not one per search.
+ *
+ * The store also carries cache invalidation events between nodes, on a pub/sub channel
+ * under the key prefix.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "search.l2-cache.enabled", havingValue = "true")
+public class RedisSearchCache implements MeterBinder {
+    private static final byte FORMAT_PLAIN = 1;
+    private static final byte FORMAT_DEFLATE = 2;
+    private static final int HEADER_BYTES = 1 + Long.BYTES;
+
+    /**
+     * A cached response and when it was written.
+     */
+    public record Hit(SearchResponseDto response, long writtenAtMillis) {
+    }
+
+    private final BecknJsonCodec jsonCodec;
+    private final ObjectReader reader;
+    private final RedisClient client;
+    private final String keyPrefix;
+    private final long timeoutMillis;
+    private final long cooldownMillis;
+    private final int compressThreshold;
+    private final Clock clock;
+
+    private final RedisURI uri;
+    private final String channel;
+    private final AtomicBoolean connecting = new AtomicBoolean();
+    private final AtomicBoolean subscribing = new AtomicBoolean();
+    private volatile StatefulRedisConnection<String, byte[]> connection;
+    private volatile StatefulRedisPubSubConnection<String, byte[]> subscription;
+    private volatile Consumer<byte[]> listener;
+    private volatile long skipUntilMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public RedisSearchCache(BecknJsonCodec jsonCodec,
+                            ObjectMapper objectMapper,
+                            @Value("${search.l2-cache.uri:redis://localhost:6379}") String uri,
+                            @Value("${search.l2-cache.key-prefix:beckn-search:}") String keyPrefix,
+                            @Value("${search.l2-cache.timeout:20ms}") Duration timeout,
+                            @Value("${search.l2-cache.cooldown:5s}") Duration cooldown,
+                            @Value("${search.l2-cache.compress-threshold:1024}") int compressThreshold) {
+        this(jsonCodec, objectMapper, RedisURI.create(uri), keyPrefix, timeout, cooldown, compressThreshold, Clock.systemUTC());
+    }
+
+    RedisSearchCache(BecknJsonCodec jsonCodec, ObjectMapper objectMapper, RedisURI uri, String keyPrefix,
+                     Duration timeout, Duration cooldown, int compressThreshold, Clock clock) {
+        this.jsonCodec = jsonCodec;
+        this.reader = objectMapper.readerFor(SearchResponseDto.class);
+        this.keyPrefix = keyPrefix;
+        this.channel = keyPrefix + "invalidations";
+        this.timeoutMillis = timeout.toMillis();
+        this.cooldownMillis = cooldown.toMillis();
+        this.compressThreshold = compressThreshold;
+        this.clock = clock;
+        uri.setTimeout(timeout);
+        this.uri = uri;
+        this.client = RedisClient.create();
+        // RESP2 works with every Redis-protocol store and skips the HELLO handshake. While
+        // reconnecting, commands fail at once instead of queueing until they time out.
+        this.client.setOptions(ClientOptions.builder()
+            .protocolVersion(ProtocolVersion.RESP2)
+            .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+            .socketOptions(SocketOptions.builder().connectTimeout(Duration.ofSeconds(1)).build())
+            .build());
+    }
+
+    /**
+     * Returns the cached response, or null on a miss, a timeout or any store failure.
+     */
+    public Hit get(String key) {
+        StatefulRedisConnection<String, byte[]> redis = connection();
+        if (redis == null) {
+            return null;
+        }
+        try {
+            byte[] value = redis.async().get(keyPrefix + key).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (value == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return decode(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            onFailure(e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response with a TTL without waiting for the reply.
+     */
+    public void put(String key, SearchResponseDto response, Duration ttl) {
+        StatefulRedisConnection<String, byte[]> redis = connection();
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.async().set(keyPrefix + key, encode(response), SetArgs.Builder.px(ttl.toMillis()))
+                .whenComplete((reply, error) -> {
+                    if (error != null) {
+                        onFailure(error);
+                    }
+                });
+        } catch (Exception e) {
+            onFailure(e);
+        }
+    }
+
+    /**
+     * Deletes the keys without waiting for the reply.
+     */
+    public void delete(Collection<String> keys) {
+        StatefulRedisConnection<String, byte[]> redis = connection();
+        if (redis == null || keys.isEmpty()) {
+            return;
+        }
+        try {
+            redis.async().del(keys.stream().map(key -> keyPrefix + key).toArray(String[]::new))
+                .whenComplete((reply, error) -> {
+                    if (error != null) {
+                        onFailure(error);
+                    }
+                });
+        } catch (Exception e) {
+            onFailure(e);
+        }
+    }
+
+    /**
+     * Sends a message to every node's listener, this one's included, without waiting.
+     */
+    public void publish(byte[] message) {
+        StatefulRedisConnection<String, byte[]> redis = connection();
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.async().publish(channel, message)
+                .whenComplete((reply, error) -> {
+                    if (error != null) {
+                        onFailure(error);
+                    }
+                });
+        } catch (Exception e) {
+            onFailure(e);
+        }
+    }
+
+    /**
+     * Registers the listener for published messages. The subscription is made in the
+     * background and, like the main connection, retried until the store is reachable.
+     */
+    public void subscribe(Consumer<byte[]> listener) {
+        this.listener = listener;
+        connection();
+    }
+
+    byte[] encode(SearchResponseDto response) throws IOException {
+        byte[] json = jsonCodec.writeAsBytes(response);
+        boolean compress = json.length >= compressThreshold;
+        byte[] body = compress ? deflate(json) : json;
+        return ByteBuffer.allocate(HEADER_BYTES + body.length)
+            .put(compress ? FORMAT_DEFLATE : FORMAT_PLAIN)
+            .putLong(clock.millis())
+            .put(body)
+            .array();
+    }
+
+    Hit decode(byte[] value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        byte format = buffer.get();
+        long writtenAt = buffer.getLong();
+        byte[] body = new byte[buffer.remaining()];
+        buffer.get(body);
+        byte[] json = switch (format) {
+            case FORMAT_PLAIN -> body;
+            case FORMAT_DEFLATE -> inflate(body);
+            default -> throw new IOException("Unknown cache value format " + format);
+        };
+        return new Hit(reader.readValue(json), writtenAt);
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated cache value");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public long nowMillis() {
+        return clock.millis();
+    }
+
+    // Connects in the background so neither startup nor searches wait on a store that is down
+    private StatefulRedisConnection<String, byte[]> connection() {
+        if (clock.millis() < skipUntilMillis) {
+            return null;
+        }
+        StatefulRedisConnection<String, byte[]> current = connection;
+        if (current == null && connecting.compareAndSet(false, true)) {
+            client.connectAsync(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE), uri)
+                .whenComplete((connected, error) -> {
+                    if (error != null) {
+                        onFailure(error);
+                    } else {
+                        connection = connected;
+                    }
+                    connecting.set(false);
+                });
+        }
+        if (listener != null && subscription == null && subscribing.compareAndSet(false, true)) {
+            subscribeAsync();
+        }
+        return current;
+    }
+
+    // Lettuce re-subscribes by itself after reconnects, so this only runs until the first success
+    private void subscribeAsync() {
+        client.connectPubSubAsync(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE), uri)
+            .thenCompose(pubSub -> {
+                pubSub.addListener(new RedisPubSubAdapter<>() {
+                    @Override
+                    public void message(String channel, byte[] message) {
+                        listener.accept(message);
+                    }
+                });
+                return pubSub.async().subscribe(channel).thenApply(ignored -> pubSub);
+            })
+            .whenComplete((pubSub, error) -> {
+                if (error != null) {
+                    onFailure(error);
+                } else {
+                    subscription = pubSub;
+                }
+                subscribing.set(false);
+            });
+    }
+
+    private void onFailure(Throwable e) {
+        errors.increment();
+        skipUntilMillis = clock.millis() + cooldownMillis;
+        log.debug("L2 search cache unavailable, skipping it for {} ms: {}", cooldownMillis, e.getMessage());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.l2_cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("search.l2_cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("search.l2_cache.errors", errors, LongAdder::sum)
+            .description("L2 cache lookups and writes that failed or timed out")
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (connection != null) {
+            connection.close();
+        }
+        if (subscription != null) {
+            subscription.close();
+        }
+        client.shutdown(0, 1, TimeUnit.SECONDS);
+    }
+}
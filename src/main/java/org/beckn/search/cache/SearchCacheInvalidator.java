@@ -0,0 +1,122 @@
+package org.beckn.search.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns catalog changes into cache evictions. An ingest names the domain and the provider
+ * ids it wrote; the result cache drops the entries holding those providers, and the facet
+ * cache the domain's counts. With the shared L2 cache enabled, each event is also
+ * published to the other nodes, which apply it to their own caches.
+ */
+@Slf4j
+@Component
+public class SearchCacheInvalidator implements MeterBinder {
+    /**
+     * A catalog change as sent between nodes; no provider ids means the whole domain.
+     */
+    record Event(String origin, String domain, @JsonProperty("provider_ids") List<String> providerIds) {
+    }
+
+    private final SearchResultCache resultCache;
+    private final FacetCache facetCache;
+    private final RedisSearchCache l2;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final LongAdder localEvents = new LongAdder();
+    private final LongAdder remoteEvents = new LongAdder();
+
+    public SearchCacheInvalidator(SearchResultCache resultCache,
+                                  FacetCache facetCache,
+                                  ObjectMapper objectMapper,
+                                  Optional<RedisSearchCache> l2) {
+        this.resultCache = resultCache;
+        this.facetCache = facetCache;
+        this.writer = objectMapper.writerFor(Event.class);
+        this.reader = objectMapper.readerFor(Event.class);
+        this.l2 = l2.orElse(null);
+        if (this.l2 != null) {
+            this.l2.subscribe(this::onMessage);
+        }
+    }
+
+    /**
+     * Evicts what the providers' changes may affect, here and on the other nodes.
+     * An empty collection evicts the whole domain.
+     */
+    public void providersChanged(String domain, Collection<String> providerIds) {
+        Event event = new Event(nodeId, domain, List.copyOf(providerIds));
+        localEvents.increment();
+        apply(event);
+        publish(event);
+    }
+
+    /**
+     * Evicts every cached search of the domain, here and on the other nodes.
+     */
+    public void domainChanged(String domain) {
+        providersChanged(domain, List.of());
+    }
+
+    private void apply(Event event) {
+        int evicted = event.providerIds() == null || event.providerIds().isEmpty()
+            ? resultCache.invalidateDomain(event.domain())
+            : resultCache.invalidateProviders(event.domain(), event.providerIds());
+        facetCache.invalidateDomain(event.domain());
+        log.debug("Catalog change in '{}' ({} providers) evicted {} cached searches", event.domain(),
+            event.providerIds() == null ? 0 : event.providerIds().size(), evicted);
+    }
+
+    private void publish(Event event) {
+        if (l2 == null) {
+            return;
+        }
+        try {
+            l2.publish(writer.writeValueAsBytes(event));
+        } catch (IOException e) {
+            log.warn("Could not publish cache invalidation for '{}': {}", event.domain(), e.getMessage());
+        }
+    }
+
+    // Our own events come back over the channel too; they were applied when sent
+    void onMessage(byte[] message) {
+        try {
+            Event event = reader.readValue(message);
+            if (nodeId.equals(event.origin()) || event.domain() == null) {
+                return;
+            }
+            remoteEvents.increment();
+            apply(event);
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.cache.invalidations", localEvents, LongAdder::sum)
+            .tag("source", "local")
+            .description("Catalog change events applied to the search caches")
+            .register(registry);
+        FunctionCounter.builder("search.cache.invalidations", remoteEvents, LongAdder::sum)
+            .tag("source", "remote")
+            .description("Catalog change events applied to the search caches")
+            .register(registry);
+    }
+}
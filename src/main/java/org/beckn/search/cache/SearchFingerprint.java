@@ -0,0 +1,63 @@
+package org.beckn.search.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.model.SearchRequestDto;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes a canonical fingerprint of what a search request asks for. Only the
+ * fields that influence matching are included (domain, context location and the
+ * intent without its pagination), so the same query from different transactions
+ * or for different pages yields the same fingerprint.
+ */
+@Component
+public class SearchFingerprint {
+    private final ObjectMapper canonicalMapper;
+
+    public SearchFingerprint(ObjectMapper objectMapper) {
+        this.canonicalMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    public String of(SearchRequestDto request, SearchQueryBuilder.LogicalOperator operator) {
+        ObjectNode canonical = canonicalMapper.createObjectNode();
+        canonical.put("operator", operator.name());
+        if (request.getContext() != null) {
+            canonical.put("domain", request.getContext().getDomain());
+            if (request.getContext().getLocation() != null) {
+                canonical.set("location", canonicalMapper.valueToTree(request.getContext().getLocation()));
+            }
+        }
+        if (request.getMessage() != null && request.getMessage().getIntent() != null) {
+            JsonNode intent = canonicalMapper.valueToTree(request.getMessage().getIntent());
+            if (intent.isObject()) {
+                ((ObjectNode) intent).remove("page");
+                ((ObjectNode) intent).remove("limit");
+            }
+            canonical.set("intent", intent);
+        }
+
+        try {
+            return digest(canonicalMapper.writeValueAsBytes(canonical));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to fingerprint search request: " + e.getMessage(), e);
+        }
+    }
+
+    private static String digest(byte[] canonicalBytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonicalBytes);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package org.beckn.search.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.engine.IndexNames;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.engine.IndexPatterns;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Caches transformed search responses by canonical query. An entry older than the soft
+ * TTL is still served, and a background refresh replaces it; only entries past the hard
+ * TTL make a search wait for Elasticsearch. {@code NO_SEARCH_RESULTS} responses go into a
+ * separate negative cache with a much shorter TTL, so a catalog that appears is found soon
+ * after while repeated misses stay cheap.
+ *
+ * With {@code search.l2-cache.enabled} the cache is the L1 in front of a shared
+ * {@link RedisSearchCache}: L1 misses are looked up there, and every response loaded here
+ * is written there for the other nodes.
+ *
+ * Entries are tagged with the indices their domain resolves to and the providers they
+ * contain, so catalog ingests can evict exactly the entries they affect (see
+ * {@link SearchCacheInvalidator}); a multi-domain or wildcard search is evicted by a change
+ * to any index it covers. Responses that depend on the whole domain's matches (no results,
+ * facets, totals) are also evicted by any change in their indices. A per-tag invalidation
+ * time keeps searches that were already running, and L2 copies written before the change,
+ * out of the cache.
+ */
+@Slf4j
+@Component
+public class SearchResultCache implements MeterBinder {
+    static final String NO_RESULTS = "NO_SEARCH_RESULTS";
+
+    /**
+     * Runs the search on a miss or refresh.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Loaded load() throws IOException;
+    }
+
+    /**
+     * A freshly computed response and the ids of the providers in it; partial (timed-out)
+     * responses are returned but not cached.
+     */
+    public record Loaded(SearchResponseDto response, boolean cacheable, Set<String> providerIds) {
+        public Loaded(SearchResponseDto response, boolean cacheable) {
+            this(response, cacheable, Set.of());
+        }
+    }
+
+    private record Entry(SearchResponseDto response, long writtenAt, Set<String> tags) {
+    }
+
+    private static final String DOMAIN_TAG = "domain:";
+    private static final String CHANGES_TAG = "changes:";
+    private static final String PROVIDER_TAG = "provider:";
+
+    private final SearchFingerprint fingerprint;
+    private final boolean enabled;
+    private final long softTtlNanos;
+    private final long hardTtlNanos;
+    private final Duration hardTtl;
+    private final Duration negativeTtl;
+    private final Ticker ticker;
+    private final RedisSearchCache l2;
+    private final Executor refreshExecutor;
+    private final Cache<String, Entry> results;
+    private final Cache<String, Entry> negative;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Tag -> keys of the entries carrying it; a key is dropped from its tags when the entry goes
+    private final ConcurrentHashMap<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    // Wildcard index names of cached searches, e.g. "deg-*", checked against every changed index
+    private final Set<String> patternIndices = ConcurrentHashMap.newKeySet();
+    // Tag -> ticker time of its last invalidation, kept as long as an entry could outlive it
+    private final Cache<String, Long> invalidatedAt;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+
+    public SearchResultCache(SearchFingerprint fingerprint,
+                             @Value("${search.result-cache.enabled:true}") boolean enabled,
+                             @Value("${search.result-cache.soft-ttl:30s}") Duration softTtl,
+                             @Value("${search.result-cache.hard-ttl:5m}") Duration hardTtl,
+                             @Value("${search.result-cache.negative-ttl:10s}") Duration negativeTtl,
+                             @Value("${search.result-cache.max-entries:10000}") long maxEntries,
+                             Optional<RedisSearchCache> l2) {
+        this(fingerprint, enabled, softTtl, hardTtl, negativeTtl, maxEntries, Ticker.systemTicker(), newRefreshExecutor(),
+            l2.orElse(null));
+    }
+
+    SearchResultCache(SearchFingerprint fingerprint, boolean enabled, Duration softTtl, Duration hardTtl,
+                      Duration negativeTtl, long maxEntries, Ticker ticker, Executor refreshExecutor) {
+        this(fingerprint, enabled, softTtl, hardTtl, negativeTtl, maxEntries, ticker, refreshExecutor, null);
+    }
+
+    SearchResultCache(SearchFingerprint fingerprint, boolean enabled, Duration softTtl, Duration hardTtl,
+                      Duration negativeTtl, long maxEntries, Ticker ticker, Executor refreshExecutor,
+                      RedisSearchCache l2) {
+        this.fingerprint = fingerprint;
+        this.enabled = enabled;
+        this.softTtlNanos = softTtl.toNanos();
+        this.hardTtlNanos = hardTtl.toNanos();
+        this.hardTtl = hardTtl;
+        this.negativeTtl = negativeTtl;
+        this.ticker = ticker;
+        this.l2 = l2;
+        this.refreshExecutor = refreshExecutor;
+        this.results = Caffeine.newBuilder()
+            .expireAfterWrite(hardTtl)
+            .maximumSize(maxEntries)
+            .ticker(ticker)
+            .executor(Runnable::run)
+            .removalListener(this::untag)
+            .build();
+        this.negative = Caffeine.newBuilder()
+            .expireAfterWrite(negativeTtl)
+            .maximumSize(maxEntries)
+            .ticker(ticker)
+            .executor(Runnable::run)
+            .removalListener(this::untag)
+            .build();
+        this.invalidatedAt = Caffeine.newBuilder()
+            .expireAfterWrite(hardTtl)
+            .ticker(ticker)
+            .build();
+    }
+
+    public String key(SearchRequestDto request, SearchQueryBuilder.LogicalOperator operator,
+                      int pageNum, int pageSize, SearchOptions options) {
+        String facetKeys = options.getFacets().stream()
+            .map(FacetType::getKey)
+            .sorted()
+            .collect(Collectors.joining(","));
+        return request.getContext().getDomain() + "|" + fingerprint.of(request, operator) + "|" + pageNum + "|" + pageSize
+            + "|" + facetKeys + "|" + options.isFacetsOnly() + "|" + options.isTrackTotalHits();
+    }
+
+    /**
+     * Returns the cached response for the key, refreshing it in the background when it is
+     * stale, or loads it now on a miss.
+     */
+    public SearchResponseDto get(String key, Loader loader) throws IOException {
+        if (!enabled) {
+            return loader.load().response();
+        }
+        Entry empty = negative.getIfPresent(key);
+        if (empty != null) {
+            negativeHits.increment();
+            return empty.response();
+        }
+        Entry entry = results.getIfPresent(key);
+        if (entry == null && importFromL2(key)) {
+            empty = negative.getIfPresent(key);
+            if (empty != null) {
+                negativeHits.increment();
+                return empty.response();
+            }
+            entry = results.getIfPresent(key);
+        }
+        // Entries copied from L2 keep their original age, so they can run out before L1 evicts them
+        if (entry != null && ticker.read() - entry.writtenAt() >= hardTtlNanos) {
+            results.invalidate(key);
+            entry = null;
+        }
+        if (entry != null) {
+            if (ticker.read() - entry.writtenAt() >= softTtlNanos) {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+            } else {
+                hits.increment();
+            }
+            return entry.response();
+        }
+        misses.increment();
+        long started = ticker.read();
+        Loaded loaded = loader.load();
+        store(key, loaded, started);
+        return loaded.response();
+    }
+
+    // Copies another node's response into L1, keeping its age so it goes stale on time
+    private boolean importFromL2(String key) {
+        if (l2 == null) {
+            return false;
+        }
+        RedisSearchCache.Hit hit = l2.get(key);
+        if (hit == null) {
+            return false;
+        }
+        long ageNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, l2.nowMillis() - hit.writtenAtMillis()));
+        boolean noResults = isNoResults(hit.response());
+        if (ageNanos >= (noResults ? negativeTtl.toNanos() : hardTtlNanos)) {
+            return false;
+        }
+        long writtenAt = ticker.read() - ageNanos;
+        Set<String> tags = tagsFor(indicesOf(key), hit.response(), providerIdsOf(hit.response()));
+        if (invalidatedSince(tags, writtenAt)) {
+            return false;
+        }
+        put(key, new Entry(hit.response(), writtenAt, tags), noResults);
+        return true;
+    }
+
+    // One refresh per key at a time; searches keep getting the stale entry meanwhile
+    private void refreshInBackground(String key, Loader loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    long started = ticker.read();
+                    store(key, loader.load(), started);
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    log.debug("Background refresh of cached search {} failed: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            throw e;
+        }
+    }
+
+    private void store(String key, Loaded loaded, long started) {
+        if (!loaded.cacheable() || loaded.response() == null) {
+            return;
+        }
+        boolean noResults = isNoResults(loaded.response());
+        Set<String> tags = tagsFor(indicesOf(key), loaded.response(), loaded.providerIds());
+        // A catalog change that landed while the search ran may not be in its results
+        if (invalidatedSince(tags, started)) {
+            return;
+        }
+        put(key, new Entry(loaded.response(), ticker.read(), tags), noResults);
+        if (invalidatedSince(tags, started)) {
+            evict(key);
+            return;
+        }
+        if (l2 != null) {
+            l2.put(key, loaded.response(), noResults ? negativeTtl : hardTtl);
+        }
+    }
+
+    // Tagged before the put, so an invalidation running meanwhile finds the key
+    private void put(String key, Entry entry, boolean noResults) {
+        for (String tag : entry.tags()) {
+            keysByTag.compute(tag, (t, keys) -> {
+                Set<String> tagged = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                tagged.add(key);
+                return tagged;
+            });
+            if (tag.startsWith(DOMAIN_TAG) && tag.indexOf('*') >= 0) {
+                patternIndices.add(tag.substring(DOMAIN_TAG.length()));
+            }
+        }
+        // Put before invalidating the other cache, so untagging the old entry sees the new one
+        if (noResults) {
+            negative.put(key, entry);
+            results.invalidate(key);
+        } else {
+            results.put(key, entry);
+            negative.invalidate(key);
+        }
+    }
+
+    private void untag(String key, Entry entry, RemovalCause cause) {
+        if (key == null || entry == null) {
+            return;
+        }
+        for (String tag : entry.tags()) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                if (!isTagged(key, t)) {
+                    keys.remove(key);
+                }
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    // A replaced entry's key stays under the tags its replacement also carries
+    private boolean isTagged(String key, String tag) {
+        Entry current = results.asMap().get(key);
+        if (current != null && current.tags().contains(tag)) {
+            return true;
+        }
+        current = negative.asMap().get(key);
+        return current != null && current.tags().contains(tag);
+    }
+
+    private boolean invalidatedSince(Set<String> tags, long since) {
+        boolean wildcard = false;
+        for (String tag : tags) {
+            Long at = invalidatedAt.getIfPresent(tag);
+            if (at != null && at >= since) {
+                return true;
+            }
+            wildcard |= indexOf(tag).indexOf('*') >= 0;
+        }
+        if (wildcard) {
+            // Changes are recorded per concrete index, which a wildcard tag only covers
+            for (Map.Entry<String, Long> invalidation : invalidatedAt.asMap().entrySet()) {
+                if (invalidation.getValue() >= since && tags.stream().anyMatch(tag -> covers(tag, invalidation.getKey()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> tagsFor(List<String> indices, SearchResponseDto response, Collection<String> providerIds) {
+        Set<String> tags = new HashSet<>();
+        SearchResponseDto.Message message = response.getMessage();
+        boolean dependsOnAllMatches = isNoResults(response)
+            || (message != null && (message.getFacets() != null || message.getTotal() != null));
+        for (String index : indices) {
+            tags.add(DOMAIN_TAG + index);
+            if (dependsOnAllMatches) {
+                tags.add(CHANGES_TAG + index);
+            }
+            for (String providerId : providerIds) {
+                tags.add(PROVIDER_TAG + index + "/" + providerId);
+            }
+        }
+        return tags;
+    }
+
+    // Keys start with the request's context.domain, which may name several domains or use wildcards
+    private static List<String> indicesOf(String key) {
+        int end = key.indexOf('|');
+        return IndexNames.resolve(end < 0 ? key : key.substring(0, end)).getIndices();
+    }
+
+    // Tags are "<kind>:<index>" or "<kind>:<index>/<provider id>"
+    private static String indexOf(String tag) {
+        int start = tag.indexOf(':') + 1;
+        int end = tag.indexOf('/', start);
+        return tag.substring(start, end < 0 ? tag.length() : end);
+    }
+
+    private static boolean covers(String tag, String changed) {
+        String index = indexOf(tag);
+        String changedIndex = indexOf(changed);
+        int kind = tag.indexOf(':');
+        return tag.regionMatches(0, changed, 0, kind + 1)
+            && tag.substring(kind + 1 + index.length()).equals(changed.substring(kind + 1 + changedIndex.length()))
+            && IndexPatterns.matches(index, changedIndex);
+    }
+
+    // Responses read back from L2 hold the providers as a parsed tree
+    private static List<String> providerIdsOf(SearchResponseDto response) {
+        List<String> ids = new ArrayList<>();
+        if (response.getMessage() == null || response.getMessage().getCatalog() == null) {
+            return ids;
+        }
+        JsonNode providers = response.getMessage().getCatalog().getProviders();
+        if (providers != null && providers.isArray()) {
+            for (JsonNode provider : providers) {
+                if (provider.hasNonNull("id")) {
+                    ids.add(provider.get("id").asText());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Evicts the entries searching the domain's index that contain any of the providers,
+     * plus those that depend on all of their matches. Returns the number of entries evicted here.
+     */
+    public int invalidateProviders(String domain, Collection<String> providerIds) {
+        List<String> indices = coveringIndices(domain);
+        List<String> tags = new ArrayList<>(indices.size() * (providerIds.size() + 1));
+        for (String index : indices) {
+            tags.add(CHANGES_TAG + index);
+            for (String providerId : providerIds) {
+                tags.add(PROVIDER_TAG + index + "/" + providerId);
+            }
+        }
+        return invalidateTags(tags);
+    }
+
+    /**
+     * Evicts every entry searching the domain's index. Returns the number of entries evicted here.
+     */
+    public int invalidateDomain(String domain) {
+        return invalidateTags(coveringIndices(domain).stream().map(index -> DOMAIN_TAG + index).toList());
+    }
+
+    // The domain's index and the wildcard names of cached searches that cover it
+    private List<String> coveringIndices(String domain) {
+        String index = IndexNames.forDomain(domain);
+        List<String> indices = new ArrayList<>();
+        indices.add(index);
+        patternIndices.removeIf(pattern -> !keysByTag.containsKey(DOMAIN_TAG + pattern));
+        for (String pattern : patternIndices) {
+            if (IndexPatterns.matches(pattern, index)) {
+                indices.add(pattern);
+            }
+        }
+        return indices;
+    }
+
+    // The time is recorded before evicting, so a concurrent store either sees it or gets evicted
+    private int invalidateTags(Collection<String> tags) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = ticker.read();
+        for (String tag : tags) {
+            invalidatedAt.put(tag, now);
+        }
+        List<String> evicted = new ArrayList<>();
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                for (String key : keys) {
+                    if (evict(key)) {
+                        evicted.add(key);
+                    }
+                }
+            }
+        }
+        invalidated.add(evicted.size());
+        if (l2 != null && !evicted.isEmpty()) {
+            l2.delete(evicted);
+        }
+        return evicted.size();
+    }
+
+    private boolean evict(String key) {
+        boolean removed = results.asMap().remove(key) != null;
+        return negative.asMap().remove(key) != null || removed;
+    }
+
+    static boolean isNoResults(SearchResponseDto response) {
+        return response.getError() != null && NO_RESULTS.equals(response.getError().getCode());
+    }
+
+    public void invalidateAll() {
+        results.invalidateAll();
+        negative.invalidateAll();
+        keysByTag.clear();
+        patternIndices.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hit", hits);
+        counter(registry, "stale", staleHits);
+        counter(registry, "negative", negativeHits);
+        counter(registry, "miss", misses);
+        FunctionCounter.builder("search.result_cache.refresh_failures", refreshFailures, LongAdder::sum)
+            .register(registry);
+        Gauge.builder("search.result_cache.size", results, Cache::estimatedSize)
+            .register(registry);
+        Gauge.builder("search.result_cache.negative_size", negative, Cache::estimatedSize)
+            .register(registry);
+        Gauge.builder("search.result_cache.tags", keysByTag, Map::size)
+            .register(registry);
+        FunctionCounter.builder("search.result_cache.invalidated", invalidated, LongAdder::sum)
+            .description("Entries evicted by catalog change events")
+            .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("search.result_cache.requests", adder, LongAdder::sum)
+            .tag("result", result)
+            .description("Search result cache lookups by outcome")
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        return Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "search-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
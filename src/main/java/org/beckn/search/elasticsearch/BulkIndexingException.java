@@ -0,0 +1,29 @@
+package org.beckn.search.elasticsearch;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown when a bulk request went through but some of its documents were not indexed.
+ * Documents rejected for being overloaded or unavailable (429, 5xx) can be sent again;
+ * the others were refused for what they contain, and sending them again won't help.
+ */
+public class BulkIndexingException extends RuntimeException {
+    private final List<Map<String, Object>> retryable;
+    private final List<String> rejected;
+
+    public BulkIndexingException(String message, List<Map<String, Object>> retryable, List<String> rejected) {
+        super(message);
+        this.retryable = List.copyOf(retryable);
+        this.rejected = List.copyOf(rejected);
+    }
+
+    public List<Map<String, Object>> getRetryable() {
+        return retryable;
+    }
+
+    // "<id>: <reason>" for every document that can't be indexed
+    public List<String> getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,20 @@
+package org.beckn.search.elasticsearch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The part of an indexed catalog document that searches read back: the catalog as it was
+ * ingested. The indexed fields are only searched, never returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogDocument {
+    @JsonProperty("raw_catalog")
+    private String rawCatalog;
+}
@@ -0,0 +1,332 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.cache.SearchCacheInvalidator;
+import org.beckn.search.engine.DocumentIds;
+import org.beckn.search.engine.DocumentIndexer;
+import org.beckn.search.engine.IndexNames;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.outbox.Outbox;
+import org.beckn.search.store.CatalogStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk-indexes flattened catalog documents into the domain's index, routing each
+ * document by its city/area code so that routed searches find it on a single shard.
+ * Provider locations also get a geohash cell for indices sorted by area. Once indexed,
+ * cached searches holding the written providers are evicted on every node, and this
+ * node's {@link CatalogStore} gets the new catalogs at their new versions.
+ *
+ * Documents get stable ids from {@link DocumentIds}, so a re-pushed catalog or a
+ * replayed batch overwrites its earlier copies. Pushed batches can also be queued with {@link #submit}:
+ * they are kept in the {@link Outbox} until indexed, so a restart doesn't lose them, and
+ * indexed one at a time in arrival order. A batch stays in the outbox until it is indexed:
+ * while the failure is one that passes (ES unreachable, overloaded or failing with a 5xx)
+ * it is retried with backoff, and the next batch waits. Only documents ES rejects for
+ * their content are dropped, and logged. Batches for a domain whose index is being
+ * rebuilt are held, in order, until the {@link IndexRebuildService} is done, and then
+ * written to whichever index the alias points at.
+ *
+ * Domains that {@link SearchEngines} assigns to an engine with its own indices (a
+ * {@link DocumentIndexer}, such as the embedded Lucene engine) are written to that engine
+ * instead of Elasticsearch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogIngestService {
+    private final ElasticsearchClient elasticsearchClient;
+    private final CatalogRouting catalogRouting;
+    private final SearchEngines searchEngines;
+    private final SearchCacheInvalidator cacheInvalidator;
+    private final Outbox outbox;
+    private final ObjectMapper objectMapper;
+    private final CatalogStore catalogStore;
+    private final IndexRebuildService rebuildService;
+    // Batches waiting for a rebuild of their index to end, by alias; only touched on the queue thread
+    private final Map<String, List<HeldIngest>> held = new HashMap<>();
+    private final ExecutorService queue = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-ingest");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Retries of a queued batch back off from 1s, doubling up to this
+    @Value("${search.ingest.retry.max-backoff:1m}")
+    private Duration maxRetryBackoff = Duration.ofMinutes(1);
+
+    /**
+     * A queued batch as kept in the outbox.
+     */
+    record QueuedIngest(String domain, List<Map<String, Object>> documents) {
+    }
+
+    private record HeldIngest(long outboxId, QueuedIngest ingest) {
+    }
+
+    @PostConstruct
+    void registerCallbacks() {
+        rebuildService.onFinished(alias -> queue.execute(() -> release(alias)));
+        outbox.onReplay(Outbox.Kind.INGEST, entry -> {
+            try {
+                QueuedIngest ingest = objectMapper.readValue(entry.payload(), QueuedIngest.class);
+                queue.execute(() -> indexQueued(entry.id(), ingest));
+            } catch (IOException e) {
+                log.warn("Dropping unreadable ingest batch from the outbox: {}", e.getMessage());
+                outbox.complete(entry.id());
+            }
+        });
+    }
+
+    /**
+     * Queues the batch and returns once it is in the outbox; indexing happens in the
+     * background, with retries.
+     */
+    public int submit(String domain, List<Map<String, Object>> documents) throws IOException {
+        if (domain == null || domain.isBlank()) {
+            throw new IllegalArgumentException("Domain must be specified");
+        }
+        QueuedIngest ingest = new QueuedIngest(domain, documents);
+        long id = outbox.append(Outbox.Kind.INGEST, objectMapper.writeValueAsBytes(ingest));
+        queue.execute(() -> indexQueued(id, ingest));
+        return documents.size();
+    }
+
+    // Retries wait on the queue thread, so later batches can't overtake a failing one
+    void indexQueued(long outboxId, QueuedIngest ingest) {
+        List<HeldIngest> waiting = held.get(IndexNames.forDomain(ingest.domain()));
+        if (waiting != null) {
+            // Behind batches held for a rebuild, so it waits with them
+            waiting.add(new HeldIngest(outboxId, ingest));
+            return;
+        }
+        List<Map<String, Object>> documents = ingest.documents();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                index(ingest.domain(), documents);
+                outbox.complete(outboxId);
+                return;
+            } catch (RebuildInProgressException e) {
+                log.info("Holding a batch of {} documents for '{}' until its rebuild ends", documents.size(), ingest.domain());
+                held.computeIfAbsent(IndexNames.forDomain(ingest.domain()), alias -> new ArrayList<>())
+                    .add(new HeldIngest(outboxId, new QueuedIngest(ingest.domain(), documents)));
+                return;
+            } catch (BulkIndexingException e) {
+                if (!e.getRejected().isEmpty()) {
+                    log.error("Dropping {} documents for '{}' that can't be indexed: {}", e.getRejected().size(),
+                        ingest.domain(), e.getRejected());
+                }
+                if (e.getRetryable().isEmpty()) {
+                    outbox.complete(outboxId);
+                    return;
+                }
+                // Only the documents that failed are sent again; the rest are indexed
+                documents = e.getRetryable();
+                log.warn("Indexing {} documents of a queued batch for '{}' failed (attempt {}), retrying: {}",
+                    documents.size(), ingest.domain(), attempt, e.getMessage());
+            } catch (Exception e) {
+                if (!isRetryable(e)) {
+                    log.error("Dropping queued batch for '{}' that can't be indexed, documents {}: {}", ingest.domain(),
+                        documents.stream().map(DocumentIds::of).toList(), e.getMessage());
+                    outbox.complete(outboxId);
+                    return;
+                }
+                log.warn("Indexing queued batch for '{}' failed (attempt {}), retrying: {}", ingest.domain(), attempt, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryBackoff(attempt).toMillis());
+            } catch (InterruptedException e) {
+                // Shutting down; the batch stays in the outbox and is indexed after the restart
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Runs on the queue thread once a rebuild ends; held batches go to the index the alias now points at
+    private void release(String alias) {
+        List<HeldIngest> waiting = held.remove(alias);
+        if (waiting == null) {
+            return;
+        }
+        log.info("Rebuild of '{}' ended, indexing {} held batches", alias, waiting.size());
+        waiting.forEach(batch -> indexQueued(batch.outboxId(), batch.ingest()));
+    }
+
+    Duration retryBackoff(int attempt) {
+        Duration backoff = Duration.ofSeconds(1L << Math.min(attempt - 1, 30));
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    // Failures that go away by themselves: ES unreachable, overloaded or failing internally
+    static boolean isRetryable(Exception e) {
+        if (e instanceof ElasticsearchException esException) {
+            return isRetryable(esException.status());
+        }
+        return e instanceof IOException || e instanceof UncheckedIOException;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        queue.shutdownNow();
+    }
+
+    public int index(String domain, List<Map<String, Object>> documents) throws IOException {
+        if (domain == null || domain.isBlank()) {
+            throw new IllegalArgumentException("Domain must be specified");
+        }
+        if (documents.isEmpty()) {
+            return 0;
+        }
+
+        String indexName = IndexNames.forDomain(domain);
+        if (searchEngines.forIndices(List.of(indexName)) instanceof DocumentIndexer indexer) {
+            // Domains served by an embedded engine are written there instead of to ES
+            indexer.index(indexName, documents.stream().map(CatalogIngestService::withGeoCells).toList());
+            invalidate(domain, documents);
+            return documents.size();
+        }
+
+        BulkRequest.Builder bulk = new BulkRequest.Builder();
+        int unrouted = 0;
+        for (Map<String, Object> source : documents) {
+            Map<String, Object> document = withGeoCells(source);
+            String routing = catalogRouting.routingFor(document);
+            if (routing == null && catalogRouting.getStrategy() != CatalogRouting.Strategy.NONE) {
+                unrouted++;
+            }
+            bulk.operations(op -> op.index(idx -> idx
+                .index(indexName)
+                .id(DocumentIds.of(source))
+                .routing(routing)
+                .document(document)));
+        }
+        if (unrouted > 0) {
+            // These still match unscoped searches but are invisible to routed ones
+            log.warn("{} of {} documents for '{}' have no {} and were indexed without routing",
+                unrouted, documents.size(), indexName, catalogRouting.getStrategy().getField());
+        }
+
+        // Writes to an index being rebuilt would not be copied into its replacement
+        if (!rebuildService.beginWrite(indexName)) {
+            throw new RebuildInProgressException("'" + indexName + "' is being rebuilt");
+        }
+        BulkResponse response;
+        try {
+            response = elasticsearchClient.bulk(bulk.build());
+        } finally {
+            rebuildService.endWrite(indexName);
+        }
+        store(response.items(), documents);
+        invalidate(domain, documents);
+        if (response.errors()) {
+            throw bulkFailure(indexName, response.items(), documents);
+        }
+        return documents.size();
+    }
+
+    // Splits the failed documents into those worth sending again and those ES refused
+    private static BulkIndexingException bulkFailure(String indexName, List<BulkResponseItem> items,
+                                                     List<Map<String, Object>> documents) {
+        List<Map<String, Object>> retryable = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        String reason = null;
+        for (int i = 0; i < items.size() && i < documents.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                continue;
+            }
+            reason = reason == null ? item.error().reason() : reason;
+            if (isRetryable(item.status())) {
+                retryable.add(documents.get(i));
+            } else {
+                rejected.add(item.id() + ": " + item.error().reason());
+            }
+        }
+        return new BulkIndexingException("Bulk indexing into '" + indexName + "' failed for "
+            + (retryable.size() + rejected.size()) + " of " + documents.size() + " documents: " + reason, retryable, rejected);
+    }
+
+    // Bulk items come back in request order, so item i is documents[i]
+    private void store(List<BulkResponseItem> items, List<Map<String, Object>> documents) {
+        if (!catalogStore.isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < items.size() && i < documents.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            Object rawCatalog = documents.get(i).get("raw_catalog");
+            if (rawCatalog != null && item.error() == null && item.id() != null && item.seqNo() != null && item.primaryTerm() != null) {
+                catalogStore.put(item.index(), item.id(), item.seqNo(), item.primaryTerm(),
+                    rawCatalog.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void invalidate(String domain, List<Map<String, Object>> documents) {
+        Set<String> providerIds = providerIds(documents);
+        if (providerIds == null) {
+            cacheInvalidator.domainChanged(domain);
+        } else {
+            cacheInvalidator.providersChanged(domain, providerIds);
+        }
+    }
+
+    // Null when a document has no provider_id, since then any cached search could be affected
+    private static Set<String> providerIds(List<Map<String, Object>> documents) {
+        Set<String> ids = new HashSet<>();
+        for (Map<String, Object> document : documents) {
+            Object providerId = document.get("provider_id");
+            if (providerId instanceof Collection<?> values && !values.isEmpty()) {
+                values.forEach(value -> ids.add(String.valueOf(value)));
+            } else if (providerId != null && !(providerId instanceof Collection<?>)) {
+                ids.add(providerId.toString());
+            } else {
+                return null;
+            }
+        }
+        return ids;
+    }
+
+    // The geohash cell is what GEO-sorted indices order by; it's derived here so callers only send gps
+    private static Map<String, Object> withGeoCells(Map<String, Object> document) {
+        Object gps = document.get(GeoCell.GPS_FIELD);
+        if (gps == null || document.containsKey(GeoCell.FIELD)) {
+            return document;
+        }
+        List<String> cells = GeoCell.cellsFor(gps);
+        if (cells.isEmpty()) {
+            return document;
+        }
+        Map<String, Object> copy = new HashMap<>(document);
+        copy.put(GeoCell.FIELD, cells.size() == 1 ? cells.get(0) : cells);
+        return copy;
+    }
+}
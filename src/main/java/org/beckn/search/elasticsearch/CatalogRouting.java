@@ -0,0 +1,80 @@
+package org.beckn.search.elasticsearch;
+
+import org.beckn.search.engine.QueryNode;
+import org.beckn.search.model.Location;
+import org.beckn.search.model.SearchRequestDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Custom routing for catalog documents. Documents are indexed with the city (or area)
+ * code of their context as the routing value, and a search carrying the same code is
+ * sent with that routing so it only touches the one shard holding the city.
+ *
+ * Several cities can hash to the same shard, so routed searches also filter on the
+ * routing field. Indices built without routing must keep the strategy at "none".
+ */
+@Component
+public class CatalogRouting {
+
+    public enum Strategy {
+        NONE(null),
+        CITY("context_location_city_code"),
+        AREA("context_location_area_code");
+
+        private final String field;
+
+        Strategy(String field) {
+            this.field = field;
+        }
+
+        public String getField() {
+            return field;
+        }
+    }
+
+    private final Strategy strategy;
+
+    public CatalogRouting(@Value("${search.routing.strategy:none}") String strategy) {
+        try {
+            this.strategy = Strategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid routing strategy: " + strategy + ". Must be one of none, city, area");
+        }
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    // Routing value for a search, or null when the request is not scoped to a single city/area
+    public String routingFor(SearchRequestDto request) {
+        if (strategy == Strategy.NONE || request.getContext() == null) {
+            return null;
+        }
+        Location location = request.getContext().getLocation();
+        if (location == null) {
+            return null;
+        }
+        String value = strategy == Strategy.CITY
+            ? (location.getCity() == null ? null : location.getCity().getCode())
+            : location.getAreaCode();
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    // Routing value for a flattened catalog document, or null when it has no routing field
+    public String routingFor(Map<String, Object> document) {
+        if (strategy == Strategy.NONE) {
+            return null;
+        }
+        Object value = document.get(strategy.getField());
+        return value == null || value.toString().isBlank() ? null : value.toString();
+    }
+
+    public QueryNode routingFilter(String routing) {
+        return new QueryNode.Term(strategy.getField(), routing);
+    }
+}
@@ -0,0 +1,67 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.GeoDistanceQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchAllQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import org.beckn.search.engine.QueryNode;
+
+import java.util.List;
+
+/**
+ * Translates the engine-neutral {@link QueryNode} into the Elasticsearch query DSL.
+ */
+public final class ElasticsearchQueries {
+
+    private ElasticsearchQueries() {
+    }
+
+    public static Query toQuery(QueryNode node) {
+        if (node instanceof QueryNode.MatchAll) {
+            return MatchAllQuery.of(m -> m)._toQuery();
+        }
+        if (node instanceof QueryNode.Match match) {
+            return MatchQuery.of(m -> {
+                m.field(match.field()).query(match.text());
+                if (match.boost() != null) {
+                    m.boost(match.boost());
+                }
+                return m;
+            })._toQuery();
+        }
+        if (node instanceof QueryNode.Term term) {
+            return TermQuery.of(t -> t.field(term.field()).value(term.value()))._toQuery();
+        }
+        if (node instanceof QueryNode.GeoDistance geo) {
+            return GeoDistanceQuery.of(g -> g
+                .field(geo.field())
+                .distance(geo.distance())
+                .location(l -> l.text(geo.lat() + "," + geo.lon())))._toQuery();
+        }
+        QueryNode.Bool bool = (QueryNode.Bool) node;
+        return BoolQuery.of(b -> {
+            if (!bool.must().isEmpty()) {
+                b.must(toQueries(bool.must()));
+            }
+            if (!bool.should().isEmpty()) {
+                b.should(toQueries(bool.should()));
+            }
+            if (!bool.filter().isEmpty()) {
+                b.filter(toQueries(bool.filter()));
+            }
+            if (bool.minimumShouldMatch() != null) {
+                b.minimumShouldMatch(bool.minimumShouldMatch().toString());
+            }
+            if (bool.boost() != null) {
+                b.boost(bool.boost());
+            }
+            return b;
+        })._toQuery();
+    }
+
+    private static List<Query> toQueries(List<QueryNode> nodes) {
+        return nodes.stream().map(ElasticsearchQueries::toQuery).toList();
+    }
+}
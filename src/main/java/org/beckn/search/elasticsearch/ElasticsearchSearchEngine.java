@@ -0,0 +1,267 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.engine.EngineQuery;
+import org.beckn.search.engine.EngineResult;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.store.CatalogStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The Elasticsearch backend. Besides translating the query it owns the cluster-side
+ * tuning: load shedding before a search can queue up in the cluster, hedged searches,
+ * shard-copy affinity through {@code preference}, custom routing and the shard request
+ * cache.
+ *
+ * With the {@link CatalogStore} on, searches fetch no {@code _source}: hits carry ids
+ * and versions, their catalogs come from the node's store, and the few it doesn't have
+ * at that version are fetched with one multi-get and stored for next time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ElasticsearchSearchEngine implements SearchEngine {
+    public static final String NAME = "elasticsearch";
+    static final String PROVIDER_ID_FIELD = "provider_id";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final FacetAggregationBuilder facetAggregationBuilder;
+    private final SearchConcurrencyLimiter concurrencyLimiter;
+    private final SearchHedger searchHedger;
+    private final CatalogStore catalogStore;
+
+    // Route repeats of the same query to the same shard copies so their caches stay warm
+    @Value("${search.shard-affinity.enabled:true}")
+    private boolean shardAffinityEnabled;
+
+    @Value("${search.request-cache.enabled:true}")
+    private boolean requestCacheEnabled;
+
+    // One hit per provider_id, so a provider indexed in several documents leaves ES once;
+    // needs exactly one provider_id per document, as ES can't collapse on multi-valued fields.
+    // The collapse is on provider_id alone, so same-id providers of different BPPs also
+    // collapse into one hit; only enable it where provider ids are unique across BPPs
+    @Value("${search.provider-collapse.enabled:false}")
+    private boolean providerCollapseEnabled;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public EngineResult search(EngineQuery engineQuery) throws IOException {
+        SearchResponse<CatalogDocument> response = execute(engineQuery);
+        Set<FacetType> facets = engineQuery.getFacets();
+        Map<String, List<FacetBucket>> buckets = facets.isEmpty()
+            ? Map.of()
+            : facetAggregationBuilder.parseAggregations(facets, response.aggregations());
+        boolean idsOnly = engineQuery.getSize() > 0 && catalogStore.isEnabled();
+        return new EngineResult(idsOnly ? resolveCatalogs(response) : toCatalogHits(response), buckets, totalHits(response, engineQuery),
+            !Boolean.TRUE.equals(response.timedOut()));
+    }
+
+    @Override
+    public Map<String, List<FacetBucket>> topTerms(String index, List<String> fields, int size) throws IOException {
+        if (!elasticsearchClient.indices().exists(e -> e.index(index)).value()) {
+            return Map.of();
+        }
+        // One request for all fields; aggregations are named by position, as field names may hold dots
+        SearchResponse<Void> response = elasticsearchClient.search(s -> {
+                s.index(index).size(0);
+                for (int i = 0; i < fields.size(); i++) {
+                    String field = fields.get(i);
+                    s.aggregations(String.valueOf(i), a -> a.terms(t -> t.field(field).size(size)));
+                }
+                return s;
+            },
+            Void.class
+        );
+        Map<String, List<FacetBucket>> terms = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            Aggregate aggregate = response.aggregations().get(String.valueOf(i));
+            terms.put(fields.get(i), aggregate != null && aggregate.isSterms()
+                ? aggregate.sterms().buckets().array().stream()
+                    .map(bucket -> new FacetBucket(bucket.key().stringValue(), bucket.docCount()))
+                    .toList()
+                : List.of());
+        }
+        return terms;
+    }
+
+    SearchResponse<CatalogDocument> execute(EngineQuery engineQuery) throws IOException {
+        List<String> indexNames = engineQuery.getIndices();
+
+        // Check if index exists
+        boolean indexExists = elasticsearchClient.indices().exists(e -> e.index(indexNames)).value();
+        if (!indexExists) {
+            throw new IllegalArgumentException("Index '" + String.join(",", indexNames) + "' does not exist");
+        }
+
+        Query query = ElasticsearchQueries.toQuery(engineQuery.getQuery());
+        Map<String, Aggregation> aggregations = facetAggregationBuilder.buildAggregations(engineQuery.getFacets());
+        boolean includeHits = engineQuery.getSize() > 0;
+        boolean idsOnly = includeHits && catalogStore.isEnabled();
+        boolean collapse = includeHits && providerCollapseEnabled;
+        String routing = engineQuery.getRouting();
+        String preference = shardAffinityEnabled ? engineQuery.getAffinityKey() : null;
+        // Facet-only (size 0) and geo-only lookups are the shapes worth keeping in the shard request cache
+        boolean requestCache = requestCacheEnabled && (!includeHits || engineQuery.getQuery().isGeoOnly());
+        String esTimeout = engineQuery.getTimeout() == null ? null : engineQuery.getTimeout().toMillis() + "ms";
+        List<Map<String, Double>> indexBoosts = engineQuery.getIndexBoosts().entrySet().stream()
+            .map(boost -> Map.of(boost.getKey(), boost.getValue()))
+            .toList();
+
+        // Shed load here, before the request can queue up inside the cluster
+        final long permit = concurrencyLimiter.acquire();
+        SearchConcurrencyLimiter.Outcome outcome = SearchConcurrencyLimiter.Outcome.IGNORED;
+        try {
+            // A hedge is the same search sent to a different shard copy when the first is slow
+            SearchResponse<CatalogDocument> response = searchHedger.execute(hedge -> elasticsearchClient.search(s -> {
+                    s.index(indexNames)
+                        .query(query)
+                        .from(engineQuery.getFrom())
+                        .size(engineQuery.getSize())
+                        .seqNoPrimaryTerm(includeHits)
+                        // Without an exact count ES can skip non-competitive blocks instead of
+                        // visiting every match up to 10k
+                        .trackTotalHits(t -> t.enabled(engineQuery.isTrackTotalHits()));
+                    if (idsOnly) {
+                        s.source(source -> source.fetch(false));
+                    }
+                    if (collapse) {
+                        s.collapse(c -> c.field(PROVIDER_ID_FIELD));
+                    }
+                    if (!aggregations.isEmpty()) {
+                        s.aggregations(aggregations);
+                    }
+                    // Cross-domain ranking is merged by ES, scaled per index when boosts are given
+                    if (!indexBoosts.isEmpty()) {
+                        s.indicesBoost(indexBoosts);
+                    }
+                    if (routing != null) {
+                        s.routing(routing);
+                    }
+                    if (hedge) {
+                        s.preference(SearchHedger.hedgePreference());
+                    } else if (preference != null) {
+                        s.preference(preference);
+                    }
+                    if (esTimeout != null) {
+                        s.timeout(esTimeout);
+                    }
+                    if (requestCache) {
+                        s.requestCache(true);
+                    }
+                    return s;
+                },
+                CatalogDocument.class
+            ));
+            if (Boolean.TRUE.equals(response.timedOut())) {
+                log.debug("Search on '{}' hit its {} deadline, returning partial results", String.join(",", indexNames), esTimeout);
+            }
+            outcome = SearchConcurrencyLimiter.Outcome.SUCCESS;
+            return response;
+        } catch (Exception e) {
+            if (isOverload(e)) {
+                outcome = SearchConcurrencyLimiter.Outcome.DROPPED;
+            }
+            throw new RuntimeException("Error executing search: " + e.getMessage(), e);
+        } finally {
+            concurrencyLimiter.release(permit, outcome);
+        }
+    }
+
+    // Timeouts, connection failures and ES rejections mean the cluster is saturated
+    private static boolean isOverload(Exception e) {
+        if (e instanceof ElasticsearchException esException) {
+            return esException.status() == 429 || esException.status() >= 500;
+        }
+        return e instanceof IOException;
+    }
+
+    private static List<CatalogHit> toCatalogHits(SearchResponse<CatalogDocument> response) {
+        return response.hits().hits().stream()
+            .filter(hit -> hit.source() != null && hit.source().getRawCatalog() != null)
+            .map(hit -> new CatalogHit(hit.index(), hit.id(), hit.seqNo(), hit.primaryTerm(), hit.source().getRawCatalog()))
+            .toList();
+    }
+
+    // Hits keep their order; documents deleted since the search are left out, as without a source
+    private List<CatalogHit> resolveCatalogs(SearchResponse<CatalogDocument> response) throws IOException {
+        List<Hit<CatalogDocument>> hits = response.hits().hits();
+        CatalogHit[] resolved = new CatalogHit[hits.size()];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < hits.size(); i++) {
+            Hit<CatalogDocument> hit = hits.get(i);
+            ByteBuffer catalog = hit.seqNo() == null || hit.primaryTerm() == null
+                ? null
+                : catalogStore.get(hit.index(), hit.id(), hit.seqNo(), hit.primaryTerm());
+            if (catalog != null) {
+                resolved[i] = new CatalogHit(hit.index(), hit.id(), hit.seqNo(), hit.primaryTerm(), catalog);
+            } else {
+                missing.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            MgetResponse<CatalogDocument> fetched = elasticsearchClient.mget(m -> {
+                m.sourceIncludes("raw_catalog");
+                // Without the routing a routed document would be looked up on the wrong shard
+                missing.forEach(i -> m.docs(d -> d.index(hits.get(i).index()).id(hits.get(i).id()).routing(hits.get(i).routing())));
+                return m;
+            }, CatalogDocument.class);
+            List<MultiGetResponseItem<CatalogDocument>> items = fetched.docs();
+            for (int j = 0; j < items.size(); j++) {
+                if (!items.get(j).isResult()) {
+                    continue;
+                }
+                GetResult<CatalogDocument> result = items.get(j).result();
+                if (!result.found() || result.source() == null || result.source().getRawCatalog() == null) {
+                    continue;
+                }
+                String rawCatalog = result.source().getRawCatalog();
+                // The version fetched may be newer than the one searched; it is the current catalog
+                if (result.seqNo() != null && result.primaryTerm() != null) {
+                    catalogStore.put(result.index(), result.id(), result.seqNo(), result.primaryTerm(),
+                        rawCatalog.getBytes(StandardCharsets.UTF_8));
+                }
+                resolved[missing.get(j)] = new CatalogHit(result.index(), result.id(), result.seqNo(),
+                    result.primaryTerm(), rawCatalog);
+            }
+        }
+        return Arrays.stream(resolved).filter(Objects::nonNull).toList();
+    }
+
+    private static Long totalHits(SearchResponse<CatalogDocument> response, EngineQuery engineQuery) {
+        if (!engineQuery.isTrackTotalHits() || response.hits() == null || response.hits().total() == null) {
+            return null;
+        }
+        return response.hits().total().value();
+    }
+}
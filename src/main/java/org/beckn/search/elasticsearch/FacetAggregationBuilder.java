@@ -0,0 +1,90 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import org.beckn.search.engine.FacetBuckets;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class FacetAggregationBuilder {
+
+    @Value("${search.facets.size:20}")
+    private int facetSize = 20;
+
+    // Price buckets as "from-to" pairs; either bound may be left empty
+    @Value("${search.facets.price.ranges:0-100,100-500,500-1000,1000-}")
+    private List<String> priceRanges = List.of("0-100", "100-500", "500-1000", "1000-");
+
+    public Map<String, Aggregation> buildAggregations(Set<FacetType> facets) {
+        Map<String, Aggregation> aggregations = new LinkedHashMap<>();
+        for (FacetType facet : facets) {
+            if (facet.getKind() == FacetType.Kind.RANGE) {
+                aggregations.put(facet.getKey(), Aggregation.of(a -> a
+                    .range(r -> r
+                        .field(facet.getField())
+                        .ranges(buildRanges()))));
+            } else {
+                aggregations.put(facet.getKey(), Aggregation.of(a -> a
+                    .terms(t -> t
+                        .field(facet.getField())
+                        .size(facetSize))));
+            }
+        }
+        return aggregations;
+    }
+
+    public Map<String, List<FacetBucket>> parseAggregations(Set<FacetType> facets, Map<String, Aggregate> aggregates) {
+        Map<String, List<FacetBucket>> result = new LinkedHashMap<>();
+        for (FacetType facet : facets) {
+            Aggregate aggregate = aggregates != null ? aggregates.get(facet.getKey()) : null;
+            result.put(facet.getKey(), aggregate == null ? Collections.emptyList() : toBuckets(aggregate));
+        }
+        return result;
+    }
+
+    private List<FacetBucket> toBuckets(Aggregate aggregate) {
+        List<FacetBucket> buckets = new ArrayList<>();
+        if (aggregate.isSterms()) {
+            aggregate.sterms().buckets().array().forEach(b ->
+                buckets.add(new FacetBucket(b.key().stringValue(), b.docCount())));
+        } else if (aggregate.isLterms()) {
+            aggregate.lterms().buckets().array().forEach(b ->
+                buckets.add(new FacetBucket(String.valueOf(b.key()), b.docCount())));
+        } else if (aggregate.isDterms()) {
+            aggregate.dterms().buckets().array().forEach(b ->
+                buckets.add(new FacetBucket(String.valueOf(b.key()), b.docCount())));
+        } else if (aggregate.isRange()) {
+            aggregate.range().buckets().array().forEach(b ->
+                buckets.add(new FacetBucket(b.key(), b.docCount(), b.from(), b.to())));
+        }
+        return buckets;
+    }
+
+    // Parsed like the other engines' ranges, so a price lands in the same bucket on each
+    private List<AggregationRange> buildRanges() {
+        List<AggregationRange> ranges = new ArrayList<>();
+        for (double[] range : FacetBuckets.parseRanges(priceRanges)) {
+            ranges.add(AggregationRange.of(r -> {
+                if (!Double.isNaN(range[0])) {
+                    r.from(String.valueOf(range[0]));
+                }
+                if (!Double.isNaN(range[1])) {
+                    r.to(String.valueOf(range[1]));
+                }
+                return r;
+            }));
+        }
+        return ranges;
+    }
+}
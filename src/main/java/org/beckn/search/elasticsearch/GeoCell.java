@@ -0,0 +1,86 @@
+package org.beckn.search.elasticsearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geohash cells for provider locations, stored next to the geo_point so the index can
+ * be sorted (and documents clustered) by area. Precision 5 is roughly a 5km cell.
+ */
+final class GeoCell {
+    static final String FIELD = "providers_locations_geocell";
+    static final String GPS_FIELD = "providers_locations_gps";
+    static final int PRECISION = 5;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoCell() {
+    }
+
+    // Cells for a flattened gps value ("lat,lon" or a list of them); unparseable entries are skipped
+    static List<String> cellsFor(Object gps) {
+        List<String> cells = new ArrayList<>();
+        if (gps instanceof List<?> values) {
+            for (Object value : values) {
+                addCell(cells, value);
+            }
+        } else {
+            addCell(cells, gps);
+        }
+        return cells;
+    }
+
+    private static void addCell(List<String> cells, Object value) {
+        if (value == null) {
+            return;
+        }
+        String[] parts = value.toString().split(",");
+        if (parts.length != 2) {
+            return;
+        }
+        try {
+            String cell = encode(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()), PRECISION);
+            if (!cells.contains(cell)) {
+                cells.add(cell);
+            }
+        } catch (NumberFormatException e) {
+            // leave the document without a cell for this location
+        }
+    }
+
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLon = mid;
+                } else {
+                    index <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLat = mid;
+                } else {
+                    index <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32[index]);
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+}
@@ -0,0 +1,350 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.HealthStatus;
+import co.elastic.clients.elasticsearch._types.SlicesCalculation;
+import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
+import co.elastic.clients.elasticsearch.cluster.HealthResponse;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.engine.IndexNames;
+import org.beckn.search.model.IndexRebuildStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Blue/green rebuild of a domain index. Searches always go through the domain name,
+ * which becomes an alias; a rebuild copies the live data into a fresh {@code <alias>_v<timestamp>}
+ * index tuned for ingest (no refresh, no replicas), force-merges it, restores the
+ * serving settings and then swaps the alias in one atomic update. Live searches keep
+ * hitting the old index until the swap.
+ *
+ * A domain that still has a concrete index under its name is migrated on its first
+ * rebuild: the old index is dropped with {@code remove_index} in the same alias update.
+ * Writes made to the old index during the copy would be lost at the swap, so writers go
+ * through {@link #beginWrite}: while a rebuild runs it refuses them, and the rebuild
+ * starts copying only once the writes already under way are done and refreshed.
+ * {@link CatalogIngestService} holds refused batches and writes them when the rebuild
+ * ends, into the new index after a swap.
+ */
+@Slf4j
+@Service
+public class IndexRebuildService {
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final IndexTemplateProperties indexProperties;
+    private final Duration pollInterval;
+    private final Duration healthTimeout;
+    private final boolean deleteOldIndices;
+    private final Clock clock;
+    private final Map<String, IndexRebuildStatus> rebuilds = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> writes = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> finishListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IndexRebuildService(ElasticsearchClient elasticsearchClient,
+                               IndexTemplateProperties indexProperties,
+                               @Value("${search.rebuild.poll-interval:5s}") Duration pollInterval,
+                               @Value("${search.rebuild.health-timeout:10m}") Duration healthTimeout,
+                               @Value("${search.rebuild.delete-old-indices:false}") boolean deleteOldIndices) {
+        this(elasticsearchClient, indexProperties, pollInterval, healthTimeout, deleteOldIndices, Clock.systemUTC());
+    }
+
+    IndexRebuildService(ElasticsearchClient elasticsearchClient, IndexTemplateProperties indexProperties,
+                        Duration pollInterval, Duration healthTimeout, boolean deleteOldIndices, Clock clock) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.indexProperties = indexProperties;
+        this.pollInterval = pollInterval;
+        this.healthTimeout = healthTimeout;
+        this.deleteOldIndices = deleteOldIndices;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a rebuild of the domain's index in the background and returns its status.
+     */
+    public IndexRebuildStatus startRebuild(String domain) {
+        if (domain == null || domain.isBlank()) {
+            throw new IllegalArgumentException("Domain must be specified");
+        }
+        String alias = IndexNames.forDomain(domain);
+        IndexRebuildStatus status = new IndexRebuildStatus();
+        status.setDomain(domain);
+        status.setAlias(alias);
+        status.setState(IndexRebuildStatus.State.RUNNING);
+        status.setStartedAt(clock.instant());
+        status.setTargetIndex(targetIndexName(alias, clock.instant()));
+
+        IndexRebuildStatus previous = rebuilds.compute(alias, (key, current) ->
+            current != null && current.getState() == IndexRebuildStatus.State.RUNNING ? current : status);
+        if (previous != status) {
+            throw new RebuildInProgressException("A rebuild of '" + alias + "' is already running");
+        }
+        executor.execute(() -> rebuild(status));
+        return status;
+    }
+
+    public IndexRebuildStatus getStatus(String domain) {
+        return rebuilds.get(IndexNames.forDomain(domain));
+    }
+
+    public boolean isRebuilding(String alias) {
+        IndexRebuildStatus status = rebuilds.get(alias);
+        return status != null && status.getState() == IndexRebuildStatus.State.RUNNING;
+    }
+
+    /**
+     * Registers a write to the alias, or returns false while it is being rebuilt. A write
+     * that was let in is waited for before the copy starts; end it with {@link #endWrite}.
+     */
+    public boolean beginWrite(String alias) {
+        AtomicInteger inFlight = writes.computeIfAbsent(alias, key -> new AtomicInteger());
+        inFlight.incrementAndGet();
+        // Checked after counting, so a rebuild that starts now waits for this write
+        if (isRebuilding(alias)) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void endWrite(String alias) {
+        writes.get(alias).decrementAndGet();
+    }
+
+    /**
+     * Registers a callback that gets the alias whenever a rebuild of it ends, swapped or failed.
+     */
+    public void onFinished(Consumer<String> listener) {
+        finishListeners.add(listener);
+    }
+
+    void rebuild(IndexRebuildStatus status) {
+        try {
+            runRebuild(status);
+            status.setState(IndexRebuildStatus.State.SUCCEEDED);
+            log.info("Rebuilt '{}' into '{}' ({} documents)", status.getAlias(), status.getTargetIndex(), status.getDocuments());
+        } catch (Exception e) {
+            status.setState(IndexRebuildStatus.State.FAILED);
+            status.setError(e.getMessage());
+            log.error("Rebuild of '{}' failed at step '{}'", status.getAlias(), status.getStep(), e);
+            deleteUnusedTarget(status);
+        } finally {
+            status.setFinishedAt(clock.instant());
+            finishListeners.forEach(listener -> listener.accept(status.getAlias()));
+        }
+    }
+
+    private void runRebuild(IndexRebuildStatus status) throws IOException, InterruptedException {
+        String alias = status.getAlias();
+        String target = status.getTargetIndex();
+
+        status.setStep("resolve");
+        Set<String> aliasedIndices = elasticsearchClient.indices().existsAlias(e -> e.name(alias)).value()
+            ? elasticsearchClient.indices().getAlias(g -> g.name(alias)).result().keySet()
+            : Set.of();
+        String legacyIndex = null;
+        if (aliasedIndices.isEmpty()) {
+            if (!elasticsearchClient.indices().exists(e -> e.index(alias)).value()) {
+                throw new IllegalArgumentException("Index '" + alias + "' does not exist");
+            }
+            legacyIndex = alias;
+        }
+        status.setSourceIndex(legacyIndex != null ? legacyIndex : String.join(",", aliasedIndices));
+
+        // Mapping and shard count come from the index template; without one the source mapping is copied
+        status.setStep("create");
+        String sourceIndex = legacyIndex != null ? legacyIndex : aliasedIndices.iterator().next();
+        TypeMapping sourceMapping = elasticsearchClient.indices()
+            .existsIndexTemplate(e -> e.name(IndexTemplateManager.TEMPLATE_PREFIX + alias)).value()
+            ? null
+            : elasticsearchClient.indices().getMapping(g -> g.index(sourceIndex)).get(sourceIndex).mappings();
+        elasticsearchClient.indices().create(c -> {
+            c.index(target)
+                .settings(s -> s.refreshInterval(t -> t.time("-1")).numberOfReplicas("0"));
+            if (sourceMapping != null) {
+                c.mappings(sourceMapping);
+            }
+            return c;
+        });
+
+        // Writes let in before the rebuild started must be in the index, and searchable, before it is copied
+        status.setStep("reindex");
+        awaitWrites(alias);
+        elasticsearchClient.indices().refresh(r -> r.index(alias));
+        String reindexTask = elasticsearchClient.reindex(r -> r
+            .source(s -> s.index(alias))
+            .dest(d -> d.index(target))
+            .slices(s -> s.computed(SlicesCalculation.Auto))
+            .waitForCompletion(false)).task();
+        status.setDocuments(reindexedDocuments(awaitTask(reindexTask, "Reindex")));
+
+        status.setStep("forcemerge");
+        String mergeTask = elasticsearchClient.indices().forcemerge(f -> f
+            .index(target)
+            .maxNumSegments(1L)
+            .waitForCompletion(false)).task();
+        checkForcemerge(awaitTask(mergeTask, "Force merge"));
+
+        status.setStep("restore-settings");
+        IndexTemplateProperties.DomainSettings domain = indexProperties.getDomains()
+            .getOrDefault(alias, new IndexTemplateProperties.DomainSettings());
+        String replicas = Integer.toString(domain.getReplicas() != null ? domain.getReplicas() : indexProperties.getReplicas());
+        String refreshInterval = domain.getRefreshInterval() != null ? domain.getRefreshInterval() : indexProperties.getRefreshInterval();
+        elasticsearchClient.indices().putSettings(p -> p
+            .index(target)
+            .settings(s -> s.numberOfReplicas(replicas).refreshInterval(t -> t.time(refreshInterval))));
+        elasticsearchClient.indices().refresh(r -> r.index(target));
+        awaitGreen(target);
+
+        status.setStep("swap-alias");
+        List<Action> actions = swapActions(alias, target, aliasedIndices, legacyIndex);
+        elasticsearchClient.indices().updateAliases(u -> u.actions(actions));
+
+        if (deleteOldIndices && !aliasedIndices.isEmpty()) {
+            status.setStep("delete-old");
+            elasticsearchClient.indices().delete(d -> d.index(new ArrayList<>(aliasedIndices)));
+        }
+        status.setStep("done");
+    }
+
+    // A failed rebuild never reached the alias, so its half-built index is only taking up space
+    private void deleteUnusedTarget(IndexRebuildStatus status) {
+        if (Set.of("resolve", "swap-alias", "delete-old", "done").contains(status.getStep())) {
+            return;
+        }
+        try {
+            elasticsearchClient.indices().delete(d -> d.index(status.getTargetIndex()).ignoreUnavailable(true));
+        } catch (Exception e) {
+            log.warn("Could not delete '{}' after the failed rebuild: {}", status.getTargetIndex(), e.getMessage());
+        }
+    }
+
+    // Add, remove and remove_index in one update so searches never see a missing or doubled alias
+    static List<Action> swapActions(String alias, String target, Set<String> aliasedIndices, String legacyIndex) {
+        List<Action> actions = new ArrayList<>();
+        if (legacyIndex != null) {
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(legacyIndex))));
+        }
+        for (String index : aliasedIndices) {
+            actions.add(Action.of(a -> a.remove(r -> r.index(index).alias(alias))));
+        }
+        actions.add(Action.of(a -> a.add(add -> add.index(target).alias(alias).isWriteIndex(true))));
+        return actions;
+    }
+
+    static String targetIndexName(String alias, Instant now) {
+        return alias + "_v" + VERSION_FORMAT.format(now);
+    }
+
+    // Long-running steps run as ES tasks and are polled, so no single HTTP call outlives the socket timeout.
+    // A task that failed stops the rebuild before the alias can move onto its index.
+    private GetTasksResponse awaitTask(String taskId, String step) throws IOException, InterruptedException {
+        while (true) {
+            GetTasksResponse task = elasticsearchClient.tasks().get(t -> t.taskId(taskId));
+            if (task.completed()) {
+                if (task.error() != null) {
+                    throw new IllegalStateException(step + " task " + taskId + " failed: " + task.error().reason());
+                }
+                return task;
+            }
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    private void awaitWrites(String alias) throws InterruptedException {
+        AtomicInteger inFlight = writes.get(alias);
+        while (inFlight != null && inFlight.get() > 0) {
+            Thread.sleep(Math.min(pollInterval.toMillis(), 100));
+        }
+    }
+
+    /**
+     * The number of documents the reindex copied. Throws unless every source document
+     * was copied: a reindex with failures, cancelled, or stopped short must not be swapped in.
+     */
+    static long reindexedDocuments(GetTasksResponse task) {
+        if (task.response() == null) {
+            throw new IllegalStateException("Reindex task finished without a result");
+        }
+        JsonObject response = task.response().toJson().asJsonObject();
+        JsonValue failures = response.get("failures");
+        if (failures != null && failures.getValueType() == JsonValue.ValueType.ARRAY && !failures.asJsonArray().isEmpty()) {
+            throw new IllegalStateException("Reindex reported " + failures.asJsonArray().size() + " failures, first: "
+                + failures.asJsonArray().get(0));
+        }
+        if (response.containsKey("canceled") && response.get("canceled").getValueType() == JsonValue.ValueType.STRING) {
+            throw new IllegalStateException("Reindex was cancelled: " + response.getString("canceled"));
+        }
+        long copied = count(response, "created") + count(response, "updated") + count(response, "noops");
+        long total = count(response, "total");
+        if (copied < total) {
+            throw new IllegalStateException("Reindex copied " + copied + " of " + total + " documents");
+        }
+        return copied;
+    }
+
+    static void checkForcemerge(GetTasksResponse task) {
+        if (task.response() == null) {
+            return;
+        }
+        JsonValue shards = task.response().toJson().asJsonObject().get("_shards");
+        if (shards != null && shards.getValueType() == JsonValue.ValueType.OBJECT && count(shards.asJsonObject(), "failed") > 0) {
+            throw new IllegalStateException("Force merge failed on " + count(shards.asJsonObject(), "failed") + " shards");
+        }
+    }
+
+    private static long count(JsonObject object, String field) {
+        JsonValue value = object.get(field);
+        return value != null && value.getValueType() == JsonValue.ValueType.NUMBER ? object.getJsonNumber(field).longValue() : 0;
+    }
+
+    private void awaitGreen(String index) throws IOException {
+        Instant deadline = clock.instant().plus(healthTimeout);
+        while (true) {
+            HealthResponse health = elasticsearchClient.cluster().health(h -> h
+                .index(index)
+                .waitForStatus(HealthStatus.Green)
+                .timeout(t -> t.time("20s")));
+            if (!health.timedOut()) {
+                return;
+            }
+            if (clock.instant().isAfter(deadline)) {
+                // Primaries are serving; replicas will catch up after the swap
+                log.warn("'{}' is still {} after {}, swapping anyway", index, health.status(), healthTimeout);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
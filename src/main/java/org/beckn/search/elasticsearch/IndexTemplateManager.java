@@ -0,0 +1,175 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
+import co.elastic.clients.elasticsearch.indices.GetIndexTemplateResponse;
+import co.elastic.clients.elasticsearch.indices.IndexTemplate;
+import co.elastic.clients.elasticsearch.indices.IndexSegmentSort;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.PutIndexTemplateRequest;
+import co.elastic.clients.elasticsearch.indices.SegmentSortMissing;
+import co.elastic.clients.elasticsearch.indices.SegmentSortMode;
+import co.elastic.clients.elasticsearch.indices.SegmentSortOrder;
+import co.elastic.clients.json.JsonData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+
+/**
+ * Installs a versioned composable index template per configured domain on startup, so
+ * catalog indices get the search-optimized mapping in
+ * {@code elasticsearch/catalog-index-template.json} with the domain's shard and replica
+ * counts. A template is replaced when the bundled version is newer than the one
+ * installed, or when the configured shards, replicas, refresh interval or index sort
+ * differ from the ones it was installed with (kept in its {@code _meta}); bump
+ * {@code version} in the resource whenever the mapping changes.
+ *
+ * Templates apply to indices created afterwards, so existing indices keep their mapping
+ * until they are rebuilt.
+ */
+@Slf4j
+@Component
+public class IndexTemplateManager implements ApplicationRunner {
+    static final String TEMPLATE_RESOURCE = "elasticsearch/catalog-index-template.json";
+    static final String TEMPLATE_PREFIX = "beckn-catalog-";
+    static final String SETTINGS_META = "settings";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final IndexTemplateProperties properties;
+    private final JsonNode template;
+
+    public IndexTemplateManager(ElasticsearchClient elasticsearchClient,
+                                IndexTemplateProperties properties,
+                                ObjectMapper objectMapper) throws IOException {
+        this.elasticsearchClient = elasticsearchClient;
+        this.properties = properties;
+        try (InputStream in = new ClassPathResource(TEMPLATE_RESOURCE).getInputStream()) {
+            this.template = objectMapper.readTree(in);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isManageTemplates()) {
+            return;
+        }
+        for (String indexName : properties.getDomains().keySet()) {
+            try {
+                installTemplate(indexName);
+            } catch (Exception e) {
+                // ES may still be starting; searches work without templates, so don't block startup
+                log.warn("Could not install index template for '{}': {}", indexName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The configured index settings the template is rendered with.
+     */
+    record DomainConfig(int shards, int replicas, String refreshInterval, IndexTemplateProperties.IndexSort sort) {
+        String fingerprint() {
+            return "shards=" + shards + ",replicas=" + replicas + ",refresh_interval=" + refreshInterval + ",sort=" + sort;
+        }
+    }
+
+    /**
+     * Installs the template for one index unless an equal or newer version with the same
+     * configured settings is already there. Returns true when the template was written.
+     */
+    public boolean installTemplate(String indexName) throws IOException {
+        String name = TEMPLATE_PREFIX + indexName;
+        long version = templateVersion();
+        String fingerprint = config(indexName).fingerprint();
+        IndexTemplate installed = installedTemplate(name);
+        Long installedVersion = installed == null ? null : installed.version();
+        if (installedVersion != null && installedVersion >= version && fingerprint.equals(installedFingerprint(installed))) {
+            log.debug("Index template '{}' is up to date (version {})", name, installedVersion);
+            return false;
+        }
+        elasticsearchClient.indices().putIndexTemplate(buildTemplate(indexName));
+        log.info("Installed index template '{}' version {} with {} (previously {})", name, version, fingerprint, installedVersion);
+        return true;
+    }
+
+    DomainConfig config(String indexName) {
+        IndexTemplateProperties.DomainSettings domain = properties.getDomains()
+            .getOrDefault(indexName, new IndexTemplateProperties.DomainSettings());
+        return new DomainConfig(
+            domain.getShards() != null ? domain.getShards() : properties.getShards(),
+            domain.getReplicas() != null ? domain.getReplicas() : properties.getReplicas(),
+            domain.getRefreshInterval() != null ? domain.getRefreshInterval() : properties.getRefreshInterval(),
+            domain.getSort() != null ? domain.getSort() : properties.getSort());
+    }
+
+    PutIndexTemplateRequest buildTemplate(String indexName) {
+        DomainConfig config = config(indexName);
+        int shards = config.shards();
+        int replicas = config.replicas();
+        String refreshInterval = config.refreshInterval();
+        IndexTemplateProperties.IndexSort sort = config.sort();
+
+        IndexSettings settings = IndexSettings.of(s -> {
+            s.withJson(new StringReader(template.path("settings").toString()))
+                .numberOfShards(Integer.toString(shards))
+                .numberOfReplicas(Integer.toString(replicas))
+                .refreshInterval(t -> t.time(refreshInterval));
+            if (sort != IndexTemplateProperties.IndexSort.NONE) {
+                s.sort(indexSort(sort));
+            }
+            return s;
+        });
+        TypeMapping mappings = TypeMapping.of(m -> m.withJson(new StringReader(template.path("mappings").toString())));
+
+        // Covers the live index and the versioned copies created when an index is rebuilt
+        return PutIndexTemplateRequest.of(p -> p
+            .name(TEMPLATE_PREFIX + indexName)
+            .indexPatterns(indexName, indexName + "_v*")
+            .priority(100)
+            .version(templateVersion())
+            .meta(SETTINGS_META, JsonData.of(config.fingerprint()))
+            .template(t -> t.settings(settings).mappings(mappings)));
+    }
+
+    // Multi-valued fields sort by their best value; documents without one go last
+    private static IndexSegmentSort indexSort(IndexTemplateProperties.IndexSort sort) {
+        return switch (sort) {
+            case RATING -> IndexSegmentSort.of(s -> s
+                .field("items_rating")
+                .order(SegmentSortOrder.Desc)
+                .mode(SegmentSortMode.Max)
+                .missing(SegmentSortMissing.Last));
+            case GEO -> IndexSegmentSort.of(s -> s
+                .field(GeoCell.FIELD, "provider_id")
+                .order(SegmentSortOrder.Asc, SegmentSortOrder.Asc)
+                .mode(SegmentSortMode.Min, SegmentSortMode.Min)
+                .missing(SegmentSortMissing.Last, SegmentSortMissing.Last));
+            case NONE -> throw new IllegalArgumentException("No index sort");
+        };
+    }
+
+    long templateVersion() {
+        return template.path("version").asLong(1);
+    }
+
+    private IndexTemplate installedTemplate(String name) throws IOException {
+        if (!elasticsearchClient.indices().existsIndexTemplate(e -> e.name(name)).value()) {
+            return null;
+        }
+        GetIndexTemplateResponse response = elasticsearchClient.indices().getIndexTemplate(g -> g.name(name));
+        return response.indexTemplates().isEmpty() ? null : response.indexTemplates().get(0).indexTemplate();
+    }
+
+    // Templates installed before the settings were recorded have none, so they are rewritten once
+    private static String installedFingerprint(IndexTemplate installed) {
+        JsonData settings = installed.meta().get(SETTINGS_META);
+        return settings == null ? null : settings.to(String.class);
+    }
+}
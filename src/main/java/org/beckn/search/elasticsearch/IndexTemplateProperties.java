@@ -0,0 +1,47 @@
+package org.beckn.search.elasticsearch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for the managed catalog index templates. Domains are keyed by index name
+ * (e.g. {@code search.index.domains.deg-ev.shards=3}); anything a domain leaves out
+ * falls back to the defaults.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "search.index")
+public class IndexTemplateProperties {
+
+    /**
+     * Index-time sort order. It clusters similar documents on disk, which helps
+     * compression and the locality of filters on the sort fields. Searches are ranked by
+     * relevance, not by this order, so it doesn't let them terminate early.
+     */
+    public enum IndexSort {
+        NONE,
+        // Best-rated items first
+        RATING,
+        // Clustered by geohash cell, then provider, so nearby catalogs sit together on disk
+        GEO
+    }
+
+    private boolean manageTemplates = true;
+    private int shards = 1;
+    private int replicas = 1;
+    private String refreshInterval = "1s";
+    private IndexSort sort = IndexSort.NONE;
+    private Map<String, DomainSettings> domains = new LinkedHashMap<>();
+
+    @Data
+    public static class DomainSettings {
+        private Integer shards;
+        private Integer replicas;
+        private String refreshInterval;
+        private IndexSort sort;
+    }
+}
@@ -0,0 +1,7 @@
+package org.beckn.search.elasticsearch;
+
+public class RebuildInProgressException extends IllegalStateException {
+    public RebuildInProgressException(String message) {
+        super(message);
+    }
+}
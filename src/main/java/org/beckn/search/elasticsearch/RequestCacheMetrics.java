@@ -0,0 +1,61 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.RequestCacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports the Elasticsearch shard request cache statistics. The stats are polled in
+ * the background so that a metrics scrape never waits on the cluster.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestCacheMetrics implements MeterBinder {
+    private final ElasticsearchClient elasticsearchClient;
+
+    private volatile RequestCacheStats latest;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("search.es.request_cache.hit_ratio", this, RequestCacheMetrics::hitRatio)
+            .description("Shard request cache hits / (hits + misses) across all indices")
+            .register(registry);
+        Gauge.builder("search.es.request_cache.hits", this, m -> m.latest == null ? Double.NaN : m.latest.hitCount())
+            .register(registry);
+        Gauge.builder("search.es.request_cache.misses", this, m -> m.latest == null ? Double.NaN : m.latest.missCount())
+            .register(registry);
+        Gauge.builder("search.es.request_cache.evictions", this, m -> m.latest == null ? Double.NaN : m.latest.evictions())
+            .register(registry);
+        Gauge.builder("search.es.request_cache.memory", this, m -> m.latest == null ? Double.NaN : m.latest.memorySizeInBytes())
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${search.metrics.request-cache.poll-interval-ms:30000}")
+    public void poll() {
+        try {
+            latest = elasticsearchClient.indices()
+                .stats(s -> s.metric("request_cache"))
+                .all()
+                .total()
+                .requestCache();
+        } catch (Exception e) {
+            log.debug("Failed to read shard request cache stats: {}", e.getMessage());
+        }
+    }
+
+    double hitRatio() {
+        RequestCacheStats stats = latest;
+        if (stats == null || stats.hitCount() + stats.missCount() == 0) {
+            return Double.NaN;
+        }
+        return (double) stats.hitCount() / (stats.hitCount() + stats.missCount());
+    }
+}
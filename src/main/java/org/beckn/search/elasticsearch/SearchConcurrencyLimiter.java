@@ -0,0 +1,156 @@
+package org.beckn.search.elasticsearch;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limit for searches sent to Elasticsearch, following the TCP Vegas
+ * idea: the lowest latency seen is taken as the no-load baseline, and the gap between it
+ * and the current latency estimates how many requests are queueing inside the cluster.
+ * The limit grows while that queue is small and shrinks once it builds up, or sharply
+ * when ES starts timing out or rejecting. Searches over the limit fail fast with
+ * {@link SearchOverloadedException} instead of piling onto an overloaded cluster.
+ */
+@Component
+public class SearchConcurrencyLimiter implements MeterBinder {
+
+    public enum Outcome {
+        SUCCESS,
+        // ES timed out, rejected or was unreachable: a sign of overload
+        DROPPED,
+        // Failed for reasons unrelated to load (e.g. a bad query); no latency sample
+        IGNORED
+    }
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long retryAfterSeconds;
+    private final int probeInterval;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // Guarded by this
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+
+    public SearchConcurrencyLimiter(@Value("${search.limiter.enabled:true}") boolean enabled,
+                                    @Value("${search.limiter.initial-limit:20}") int initialLimit,
+                                    @Value("${search.limiter.min-limit:4}") int minLimit,
+                                    @Value("${search.limiter.max-limit:200}") int maxLimit,
+                                    @Value("${search.limiter.retry-after:1s}") Duration retryAfter,
+                                    @Value("${search.limiter.probe-interval:1000}") int probeInterval) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.probeInterval = probeInterval;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot or sheds the request. Returns the start time to hand back to {@link #release}.
+     */
+    public long acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (enabled && current >= (int) limit) {
+                rejected.increment();
+                throw new SearchOverloadedException("Search service is overloaded, retry later", retryAfterSeconds);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Takes a slot if one is free, for optional work such as a hedge: returns -1 instead of
+     * shedding when the limit is reached.
+     */
+    public long tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (enabled && current >= (int) limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return System.nanoTime();
+            }
+        }
+    }
+
+    public void release(long startNanos, Outcome outcome) {
+        int current = inFlight.getAndDecrement();
+        if (outcome == Outcome.SUCCESS) {
+            onSample(System.nanoTime() - startNanos, current);
+        } else if (outcome == Outcome.DROPPED) {
+            onDrop();
+        }
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        rttNanos = Math.max(1, rttNanos);
+        // Re-measure the baseline now and then so a slower steady state doesn't read as queueing forever
+        if (++samplesSinceProbe >= probeInterval) {
+            noLoadRttNanos = rttNanos;
+            samplesSinceProbe = 0;
+        } else {
+            noLoadRttNanos = Math.min(noLoadRttNanos, rttNanos);
+        }
+
+        double current = limit;
+        double queue = current * (1 - (double) noLoadRttNanos / rttNanos);
+        double step = Math.max(1, Math.log10(current));
+        if (queue > 6 * step) {
+            limit = clamp(current - step);
+        } else if (queue < 3 * step && inFlightAtCompletion * 2 >= current) {
+            // Only grow while the limit is actually being used
+            limit = clamp(current + step);
+        }
+    }
+
+    synchronized void onDrop() {
+        limit = clamp(limit * DROP_BACKOFF);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("search.limiter.limit", this, SearchConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit for Elasticsearch searches")
+            .register(registry);
+        Gauge.builder("search.limiter.in_flight", this, SearchConcurrencyLimiter::getInFlight)
+            .register(registry);
+        FunctionCounter.builder("search.limiter.rejected", this, SearchConcurrencyLimiter::getRejected)
+            .description("Searches shed with 503 because the limit was reached")
+            .register(registry);
+    }
+}
@@ -0,0 +1,259 @@
+package org.beckn.search.elasticsearch;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedged searches: when a search hasn't answered by the time most searches have (the
+ * configured latency percentile, p95 by default), the same search is sent again with a
+ * different {@code preference} so it can land on another copy of the shards, and whichever
+ * answers first wins. This trims the tail caused by one slow shard copy or a GC pause at
+ * the cost of a few percent extra load, capped by {@code max-ratio}.
+ *
+ * The percentile is tracked over a window of recent primary latencies; hedging starts
+ * once the window has enough samples.
+ *
+ * Attempts run on a bounded pool. A hedge is extra load on a cluster that may already be
+ * slow, so it takes its own {@link SearchConcurrencyLimiter} permit and is skipped when
+ * none is free or the pool is busy; a primary the pool can't take runs on the caller.
+ */
+@Component
+public class SearchHedger implements MeterBinder {
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 128;
+
+    /**
+     * One attempt of a search; {@code hedge} is true for the duplicate.
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run(boolean hedge) throws IOException;
+    }
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double maxRatio;
+    private final SearchConcurrencyLimiter concurrencyLimiter;
+
+    private final long[] latencies = new long[WINDOW];
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemon("search-hedge-timer"));
+
+    public SearchHedger(@Value("${search.hedging.enabled:false}") boolean enabled,
+                        @Value("${search.hedging.percentile:0.95}") double percentile,
+                        @Value("${search.hedging.min-delay:10ms}") Duration minDelay,
+                        @Value("${search.hedging.max-ratio:0.1}") double maxRatio,
+                        @Value("${search.hedging.max-threads:64}") int maxThreads,
+                        SearchConcurrencyLimiter concurrencyLimiter) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxRatio = maxRatio;
+        this.concurrencyLimiter = concurrencyLimiter;
+        // No queue: an attempt either starts now or is refused, since a queued one would only add latency
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), daemon("search-hedge"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the search, hedging it if enabled and it outlives the hedge delay. Without
+     * hedging the attempt runs on the calling thread.
+     */
+    public <T> T execute(Attempt<T> attempt) throws IOException {
+        if (!enabled) {
+            return attempt.run(false);
+        }
+        calls.increment();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Attempts that may still answer; the search fails only once none can
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean answered = new AtomicBoolean();
+
+        long start = System.nanoTime();
+        try {
+            executor.execute(() -> runAttempt(attempt, false, result, answered, pending, start));
+        } catch (RejectedExecutionException e) {
+            // Every thread is busy: search unhedged rather than not at all
+            return attempt.run(false);
+        }
+
+        long delay = hedgeDelayNanos;
+        if (delay != Long.MAX_VALUE) {
+            ScheduledFuture<?> hedge = timer.schedule(() -> {
+                if (!result.isDone() && withinBudget()) {
+                    hedge(attempt, result, answered, pending, start);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, error) -> hedge.cancel(false));
+        }
+        return await(result);
+    }
+
+    private <T> void hedge(Attempt<T> attempt, CompletableFuture<T> result,
+                           AtomicBoolean answered, AtomicInteger pending, long start) {
+        long permit = concurrencyLimiter.tryAcquire();
+        if (permit < 0) {
+            return;
+        }
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                boolean succeeded = false;
+                try {
+                    succeeded = runAttempt(attempt, true, result, answered, pending, start);
+                } finally {
+                    concurrencyLimiter.release(permit, succeeded
+                        ? SearchConcurrencyLimiter.Outcome.SUCCESS
+                        : SearchConcurrencyLimiter.Outcome.IGNORED);
+                }
+            });
+            hedges.increment();
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            concurrencyLimiter.release(permit, SearchConcurrencyLimiter.Outcome.IGNORED);
+        }
+    }
+
+    // Returns whether the attempt succeeded, whether or not it answered first
+    private <T> boolean runAttempt(Attempt<T> attempt, boolean hedge, CompletableFuture<T> result,
+                                   AtomicBoolean answered, AtomicInteger pending, long start) {
+        try {
+            T value = attempt.run(hedge);
+            if (!hedge) {
+                recordLatency(System.nanoTime() - start);
+            }
+            // Count the win before completing so callers never see a stale win count
+            if (answered.compareAndSet(false, true)) {
+                if (hedge) {
+                    hedgeWins.increment();
+                }
+                result.complete(value);
+            }
+            return true;
+        } catch (Throwable e) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+            return false;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the search", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private boolean withinBudget() {
+        return hedges.sum() < calls.sum() * maxRatio;
+    }
+
+    void recordLatency(long nanos) {
+        long n = recorded.getAndIncrement();
+        latencies[(int) (n % WINDOW)] = nanos;
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            long[] window = Arrays.copyOf(latencies, (int) Math.min(n + 1, WINDOW));
+            Arrays.sort(window);
+            long quantile = window[Math.min(window.length - 1, (int) (window.length * percentile))];
+            hedgeDelayNanos = Math.max(minDelayNanos, quantile);
+        }
+    }
+
+    long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * A preference no primary uses, so the hedge is spread over the shard copies instead
+     * of following the primary to the same one.
+     */
+    static String hedgePreference() {
+        return "hedge-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.hedging.calls", calls, LongAdder::sum)
+            .description("Searches eligible for hedging")
+            .register(registry);
+        FunctionCounter.builder("search.hedging.hedges", this, SearchHedger::getHedges)
+            .description("Duplicate searches sent because the first was slow")
+            .register(registry);
+        FunctionCounter.builder("search.hedging.wins", this, SearchHedger::getHedgeWins)
+            .description("Hedged searches that answered before the original")
+            .register(registry);
+        Gauge.builder("search.hedging.delay", this, h -> h.hedgeDelayNanos == Long.MAX_VALUE ? Double.NaN : h.hedgeDelayNanos / 1e6)
+            .description("Current hedge delay in milliseconds")
+            .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package org.beckn.search.elasticsearch;
+
+/**
+ * Thrown when a search is shed because Elasticsearch is already at the concurrency limit.
+ */
+public class SearchOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public SearchOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -3,6 +3,7 @@ package org.beckn.search.elasticsearch;
 import co.elastic.clients.elasticsearch._types.query_dsl.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.engine.QueryNode;
 import org.beckn.search.model.SearchRequestDto;
 import org.beckn.search.model.Location;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,13 +29,20 @@ public class SearchQueryBuilder {
     }
 
     public Query buildSearchQuery(SearchRequestDto request, LogicalOperator operator) {
+        return ElasticsearchQueries.toQuery(buildQuery(request, operator));
+    }
+
+    /**
+     * The request as an engine-neutral query; {@link #buildSearchQuery} is the same query
+     * for Elasticsearch.
+     */
+    public QueryNode buildQuery(SearchRequestDto request, LogicalOperator operator) {
         // Return match_all query if request is empty
         if (request.getMessage() == null) {
-            return MatchAllQuery.of(m -> m)._toQuery();
+            return QueryNode.matchAll();
         }
 
-        BoolQuery.Builder mainQuery = new BoolQuery.Builder();
-        List<Query> queries = new ArrayList<>();
+        List<QueryNode> queries = new ArrayList<>();
 
         // Handle context location if present
         if (request.getContext() != null && request.getContext().getLocation() != null) {
@@ -48,11 +56,7 @@ public class SearchQueryBuilder {
                     if (coordinates.length == 2) {
                         double lat = Double.parseDouble(coordinates[0]);
                         double lon = Double.parseDouble(coordinates[1]);
-                        Query geoQuery = GeoDistanceQuery.of(g -> g
-                                .field(fieldName)
-                                .distance("1km")
-                                .location(l -> l.text(lat + "," + lon)))._toQuery();
-                        queries.add(geoQuery);
+                        queries.add(new QueryNode.GeoDistance(fieldName, lat, lon, "1km"));
                     }
                 }
             }
@@ -64,8 +68,8 @@ public class SearchQueryBuilder {
             Map<String, Object> flattenedFields = flattenFields("", request.getMessage().getIntent());
             
             // Group queries by field type for boosting
-            List<Query> descriptorQueries = new ArrayList<>();
-            List<Query> nonDescriptorQueries = new ArrayList<>();
+            List<QueryNode> descriptorQueries = new ArrayList<>();
+            List<QueryNode> nonDescriptorQueries = new ArrayList<>();
             
             // Process each flattened field
             for (Map.Entry<String, Object> entry : flattenedFields.entrySet()) {
@@ -78,7 +82,7 @@ public class SearchQueryBuilder {
                     if (value != null) {
                         String gpsValue = value instanceof List ? ((List<?>) value).get(0).toString() : value.toString();
                         if (gpsValue.contains(",")) {
-                            Query geoQuery = buildGeoDistanceQuery(gpsValue, fieldName);
+                            QueryNode geoQuery = buildGeoDistanceQuery(gpsValue, fieldName);
                             if (geoQuery != null) {
                                 queries.add(geoQuery);
                             }
@@ -91,47 +95,34 @@ public class SearchQueryBuilder {
                 if (fieldName.equals("providers_fulfillments_type") || fieldName.equals("provider_fulfillments_type")) {
                     if (value != null) {
                         String fulfillmentType = value instanceof List ? ((List<?>) value).get(0).toString() : value.toString();
-                        Query matchQuery = MatchQuery.of(m -> m
-                            .field("providers_fulfillments_type")
-                            .query(fulfillmentType))
-                            ._toQuery();
-                        queries.add(matchQuery);
+                        queries.add(new QueryNode.Match("providers_fulfillments_type", fulfillmentType, null));
                     }
                     continue;
                 }
                 
                 if (value != null) {
+                    float boost = fieldName.contains("descriptor") ? 2.0f : 1.0f;
                     if (value instanceof List) {
                         List<?> values = (List<?>) value;
                         if (!values.isEmpty()) {
                             // For array fields, create a bool query with should clauses
-                            BoolQuery.Builder arrayQuery = new BoolQuery.Builder();
+                            List<QueryNode> arrayClauses = new ArrayList<>();
                             for (Object val : values) {
                                 if (val != null) {
-                                    Query matchQuery = MatchQuery.of(m -> m
-                                        .field(fieldName)
-                                        .query(val.toString())
-                                        .boost(fieldName.contains("descriptor") ? 2.0f : 1.0f))
-                                        ._toQuery();
-                                    arrayQuery.should(matchQuery);
+                                    arrayClauses.add(new QueryNode.Match(fieldName, val.toString(), boost));
                                 }
                             }
-                            // Add minimum_should_match parameter
-                            arrayQuery.minimumShouldMatch("1");
+                            QueryNode arrayQuery = QueryNode.Bool.should(arrayClauses, 1);
                             
                             // Add to appropriate query list based on field type
                             if (fieldName.contains("descriptor")) {
-                                descriptorQueries.add(arrayQuery.build()._toQuery());
+                                descriptorQueries.add(arrayQuery);
                             } else {
-                                nonDescriptorQueries.add(arrayQuery.build()._toQuery());
+                                nonDescriptorQueries.add(arrayQuery);
                             }
                         }
                     } else {
-                        Query matchQuery = MatchQuery.of(m -> m
-                            .field(fieldName)
-                            .query(value.toString())
-                            .boost(fieldName.contains("descriptor") ? 2.0f : 1.0f))
-                            ._toQuery();
+                        QueryNode matchQuery = new QueryNode.Match(fieldName, value.toString(), boost);
                         
                         if (fieldName.contains("descriptor")) {
                             descriptorQueries.add(matchQuery);
@@ -144,41 +135,27 @@ public class SearchQueryBuilder {
             
             // Combine descriptor and non-descriptor queries with different boosts
             if (!descriptorQueries.isEmpty()) {
-                BoolQuery.Builder descriptorBool = new BoolQuery.Builder();
-                if (operator == LogicalOperator.AND) {
-                    descriptorBool.must(descriptorQueries);
-                } else {
-                    descriptorBool.should(descriptorQueries)
-                        .minimumShouldMatch("1");
-                }
-                queries.add(descriptorBool.boost(2.0f).build()._toQuery());
+                queries.add(combine(descriptorQueries, operator).withBoost(2.0f));
             }
             
             if (!nonDescriptorQueries.isEmpty()) {
-                BoolQuery.Builder nonDescriptorBool = new BoolQuery.Builder();
-                if (operator == LogicalOperator.AND) {
-                    nonDescriptorBool.must(nonDescriptorQueries);
-                } else {
-                    nonDescriptorBool.should(nonDescriptorQueries)
-                        .minimumShouldMatch("1");
-                }
-                queries.add(nonDescriptorBool.build()._toQuery());
+                queries.add(combine(nonDescriptorQueries, operator));
             }
         }
 
         // Combine all queries based on operator
         if (!queries.isEmpty()) {
-            if (operator == LogicalOperator.AND) {
-                mainQuery.must(queries);
-            } else {
-                mainQuery.should(queries)
-                    .minimumShouldMatch("1");
-            }
-            return mainQuery.build()._toQuery();
+            return combine(queries, operator);
         }
 
         // Return match_all query if no filters
-        return MatchAllQuery.of(m -> m)._toQuery();
+        return QueryNode.matchAll();
+    }
+
+    private static QueryNode.Bool combine(List<QueryNode> queries, LogicalOperator operator) {
+        return operator == LogicalOperator.AND
+            ? QueryNode.Bool.must(queries)
+            : QueryNode.Bool.should(queries, 1);
     }
 
     public Map<String, Object> flattenFields(String prefix, Object object) {
@@ -247,7 +224,7 @@ public class SearchQueryBuilder {
         }
     }
 
-    private Query buildGeoDistanceQuery(String gps, String gpsField) {
+    private QueryNode buildGeoDistanceQuery(String gps, String gpsField) {
         String[] coordinates = gps.split(",");
         if (coordinates.length != 2) {
             return null;
@@ -257,11 +234,7 @@ public class SearchQueryBuilder {
             double lat = Double.parseDouble(coordinates[0].trim());
             double lon = Double.parseDouble(coordinates[1].trim());
 
-            return GeoDistanceQuery.of(g -> g
-                .field(gpsField)
-                .distance(geoDistance)
-                .location(l -> l.text(lat + "," + lon)))
-                ._toQuery();
+            return new QueryNode.GeoDistance(gpsField, lat, lon, geoDistance);
 
         } catch (NumberFormatException e) {
             System.err.println("Invalid GPS coordinates: " + e.getMessage());
@@ -269,4 +242,4 @@ public class SearchQueryBuilder {
 
         return null;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
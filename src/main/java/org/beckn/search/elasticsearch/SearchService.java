@@ -1,31 +1,52 @@
 package org.beckn.search.elasticsearch;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import co.elastic.clients.elasticsearch.core.search.Hit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.cache.FacetCache;
+import org.beckn.search.cache.SearchFingerprint;
+import org.beckn.search.cache.SearchResultCache;
+import org.beckn.search.engine.EngineQuery;
+import org.beckn.search.engine.EngineResult;
+import org.beckn.search.engine.IndexNames;
+import org.beckn.search.engine.QueryNode;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
 import org.beckn.search.model.SearchRequestDto;
 import org.beckn.search.model.SearchResponseDto;
 import org.beckn.search.transformer.SearchResponseTransformer;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Runs searches on the {@link SearchEngine} serving the request's domains, behind the
+ * result and facet caches. The request is turned into an engine-neutral query here; how it
+ * is executed is up to the engine.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SearchService {
-    private final ElasticsearchClient elasticsearchClient;
+    private final SearchEngines searchEngines;
     private final SearchQueryBuilder queryBuilder;
     private final ObjectMapper objectMapper;
     private final SearchResponseTransformer responseTransformer;
+    private final FacetCache facetCache;
+    private final SearchFingerprint searchFingerprint;
+    private final CatalogRouting catalogRouting;
+    private final SearchResultCache resultCache;
 
     @Value("${elasticsearch.max.results:1000}")
     private int maxResults;
@@ -33,6 +54,13 @@ public class SearchService {
     @Value("${elasticsearch.default.page.size:100}")
     private int defaultPageSize;
 
+    // The search deadline, so shards that overrun it return partial results instead of late ones
+    @Value("${search.deadline.default-timeout:2s}")
+    private Duration defaultTimeout;
+
+    @Value("${search.deadline.max-timeout:10s}")
+    private Duration maxTimeout;
+
     public SearchQueryBuilder.LogicalOperator parseOperator(String operator) {
         try {
             return SearchQueryBuilder.LogicalOperator.valueOf(operator.toUpperCase());
@@ -41,57 +69,73 @@ public class SearchService {
         }
     }
 
-    @Cacheable(value = "searchResults", key = "#request.toString() + #pageNum + #pageSize + #operator")
-    public SearchResponse<Map> search(SearchRequestDto request, int pageNum, int pageSize, SearchQueryBuilder.LogicalOperator operator) throws IOException {
-        if (request.getContext() == null || request.getContext().getDomain() == null) {
-            throw new IllegalArgumentException("Domain must be specified in the request context");
-        }
+    public EngineResult search(SearchRequestDto request, int pageNum, int pageSize, SearchQueryBuilder.LogicalOperator operator) throws IOException {
+        return executeSearch(request, pageNum, pageSize, operator, Collections.emptySet(), true, false, null);
+    }
+
+    private EngineResult executeSearch(SearchRequestDto request, int pageNum, int pageSize,
+                                       SearchQueryBuilder.LogicalOperator operator,
+                                       Set<FacetType> facets, boolean includeHits,
+                                       boolean trackTotalHits, Duration timeout) throws IOException {
+        requireDomain(request);
         
-        // Get index name from domain, replace colons with hyphens
-        String indexName = request.getContext().getDomain().toLowerCase().replace(":", "-");
+        // One domain maps to one index; a list or pattern becomes a single multi-index search
+        IndexNames.Selection selection = IndexNames.resolve(request.getContext().getDomain());
+        SearchEngine engine = searchEngines.forIndices(selection.getIndices());
+
+        QueryNode baseQuery = queryBuilder.buildQuery(request, operator);
+        // City/area-scoped requests only need the documents indexed with that routing value
+        String routing = catalogRouting.routingFor(request);
+        QueryNode query = routing == null
+            ? baseQuery
+            : QueryNode.Bool.must(List.of(baseQuery)).withFilter(catalogRouting.routingFilter(routing));
         
-        // Check if index exists
-        boolean indexExists = elasticsearchClient.indices().exists(e -> e.index(indexName)).value();
-        if (!indexExists) {
-            throw new IllegalArgumentException("Index '" + indexName + "' does not exist");
+        // Validate and adjust pagination parameters; facet-only searches skip the hits entirely
+        int validatedSize = includeHits ? Math.min(pageSize > 0 ? pageSize : defaultPageSize, maxResults) : 0;
+        int validatedPage = Math.max(pageNum, 0);
+
+        return engine.search(EngineQuery.builder()
+            .indices(selection.getIndices())
+            .indexBoosts(selection.getBoosts())
+            .query(query)
+            .from(validatedPage * validatedSize)
+            .size(validatedSize)
+            .facets(facets)
+            .trackTotalHits(trackTotalHits)
+            .timeout(deadline(timeout))
+            .routing(routing)
+            .affinityKey(searchFingerprint.of(request, operator))
+            .build());
+    }
+
+    // The requested deadline, capped by max-timeout; a zero or negative duration means no timeout
+    private Duration deadline(Duration requested) {
+        Duration timeout = requested != null ? requested : defaultTimeout;
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return null;
         }
-        
-        var query = queryBuilder.buildSearchQuery(request, operator);
-        
-        // Validate and adjust pagination parameters
-        final int validatedSize = Math.min(pageSize > 0 ? pageSize : defaultPageSize, maxResults);
-        final int validatedPage = Math.max(pageNum, 0);
-        
-        try {
-            return elasticsearchClient.search(s -> s
-                    .index(indexName)
-                    .query(query)
-                    .from(validatedPage * validatedSize)
-                    .size(validatedSize),
-                Map.class
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Error executing search: " + e.getMessage(), e);
+        if (maxTimeout != null && !maxTimeout.isZero() && timeout.compareTo(maxTimeout) > 0) {
+            timeout = maxTimeout;
         }
+        return timeout;
     }
 
-    public SearchResponse<Map> search(SearchRequestDto request) throws IOException {
+    public EngineResult search(SearchRequestDto request) throws IOException {
         return search(request, 0, defaultPageSize, SearchQueryBuilder.LogicalOperator.AND);
     }
 
-    public SearchResponse<Map> search(SearchRequestDto request, String operator) throws IOException {
+    public EngineResult search(SearchRequestDto request, String operator) throws IOException {
         return search(request, 0, defaultPageSize, parseOperator(operator));
     }
 
-    @Cacheable(value = "rawCatalog", key = "#request.toString() + #pageNum + #pageSize + #operator")
     public String searchAndGetRawCatalog(SearchRequestDto request, int pageNum, int pageSize, SearchQueryBuilder.LogicalOperator operator) throws IOException {
-        SearchResponse<Map> response = search(request, pageNum, pageSize, operator);
-        
+        return toRawCatalog(search(request, pageNum, pageSize, operator));
+    }
+
+    private String toRawCatalog(EngineResult result) throws IOException {
         // Extract raw_catalog from all hits
-        List<String> rawCatalogs = response.hits().hits().stream()
-            .map(hit -> (Map<String, Object>) hit.source())
-            .filter(source -> source != null && source.containsKey("raw_catalog"))
-            .map(source -> source.get("raw_catalog").toString())
+        List<String> rawCatalogs = result.hits().stream()
+            .map(CatalogHit::getRawCatalog)
             .collect(Collectors.toList());
         
         // If no hits found, return empty array
@@ -111,10 +155,23 @@ public class SearchService {
         return searchAndGetRawCatalog(request, 0, defaultPageSize, parseOperator(operator));
     }
 
-    @Cacheable(value = "searchResponse", key = "#request.toString() + #pageNum + #pageSize + #operator")
     public SearchResponseDto searchAndGetResponse(SearchRequestDto request, int pageNum, int pageSize, SearchQueryBuilder.LogicalOperator operator) throws IOException {
-        String rawCatalog = searchAndGetRawCatalog(request, pageNum, pageSize, operator);
-        return responseTransformer.transformToResponse(rawCatalog);
+        requireDomain(request);
+        String key = resultCache.key(request, operator, pageNum, pageSize, SearchOptions.defaults());
+        return resultCache.get(key, () -> toLoaded(search(request, pageNum, pageSize, operator)));
+    }
+
+    // Responses cut short by the deadline are served once but never cached
+    private SearchResultCache.Loaded toLoaded(EngineResult result) {
+        List<CatalogHit> hits = result.hits();
+        return new SearchResultCache.Loaded(responseTransformer.transformHits(hits), result.complete(),
+            responseTransformer.providerIds(hits));
+    }
+
+    private static void requireDomain(SearchRequestDto request) {
+        if (request.getContext() == null || request.getContext().getDomain() == null) {
+            throw new IllegalArgumentException("Domain must be specified in the request context");
+        }
     }
 
     public SearchResponseDto searchAndGetResponse(SearchRequestDto request) throws IOException {
@@ -124,4 +181,73 @@ public class SearchService {
     public SearchResponseDto searchAndGetResponse(SearchRequestDto request, String operator) throws IOException {
         return searchAndGetResponse(request, 0, defaultPageSize, parseOperator(operator));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Searches with facet counts and/or the total hit count attached. Facets are looked up
+     * in the {@link FacetCache} first; on a miss the aggregations ride along with the hits
+     * query, or run as a size-0 query when only facets are wanted. The whole response is
+     * then kept in the {@link SearchResultCache}.
+     */
+    public SearchResponseDto searchAndGetResponse(SearchRequestDto request, String operator, SearchOptions options) throws IOException {
+        SearchQueryBuilder.LogicalOperator logicalOperator = parseOperator(operator);
+        if (!options.hasFacets() && !options.isTrackTotalHits()) {
+            if (options.getTimeout() == null) {
+                return searchAndGetResponse(request, 0, defaultPageSize, logicalOperator);
+            }
+            requireDomain(request);
+            return resultCache.get(resultCache.key(request, logicalOperator, 0, defaultPageSize, options),
+                () -> toLoaded(executeSearch(request, 0, defaultPageSize, logicalOperator,
+                    Collections.emptySet(), true, false, options.getTimeout())));
+        }
+        requireDomain(request);
+        return resultCache.get(resultCache.key(request, logicalOperator, 0, defaultPageSize, options),
+            () -> searchWithOptions(request, logicalOperator, options));
+    }
+
+    private SearchResultCache.Loaded searchWithOptions(SearchRequestDto request, SearchQueryBuilder.LogicalOperator logicalOperator,
+                                                       SearchOptions options) throws IOException {
+        String facetKey = options.hasFacets() ? facetCache.key(request, logicalOperator, options.getFacets()) : null;
+        Map<String, List<FacetBucket>> facets = facetKey != null ? facetCache.get(facetKey) : null;
+        Set<FacetType> missingFacets = facets == null ? options.getFacets() : Collections.emptySet();
+
+        SearchResponseDto response;
+        Set<String> providerIds = Collections.emptySet();
+        Long total = null;
+        boolean complete = true;
+        if (options.isFacetsOnly()) {
+            response = new SearchResponseDto();
+            response.setMessage(new SearchResponseDto.Message());
+            if (facets == null || options.isTrackTotalHits()) {
+                EngineResult facetResult = executeSearch(request, 0, 0, logicalOperator, missingFacets, false,
+                    options.isTrackTotalHits(), options.getTimeout());
+                total = facetResult.total();
+                complete = facetResult.complete();
+                if (facets == null) {
+                    facets = facetResult.facets();
+                }
+            }
+        } else {
+            EngineResult result = executeSearch(request, 0, defaultPageSize, logicalOperator, missingFacets, true,
+                options.isTrackTotalHits(), options.getTimeout());
+            response = responseTransformer.transformHits(result.hits());
+            providerIds = responseTransformer.providerIds(result.hits());
+            total = result.total();
+            complete = result.complete();
+            if (facets == null && options.hasFacets()) {
+                facets = result.facets();
+            }
+        }
+
+        if (facetKey != null && !missingFacets.isEmpty() && complete) {
+            facetCache.put(facetKey, facets);
+        }
+        if (response.getMessage() == null) {
+            response.setMessage(new SearchResponseDto.Message());
+        }
+        if (options.hasFacets()) {
+            response.getMessage().setFacets(facets);
+        }
+        response.getMessage().setTotal(total);
+        return new SearchResultCache.Loaded(response, complete, providerIds);
+    }
+}
@@ -0,0 +1,85 @@
+package org.beckn.search.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Stable ids for ingested catalog documents, from what the document is about rather than
+ * what it says: the BPP ({@code context_bpp_id}) and either the caller's
+ * {@code document_id} or the provider ids and item ids it carries. A re-pushed catalog
+ * with a changed price gets the id of its earlier copy and replaces it, as does a retried
+ * or replayed batch. A document that carries several providers is identified by all of
+ * them and its items; send a {@code document_id} when its item list can change.
+ * Documents with none of these fields fall back to a hash of their content, which only
+ * dedupes exact replays. Engines use the same scheme, so a domain can move between them
+ * without changing ids.
+ */
+public final class DocumentIds {
+    public static final String DOCUMENT_ID_FIELD = "document_id";
+
+    private static final ObjectMapper CANONICAL = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private DocumentIds() {
+    }
+
+    public static String of(Map<String, Object> document) {
+        Map<String, Object> key = new TreeMap<>();
+        Object documentId = document.get(DOCUMENT_ID_FIELD);
+        if (documentId != null) {
+            key.put(DOCUMENT_ID_FIELD, documentId.toString());
+        } else {
+            Collection<String> providers = values(document.get("provider_id"));
+            Collection<String> items = values(document.get("items_id"));
+            if (!providers.isEmpty()) {
+                key.put("provider_id", providers);
+            }
+            if (!items.isEmpty()) {
+                key.put("items_id", items);
+            }
+        }
+        if (key.isEmpty()) {
+            return hash(document);
+        }
+        Object bppId = document.get("context_bpp_id");
+        key.put("context_bpp_id", bppId == null ? "" : bppId.toString());
+        return hash(key);
+    }
+
+    // Sorted, so the id doesn't depend on the order providers or items were listed in
+    private static Collection<String> values(Object field) {
+        if (field == null) {
+            return List.of();
+        }
+        TreeSet<String> values = new TreeSet<>();
+        if (field instanceof Collection<?> collection) {
+            collection.stream().filter(Objects::nonNull).forEach(value -> values.add(value.toString()));
+        } else {
+            values.add(field.toString());
+        }
+        return values;
+    }
+
+    private static String hash(Map<String, Object> value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256.digest(CANONICAL.writeValueAsBytes(value)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
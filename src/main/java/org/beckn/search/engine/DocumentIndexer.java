@@ -0,0 +1,20 @@
+package org.beckn.search.engine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link SearchEngine} that keeps its own indices and takes catalog ingests for the
+ * domains it serves. Engines without it search indices that are fed elsewhere
+ * (Elasticsearch is written by the bulk API).
+ */
+public interface DocumentIndexer {
+
+    /**
+     * Adds flattened catalog documents to the index, creating it on first use, replacing
+     * earlier copies with the same {@link DocumentIds id}. They are durable when this
+     * returns and become searchable within the engine's refresh interval.
+     */
+    void index(String index, List<Map<String, Object>> documents) throws IOException;
+}
@@ -0,0 +1,48 @@
+package org.beckn.search.engine;
+
+import lombok.Builder;
+import lombok.Value;
+import org.beckn.search.model.FacetType;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One search as handed to a {@link SearchEngine}: what to match, where, and which page,
+ * facets and total to return. The last fields are hints an engine may ignore.
+ */
+@Value
+@Builder
+public class EngineQuery {
+    // Index names as resolved from the domain (see IndexNames)
+    List<String> indices;
+
+    // Score multipliers for some of the indices
+    @Builder.Default
+    Map<String, Double> indexBoosts = Collections.emptyMap();
+
+    QueryNode query;
+
+    int from;
+
+    // 0 when only facets or the total are wanted
+    int size;
+
+    @Builder.Default
+    Set<FacetType> facets = Collections.emptySet();
+
+    boolean trackTotalHits;
+
+    // Deadline after which the engine should return what it has; null for none
+    Duration timeout;
+
+    // Routing value the documents were indexed with, when the query is scoped to one
+    String routing;
+
+    // Equal for repeats of the same query across pages, so an engine can send them to the
+    // same replicas and keep their caches warm
+    String affinityKey;
+}
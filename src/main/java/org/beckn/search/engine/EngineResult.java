@@ -0,0 +1,26 @@
+package org.beckn.search.engine;
+
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hits in ranking order, with the facet buckets and total that were asked for.
+ *
+ * @param total    exact match count, or null when it wasn't tracked
+ * @param complete false when the deadline cut the search short; such results are served
+ *                 but never cached
+ */
+public record EngineResult(List<CatalogHit> hits, Map<String, List<FacetBucket>> facets, Long total,
+                           boolean complete) {
+
+    public EngineResult {
+        hits = List.copyOf(hits);
+        // Facets keep the order they were asked for in
+        facets = Collections.unmodifiableMap(new LinkedHashMap<>(facets));
+    }
+}
@@ -0,0 +1,65 @@
+package org.beckn.search.engine;
+
+import org.beckn.search.model.FacetBucket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet buckets shaped like Elasticsearch's terms and range aggregations, for engines that
+ * count facets themselves. Ranges are configured like {@code search.facets.price.ranges}.
+ */
+public final class FacetBuckets {
+
+    private FacetBuckets() {
+    }
+
+    /**
+     * The {@code size} most frequent values, ties by key, as ES orders terms buckets.
+     */
+    public static List<FacetBucket> terms(Map<String, Long> counts, int size) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(size)
+            .map(entry -> new FacetBucket(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+
+    /**
+     * "from-to" pairs as {from, to}, with NaN for an open bound. Every engine builds its
+     * ranges from this, so they all bucket alike; a bad range is a configuration error.
+     */
+    public static List<double[]> parseRanges(List<String> ranges) {
+        List<double[]> parsed = new ArrayList<>();
+        for (String range : ranges) {
+            String[] bounds = range.split("-", -1);
+            if (bounds.length != 2) {
+                throw new IllegalStateException("Invalid price facet range: " + range);
+            }
+            try {
+                parsed.add(new double[]{
+                    bounds[0].isBlank() ? Double.NaN : Double.parseDouble(bounds[0].trim()),
+                    bounds[1].isBlank() ? Double.NaN : Double.parseDouble(bounds[1].trim())});
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Invalid price facet range: " + range, e);
+            }
+        }
+        return parsed;
+    }
+
+    // From is inclusive and to exclusive, as in ES
+    public static boolean inRange(double[] range, double value) {
+        return (Double.isNaN(range[0]) || value >= range[0]) && (Double.isNaN(range[1]) || value < range[1]);
+    }
+
+    /**
+     * The bucket for a range, keyed like ES keys unnamed ranges ("100.0-500.0", "1000.0-*").
+     */
+    public static FacetBucket range(double[] range, long count) {
+        Double from = Double.isNaN(range[0]) ? null : range[0];
+        Double to = Double.isNaN(range[1]) ? null : range[1];
+        String key = (from == null ? "*" : from.toString()) + "-" + (to == null ? "*" : to.toString());
+        return new FacetBucket(key, count, from, to);
+    }
+}
@@ -0,0 +1,250 @@
+package org.beckn.search.engine;
+
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Reference engine over flattened catalog documents held in memory, for tests and
+ * benchmarks that shouldn't need a cluster. Every search scans every document of the
+ * indices. Semantics follow Elasticsearch where they matter to the API (lowercased
+ * word matching, geo distance, bool clauses, facets, index boosts), but scoring is a
+ * plain sum of boosts of the matching clauses rather than BM25.
+ *
+ * Not a Spring bean: register it with {@link SearchEngines} explicitly.
+ */
+public class InMemorySearchEngine implements SearchEngine {
+    public static final String NAME = "memory";
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private record Document(String id, long seqNo, Map<String, Object> fields) {
+    }
+
+    private final Map<String, Map<String, Document>> indices = new ConcurrentHashMap<>();
+    private final AtomicLong seqNo = new AtomicLong();
+    private final int facetSize;
+    private final List<double[]> priceRanges;
+
+    public InMemorySearchEngine() {
+        this(20, List.of("0-100", "100-500", "500-1000", "1000-"));
+    }
+
+    /**
+     * Facets are configured like {@code search.facets.*}: the number of terms buckets and
+     * the price ranges as "from-to" pairs.
+     */
+    public InMemorySearchEngine(int facetSize, List<String> priceRanges) {
+        this.facetSize = facetSize;
+        this.priceRanges = FacetBuckets.parseRanges(priceRanges);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Adds or replaces a document; a null id gets a generated one, as in ES.
+     */
+    public String index(String index, String id, Map<String, Object> document) {
+        String documentId = id != null ? id : "doc-" + seqNo.incrementAndGet();
+        indices.computeIfAbsent(index, name -> new ConcurrentHashMap<>())
+            .put(documentId, new Document(documentId, seqNo.incrementAndGet(), new HashMap<>(document)));
+        return documentId;
+    }
+
+    public void delete(String index, String id) {
+        Map<String, Document> documents = indices.get(index);
+        if (documents != null) {
+            documents.remove(id);
+        }
+    }
+
+    @Override
+    public EngineResult search(EngineQuery query) {
+        record Scored(String index, Document document, double score) {
+        }
+        List<Scored> matches = new ArrayList<>();
+        for (String index : IndexPatterns.resolve(query.getIndices(), indices.keySet())) {
+            double indexBoost = query.getIndexBoosts().getOrDefault(index, 1.0);
+            for (Document document : indices.getOrDefault(index, Map.of()).values()) {
+                double score = score(query.getQuery(), document.fields());
+                if (score >= 0) {
+                    matches.add(new Scored(index, document, score * indexBoost));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparingLong(scored -> scored.document().seqNo()));
+
+        List<CatalogHit> hits = new ArrayList<>();
+        for (int i = query.getFrom(); i < Math.min(matches.size(), query.getFrom() + query.getSize()); i++) {
+            Scored scored = matches.get(i);
+            Object rawCatalog = scored.document().fields().get("raw_catalog");
+            if (rawCatalog != null) {
+                hits.add(new CatalogHit(scored.index(), scored.document().id(), scored.document().seqNo(), 1L,
+                    rawCatalog.toString()));
+            }
+        }
+        List<Map<String, Object>> matched = matches.stream().map(scored -> scored.document().fields()).toList();
+        return new EngineResult(hits, facets(query.getFacets(), matched),
+            query.isTrackTotalHits() ? (long) matches.size() : null, true);
+    }
+
+    @Override
+    public Map<String, List<FacetBucket>> topTerms(String index, List<String> fields, int size) {
+        Collection<Document> documents = indices.getOrDefault(index, Map.of()).values();
+        Map<String, List<FacetBucket>> terms = new LinkedHashMap<>();
+        for (String field : fields) {
+            terms.put(field, termsBuckets(field, documents.stream().map(Document::fields).toList(), size));
+        }
+        return terms;
+    }
+
+    // The document's score, or -1 when the query doesn't match it
+    private static double score(QueryNode node, Map<String, Object> fields) {
+        if (node instanceof QueryNode.MatchAll) {
+            return 1;
+        }
+        if (node instanceof QueryNode.Match match) {
+            Set<String> documentTerms = Set.copyOf(terms(values(fields, match.field())));
+            long matched = terms(List.of(match.text())).stream().distinct().filter(documentTerms::contains).count();
+            return matched == 0 ? -1 : matched * (match.boost() != null ? match.boost() : 1);
+        }
+        if (node instanceof QueryNode.Term term) {
+            return values(fields, term.field()).stream().anyMatch(value -> value.equals(term.value())) ? 1 : -1;
+        }
+        if (node instanceof QueryNode.GeoDistance geo) {
+            double limit = geo.meters();
+            for (String value : values(fields, geo.field())) {
+                String[] coordinates = value.split(",");
+                if (coordinates.length == 2
+                    && distance(geo.lat(), geo.lon(), Double.parseDouble(coordinates[0].trim()),
+                        Double.parseDouble(coordinates[1].trim())) <= limit) {
+                    return 1;
+                }
+            }
+            return -1;
+        }
+        QueryNode.Bool bool = (QueryNode.Bool) node;
+        double score = 0;
+        for (QueryNode clause : bool.must()) {
+            double clauseScore = score(clause, fields);
+            if (clauseScore < 0) {
+                return -1;
+            }
+            score += clauseScore;
+        }
+        for (QueryNode clause : bool.filter()) {
+            if (score(clause, fields) < 0) {
+                return -1;
+            }
+        }
+        int shouldMatched = 0;
+        for (QueryNode clause : bool.should()) {
+            double clauseScore = score(clause, fields);
+            if (clauseScore >= 0) {
+                shouldMatched++;
+                score += clauseScore;
+            }
+        }
+        int minimum = bool.minimumShouldMatch() != null
+            ? bool.minimumShouldMatch()
+            : bool.must().isEmpty() && bool.filter().isEmpty() && !bool.should().isEmpty() ? 1 : 0;
+        if (shouldMatched < minimum) {
+            return -1;
+        }
+        return score * (bool.boost() != null ? bool.boost() : 1);
+    }
+
+    // A field's values as strings; ".keyword" sub-fields read the field itself
+    private static List<String> values(Map<String, Object> fields, String field) {
+        String name = field.endsWith(".keyword") ? field.substring(0, field.length() - ".keyword".length()) : field;
+        Object value = fields.get(name);
+        if (value == null) {
+            return List.of();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().filter(v -> v != null).map(Object::toString).toList();
+        }
+        return List.of(value.toString());
+    }
+
+    private static List<String> terms(List<String> values) {
+        List<String> terms = new ArrayList<>();
+        for (String value : values) {
+            for (String term : NON_WORD.split(value.toLowerCase(Locale.ROOT))) {
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    private Map<String, List<FacetBucket>> facets(Set<FacetType> facets, List<Map<String, Object>> documents) {
+        Map<String, List<FacetBucket>> result = new LinkedHashMap<>();
+        for (FacetType facet : facets) {
+            result.put(facet.getKey(), facet.getKind() == FacetType.Kind.RANGE
+                ? rangeBuckets(facet.getField(), documents)
+                : termsBuckets(facet.getField(), documents, facetSize));
+        }
+        return result;
+    }
+
+    private static List<FacetBucket> termsBuckets(String field, List<Map<String, Object>> documents, int size) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map<String, Object> document : documents) {
+            values(document, field).stream().distinct().forEach(value -> counts.merge(value, 1L, Long::sum));
+        }
+        return FacetBuckets.terms(counts, size);
+    }
+
+    private List<FacetBucket> rangeBuckets(String field, List<Map<String, Object>> documents) {
+        long[] counts = new long[priceRanges.size()];
+        for (Map<String, Object> document : documents) {
+            List<Double> numbers = new ArrayList<>();
+            for (String value : values(document, field)) {
+                try {
+                    numbers.add(Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    // Not a number, as ES would have refused to index it
+                }
+            }
+            for (int i = 0; i < counts.length; i++) {
+                double[] range = priceRanges.get(i);
+                if (numbers.stream().anyMatch(number -> FacetBuckets.inRange(range, number))) {
+                    counts[i]++;
+                }
+            }
+        }
+        List<FacetBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(FacetBuckets.range(priceRanges.get(i), counts[i]));
+        }
+        return buckets;
+    }
+}
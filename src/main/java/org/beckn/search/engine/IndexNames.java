@@ -0,0 +1,99 @@
+package org.beckn.search.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class IndexNames {
+
+    private IndexNames() {
+    }
+
+    // Index name from domain, colons replaced with hyphens (e.g. "deg:ev" -> "deg-ev")
+    public static String forDomain(String domain) {
+        return domain.toLowerCase().replace(":", "-");
+    }
+
+    /**
+     * Resolves a {@code context.domain} that may name several domains into the indices
+     * to search. Domains are comma separated, may use {@code *} wildcards and may carry
+     * a {@code ^boost} for ranking across indices, e.g. {@code "retail^2,deg:*"}.
+     * A plain single domain resolves to exactly {@link #forDomain(String)}.
+     */
+    public static Selection resolve(String domains) {
+        List<String> indices = new ArrayList<>();
+        Map<String, Double> boosts = new LinkedHashMap<>();
+        for (String part : domains.split(",")) {
+            String domain = part.trim();
+            if (domain.isEmpty()) {
+                continue;
+            }
+            Double boost = null;
+            int caret = domain.indexOf('^');
+            if (caret >= 0) {
+                boost = parseBoost(domain, domain.substring(caret + 1).trim());
+                domain = domain.substring(0, caret).trim();
+            }
+            String index = forDomain(domain);
+            validate(index, domain);
+            if (!indices.contains(index)) {
+                indices.add(index);
+            }
+            if (boost != null) {
+                boosts.put(index, boost);
+            }
+        }
+        if (indices.isEmpty()) {
+            throw new IllegalArgumentException("Domain must be specified in the request context");
+        }
+        return new Selection(Collections.unmodifiableList(indices), Collections.unmodifiableMap(boosts));
+    }
+
+    private static Double parseBoost(String domain, String text) {
+        try {
+            double boost = Double.parseDouble(text);
+            if (boost > 0 && !Double.isInfinite(boost)) {
+                return boost;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid boost in domain '" + domain + "': must be a positive number");
+    }
+
+    // Keeps a domain from reaching indices it should not: exclusions, hidden/system indices or a bare "*"
+    private static void validate(String index, String domain) {
+        char first = index.isEmpty() ? '-' : index.charAt(0);
+        boolean invalid = first == '-' || first == '+' || first == '_' || first == '.'
+            || index.chars().allMatch(c -> c == '*');
+        for (int i = 0; i < index.length() && !invalid; i++) {
+            invalid = "\\/?\"<>| #".indexOf(index.charAt(i)) >= 0;
+        }
+        if (invalid) {
+            throw new IllegalArgumentException("Invalid domain: '" + domain + "'");
+        }
+    }
+
+    /**
+     * Indices a search runs against, with the boost of each index that has one.
+     */
+    public static final class Selection {
+        private final List<String> indices;
+        private final Map<String, Double> boosts;
+
+        private Selection(List<String> indices, Map<String, Double> boosts) {
+            this.indices = indices;
+            this.boosts = boosts;
+        }
+
+        public List<String> getIndices() {
+            return indices;
+        }
+
+        public Map<String, Double> getBoosts() {
+            return boosts;
+        }
+    }
+}
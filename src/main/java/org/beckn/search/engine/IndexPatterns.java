@@ -0,0 +1,44 @@
+package org.beckn.search.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Index name resolution for engines that keep their own indices, following Elasticsearch:
+ * "*" patterns expand to the matching indices and may match none, while a plain name
+ * that doesn't exist fails the search.
+ */
+public final class IndexPatterns {
+
+    private IndexPatterns() {
+    }
+
+    public static List<String> resolve(List<String> names, Collection<String> existing) {
+        List<String> resolved = new ArrayList<>();
+        for (String name : names) {
+            if (!name.contains("*")) {
+                if (!existing.contains(name)) {
+                    throw new IllegalArgumentException("Index '" + String.join(",", names) + "' does not exist");
+                }
+                resolved.add(name);
+                continue;
+            }
+            Pattern pattern = compile(name);
+            existing.stream().filter(index -> pattern.matcher(index).matches()).sorted().forEach(resolved::add);
+        }
+        return resolved;
+    }
+
+    /**
+     * Whether the index name or "*" pattern covers the index.
+     */
+    public static boolean matches(String name, String index) {
+        return name.contains("*") ? compile(name).matcher(index).matches() : name.equals(index);
+    }
+
+    private static Pattern compile(String name) {
+        return Pattern.compile(Pattern.quote(name).replace("*", "\\E.*\\Q"));
+    }
+}
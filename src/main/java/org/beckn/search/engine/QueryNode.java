@@ -0,0 +1,114 @@
+package org.beckn.search.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Engine-neutral search query, built from a {@code SearchRequestDto} by
+ * {@code SearchQueryBuilder} and translated by each
+ * {@link SearchEngine}. Fields are the flattened catalog fields documents are indexed with
+ * (e.g. {@code items_descriptor_name}); the semantics are those of the matching
+ * Elasticsearch queries.
+ */
+public sealed interface QueryNode {
+
+    /**
+     * Every document.
+     */
+    record MatchAll() implements QueryNode {
+    }
+
+    /**
+     * Full-text match: the text is analyzed and any of its terms may match. A null boost
+     * leaves the engine's default.
+     */
+    record Match(String field, String text, Float boost) implements QueryNode {
+    }
+
+    /**
+     * Exact, unanalyzed value.
+     */
+    record Term(String field, String value) implements QueryNode {
+    }
+
+    /**
+     * Documents whose {@code "lat,lon"} field lies within {@code distance} (e.g. "1km") of
+     * the point.
+     */
+    record GeoDistance(String field, double lat, double lon, String distance) implements QueryNode {
+        private static final Pattern DISTANCE = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(km|m|mi)?");
+
+        /**
+         * The distance in meters; a bare number is meters, as in Elasticsearch.
+         */
+        public double meters() {
+            Matcher matcher = DISTANCE.matcher(distance.trim().toLowerCase(Locale.ROOT));
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid distance: '" + distance + "'");
+            }
+            double value = Double.parseDouble(matcher.group(1));
+            String unit = matcher.group(2);
+            if ("km".equals(unit)) {
+                return value * 1000;
+            }
+            return "mi".equals(unit) ? value * 1609.344 : value;
+        }
+    }
+
+    /**
+     * All of {@code must} and {@code filter} (the latter without scoring) and at least
+     * {@code minimumShouldMatch} of {@code should}. Without must or filter clauses and
+     * without a minimum, one should clause has to match.
+     */
+    record Bool(List<QueryNode> must, List<QueryNode> should, List<QueryNode> filter,
+                Integer minimumShouldMatch, Float boost) implements QueryNode {
+
+        public Bool {
+            must = List.copyOf(must);
+            should = List.copyOf(should);
+            filter = List.copyOf(filter);
+        }
+
+        public static Bool must(List<QueryNode> clauses) {
+            return new Bool(clauses, List.of(), List.of(), null, null);
+        }
+
+        public static Bool should(List<QueryNode> clauses, int minimumShouldMatch) {
+            return new Bool(List.of(), clauses, List.of(), minimumShouldMatch, null);
+        }
+
+        public Bool withBoost(float boost) {
+            return new Bool(must, should, filter, minimumShouldMatch, boost);
+        }
+
+        public Bool withFilter(QueryNode clause) {
+            List<QueryNode> filters = new ArrayList<>(filter);
+            filters.add(clause);
+            return new Bool(must, should, filters, minimumShouldMatch, boost);
+        }
+    }
+
+    static QueryNode matchAll() {
+        return new MatchAll();
+    }
+
+    /**
+     * True when the query only filters by location (geo distance clauses combined in
+     * bools). Such lookups repeat often across users and are worth caching.
+     */
+    default boolean isGeoOnly() {
+        if (this instanceof GeoDistance) {
+            return true;
+        }
+        if (!(this instanceof Bool bool)) {
+            return false;
+        }
+        List<QueryNode> clauses = new ArrayList<>(bool.must());
+        clauses.addAll(bool.should());
+        clauses.addAll(bool.filter());
+        return !clauses.isEmpty() && clauses.stream().allMatch(QueryNode::isGeoOnly);
+    }
+}
@@ -0,0 +1,30 @@
+package org.beckn.search.engine;
+
+import org.beckn.search.model.FacetBucket;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A backend that runs {@link EngineQuery searches} over indexed catalog documents.
+ * Implementations are Spring beans picked per domain by {@link SearchEngines}; they throw
+ * IllegalArgumentException for indices they don't have and IOException when the backend
+ * can't be reached.
+ */
+public interface SearchEngine {
+
+    /**
+     * The name used in {@code search.engine.*} properties.
+     */
+    String name();
+
+    EngineResult search(EngineQuery query) throws IOException;
+
+    /**
+     * The {@code size} most frequent values of each keyword field over a whole index, keyed
+     * by field and counted in documents as a terms aggregation counts them. An index that
+     * doesn't exist has no values rather than failing.
+     */
+    Map<String, List<FacetBucket>> topTerms(String index, List<String> fields, int size) throws IOException;
+}
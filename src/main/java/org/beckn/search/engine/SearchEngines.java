@@ -0,0 +1,76 @@
+package org.beckn.search.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the {@link SearchEngine} for a search: {@code search.engine.default} unless
+ * {@code search.engine.domains} names another one for the domain, as
+ * {@code domain=engine} pairs. A multi-domain search runs on one engine, so all of its
+ * domains must map to the same one. A "*" pattern runs on the engine of the configured
+ * domains it covers, and is rejected when those are served by different engines.
+ */
+@Component
+public class SearchEngines {
+    private final Map<String, SearchEngine> engines = new HashMap<>();
+    private final SearchEngine defaultEngine;
+    private final Map<String, SearchEngine> byIndex = new HashMap<>();
+
+    public SearchEngines(List<SearchEngine> engines,
+                         @Value("${search.engine.default:elasticsearch}") String defaultEngine,
+                         @Value("${search.engine.domains:}") List<String> domainEngines) {
+        engines.forEach(engine -> this.engines.put(engine.name(), engine));
+        this.defaultEngine = named(defaultEngine);
+        for (String pair : domainEngines) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid search.engine.domains entry '" + pair + "', expected domain=engine");
+            }
+            byIndex.put(IndexNames.forDomain(parts[0].trim()), named(parts[1].trim()));
+        }
+    }
+
+    private SearchEngine named(String name) {
+        SearchEngine engine = engines.get(name);
+        if (engine == null) {
+            throw new IllegalStateException("Unknown search engine '" + name + "', available: " + engines.keySet());
+        }
+        return engine;
+    }
+
+    public SearchEngine forIndices(List<String> indices) {
+        SearchEngine selected = null;
+        for (String index : indices) {
+            for (SearchEngine engine : enginesFor(index)) {
+                if (selected != null && selected != engine) {
+                    throw new IllegalArgumentException("Domains served by different search engines can't be searched together");
+                }
+                selected = engine;
+            }
+        }
+        return selected != null ? selected : defaultEngine;
+    }
+
+    private Collection<SearchEngine> enginesFor(String index) {
+        if (!index.contains("*")) {
+            return List.of(byIndex.getOrDefault(index, defaultEngine));
+        }
+        Set<SearchEngine> matched = new HashSet<>();
+        byIndex.forEach((name, engine) -> {
+            if (IndexPatterns.matches(index, name)) {
+                matched.add(engine);
+            }
+        });
+        return matched.isEmpty() ? List.of(defaultEngine) : matched;
+    }
+}
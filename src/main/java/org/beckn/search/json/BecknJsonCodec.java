@@ -0,0 +1,71 @@
+package org.beckn.search.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.beckn.search.model.AckResponseDto;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.model.SuggestResponseDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Precompiled readers and writers for the Beckn DTOs. {@link ObjectReader} and
+ * {@link ObjectWriter} instances are immutable and resolve their (de)serializers
+ * once, so the per-request path skips the root type lookup done by
+ * {@code ObjectMapper.readValue}/{@code writeValue}.
+ */
+@Component
+public class BecknJsonCodec {
+    private final Map<Class<?>, ObjectReader> readers;
+    private final Map<Class<?>, ObjectWriter> writers;
+    private final ObjectWriter requestLogWriter;
+
+    public BecknJsonCodec(ObjectMapper objectMapper) {
+        this.readers = Map.of(
+            SearchRequestDto.class, objectMapper.readerFor(SearchRequestDto.class));
+        this.writers = Map.of(
+            SearchRequestDto.class, objectMapper.writerFor(SearchRequestDto.class),
+            SearchResponseDto.class, objectMapper.writerFor(SearchResponseDto.class),
+            SuggestResponseDto.class, objectMapper.writerFor(SuggestResponseDto.class),
+            AckResponseDto.class, objectMapper.writerFor(AckResponseDto.class));
+        this.requestLogWriter = objectMapper.copy()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writerFor(SearchRequestDto.class);
+    }
+
+    public boolean canRead(Class<?> type) {
+        return readers.containsKey(type);
+    }
+
+    public boolean canWrite(Class<?> type) {
+        return writers.containsKey(type);
+    }
+
+    public <T> T read(Class<T> type, InputStream body) throws IOException {
+        return readers.get(type).readValue(body);
+    }
+
+    public <T> T read(Class<T> type, byte[] body) throws IOException {
+        return readers.get(type).readValue(body);
+    }
+
+    public void write(Object value, OutputStream body) throws IOException {
+        writers.get(value.getClass()).writeValue(body, value);
+    }
+
+    public byte[] writeAsBytes(Object value) throws JsonProcessingException {
+        return writers.get(value.getClass()).writeValueAsBytes(value);
+    }
+
+    public String writeRequestForLog(SearchRequestDto request) throws JsonProcessingException {
+        return requestLogWriter.writeValueAsString(request);
+    }
+}
@@ -0,0 +1,28 @@
+package org.beckn.search.json;
+
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JsonConfig {
+
+    // Replaces reflective property access with generated lambdas; picked up by Boot's ObjectMapper
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer searchObjectMapperCustomizer() {
+        return builder -> builder
+            .featuresToDisable(
+                SerializationFeature.FLUSH_AFTER_WRITE_VALUE,
+                SerializationFeature.FAIL_ON_EMPTY_BEANS,
+                StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION);
+    }
+}
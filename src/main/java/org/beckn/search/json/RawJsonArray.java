@@ -0,0 +1,46 @@
+package org.beckn.search.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A JSON array whose elements are pre-serialized {@link RawJson} fragments. The
+ * fragments are spliced into the generator's output one by one, so building the
+ * array never copies them into an intermediate buffer.
+ */
+public final class RawJsonArray implements JsonSerializable {
+    private final List<RawJson> elements;
+
+    private RawJsonArray(List<RawJson> elements) {
+        this.elements = elements;
+    }
+
+    public static JsonNode node(List<RawJson> elements) {
+        return JsonNodeFactory.instance.pojoNode(new RawJsonArray(List.copyOf(elements)));
+    }
+
+    public List<RawJson> elements() {
+        return elements;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray(this, elements.size());
+        for (RawJson element : elements) {
+            gen.writeRawValue(element);
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,153 @@
+package org.beckn.search.lucene;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.util.NumericUtils;
+import org.beckn.search.engine.FacetBuckets;
+import org.beckn.search.model.FacetType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts facets over the matching documents from doc values, in the same pass as the hits.
+ * Terms facets count per segment ordinal and only resolve the ordinals that were hit;
+ * range facets count a document once per range any of its values falls in, like ES.
+ */
+class FacetCollectorManager implements CollectorManager<FacetCollectorManager.FacetCollector, FacetCollectorManager.Counts> {
+    private final Set<FacetType> facets;
+    private final List<double[]> ranges;
+
+    FacetCollectorManager(Set<FacetType> facets, List<double[]> ranges) {
+        this.facets = facets;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Per facet key: value counts for terms facets, per-range counts for range facets.
+     */
+    record Counts(Map<String, Map<String, Long>> terms, Map<String, long[]> ranges) {
+    }
+
+    @Override
+    public FacetCollector newCollector() {
+        return new FacetCollector();
+    }
+
+    @Override
+    public Counts reduce(Collection<FacetCollector> collectors) throws IOException {
+        Map<String, Map<String, Long>> terms = new HashMap<>();
+        Map<String, long[]> rangeCounts = new HashMap<>();
+        for (FacetType facet : facets) {
+            if (facet.getKind() == FacetType.Kind.RANGE) {
+                rangeCounts.put(facet.getKey(), new long[ranges.size()]);
+            } else {
+                terms.put(facet.getKey(), new HashMap<>());
+            }
+        }
+        for (FacetCollector collector : collectors) {
+            for (SegmentTerms segment : collector.segmentTerms) {
+                Map<String, Long> counts = terms.get(segment.facet().getKey());
+                long[] ordCounts = segment.counts();
+                for (int ord = 0; ord < ordCounts.length; ord++) {
+                    if (ordCounts[ord] > 0) {
+                        counts.merge(segment.values().lookupOrd(ord).utf8ToString(), ordCounts[ord], Long::sum);
+                    }
+                }
+            }
+            collector.rangeCounts.forEach((key, counts) -> {
+                long[] total = rangeCounts.get(key);
+                for (int i = 0; i < counts.length; i++) {
+                    total[i] += counts[i];
+                }
+            });
+        }
+        return new Counts(terms, rangeCounts);
+    }
+
+    private record SegmentTerms(FacetType facet, SortedSetDocValues values, long[] counts) {
+    }
+
+    class FacetCollector implements Collector {
+        private final List<SegmentTerms> segmentTerms = new ArrayList<>();
+        private final Map<String, long[]> rangeCounts = new HashMap<>();
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            List<SegmentTerms> leafTerms = new ArrayList<>();
+            List<SortedNumericDocValues> leafNumbers = new ArrayList<>();
+            List<long[]> leafRangeCounts = new ArrayList<>();
+            for (FacetType facet : facets) {
+                if (facet.getKind() == FacetType.Kind.RANGE) {
+                    long[] counts = rangeCounts.computeIfAbsent(facet.getKey(), key -> new long[ranges.size()]);
+                    SortedNumericDocValues values = context.reader().getSortedNumericDocValues(facet.getField());
+                    if (values != null) {
+                        leafNumbers.add(values);
+                        leafRangeCounts.add(counts);
+                    }
+                } else {
+                    SortedSetDocValues values = context.reader().getSortedSetDocValues(facet.getField());
+                    if (values != null) {
+                        // Ordinals are per segment; they're resolved to values once, in reduce
+                        leafTerms.add(new SegmentTerms(facet, values, new long[(int) values.getValueCount()]));
+                    }
+                }
+            }
+            segmentTerms.addAll(leafTerms);
+            boolean[] hitRanges = new boolean[ranges.size()];
+
+            return new LeafCollector() {
+                @Override
+                public void setScorer(Scorable scorer) {
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    for (SegmentTerms terms : leafTerms) {
+                        if (terms.values().advanceExact(doc)) {
+                            for (int i = 0; i < terms.values().docValueCount(); i++) {
+                                terms.counts()[(int) terms.values().nextOrd()]++;
+                            }
+                        }
+                    }
+                    for (int f = 0; f < leafNumbers.size(); f++) {
+                        SortedNumericDocValues values = leafNumbers.get(f);
+                        if (!values.advanceExact(doc)) {
+                            continue;
+                        }
+                        Arrays.fill(hitRanges, false);
+                        for (int i = 0; i < values.docValueCount(); i++) {
+                            double value = NumericUtils.sortableLongToDouble(values.nextValue());
+                            for (int r = 0; r < hitRanges.length; r++) {
+                                hitRanges[r] |= FacetBuckets.inRange(ranges.get(r), value);
+                            }
+                        }
+                        long[] counts = leafRangeCounts.get(f);
+                        for (int r = 0; r < hitRanges.length; r++) {
+                            if (hitRanges[r]) {
+                                counts[r]++;
+                            }
+                        }
+                    }
+                }
+            };
+        }
+    }
+}
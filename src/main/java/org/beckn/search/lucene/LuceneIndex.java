@@ -0,0 +1,104 @@
+package org.beckn.search.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.MMapDirectory;
+import org.beckn.search.engine.DocumentIds;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One domain's index: a memory-mapped directory, its writer, and a {@link SearcherManager}
+ * that hands out near-real-time searchers opened from the writer. Writes become visible on
+ * {@link #refresh()} and durable on {@link #commit()}.
+ */
+class LuceneIndex implements Closeable {
+    private static final String SEQ_NO_KEY = "seq_no";
+
+    private final String name;
+    private final MMapDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final LuceneSchema schema;
+    private final LuceneQueries queries;
+    private final AtomicLong seqNo;
+
+    LuceneIndex(String name, Path path, Analyzer analyzer, Map<String, LuceneSchema.Kind> mappings) throws IOException {
+        this.name = name;
+        this.directory = new MMapDirectory(path);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        Map<String, String> commitData = new HashMap<>();
+        if (writer.getLiveCommitData() != null) {
+            writer.getLiveCommitData().forEach(entry -> commitData.put(entry.getKey(), entry.getValue()));
+        }
+        this.schema = new LuceneSchema(mappings, commitData);
+        this.queries = new LuceneQueries(schema, analyzer);
+        this.seqNo = new AtomicLong(Long.parseLong(commitData.getOrDefault(SEQ_NO_KEY, "0")));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    String name() {
+        return name;
+    }
+
+    LuceneQueries queries() {
+        return queries;
+    }
+
+    // Ids come from the content, so a replayed batch replaces its earlier copies
+    void add(List<Map<String, Object>> sources) throws IOException {
+        for (Map<String, Object> source : sources) {
+            String id = DocumentIds.of(source);
+            Document document = schema.toDocument(id, seqNo.incrementAndGet(), source);
+            writer.updateDocument(new Term(LuceneSchema.ID_FIELD, id), document);
+        }
+    }
+
+    IndexSearcher acquire() throws IOException {
+        return searcherManager.acquire();
+    }
+
+    void release(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * Reopens the searcher if anything was written since; returns once new searches see it.
+     */
+    void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    synchronized void commit() throws IOException {
+        if (!writer.hasUncommittedChanges()) {
+            return;
+        }
+        Map<String, String> commitData = schema.commitData();
+        commitData.put(SEQ_NO_KEY, Long.toString(seqNo.get()));
+        writer.setLiveCommitData(commitData.entrySet());
+        writer.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+}
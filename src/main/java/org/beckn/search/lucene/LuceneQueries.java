@@ -0,0 +1,104 @@
+package org.beckn.search.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.QueryBuilder;
+import org.beckn.search.engine.QueryNode;
+
+import java.util.List;
+
+/**
+ * Translates the engine-neutral {@link QueryNode} into Lucene queries against one index's
+ * {@link LuceneSchema}, the way Elasticsearch runs the same query on its mapping: match
+ * analyzes text fields and looks up keyword, number and boolean fields as exact values,
+ * and fields the index has never seen match nothing.
+ */
+class LuceneQueries {
+    private final LuceneSchema schema;
+    private final QueryBuilder textQueries;
+
+    LuceneQueries(LuceneSchema schema, Analyzer analyzer) {
+        this.schema = schema;
+        this.textQueries = new QueryBuilder(analyzer);
+    }
+
+    Query toQuery(QueryNode node) {
+        if (node instanceof QueryNode.MatchAll) {
+            return new MatchAllDocsQuery();
+        }
+        if (node instanceof QueryNode.Match match) {
+            Query query = matchQuery(match.field(), match.text());
+            return match.boost() != null ? new BoostQuery(query, match.boost()) : query;
+        }
+        if (node instanceof QueryNode.Term term) {
+            return exactQuery(term.field(), term.value());
+        }
+        if (node instanceof QueryNode.GeoDistance geo) {
+            return schema.kind(geo.field()) == LuceneSchema.Kind.GEO_POINT
+                ? LatLonPoint.newDistanceQuery(geo.field(), geo.lat(), geo.lon(), geo.meters())
+                : new MatchNoDocsQuery("no geo_point field " + geo.field());
+        }
+        QueryNode.Bool bool = (QueryNode.Bool) node;
+        if (bool.must().isEmpty() && bool.should().isEmpty() && bool.filter().isEmpty()) {
+            // An empty bool matches everything in ES
+            return new MatchAllDocsQuery();
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        add(builder, bool.must(), BooleanClause.Occur.MUST);
+        add(builder, bool.should(), BooleanClause.Occur.SHOULD);
+        add(builder, bool.filter(), BooleanClause.Occur.FILTER);
+        if (bool.minimumShouldMatch() != null) {
+            builder.setMinimumNumberShouldMatch(bool.minimumShouldMatch());
+        }
+        Query query = builder.build();
+        return bool.boost() != null ? new BoostQuery(query, bool.boost()) : query;
+    }
+
+    private void add(BooleanQuery.Builder builder, List<QueryNode> clauses, BooleanClause.Occur occur) {
+        clauses.forEach(clause -> builder.add(toQuery(clause), occur));
+    }
+
+    private Query matchQuery(String field, String text) {
+        LuceneSchema.Kind kind = schema.kind(field);
+        if (kind == LuceneSchema.Kind.TEXT || kind == LuceneSchema.Kind.TEXT_WITH_KEYWORD) {
+            // Any analyzed term may match, as the match query's default OR operator
+            Query query = textQueries.createBooleanQuery(field, text, BooleanClause.Occur.SHOULD);
+            return query != null ? query : new MatchNoDocsQuery("no terms in '" + text + "'");
+        }
+        return exactQuery(field, text);
+    }
+
+    private Query exactQuery(String field, String value) {
+        if (field.endsWith(LuceneSchema.KEYWORD_SUFFIX)) {
+            String parent = field.substring(0, field.length() - LuceneSchema.KEYWORD_SUFFIX.length());
+            return schema.kind(parent) == LuceneSchema.Kind.TEXT_WITH_KEYWORD
+                ? new TermQuery(new Term(field, value))
+                : new MatchNoDocsQuery("no keyword sub-field " + field);
+        }
+        LuceneSchema.Kind kind = schema.kind(field);
+        if (kind == null) {
+            return new MatchNoDocsQuery("unmapped field " + field);
+        }
+        return switch (kind) {
+            case TEXT, TEXT_WITH_KEYWORD, KEYWORD -> new TermQuery(new Term(field, value));
+            case BOOLEAN -> {
+                Boolean bool = LuceneSchema.parseBoolean(value);
+                yield bool != null ? new TermQuery(new Term(field, bool.toString())) : new MatchNoDocsQuery();
+            }
+            case NUMBER -> {
+                Double number = LuceneSchema.parseNumber(value);
+                yield number != null ? DoublePoint.newExactQuery(field, number) : new MatchNoDocsQuery();
+            }
+            case GEO_POINT, STORED -> new MatchNoDocsQuery("field " + field + " is not searchable by value");
+        };
+    }
+}
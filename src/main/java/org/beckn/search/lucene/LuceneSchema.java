@@ -0,0 +1,202 @@
+package org.beckn.search.lucene;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How flattened catalog fields are indexed in Lucene. Mapped fields follow the managed
+ * Elasticsearch index template, so both engines index the same field the same way; other
+ * fields are mapped on first sight as ES dynamic mapping does (strings as text with a
+ * {@code .keyword} sub-field, numbers, booleans). Values that don't fit their field's
+ * type are skipped, as with {@code index.mapping.ignore_malformed}.
+ */
+class LuceneSchema {
+    static final String ID_FIELD = "_id";
+    static final String SEQ_NO_FIELD = "_seq_no";
+    static final String KEYWORD_SUFFIX = ".keyword";
+
+    private static final String TEMPLATE_RESOURCE = "elasticsearch/catalog-index-template.json";
+    private static final String MAPPING_KEY_PREFIX = "mapping.";
+    // ES dynamic mapping leaves longer strings out of the keyword sub-field
+    private static final int IGNORE_ABOVE = 256;
+
+    enum Kind {
+        TEXT, TEXT_WITH_KEYWORD, KEYWORD, NUMBER, BOOLEAN, GEO_POINT, STORED
+    }
+
+    private final Map<String, Kind> mapped;
+    private final Map<String, Kind> dynamic = new ConcurrentHashMap<>();
+
+    LuceneSchema(Map<String, Kind> mapped, Map<String, String> commitData) {
+        this.mapped = mapped;
+        commitData.forEach((key, value) -> {
+            if (key.startsWith(MAPPING_KEY_PREFIX)) {
+                dynamic.put(key.substring(MAPPING_KEY_PREFIX.length()), Kind.valueOf(value));
+            }
+        });
+    }
+
+    /**
+     * The field types of the bundled ES template.
+     */
+    static Map<String, Kind> templateMappings(ObjectMapper objectMapper) {
+        try (InputStream in = LuceneSchema.class.getClassLoader().getResourceAsStream(TEMPLATE_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + TEMPLATE_RESOURCE);
+            }
+            Map<String, Kind> kinds = new HashMap<>();
+            objectMapper.readTree(in).path("mappings").path("properties").fields()
+                .forEachRemaining(entry -> kinds.put(entry.getKey(), kindOf(entry.getValue())));
+            return kinds;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Kind kindOf(JsonNode mapping) {
+        if (!mapping.path("index").asBoolean(true)) {
+            return Kind.STORED;
+        }
+        return switch (mapping.path("type").asText()) {
+            case "keyword" -> Kind.KEYWORD;
+            case "geo_point" -> Kind.GEO_POINT;
+            case "boolean" -> Kind.BOOLEAN;
+            case "long", "integer", "short", "byte", "double", "float", "half_float", "scaled_float" -> Kind.NUMBER;
+            default -> mapping.path("fields").has("keyword") ? Kind.TEXT_WITH_KEYWORD : Kind.TEXT;
+        };
+    }
+
+    /**
+     * The field's type, or null for a field no document has had yet.
+     */
+    Kind kind(String field) {
+        Kind kind = mapped.get(field);
+        return kind != null ? kind : dynamic.get(field);
+    }
+
+    /**
+     * Dynamic mappings to keep in the index's commit data, so they survive a restart.
+     */
+    Map<String, String> commitData() {
+        Map<String, String> data = new HashMap<>();
+        dynamic.forEach((field, kind) -> data.put(MAPPING_KEY_PREFIX + field, kind.name()));
+        return data;
+    }
+
+    Document toDocument(String id, long seqNo, Map<String, Object> source) {
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, id, Field.Store.YES));
+        document.add(new StoredField(SEQ_NO_FIELD, seqNo));
+        source.forEach((field, value) -> {
+            if (value instanceof Collection<?> values) {
+                values.forEach(element -> addValue(document, field, element));
+            } else {
+                addValue(document, field, value);
+            }
+        });
+        return document;
+    }
+
+    private void addValue(Document document, String field, Object value) {
+        if (value == null || value instanceof Map<?, ?> || value instanceof Collection<?>) {
+            return;
+        }
+        Kind kind = kind(field);
+        if (kind == null) {
+            kind = dynamic.computeIfAbsent(field, name -> value instanceof Number ? Kind.NUMBER
+                : value instanceof Boolean ? Kind.BOOLEAN
+                : Kind.TEXT_WITH_KEYWORD);
+        }
+        String text = value.toString();
+        switch (kind) {
+            case STORED -> document.add(new StoredField(field, text));
+            case TEXT -> document.add(new TextField(field, text, Field.Store.NO));
+            case TEXT_WITH_KEYWORD -> {
+                document.add(new TextField(field, text, Field.Store.NO));
+                if (text.length() <= IGNORE_ABOVE) {
+                    addKeyword(document, field + KEYWORD_SUFFIX, text);
+                }
+            }
+            case KEYWORD -> addKeyword(document, field, text);
+            case BOOLEAN -> {
+                Boolean bool = parseBoolean(text);
+                if (bool != null) {
+                    addKeyword(document, field, bool.toString());
+                }
+            }
+            case NUMBER -> {
+                Double number = parseNumber(text);
+                if (number != null) {
+                    document.add(new DoublePoint(field, number));
+                    document.add(new SortedNumericDocValuesField(field, NumericUtils.doubleToSortableLong(number)));
+                }
+            }
+            case GEO_POINT -> {
+                double[] point = parsePoint(text);
+                if (point != null) {
+                    document.add(new LatLonPoint(field, point[0], point[1]));
+                }
+            }
+        }
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        BytesRef bytes = new BytesRef(value.getBytes(StandardCharsets.UTF_8));
+        if (bytes.length > IndexWriter.MAX_TERM_LENGTH) {
+            return;
+        }
+        document.add(new StringField(field, bytes, Field.Store.NO));
+        document.add(new SortedSetDocValuesField(field, bytes));
+    }
+
+    static Boolean parseBoolean(String value) {
+        return switch (value.trim()) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    static Double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // "lat,lon", as the catalog's gps fields are written
+    static double[] parsePoint(String value) {
+        String[] coordinates = value.split(",");
+        if (coordinates.length != 2) {
+            return null;
+        }
+        Double lat = parseNumber(coordinates[0]);
+        Double lon = parseNumber(coordinates[1]);
+        if (lat == null || lon == null || Math.abs(lat) > 90 || Math.abs(lon) > 180) {
+            return null;
+        }
+        return new double[]{lat, lon};
+    }
+}
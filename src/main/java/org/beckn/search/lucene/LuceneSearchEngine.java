@@ -0,0 +1,310 @@
+package org.beckn.search.lucene;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.QueryTimeoutImpl;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiCollectorManager;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.TotalHitCountCollectorManager;
+import org.apache.lucene.util.Bits;
+import org.beckn.search.engine.DocumentIndexer;
+import org.beckn.search.engine.EngineQuery;
+import org.beckn.search.engine.EngineResult;
+import org.beckn.search.engine.FacetBuckets;
+import org.beckn.search.engine.IndexPatterns;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene backend for single-node and edge deployments: one memory-mapped index
+ * per domain under {@code search.lucene.dir}, searched in-process with near-real-time
+ * searchers. Documents are indexed with the fields and types of the Elasticsearch
+ * template and queries keep the Elasticsearch semantics, so a domain can move between
+ * the two engines with a re-ingest. Scores are BM25 per index as in ES, but without
+ * shards the numbers differ slightly.
+ *
+ * Ingested documents are committed to disk before {@link #index} returns, so the ingest
+ * outbox only drops a batch once it is durable, and become searchable within
+ * {@code search.lucene.refresh-interval}. {@code search.lucene.commit-interval} and
+ * shutdown commit anything left over.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.lucene.enabled", havingValue = "true")
+public class LuceneSearchEngine implements SearchEngine, DocumentIndexer {
+    public static final String NAME = "lucene";
+
+    private static final Set<String> STORED_FIELDS = Set.of(LuceneSchema.ID_FIELD, LuceneSchema.SEQ_NO_FIELD, "raw_catalog");
+
+    private final Path directory;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Map<String, LuceneSchema.Kind> mappings;
+    private final int facetSize;
+    private final List<double[]> priceRanges;
+    private final Map<String, LuceneIndex> indices = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "lucene-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LuceneSearchEngine(ObjectMapper objectMapper,
+                              @Value("${search.lucene.dir:data/lucene}") Path directory,
+                              @Value("${search.lucene.refresh-interval:1s}") Duration refreshInterval,
+                              @Value("${search.lucene.commit-interval:30s}") Duration commitInterval,
+                              @Value("${search.facets.size:20}") int facetSize,
+                              @Value("${search.facets.price.ranges:0-100,100-500,500-1000,1000-}") List<String> priceRanges) throws IOException {
+        this.directory = directory;
+        this.mappings = LuceneSchema.templateMappings(objectMapper);
+        this.facetSize = facetSize;
+        this.priceRanges = FacetBuckets.parseRanges(priceRanges);
+
+        Files.createDirectories(directory);
+        try (Stream<Path> existing = Files.list(directory)) {
+            for (Path path : existing.filter(Files::isDirectory).toList()) {
+                String name = path.getFileName().toString();
+                indices.put(name, new LuceneIndex(name, path, analyzer, mappings));
+            }
+        }
+        log.info("Opened {} Lucene indices in {}", indices.size(), directory.toAbsolutePath());
+
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::commitQuietly, commitInterval.toMillis(), commitInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void index(String index, List<Map<String, Object>> documents) throws IOException {
+        LuceneIndex luceneIndex = indices.get(index);
+        if (luceneIndex == null) {
+            synchronized (indices) {
+                luceneIndex = indices.get(index);
+                if (luceneIndex == null) {
+                    luceneIndex = new LuceneIndex(index, directory.resolve(index), analyzer, mappings);
+                    indices.put(index, luceneIndex);
+                }
+            }
+        }
+        luceneIndex.add(documents);
+        luceneIndex.commit();
+    }
+
+    /**
+     * Makes everything indexed so far searchable, without waiting for the refresh interval.
+     */
+    public void refresh() throws IOException {
+        for (LuceneIndex index : indices.values()) {
+            index.refresh();
+        }
+    }
+
+    @Override
+    public EngineResult search(EngineQuery engineQuery) throws IOException {
+        List<LuceneIndex> targets = IndexPatterns.resolve(engineQuery.getIndices(), indices.keySet()).stream()
+            .map(indices::get)
+            .toList();
+        int topN = engineQuery.getFrom() + engineQuery.getSize();
+        // One deadline for the whole search, shared by its indices
+        QueryTimeoutImpl timeout = engineQuery.getTimeout() == null ? null : new QueryTimeoutImpl(engineQuery.getTimeout().toMillis());
+
+        List<IndexSearcher> acquired = new ArrayList<>();
+        try {
+            TopDocs[] shardHits = new TopDocs[targets.size()];
+            List<FacetCollectorManager.Counts> facetCounts = new ArrayList<>();
+            long total = 0;
+            boolean complete = true;
+            for (int i = 0; i < targets.size(); i++) {
+                LuceneIndex index = targets.get(i);
+                IndexSearcher shared = index.acquire();
+                acquired.add(shared);
+                IndexSearcher searcher = shared;
+                if (timeout != null) {
+                    // The timeout is per searcher, so concurrent searches each get their own
+                    searcher = new IndexSearcher(shared.getIndexReader());
+                    searcher.setTimeout(timeout);
+                }
+                Query query = index.queries().toQuery(engineQuery.getQuery());
+
+                CollectorManager<?, ?> hitsManager = topN > 0
+                    // Without an exact count, collection can skip documents that can't make the top hits
+                    ? TopScoreDocCollector.createSharedManager(topN, null, engineQuery.isTrackTotalHits() ? Integer.MAX_VALUE : topN)
+                    : new TotalHitCountCollectorManager();
+                MultiCollectorManager managers = engineQuery.getFacets().isEmpty()
+                    ? new MultiCollectorManager(hitsManager)
+                    : new MultiCollectorManager(hitsManager, new FacetCollectorManager(engineQuery.getFacets(), priceRanges));
+                Object[] results = searcher.search(query, managers);
+
+                if (results[0] instanceof TopDocs topDocs) {
+                    float boost = engineQuery.getIndexBoosts().getOrDefault(index.name(), 1.0).floatValue();
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        scoreDoc.score *= boost;
+                        scoreDoc.shardIndex = i;
+                    }
+                    shardHits[i] = topDocs;
+                    total += topDocs.totalHits.value;
+                } else {
+                    shardHits[i] = new TopDocs(null, new ScoreDoc[0]);
+                    total += (Integer) results[0];
+                }
+                if (results.length > 1) {
+                    facetCounts.add((FacetCollectorManager.Counts) results[1]);
+                }
+                complete &= !searcher.timedOut();
+            }
+
+            List<CatalogHit> hits = new ArrayList<>();
+            if (topN > 0 && shardHits.length > 0) {
+                for (ScoreDoc scoreDoc : TopDocs.merge(engineQuery.getFrom(), engineQuery.getSize(), shardHits).scoreDocs) {
+                    StoredFields storedFields = acquired.get(scoreDoc.shardIndex).storedFields();
+                    Document document = storedFields.document(scoreDoc.doc, STORED_FIELDS);
+                    String rawCatalog = document.get("raw_catalog");
+                    if (rawCatalog != null) {
+                        hits.add(new CatalogHit(targets.get(scoreDoc.shardIndex).name(), document.get(LuceneSchema.ID_FIELD),
+                            document.getField(LuceneSchema.SEQ_NO_FIELD).numericValue().longValue(), 1L, rawCatalog));
+                    }
+                }
+            }
+            return new EngineResult(hits, facets(engineQuery.getFacets(), facetCounts),
+                engineQuery.isTrackTotalHits() ? total : null, complete);
+        } finally {
+            for (int i = 0; i < acquired.size(); i++) {
+                targets.get(i).release(acquired.get(i));
+            }
+        }
+    }
+
+    @Override
+    public Map<String, List<FacetBucket>> topTerms(String index, List<String> fields, int size) throws IOException {
+        LuceneIndex luceneIndex = indices.get(index);
+        if (luceneIndex == null) {
+            return Map.of();
+        }
+        IndexSearcher searcher = luceneIndex.acquire();
+        try {
+            Map<String, List<FacetBucket>> terms = new LinkedHashMap<>();
+            for (String field : fields) {
+                Map<String, Long> counts = new HashMap<>();
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    SortedSetDocValues values = leaf.reader().getSortedSetDocValues(field);
+                    if (values == null) {
+                        continue;
+                    }
+                    // Counted per segment ordinal over the live documents, then resolved once
+                    Bits liveDocs = leaf.reader().getLiveDocs();
+                    long[] ordCounts = new long[(int) values.getValueCount()];
+                    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                        if (liveDocs == null || liveDocs.get(doc)) {
+                            for (int i = 0; i < values.docValueCount(); i++) {
+                                ordCounts[(int) values.nextOrd()]++;
+                            }
+                        }
+                    }
+                    for (int ord = 0; ord < ordCounts.length; ord++) {
+                        if (ordCounts[ord] > 0) {
+                            counts.merge(values.lookupOrd(ord).utf8ToString(), ordCounts[ord], Long::sum);
+                        }
+                    }
+                }
+                terms.put(field, FacetBuckets.terms(counts, size));
+            }
+            return terms;
+        } finally {
+            luceneIndex.release(searcher);
+        }
+    }
+
+    private Map<String, List<FacetBucket>> facets(Set<FacetType> facets, List<FacetCollectorManager.Counts> counts) {
+        Map<String, List<FacetBucket>> result = new LinkedHashMap<>();
+        for (FacetType facet : facets) {
+            if (facet.getKind() == FacetType.Kind.RANGE) {
+                long[] total = new long[priceRanges.size()];
+                for (FacetCollectorManager.Counts indexCounts : counts) {
+                    long[] rangeCounts = indexCounts.ranges().get(facet.getKey());
+                    for (int i = 0; i < total.length; i++) {
+                        total[i] += rangeCounts[i];
+                    }
+                }
+                List<FacetBucket> buckets = new ArrayList<>();
+                for (int i = 0; i < total.length; i++) {
+                    buckets.add(FacetBuckets.range(priceRanges.get(i), total[i]));
+                }
+                result.put(facet.getKey(), buckets);
+            } else {
+                Map<String, Long> total = new LinkedHashMap<>();
+                counts.forEach(indexCounts -> indexCounts.terms().get(facet.getKey())
+                    .forEach((value, count) -> total.merge(value, count, Long::sum)));
+                result.put(facet.getKey(), FacetBuckets.terms(total, facetSize));
+            }
+        }
+        return result;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Lucene refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void commitQuietly() {
+        for (LuceneIndex index : indices.values()) {
+            try {
+                index.commit();
+            } catch (Exception e) {
+                log.warn("Committing Lucene index '{}' failed: {}", index.name(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        for (LuceneIndex index : indices.values()) {
+            try {
+                index.close();
+            } catch (IOException e) {
+                log.warn("Closing Lucene index '{}' failed: {}", index.name(), e.getMessage());
+            }
+        }
+        indices.clear();
+    }
+}
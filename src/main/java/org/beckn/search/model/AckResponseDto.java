@@ -0,0 +1,34 @@
+package org.beckn.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Beckn acknowledgement, returned at once for asynchronous searches whose results follow
+ * as an {@code on_search} callback.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AckResponseDto {
+    private Message message;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Message {
+        private Ack ack;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Ack {
+        private String status;
+    }
+
+    public static AckResponseDto ack() {
+        return new AckResponseDto(new Message(new Ack("ACK")));
+    }
+}
@@ -0,0 +1,40 @@
+package org.beckn.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One search hit carrying a raw catalog, with the document version ES reported for it.
+ * A catalog served from the {@code CatalogStore} comes as its UTF-8 bytes and is only
+ * decoded to a string if something asks for one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogHit {
+    private String index;
+    private String id;
+    private Long seqNo;
+    private Long primaryTerm;
+    private String rawCatalog;
+    private ByteBuffer rawCatalogUtf8;
+
+    public CatalogHit(String index, String id, Long seqNo, Long primaryTerm, String rawCatalog) {
+        this(index, id, seqNo, primaryTerm, rawCatalog, null);
+    }
+
+    public CatalogHit(String index, String id, Long seqNo, Long primaryTerm, ByteBuffer rawCatalogUtf8) {
+        this(index, id, seqNo, primaryTerm, null, rawCatalogUtf8);
+    }
+
+    public String getRawCatalog() {
+        if (rawCatalog == null && rawCatalogUtf8 != null) {
+            rawCatalog = StandardCharsets.UTF_8.decode(rawCatalogUtf8.duplicate()).toString();
+        }
+        return rawCatalog;
+    }
+}
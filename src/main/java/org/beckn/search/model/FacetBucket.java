@@ -0,0 +1,21 @@
+package org.beckn.search.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetBucket {
+    private String key;
+    private long count;
+    private Double from;
+    private Double to;
+
+    public FacetBucket(String key, long count) {
+        this(key, count, null, null);
+    }
+}
@@ -0,0 +1,47 @@
+package org.beckn.search.model;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public enum FacetType {
+    CATEGORY("category", "items_category_ids", Kind.TERMS),
+    FULFILLMENT("fulfillment", "providers_fulfillments_type.keyword", Kind.TERMS),
+    TAG("tag", "items_tags_list_value", Kind.TERMS),
+    PRICE("price", "items_price_value", Kind.RANGE);
+
+    public enum Kind {
+        TERMS, RANGE
+    }
+
+    private final String key;
+    private final String field;
+    private final Kind kind;
+
+    FacetType(String key, String field, Kind kind) {
+        this.key = key;
+        this.field = field;
+        this.kind = kind;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public static FacetType fromKey(String key) {
+        for (FacetType type : values()) {
+            if (type.key.equalsIgnoreCase(key.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Invalid facet '" + key + "'. Must be one of: " +
+            Arrays.stream(values()).map(FacetType::getKey).collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,39 @@
+package org.beckn.search.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IndexRebuildStatus {
+    public enum State {
+        RUNNING, SUCCEEDED, FAILED
+    }
+
+    private String domain;
+    private String alias;
+
+    @JsonProperty("source_index")
+    private String sourceIndex;
+
+    @JsonProperty("target_index")
+    private String targetIndex;
+
+    private State state;
+
+    // Current step while running, e.g. "reindex" or "forcemerge"
+    private String step;
+
+    private Long documents;
+
+    @JsonProperty("started_at")
+    private Instant startedAt;
+
+    @JsonProperty("finished_at")
+    private Instant finishedAt;
+
+    private String error;
+}
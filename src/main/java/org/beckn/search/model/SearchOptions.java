@@ -0,0 +1,32 @@
+package org.beckn.search.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+@Data
+@Builder
+public class SearchOptions {
+    @Builder.Default
+    private Set<FacetType> facets = Collections.emptySet();
+
+    // Skip the hits entirely and only compute facet counts (size: 0)
+    private boolean facetsOnly;
+
+    // Count every match exactly; off by default so ES can skip non-competitive matches
+    private boolean trackTotalHits;
+
+    // Deadline passed to ES as the search timeout; null uses the configured default
+    private Duration timeout;
+
+    public static SearchOptions defaults() {
+        return SearchOptions.builder().build();
+    }
+
+    public boolean hasFacets() {
+        return facets != null && !facets.isEmpty();
+    }
+}
@@ -7,6 +7,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.util.List;
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +25,9 @@ public class SearchResponseDto {
     @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Message {
         private Catalog catalog;
+        private Map<String, List<FacetBucket>> facets;
+        // Exact number of matches, only present when track_total_hits was requested
+        private Long total;
     }
 
     @Data
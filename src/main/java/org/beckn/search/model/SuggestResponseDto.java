@@ -0,0 +1,15 @@
+package org.beckn.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResponseDto {
+    private String domain;
+    private List<Suggestion> suggestions;
+}
@@ -0,0 +1,237 @@
+package org.beckn.search.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Durable buffer for work that must outlive a restart: outgoing {@code on_search}
+ * callbacks and queued catalog ingests. Work is appended to a {@link WriteAheadLog} before
+ * it starts and completed when it is done; whatever is still pending at startup is handed
+ * back to the registered handler once the application is ready.
+ *
+ * Appends don't wait for the disk. A background thread syncs every {@code sync-interval},
+ * grouping all appends since the last sync into one fsync, and compacts the log every
+ * {@code compact-interval}. A failing log never fails the work itself: it then just isn't
+ * durable.
+ */
+@Slf4j
+@Component
+public class Outbox implements MeterBinder {
+
+    public enum Kind {
+        ON_SEARCH((byte) 1),
+        INGEST((byte) 2);
+
+        private final byte code;
+
+        Kind(byte code) {
+            this.code = code;
+        }
+
+        static Kind of(byte code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Pending work handed back after a restart; complete it like freshly appended work.
+     */
+    public record Entry(long id, byte[] payload) {
+    }
+
+    private static final double COMPACT_MAX_LIVE_RATIO = 0.5;
+
+    private final WriteAheadLog wal;
+    private final Map<Kind, Consumer<Entry>> handlers = new EnumMap<>(Kind.class);
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public Outbox(@Value("${search.outbox.enabled:true}") boolean enabled,
+                  @Value("${search.outbox.dir:data/outbox}") Path directory,
+                  @Value("${search.outbox.segment-size:64MB}") DataSize segmentSize,
+                  @Value("${search.outbox.sync-interval:10ms}") Duration syncInterval,
+                  @Value("${search.outbox.compact-interval:10s}") Duration compactInterval) {
+        this.wal = enabled ? open(directory, (int) segmentSize.toBytes()) : null;
+        if (this.wal == null) {
+            this.scheduler = null;
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::compact, compactInterval.toMillis(), compactInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    private static WriteAheadLog open(Path directory, int segmentBytes) {
+        try {
+            return new WriteAheadLog(directory, segmentBytes);
+        } catch (IOException e) {
+            log.error("Could not open outbox in {}, callbacks and ingests won't survive restarts: {}",
+                directory, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sets the handler for the kind's work left pending by the previous run.
+     */
+    public void onReplay(Kind kind, Consumer<Entry> handler) {
+        handlers.put(kind, handler);
+    }
+
+    /**
+     * Records work before it starts. Returns the id to complete, or -1 if the outbox is off
+     * or failing.
+     */
+    public long append(Kind kind, byte[] payload) {
+        if (wal == null) {
+            return -1;
+        }
+        try {
+            long id;
+            synchronized (this) {
+                id = wal.append(kind.code, payload);
+            }
+            appends.increment();
+            return id;
+        } catch (IOException e) {
+            failures.increment();
+            log.warn("Could not append to outbox: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    public void complete(long id) {
+        if (wal == null || id < 0) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                wal.complete(id);
+            }
+        } catch (IOException e) {
+            failures.increment();
+            log.warn("Could not complete outbox entry {}: {}", id, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        if (wal == null) {
+            return;
+        }
+        List<WriteAheadLog.Record> records;
+        synchronized (this) {
+            records = wal.pending();
+        }
+        if (!records.isEmpty()) {
+            log.info("Replaying {} outbox entries left by the previous run", records.size());
+        }
+        for (WriteAheadLog.Record record : records) {
+            Kind kind = Kind.of(record.kind());
+            Consumer<Entry> handler = kind != null ? handlers.get(kind) : null;
+            if (handler == null) {
+                complete(record.id());
+                continue;
+            }
+            try {
+                handler.accept(new Entry(record.id(), record.payload()));
+            } catch (RuntimeException e) {
+                log.warn("Replaying outbox entry {} failed: {}", record.id(), e.getMessage());
+            }
+        }
+    }
+
+    // Only the flags are taken under the lock; appends continue during the fsync
+    void sync() {
+        List<MappedByteBuffer> dirty;
+        synchronized (this) {
+            dirty = wal.dirtySegments();
+        }
+        try {
+            WriteAheadLog.force(dirty);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox sync failed: {}", e.getMessage());
+        }
+    }
+
+    void compact() {
+        try {
+            synchronized (this) {
+                wal.compact(COMPACT_MAX_LIVE_RATIO);
+            }
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox compaction failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (wal == null) {
+            return;
+        }
+        Gauge.builder("search.outbox.pending", this, outbox -> outbox.pendingCount())
+            .register(registry);
+        Gauge.builder("search.outbox.segments", this, outbox -> outbox.segmentCount())
+            .register(registry);
+        FunctionCounter.builder("search.outbox.appends", appends, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("search.outbox.failures", failures, LongAdder::sum)
+            .description("Outbox appends, syncs and compactions that failed")
+            .register(registry);
+    }
+
+    synchronized int pendingCount() {
+        return wal.pendingCount();
+    }
+
+    synchronized int segmentCount() {
+        return wal.segmentCount();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (wal == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        synchronized (this) {
+            wal.close();
+        }
+    }
+}
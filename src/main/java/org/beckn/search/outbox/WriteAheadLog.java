@@ -0,0 +1,316 @@
+package org.beckn.search.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records in memory-mapped segment files. An append is a copy into the
+ * mapped segment, so it costs about as much as a memory write and survives a process
+ * restart at once (the pages belong to the kernel); {@link #sync()} forces the pages
+ * written since the last call to disk, so one fsync covers every append in between.
+ *
+ * Each record is {@code [int size][int crc32c][byte kind][long id][payload]}; a size of 0
+ * marks the end of a segment's data and a bad checksum a torn write. Finished records are
+ * acknowledged with a small {@link #KIND_ACK} record rather than edited in place. Segments
+ * are dropped oldest first, once nothing in them is pending: the oldest segment's pending
+ * records are copied forward when few are left, so one stuck record can't pin the log.
+ * Segments go strictly in order because a segment's acks may refer to older segments.
+ *
+ * Not thread-safe on its own; {@link Outbox} serializes access.
+ */
+@Slf4j
+public final class WriteAheadLog implements Closeable {
+    static final byte KIND_ACK = 0;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + 1 + Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    /**
+     * A pending record as recovered or appended.
+     */
+    public record Record(long id, byte kind, byte[] payload) {
+    }
+
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        int position;
+        int pending;
+        long pendingBytes;
+        boolean dirty;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private record Location(Segment segment, int offset, byte kind) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Location> pending = new HashMap<>();
+    private long nextId = 1;
+    // Segment file numbers, separate from record ids: acks and copied records roll segments too
+    private long nextSegment = 1;
+
+    public WriteAheadLog(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        recover();
+        if (segments.isEmpty()) {
+            roll(segmentBytes);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                .toList();
+        }
+        for (Path file : files) {
+            nextSegment = Math.max(nextSegment, segmentNumber(file) + 1);
+            Segment segment = new Segment(file, map(file, Files.size(file)));
+            segments.addLast(segment);
+            scan(segment);
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Reads records up to the end marker or the first torn one; appends continue from there
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int size = buffer.getInt(offset);
+            if (size < HEADER_BYTES || offset + size > buffer.capacity()) {
+                break;
+            }
+            int crc = buffer.getInt(offset + Integer.BYTES);
+            if (crc != checksum(buffer, offset, size)) {
+                log.warn("Ignoring torn record at {} in {}", offset, segment.path.getFileName());
+                break;
+            }
+            byte kind = buffer.get(offset + 2 * Integer.BYTES);
+            long id = buffer.getLong(offset + 2 * Integer.BYTES + 1);
+            if (kind == KIND_ACK) {
+                release(pending.remove(id));
+            } else {
+                // A record copied forward by compaction replaces its older copy
+                release(pending.put(id, new Location(segment, offset, kind)));
+                segment.pending++;
+                segment.pendingBytes += size;
+            }
+            nextId = Math.max(nextId, id + 1);
+            offset += size;
+        }
+        segment.position = offset;
+    }
+
+    private void release(Location location) {
+        if (location != null) {
+            location.segment().pending--;
+            location.segment().pendingBytes -= location.segment().buffer.getInt(location.offset());
+        }
+    }
+
+    /**
+     * Pending records in the order they were first appended.
+     */
+    public List<Record> pending() {
+        List<Record> records = new ArrayList<>(pending.size());
+        pending.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> records.add(read(entry.getKey(), entry.getValue())));
+        return records;
+    }
+
+    private static Record read(long id, Location location) {
+        MappedByteBuffer buffer = location.segment().buffer;
+        int size = buffer.getInt(location.offset());
+        byte[] payload = new byte[size - HEADER_BYTES];
+        buffer.get(location.offset() + HEADER_BYTES, payload);
+        return new Record(id, location.kind(), payload);
+    }
+
+    public long append(byte kind, byte[] payload) throws IOException {
+        if (kind == KIND_ACK) {
+            throw new IllegalArgumentException("Kind " + KIND_ACK + " is reserved for acks");
+        }
+        long id = nextId++;
+        write(id, kind, payload);
+        return id;
+    }
+
+    /**
+     * Marks the record finished. Unknown ids are ignored, so completing twice is harmless.
+     */
+    public void complete(long id) throws IOException {
+        Location location = pending.remove(id);
+        if (location == null) {
+            return;
+        }
+        release(location);
+        write(id, KIND_ACK, new byte[0]);
+    }
+
+    private Location write(long id, byte kind, byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.position + size > segment.buffer.capacity()) {
+            segment = roll(size);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.position;
+        buffer.put(offset + 2 * Integer.BYTES, kind);
+        buffer.putLong(offset + 2 * Integer.BYTES + 1, id);
+        buffer.put(offset + HEADER_BYTES, payload);
+        buffer.putInt(offset + Integer.BYTES, checksum(buffer, offset, size));
+        // The size goes last: until it is set, a reader sees the end of the data
+        buffer.putInt(offset, size);
+        segment.position += size;
+        segment.dirty = true;
+        Location location = new Location(segment, offset, kind);
+        if (kind != KIND_ACK) {
+            pending.put(id, location);
+            segment.pending++;
+            segment.pendingBytes += size;
+        }
+        return location;
+    }
+
+    private Segment roll(int minBytes) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        int capacity = Math.max(segmentBytes, minBytes);
+        Segment segment = new Segment(path, map(path, capacity));
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() < size) {
+                file.setLength(size);
+            }
+            // The mapping stays valid after the channel is closed
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+        }
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int offset, int size) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 2 * Integer.BYTES, size - 2 * Integer.BYTES));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Segments written to since the last call; force them with {@link #force(List)}
+     * outside any lock so appends continue during the fsync.
+     */
+    List<MappedByteBuffer> dirtySegments() {
+        List<MappedByteBuffer> dirty = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.dirty) {
+                segment.dirty = false;
+                dirty.add(segment.buffer);
+            }
+        }
+        return dirty;
+    }
+
+    static void force(List<MappedByteBuffer> buffers) {
+        for (MappedByteBuffer buffer : buffers) {
+            buffer.force();
+        }
+    }
+
+    public void sync() {
+        force(dirtySegments());
+    }
+
+    /**
+     * Drops finished segments from the oldest end, first copying the oldest one's pending
+     * records forward when they fill at most {@code maxLiveRatio} of it. Returns the
+     * number of segments deleted.
+     */
+    public int compact(double maxLiveRatio) throws IOException {
+        int deleted = 0;
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            if (oldest.pending > 0) {
+                if (oldest.pendingBytes > maxLiveRatio * oldest.buffer.capacity()) {
+                    break;
+                }
+                copyForward(oldest);
+            }
+            segments.removeFirst();
+            // The active segment must be durable before the only other copy goes
+            sync();
+            Files.deleteIfExists(oldest.path);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    private void copyForward(Segment segment) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Map.Entry<Long, Location>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Location> entry = it.next();
+            if (entry.getValue().segment() == segment) {
+                ids.add(entry.getKey());
+            }
+        }
+        ids.sort(null);
+        for (long id : ids) {
+            Record record = read(id, pending.remove(id));
+            write(id, record.kind(), record.payload());
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        sync();
+        segments.clear();
+        pending.clear();
+    }
+}
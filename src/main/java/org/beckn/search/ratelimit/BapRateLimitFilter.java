@@ -0,0 +1,75 @@
+package org.beckn.search.ratelimit;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies the per-BAP rate limit to search requests before the body is read. A request is
+ * charged to its BAP only when the subscriber has been authenticated: whatever verifies the
+ * Beckn {@code Authorization} signature in front of this filter sets
+ * {@link #VERIFIED_SUBSCRIBER_ATTRIBUTE}. The {@code keyId} in an unverified header and
+ * {@code context.bap_id} are claims anyone can make, and would let a caller spend another
+ * BAP's budget or take its tier, so unverified requests are limited per client address.
+ */
+@Component
+@RequiredArgsConstructor
+public class BapRateLimitFilter extends OncePerRequestFilter {
+    // Set once the request has been charged so the controller doesn't charge it again
+    public static final String CHARGED_ATTRIBUTE = BapRateLimitFilter.class.getName() + ".charged";
+    // The subscriber id whose request signature has been verified
+    public static final String VERIFIED_SUBSCRIBER_ATTRIBUTE = BapRateLimitFilter.class.getName() + ".verifiedSubscriber";
+
+    private final BapRateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().endsWith("/search");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            rateLimiter.acquire(rateLimitKey(request));
+        } catch (RateLimitExceededException e) {
+            writeTooManyRequests(response, e);
+            return;
+        }
+        request.setAttribute(CHARGED_ATTRIBUTE, Boolean.TRUE);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * The verified subscriber id, or {@code ip:<client address>} for an unverified request.
+     */
+    public static String rateLimitKey(HttpServletRequest request) {
+        if (request.getAttribute(VERIFIED_SUBSCRIBER_ATTRIBUTE) instanceof String subscriberId && !subscriberId.isBlank()) {
+            return subscriberId;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Same error shape GlobalExceptionHandler produces, written directly since no handler runs here
+    private static void writeTooManyRequests(HttpServletResponse response, RateLimitExceededException e) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        String message = new String(JsonStringEncoder.getInstance().quoteAsString(e.getMessage()));
+        byte[] body = ("{\"error\":{\"code\":\"RATE_LIMITED\",\"message\":\"" + message + "\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
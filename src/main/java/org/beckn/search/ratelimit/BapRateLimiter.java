@@ -0,0 +1,116 @@
+package org.beckn.search.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits searches per BAP. Each BAP has a token bucket implemented as GCRA: the
+ * bucket is a single "theoretical arrival time" advanced with one compare-and-set per
+ * request, so checks never lock and never contend on anything but the BAP's own bucket.
+ * Buckets live in a size-bounded cache so that unknown or rotating ids can't grow memory.
+ */
+@Component
+public class BapRateLimiter implements MeterBinder {
+    private final RateLimitProperties properties;
+    private final Cache<String, Bucket> buckets;
+    private final LongAdder rejected = new LongAdder();
+
+    public BapRateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxKeys())
+            .expireAfterAccess(properties.getIdleExpiry())
+            .build();
+    }
+
+    /**
+     * Takes one token for the BAP or throws {@link RateLimitExceededException}.
+     */
+    public void acquire(String bapId) {
+        long waitNanos = tryAcquire(bapId, System.nanoTime());
+        if (waitNanos > 0) {
+            // The first reading may be stale if this thread was descheduled mid-check
+            waitNanos = tryAcquire(bapId, System.nanoTime());
+        }
+        if (waitNanos > 0) {
+            rejected.increment();
+            throw new RateLimitExceededException(bapId, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+
+    // Returns 0 when allowed, otherwise how long until a token is available
+    long tryAcquire(String bapId, long nowNanos) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        return buckets.get(bapId, this::newBucket).tryAcquire(nowNanos);
+    }
+
+    private Bucket newBucket(String bapId) {
+        String tierName = properties.getBaps().getOrDefault(bapId, properties.getDefaultTier());
+        RateLimitProperties.Tier tier = properties.getTiers().get(tierName);
+        if (tier == null) {
+            tier = properties.getTiers().get(properties.getDefaultTier());
+        }
+        if (tier == null) {
+            tier = new RateLimitProperties.Tier();
+        }
+        return new Bucket(tier.getRate(), tier.getBurst());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.rate_limit.rejected", rejected, LongAdder::sum)
+            .description("Searches rejected with 429 by the per-BAP rate limit")
+            .register(registry);
+        Gauge.builder("search.rate_limit.tracked_keys", buckets, Cache::estimatedSize)
+            .register(registry);
+    }
+
+    static final class Bucket {
+        private static final VarHandle TAT;
+
+        static {
+            try {
+                TAT = MethodHandles.lookup().findVarHandle(Bucket.class, "theoreticalArrival", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        @SuppressWarnings("unused") // accessed through TAT
+        private volatile long theoreticalArrival;
+
+        Bucket(double rate, int burst) {
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+            this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+            this.theoreticalArrival = Long.MIN_VALUE;
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long tat = (long) TAT.getVolatile(this);
+                long start = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+                long wait = start - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (TAT.compareAndSet(this, tat, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.beckn.search.ratelimit;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String bapId, long retryAfterSeconds) {
+        super("Rate limit exceeded for " + bapId);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
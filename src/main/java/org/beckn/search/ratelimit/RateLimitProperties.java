@@ -0,0 +1,39 @@
+package org.beckn.search.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-BAP rate limits. Every BAP gets the {@code default-tier} unless it is assigned
+ * another one under {@code baps}; bap ids contain dots, so use bracket keys, e.g.
+ * {@code search.rate-limit.baps[buyer-app.beckn.org]=partner}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "search.rate-limit")
+public class RateLimitProperties {
+    // Off until request signatures are verified: without a verified subscriber every request is
+    // keyed by client address, and behind a gateway all BAPs would share one bucket
+    private boolean enabled = false;
+    private String defaultTier = "standard";
+    private Map<String, Tier> tiers = new LinkedHashMap<>(Map.of("standard", new Tier()));
+    private Map<String, String> baps = new HashMap<>();
+
+    // Buckets for BAPs beyond this are evicted least-recently-used first
+    private long maxKeys = 100_000;
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    @Data
+    public static class Tier {
+        // Sustained requests per second
+        private double rate = 100;
+        // Requests allowed in a burst above the sustained rate
+        private int burst = 200;
+    }
+}
@@ -0,0 +1,344 @@
+package org.beckn.search.store;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Node-local copy of the raw catalogs, so searches can ask Elasticsearch for ids and
+ * versions only instead of shipping every hit's {@code _source} over the wire. Catalogs
+ * are appended to memory-mapped segment files and located through an {@link OffHeapIndex},
+ * so neither the catalogs nor the index live on the heap, and a read hands out a read-only
+ * view of the mapped bytes without copying them.
+ *
+ * Each record is {@code [int size][int crc32c][long seqNo][long primaryTerm][int keyLength][key][catalog]}
+ * with the key {@code index/id}. A catalog is only returned for the exact version asked
+ * for, so an outdated copy is a miss, never a wrong answer. Elasticsearch stays the source
+ * of truth: this is a cache, filled at ingest and on misses, never fsynced, rebuilt from
+ * the segments at startup and trimmed oldest segment first beyond {@code max-size}.
+ */
+@Slf4j
+@Component
+public class CatalogStore implements MeterBinder {
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".cat";
+    private static final int INITIAL_ENTRIES = 1 << 16;
+
+    private static final class Segment {
+        final int number;
+        final Path path;
+        final MappedByteBuffer buffer;
+        int position;
+
+        Segment(int number, Path path, MappedByteBuffer buffer) {
+            this.number = number;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final OffHeapIndex index = new OffHeapIndex(INITIAL_ENTRIES);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CatalogStore(@Value("${search.catalog-store.enabled:true}") boolean enabled,
+                        @Value("${search.catalog-store.dir:data/catalog-store}") Path directory,
+                        @Value("${search.catalog-store.segment-size:256MB}") DataSize segmentSize,
+                        @Value("${search.catalog-store.max-size:4GB}") DataSize maxSize) {
+        this.directory = directory;
+        this.segmentBytes = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.maxBytes = maxSize.toBytes();
+        this.enabled = enabled && open();
+    }
+
+    private boolean open() {
+        try {
+            Files.createDirectories(directory);
+            recover();
+            log.info("Opened catalog store in {} with {} catalogs", directory.toAbsolutePath(), index.size());
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not open catalog store in {}, searches will fetch catalogs from Elasticsearch: {}",
+                directory, e.getMessage());
+            segments.clear();
+            return false;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = new Segment(number, file, map(file, Files.size(file)));
+            segments.put(number, segment);
+            bytes += segment.buffer.capacity();
+            scan(segment);
+        }
+    }
+
+    // Indexes records up to the end of the data or the first torn one; later copies win
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int size = buffer.getInt(offset);
+            if (size < HEADER_BYTES || offset + size > buffer.capacity()) {
+                break;
+            }
+            if (buffer.getInt(offset + Integer.BYTES) != checksum(buffer, offset, size)) {
+                log.warn("Ignoring torn record at {} in {}", offset, segment.path.getFileName());
+                break;
+            }
+            ByteBuffer key = key(buffer, offset);
+            index.put(hash(key), location(segment.number, offset), candidate -> isKey(candidate, key));
+            offset += size;
+        }
+        segment.position = offset;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The stored catalog of that document version as a read-only view of its UTF-8 bytes,
+     * or null if the store doesn't have that version.
+     */
+    public ByteBuffer get(String indexName, String id, long seqNo, long primaryTerm) {
+        if (!enabled) {
+            return null;
+        }
+        ByteBuffer key = ByteBuffer.wrap(key(indexName, id));
+        lock.readLock().lock();
+        try {
+            long location = index.get(hash(key), candidate -> isKey(candidate, key));
+            if (location != OffHeapIndex.NOT_FOUND) {
+                ByteBuffer buffer = segment(location).buffer;
+                int offset = offset(location);
+                if (buffer.getLong(offset + 2 * Integer.BYTES) == seqNo
+                    && buffer.getLong(offset + 2 * Integer.BYTES + Long.BYTES) == primaryTerm) {
+                    hits.increment();
+                    int start = offset + HEADER_BYTES + key.remaining();
+                    return buffer.slice(start, offset + buffer.getInt(offset) - start).asReadOnlyBuffer();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a document version's catalog. Storing a version that is already there, or
+     * older than the stored one, does nothing.
+     */
+    public void put(String indexName, String id, long seqNo, long primaryTerm, byte[] catalog) {
+        if (!enabled) {
+            return;
+        }
+        byte[] keyBytes = key(indexName, id);
+        ByteBuffer key = ByteBuffer.wrap(keyBytes);
+        long hash = hash(key);
+        lock.writeLock().lock();
+        try {
+            long existing = index.get(hash, candidate -> isKey(candidate, key));
+            if (existing != OffHeapIndex.NOT_FOUND) {
+                ByteBuffer buffer = segment(existing).buffer;
+                int offset = offset(existing);
+                long storedTerm = buffer.getLong(offset + 2 * Integer.BYTES + Long.BYTES);
+                long storedSeqNo = buffer.getLong(offset + 2 * Integer.BYTES);
+                if (storedTerm > primaryTerm || (storedTerm == primaryTerm && storedSeqNo >= seqNo)) {
+                    return;
+                }
+            }
+            long location = append(keyBytes, seqNo, primaryTerm, catalog);
+            index.put(hash, location, candidate -> isKey(candidate, key));
+        } catch (IOException e) {
+            log.warn("Could not store catalog of {}/{}: {}", indexName, id, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long append(byte[] key, long seqNo, long primaryTerm, byte[] catalog) throws IOException {
+        int size = HEADER_BYTES + key.length + catalog.length;
+        Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (segment == null || segment.position + size > segment.buffer.capacity()) {
+            segment = roll(size);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.position;
+        buffer.putLong(offset + 2 * Integer.BYTES, seqNo);
+        buffer.putLong(offset + 2 * Integer.BYTES + Long.BYTES, primaryTerm);
+        buffer.putInt(offset + 2 * Integer.BYTES + 2 * Long.BYTES, key.length);
+        buffer.put(offset + HEADER_BYTES, key);
+        buffer.put(offset + HEADER_BYTES + key.length, catalog);
+        buffer.putInt(offset + Integer.BYTES, checksum(buffer, offset, size));
+        // The size goes last: until it is set, recovery sees the end of the data
+        buffer.putInt(offset, size);
+        segment.position += size;
+        return location(segment.number, offset);
+    }
+
+    private Segment roll(int minBytes) throws IOException {
+        int capacity = Math.max(segmentBytes, minBytes);
+        while (!segments.isEmpty() && bytes + capacity > maxBytes) {
+            evictOldest();
+        }
+        int number = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        Segment segment = new Segment(number, path, map(path, capacity));
+        segments.put(number, segment);
+        bytes += capacity;
+        return segment;
+    }
+
+    // Readers may still hold views of the segment; the mapping outlives the deleted file
+    private void evictOldest() throws IOException {
+        Segment oldest = segments.pollFirstEntry().getValue();
+        MappedByteBuffer buffer = oldest.buffer;
+        for (int offset = 0; offset < oldest.position; offset += buffer.getInt(offset)) {
+            index.remove(hash(key(buffer, offset)), location(oldest.number, offset));
+        }
+        bytes -= buffer.capacity();
+        Files.deleteIfExists(oldest.path);
+        log.debug("Evicted catalog store segment {}", oldest.path.getFileName());
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() < size) {
+                file.setLength(size);
+            }
+            // The mapping stays valid after the channel is closed
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int size) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 2 * Integer.BYTES, size - 2 * Integer.BYTES));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] key(String indexName, String id) {
+        return (indexName + "/" + id).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer key(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset + 2 * Integer.BYTES + 2 * Long.BYTES);
+        return buffer.slice(offset + HEADER_BYTES, length);
+    }
+
+    private boolean isKey(long location, ByteBuffer key) {
+        return key(segment(location).buffer, offset(location)).equals(key);
+    }
+
+    // FNV-1a with a final mix, so keys differing only at the end still spread over the table
+    static long hash(ByteBuffer key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = key.position(); i < key.limit(); i++) {
+            hash ^= key.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static long location(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private Segment segment(long location) {
+        return segments.get((int) (location >>> 32));
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("search.catalog-store.entries", this, store -> store.size())
+            .register(registry);
+        Gauge.builder("search.catalog-store.bytes", this, store -> store.byteSize())
+            .description("Mapped segment bytes plus the off-heap index")
+            .register(registry);
+        FunctionCounter.builder("search.catalog-store.hits", hits, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("search.catalog-store.misses", misses, LongAdder::sum)
+            .description("Catalogs the store didn't have at the searched version")
+            .register(registry);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long byteSize() {
+        lock.readLock().lock();
+        try {
+            return bytes + index.byteSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.beckn.search.store;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressed hash table from 64-bit key hashes to record locations, kept in a direct
+ * buffer so millions of entries cost no heap and no GC work. Each slot is
+ * {@code [long hash][long location]}; hash 0 marks an empty slot. Lookups probe linearly
+ * and ask the caller whether a location with a matching hash really holds the key, so
+ * hash collisions are resolved against the stored record. Removal shifts the following
+ * entries back instead of leaving tombstones.
+ *
+ * Not thread-safe; {@link CatalogStore} guards it.
+ */
+final class OffHeapIndex {
+    static final long NOT_FOUND = -1;
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final double MAX_LOAD = 0.7;
+
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    OffHeapIndex(int expectedEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedEntries / MAX_LOAD)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        table = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    // Zero is the empty marker, so a real hash of zero is stored as one
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    private int home(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private long hashAt(int slot) {
+        return table.getLong(slot * SLOT_BYTES);
+    }
+
+    private long locationAt(int slot) {
+        return table.getLong(slot * SLOT_BYTES + Long.BYTES);
+    }
+
+    private void set(int slot, long hash, long location) {
+        table.putLong(slot * SLOT_BYTES, hash);
+        table.putLong(slot * SLOT_BYTES + Long.BYTES, location);
+    }
+
+    /**
+     * The location of the key, or {@link #NOT_FOUND}; {@code isKey} confirms a candidate.
+     */
+    long get(long hash, LongPredicate isKey) {
+        hash = nonZero(hash);
+        for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+            long slotHash = hashAt(slot);
+            if (slotHash == 0) {
+                return NOT_FOUND;
+            }
+            if (slotHash == hash && isKey.test(locationAt(slot))) {
+                return locationAt(slot);
+            }
+        }
+    }
+
+    /**
+     * Points the key at a new location, replacing the entry {@code isKey} recognizes.
+     */
+    void put(long hash, long location, LongPredicate isKey) {
+        if (size + 1 > (mask + 1) * MAX_LOAD) {
+            resize();
+        }
+        hash = nonZero(hash);
+        for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+            long slotHash = hashAt(slot);
+            if (slotHash == 0) {
+                set(slot, hash, location);
+                size++;
+                return;
+            }
+            if (slotHash == hash && isKey.test(locationAt(slot))) {
+                set(slot, hash, location);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry only if it still points at {@code location}.
+     */
+    void remove(long hash, long location) {
+        hash = nonZero(hash);
+        int slot = home(hash);
+        while (true) {
+            long slotHash = hashAt(slot);
+            if (slotHash == 0) {
+                return;
+            }
+            if (slotHash == hash && locationAt(slot) == location) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Move later entries of the probe run back into the gap, unless their home lies after it
+        int gap = slot;
+        for (int next = (gap + 1) & mask; hashAt(next) != 0; next = (next + 1) & mask) {
+            int home = home(hashAt(next));
+            boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                set(gap, hashAt(next), locationAt(next));
+                gap = next;
+            }
+        }
+        set(gap, 0, 0);
+        size--;
+    }
+
+    private void resize() {
+        ByteBuffer old = table;
+        int oldCapacity = mask + 1;
+        allocate(oldCapacity * 2);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long hash = old.getLong(slot * SLOT_BYTES);
+            if (hash != 0) {
+                int target = home(hash);
+                while (hashAt(target) != 0) {
+                    target = (target + 1) & mask;
+                }
+                set(target, hash, old.getLong(slot * SLOT_BYTES + Long.BYTES));
+                size++;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long byteSize() {
+        return table.capacity();
+    }
+}
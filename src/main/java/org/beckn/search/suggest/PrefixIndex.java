@@ -0,0 +1,162 @@
+package org.beckn.search.suggest;
+
+import org.beckn.search.model.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable in-memory prefix index over suggestion names. Every name is indexed
+ * under its full text and under the start of each following word, so "mil" finds
+ * both "Milk" and "Fresh Milk". Keys are kept in one sorted array and looked up with
+ * a binary search; the very short prefixes, which match the largest ranges, have
+ * their top-K results precomputed at build time.
+ */
+public final class PrefixIndex {
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+
+    private final String[] keys;
+    private final int[] keyEntries;
+    private final Suggestion[] entries;
+    private final Map<String, int[]> shortPrefixTopK;
+    private final int maxResults;
+
+    private PrefixIndex(String[] keys, int[] keyEntries, Suggestion[] entries, int maxResults) {
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.entries = entries;
+        this.maxResults = maxResults;
+        this.shortPrefixTopK = precomputeShortPrefixes();
+    }
+
+    public static PrefixIndex empty() {
+        return build(Collections.emptyList(), 1);
+    }
+
+    public static PrefixIndex build(List<Suggestion> suggestions, int maxResults) {
+        // Sort by weight first so that entry ids double as rank: a lower id is a better match
+        Suggestion[] entries = suggestions.stream()
+            .filter(s -> s.getText() != null && !s.getText().isBlank())
+            .sorted(Comparator.comparingLong(Suggestion::getWeight).reversed()
+                .thenComparing(Suggestion::getText))
+            .toArray(Suggestion[]::new);
+
+        List<String> keyList = new ArrayList<>();
+        List<Integer> entryList = new ArrayList<>();
+        for (int id = 0; id < entries.length; id++) {
+            String normalized = normalize(entries[id].getText());
+            for (int start = 0; start < normalized.length(); start++) {
+                if (start == 0 || (normalized.charAt(start - 1) == ' ' && normalized.charAt(start) != ' ')) {
+                    keyList.add(normalized.substring(start));
+                    entryList.add(id);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[keyList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> keyList.get(i)).thenComparing(i -> entryList.get(i)));
+
+        String[] keys = new String[order.length];
+        int[] keyEntries = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            keyEntries[i] = entryList.get(order[i]);
+        }
+        return new PrefixIndex(keys, keyEntries, entries, maxResults);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        int size = Math.min(limit, maxResults);
+        if (normalized.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+
+        int[] ranked = normalized.length() <= PRECOMPUTED_PREFIX_LENGTH
+            ? shortPrefixTopK.get(normalized)
+            : topK(normalized, size);
+        if (ranked == null) {
+            return Collections.emptyList();
+        }
+
+        List<Suggestion> result = new ArrayList<>(Math.min(size, ranked.length));
+        for (int i = 0; i < ranked.length && result.size() < size; i++) {
+            result.add(entries[ranked[i]]);
+        }
+        return result;
+    }
+
+    private int[] topK(String prefix, int k) {
+        int from = lowerBound(prefix);
+        // Entry ids are ranks, so keep the k smallest distinct ids in the matching range
+        int[] best = new int[k];
+        int count = 0;
+        for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+            count = offer(best, count, keyEntries[i]);
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    private Map<String, int[]> precomputeShortPrefixes() {
+        Map<String, int[]> result = new HashMap<>();
+        Map<String, int[]> working = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            for (int length = 1; length <= Math.min(PRECOMPUTED_PREFIX_LENGTH, key.length()); length++) {
+                String prefix = key.substring(0, length);
+                int[] best = working.computeIfAbsent(prefix, p -> new int[maxResults]);
+                counts.put(prefix, offer(best, counts.getOrDefault(prefix, 0), keyEntries[i]));
+            }
+        }
+        working.forEach((prefix, best) -> result.put(prefix, Arrays.copyOf(best, counts.get(prefix))));
+        return result;
+    }
+
+    // Inserts the entry id into the sorted top-k array unless it is already there or ranks too low
+    private static int offer(int[] best, int count, int entryId) {
+        int position = Arrays.binarySearch(best, 0, count, entryId);
+        if (position >= 0) {
+            return count;
+        }
+        int insertAt = -position - 1;
+        if (insertAt >= best.length) {
+            return count;
+        }
+        int newCount = Math.min(count + 1, best.length);
+        System.arraycopy(best, insertAt, best, insertAt + 1, newCount - insertAt - 1);
+        best[insertAt] = entryId;
+        return newCount;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,79 @@
+package org.beckn.search.suggest;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.engine.IndexNames;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.Suggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves typeahead suggestions from a per-domain {@link PrefixIndex} held in memory.
+ * Each index is built from the most frequent item and provider names in the domain's
+ * index, on whichever engine serves the domain, and refreshed in the background, so
+ * keystrokes never reach the search pipeline.
+ */
+@Slf4j
+@Service
+public class SuggestionService {
+    static final String ITEM = "item";
+    static final String PROVIDER = "provider";
+
+    private static final Map<String, String> SOURCE_FIELDS = Map.of(
+        ITEM, "items_descriptor_name.keyword",
+        PROVIDER, "provider_descriptor_name.keyword");
+
+    private final SearchEngines searchEngines;
+    private final int maxTerms;
+    private final int maxResults;
+    private final LoadingCache<String, PrefixIndex> indices;
+
+    public SuggestionService(SearchEngines searchEngines,
+                             @Value("${search.suggest.max-terms:10000}") int maxTerms,
+                             @Value("${search.suggest.max-results:20}") int maxResults,
+                             @Value("${search.suggest.refresh-interval:5m}") Duration refreshInterval,
+                             @Value("${search.suggest.max-domains:64}") long maxDomains) {
+        this.searchEngines = searchEngines;
+        this.maxTerms = maxTerms;
+        this.maxResults = maxResults;
+        // Stale indices keep serving while a refresh runs; domains nobody types into are dropped
+        this.indices = Caffeine.newBuilder()
+            .maximumSize(maxDomains)
+            .refreshAfterWrite(refreshInterval)
+            .expireAfterAccess(refreshInterval.multipliedBy(6))
+            .build(this::loadIndex);
+    }
+
+    public List<Suggestion> suggest(String domain, String prefix, int limit) {
+        if (domain == null || domain.isBlank()) {
+            throw new IllegalArgumentException("Domain must be specified");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxResults);
+        }
+        return indices.get(IndexNames.forDomain(domain)).suggest(prefix, limit);
+    }
+
+    PrefixIndex loadIndex(String indexName) throws IOException {
+        Map<String, List<FacetBucket>> terms = searchEngines.forIndices(List.of(indexName))
+            .topTerms(indexName, List.copyOf(SOURCE_FIELDS.values()), maxTerms);
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        SOURCE_FIELDS.forEach((type, field) -> terms.getOrDefault(field, List.of()).forEach(bucket ->
+            suggestions.add(new Suggestion(bucket.getKey(), type, bucket.getCount()))));
+        log.info("Built suggestion index for '{}' with {} names", indexName, suggestions.size());
+        return PrefixIndex.build(suggestions, maxResults);
+    }
+}
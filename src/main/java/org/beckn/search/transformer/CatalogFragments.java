@@ -0,0 +1,51 @@
+package org.beckn.search.transformer;
+
+import org.beckn.search.json.RawJson;
+import org.beckn.search.model.SearchResponseDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The response-ready parts of one raw catalog: the BPP that published it, its descriptor
+ * and each provider normalized and serialized to UTF-8, in catalog order.
+ */
+public final class CatalogFragments {
+    private final String bppId;
+    private final SearchResponseDto.Descriptor descriptor;
+    private final List<String> providerIds;
+    private final List<RawJson> providers;
+    private final int byteSize;
+
+    public CatalogFragments(String bppId, SearchResponseDto.Descriptor descriptor, List<String> providerIds, List<RawJson> providers) {
+        this.bppId = bppId;
+        this.descriptor = descriptor;
+        // List.copyOf rejects the null ids of providers without one
+        this.providerIds = Collections.unmodifiableList(new ArrayList<>(providerIds));
+        this.providers = List.copyOf(providers);
+        this.byteSize = providers.stream().mapToInt(RawJson::byteLength).sum();
+    }
+
+    // context.bpp_id of the catalog, or null when it has none
+    public String getBppId() {
+        return bppId;
+    }
+
+    public SearchResponseDto.Descriptor getDescriptor() {
+        return descriptor;
+    }
+
+    // Provider ids in the same order as the fragments; null entries for providers without an id
+    public List<String> getProviderIds() {
+        return providerIds;
+    }
+
+    public List<RawJson> getProviders() {
+        return providers;
+    }
+
+    public int getByteSize() {
+        return byteSize;
+    }
+}
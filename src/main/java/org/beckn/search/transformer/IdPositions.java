@@ -0,0 +1,70 @@
+package org.beckn.search.transformer;
+
+/**
+ * Compact open-addressed map from ids to their position in a list, for the one-pass
+ * de-duplication of a response's providers and items. Two parallel arrays with linear
+ * probing; no entry objects, no boxing. Sized for the handful to few hundred ids of one
+ * response and thrown away after it.
+ */
+final class IdPositions {
+    static final int ABSENT = -1;
+
+    private String[] ids;
+    private int[] positions;
+    private int mask;
+    private int size;
+
+    IdPositions(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected * 2) - 1) << 1;
+        ids = new String[capacity];
+        positions = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * The position already recorded for the id, or {@link #ABSENT} after recording
+     * {@code position} for it.
+     */
+    int putIfAbsent(String id, int position) {
+        int slot = slot(id);
+        while (ids[slot] != null) {
+            if (ids[slot].equals(id)) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        ids[slot] = id;
+        positions[slot] = position;
+        if (++size * 2 > ids.length) {
+            grow();
+        }
+        return ABSENT;
+    }
+
+    private int slot(String id) {
+        int hash = id.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void grow() {
+        String[] oldIds = ids;
+        int[] oldPositions = positions;
+        ids = new String[oldIds.length * 2];
+        positions = new int[oldIds.length * 2];
+        mask = ids.length - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != null) {
+                int slot = slot(oldIds[i]);
+                while (ids[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+}
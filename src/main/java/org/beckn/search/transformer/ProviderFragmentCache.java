@@ -0,0 +1,40 @@
+package org.beckn.search.transformer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.beckn.search.model.CatalogHit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.function.Function;
+
+/**
+ * Byte-bounded cache of normalized catalog fragments, keyed by index, document id and
+ * version (_seq_no and _primary_term). A document that is updated gets a new key,
+ * so entries never go stale; old versions simply age out under the size bound.
+ */
+@Component
+public class ProviderFragmentCache {
+    private final Cache<String, CatalogFragments> cache;
+
+    public ProviderFragmentCache(@Value("${search.cache.provider-fragments.max-size:64MB}") DataSize maxSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((String key, CatalogFragments fragments) -> fragments.getByteSize() + key.length())
+            .build();
+    }
+
+    public CatalogFragments get(CatalogHit hit, Function<CatalogHit, CatalogFragments> parser) {
+        // Without a version the cached copy could not be told apart from a newer one
+        if (hit.getId() == null || hit.getSeqNo() == null || hit.getPrimaryTerm() == null) {
+            return parser.apply(hit);
+        }
+        return cache.get(hit.getIndex() + "/" + hit.getId() + ":" + hit.getSeqNo() + ":" + hit.getPrimaryTerm(),
+            key -> parser.apply(hit));
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
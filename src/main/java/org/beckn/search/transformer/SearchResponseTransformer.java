@@ -4,17 +4,28 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import lombok.RequiredArgsConstructor;
+import org.beckn.search.json.RawJson;
+import org.beckn.search.json.RawJsonArray;
+import org.beckn.search.model.CatalogHit;
 import org.beckn.search.model.SearchResponseDto;
 import org.beckn.search.model.Context;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class SearchResponseTransformer {
     private final ObjectMapper objectMapper;
+    private final ProviderFragmentCache fragmentCache;
 
     public String extractRawCatalog(String catalogJson) throws IOException {
         JsonNode catalogNode = objectMapper.readTree(catalogJson);
@@ -62,13 +73,15 @@ public class SearchResponseTransformer {
                     }
                 }
                 
-                // Create providers array
+                // Create providers array; a provider found in several catalogs is merged into one
                 ArrayNode providers = objectMapper.createArrayNode();
+                IdPositions providerPositions = new IdPositions(catalogNode.size());
                 
                 // Process each raw catalog
                 for (JsonNode rawCatalogNode : catalogNode) {
                     // Parse each raw catalog
                     JsonNode catalogJson = objectMapper.readTree(rawCatalogNode.asText());
+                    String bppId = bppId(catalogJson);
                     
                     // Get providers from this catalog and add them to the array
                     if (catalogJson.has("message") && 
@@ -88,7 +101,7 @@ public class SearchResponseTransformer {
                                     itemsArray.add(items);
                                     providerObj.set("items", itemsArray);
                                 }
-                                providers.add(provider);
+                                addProvider(providers, providerPositions, bppId, provider);
                             });
                         } else {
                             // Single provider object
@@ -100,7 +113,7 @@ public class SearchResponseTransformer {
                                 itemsArray.add(items);
                                 provider.set("items", itemsArray);
                             }
-                            providers.add(provider);
+                            addProvider(providers, providerPositions, bppId, provider);
                         }
                     }
                 }
@@ -177,4 +190,192 @@ public class SearchResponseTransformer {
             throw new RuntimeException("Failed to transform response: " + e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Builds the response from search hits. Each catalog is parsed and normalized once
+     * per document version; the resulting provider fragments come from the
+     * {@link ProviderFragmentCache} and are spliced into the output as raw JSON. A
+     * provider indexed in several catalogs of the same BPP is returned once, with the
+     * copies merged; provider ids are only unique within a BPP.
+     */
+    public SearchResponseDto transformHits(List<CatalogHit> hits) {
+        if (hits.isEmpty()) {
+            SearchResponseDto errorResponse = new SearchResponseDto();
+            SearchResponseDto.Error error = new SearchResponseDto.Error();
+            error.setCode("NO_SEARCH_RESULTS");
+            error.setMessage("No results found for the search criteria");
+            errorResponse.setError(error);
+            return errorResponse;
+        }
+
+        SearchResponseDto response = new SearchResponseDto();
+        SearchResponseDto.Message message = new SearchResponseDto.Message();
+        SearchResponseDto.Catalog catalog = new SearchResponseDto.Catalog();
+
+        List<RawJson> providers = new ArrayList<>();
+        IdPositions providerPositions = new IdPositions(hits.size());
+        // Only providers that occur more than once are parsed again, to be merged
+        Map<Integer, ObjectNode> merged = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            CatalogFragments fragments = fragmentCache.get(hits.get(i), this::parse);
+            // The first catalog's descriptor describes the combined catalog
+            if (i == 0) {
+                catalog.setDescriptor(fragments.getDescriptor());
+            }
+            for (int p = 0; p < fragments.getProviders().size(); p++) {
+                String id = fragments.getProviderIds().get(p);
+                int existing = id == null
+                    ? IdPositions.ABSENT
+                    : providerPositions.putIfAbsent(providerKey(fragments.getBppId(), id), providers.size());
+                if (existing == IdPositions.ABSENT) {
+                    providers.add(fragments.getProviders().get(p));
+                } else {
+                    ObjectNode provider = merged.computeIfAbsent(existing, position -> readProvider(providers.get(position)));
+                    mergeProvider(provider, readProvider(fragments.getProviders().get(p)));
+                }
+            }
+        }
+        merged.forEach((position, provider) -> providers.set(position, writeProvider(provider)));
+
+        catalog.setProviders(RawJsonArray.node(providers));
+        message.setCatalog(catalog);
+        response.setMessage(message);
+
+        if (providers.isEmpty()) {
+            SearchResponseDto.Error error = new SearchResponseDto.Error();
+            error.setCode("NO_PROVIDERS_FOUND");
+            error.setMessage("No matching providers found in the search results");
+            response.setError(error);
+        }
+        return response;
+    }
+
+    /**
+     * Ids of the providers in the hits, from the same cached fragments as the response.
+     */
+    public Set<String> providerIds(List<CatalogHit> hits) {
+        Set<String> ids = new HashSet<>();
+        for (CatalogHit hit : hits) {
+            for (String id : fragmentCache.get(hit, this::parse).getProviderIds()) {
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void addProvider(ArrayNode providers, IdPositions positions, String bppId, JsonNode provider) {
+        int existing = provider.hasNonNull("id")
+            ? positions.putIfAbsent(providerKey(bppId, provider.get("id").asText()), providers.size())
+            : IdPositions.ABSENT;
+        if (existing == IdPositions.ABSENT) {
+            providers.add(provider);
+        } else {
+            mergeProvider((ObjectNode) providers.get(existing), provider);
+        }
+    }
+
+    // Catalogs without a bpp_id share one namespace
+    private static String providerKey(String bppId, String providerId) {
+        return (bppId == null ? "" : bppId) + '\u0000' + providerId;
+    }
+
+    private static String bppId(JsonNode catalogJson) {
+        JsonNode bppId = catalogJson.path("context").path("bpp_id");
+        return bppId.isTextual() ? bppId.asText() : null;
+    }
+
+    /**
+     * Merges another copy of a provider into the first one: the first copy's fields win,
+     * fields only the other has are added and items are unioned by id.
+     */
+    static void mergeProvider(ObjectNode provider, JsonNode duplicate) {
+        duplicate.fields().forEachRemaining(field -> {
+            if (!field.getKey().equals("items") && !provider.has(field.getKey())) {
+                provider.set(field.getKey(), field.getValue());
+            }
+        });
+        JsonNode duplicateItems = duplicate.get("items");
+        if (duplicateItems == null || !duplicateItems.isArray() || duplicateItems.isEmpty()) {
+            return;
+        }
+        ArrayNode items = provider.get("items") instanceof ArrayNode array ? array : provider.putArray("items");
+        IdPositions itemPositions = new IdPositions(items.size() + duplicateItems.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).hasNonNull("id")) {
+                itemPositions.putIfAbsent(items.get(i).get("id").asText(), i);
+            }
+        }
+        for (JsonNode item : duplicateItems) {
+            // Items without an id can't be matched, so they are kept
+            if (!item.hasNonNull("id") || itemPositions.putIfAbsent(item.get("id").asText(), items.size()) == IdPositions.ABSENT) {
+                items.add(item);
+            }
+        }
+    }
+
+    private ObjectNode readProvider(RawJson provider) {
+        try {
+            return (ObjectNode) objectMapper.readTree(provider.asUnquotedUTF8());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to transform response: " + e.getMessage(), e);
+        }
+    }
+
+    private RawJson writeProvider(ObjectNode provider) {
+        try {
+            return RawJson.of(objectMapper.writeValueAsBytes(provider));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to transform response: " + e.getMessage(), e);
+        }
+    }
+
+    // Catalogs from the catalog store are parsed straight from their mapped bytes
+    CatalogFragments parse(CatalogHit hit) {
+        if (hit.getRawCatalogUtf8() == null) {
+            return parseFragments(hit.getRawCatalog());
+        }
+        try {
+            return fragments(objectMapper.readTree(new ByteBufferBackedInputStream(hit.getRawCatalogUtf8().duplicate())));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to transform response: " + e.getMessage(), e);
+        }
+    }
+
+    CatalogFragments parseFragments(String rawCatalog) {
+        try {
+            return fragments(objectMapper.readTree(rawCatalog));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to transform response: " + e.getMessage(), e);
+        }
+    }
+
+    private CatalogFragments fragments(JsonNode catalogJson) throws IOException {
+        JsonNode catalogNode = catalogJson.path("message").path("catalog");
+
+        SearchResponseDto.Descriptor descriptor = null;
+        if (catalogNode.has("descriptor")) {
+            descriptor = objectMapper.treeToValue(catalogNode.get("descriptor"), SearchResponseDto.Descriptor.class);
+        }
+
+        List<String> providerIds = new ArrayList<>();
+        List<RawJson> providers = new ArrayList<>();
+        JsonNode catalogProviders = catalogNode.get("providers");
+        if (catalogProviders != null && !catalogProviders.isNull()) {
+            Iterable<JsonNode> providerNodes = catalogProviders.isArray()
+                ? catalogProviders
+                : List.of(catalogProviders);
+            for (JsonNode provider : providerNodes) {
+                // Ensure items is an array
+                JsonNode items = provider.get("items");
+                if (items != null && !items.isArray()) {
+                    ((ObjectNode) provider).set("items", objectMapper.createArrayNode().add(items));
+                }
+                providerIds.add(provider.hasNonNull("id") ? provider.get("id").asText() : null);
+                providers.add(RawJson.of(objectMapper.writeValueAsBytes(provider)));
+            }
+        }
+        return new CatalogFragments(bppId(catalogJson), descriptor, providerIds, providers);
+    }
+}
\ No newline at end of file
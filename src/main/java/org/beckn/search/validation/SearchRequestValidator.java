@@ -1,26 +1,262 @@
 package org.beckn.search.validation;
 
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validator;
-import lombok.RequiredArgsConstructor;
+import org.beckn.search.model.Category;
+import org.beckn.search.model.Context;
+import org.beckn.search.model.Descriptor;
+import org.beckn.search.model.Fulfillment;
+import org.beckn.search.model.Intent;
+import org.beckn.search.model.Item;
+import org.beckn.search.model.Location;
+import org.beckn.search.model.Price;
+import org.beckn.search.model.Provider;
 import org.beckn.search.model.SearchRequestDto;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.List;
 
+/**
+ * The single validation stage for search requests, run right after the body is
+ * bound. It covers the constraints declared on the DTOs plus the limits the query
+ * builder depends on, and walks the request with plain field reads and indexed
+ * loops so that a valid request is checked without allocating anything.
+ */
 @Service
-@RequiredArgsConstructor
 public class SearchRequestValidator {
-    private final Validator validator;
+    private final int maxPage;
+    private final int maxLimit;
+    private final int maxClauses;
+
+    public SearchRequestValidator(@Value("${search.validation.max-page:100}") int maxPage,
+                                  @Value("${elasticsearch.max.results:1000}") int maxLimit,
+                                  @Value("${search.validation.max-clauses:64}") int maxClauses) {
+        this.maxPage = maxPage;
+        this.maxLimit = maxLimit;
+        this.maxClauses = maxClauses;
+    }
 
     public void validate(SearchRequestDto request) {
-        Set<ConstraintViolation<SearchRequestDto>> violations = validator.validate(request);
-        if (!violations.isEmpty()) {
-            String errorMessage = violations.stream()
-                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
-                .collect(Collectors.joining(", "));
-            throw new IllegalArgumentException(errorMessage);
+        StringBuilder errors = null;
+
+        Context context = request.getContext();
+        if (context == null) {
+            errors = violation(errors, "context: context is required");
+        } else {
+            if (context.getDomain() == null) {
+                errors = violation(errors, "context.domain: must not be null");
+            }
+            if (context.getLocation() != null && !isValidGps(context.getLocation().getGps())) {
+                errors = violation(errors, "context.location.gps: must be 'latitude,longitude'");
+            }
+        }
+
+        if (request.getMessage() == null) {
+            errors = violation(errors, "message: message is required");
+        } else if (request.getMessage().getIntent() == null) {
+            errors = violation(errors, "message.intent: must not be null");
+        } else {
+            errors = validateIntent(request.getMessage().getIntent(), errors);
+        }
+
+        if (errors != null) {
+            throw new IllegalArgumentException(errors.toString());
+        }
+    }
+
+    private StringBuilder validateIntent(Intent intent, StringBuilder errors) {
+        Integer page = intent.getPage();
+        if (page != null && page < 0) {
+            errors = violation(errors, "message.intent.page: Page number must be 0 or greater");
+        } else if (page != null && page > maxPage) {
+            errors = violation(errors, "message.intent.page: Page number must be at most " + maxPage);
+        }
+
+        Integer limit = intent.getLimit();
+        if (limit != null && limit < 1) {
+            errors = violation(errors, "message.intent.limit: Page size must be at least 1");
+        } else if (limit != null && limit > maxLimit) {
+            errors = violation(errors, "message.intent.limit: Page size must be at most " + maxLimit);
+        }
+
+        if (!hasValidGps(intent.getProvider()) || !hasValidGps(intent.getProviders())) {
+            errors = violation(errors, "message.intent.providers.locations.gps: must be 'latitude,longitude'");
+        }
+
+        int clauses = countClauses(intent.getProvider()) + countClauses(intent.getProviders()) + countItemClauses(intent.getItems());
+        if (clauses > maxClauses) {
+            errors = violation(errors, "message.intent: " + clauses + " search clauses exceed the limit of " + maxClauses);
+        }
+        return errors;
+    }
+
+    private static StringBuilder violation(StringBuilder errors, String message) {
+        if (errors == null) {
+            return new StringBuilder(message);
+        }
+        return errors.append(", ").append(message);
+    }
+
+    private static boolean hasValidGps(List<Provider> providers) {
+        if (providers != null) {
+            for (int i = 0; i < providers.size(); i++) {
+                if (!hasValidGps(providers.get(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasValidGps(Provider provider) {
+        if (provider == null || provider.getLocations() == null) {
+            return true;
+        }
+        List<Location> locations = provider.getLocations();
+        for (int i = 0; i < locations.size(); i++) {
+            Location location = locations.get(i);
+            if (location != null && !isValidGps(location.getGps())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a "lat,lon" pair (optional whitespace around the comma) and the coordinate
+     * ranges without splitting or parsing into intermediate strings. Null means absent.
+     */
+    static boolean isValidGps(String gps) {
+        if (gps == null) {
+            return true;
         }
+        int comma = gps.indexOf(',');
+        if (comma < 0 || gps.indexOf(',', comma + 1) >= 0) {
+            return false;
+        }
+        double latitude = parseCoordinate(gps, 0, comma);
+        double longitude = parseCoordinate(gps, comma + 1, gps.length());
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    // Returns NaN when the range is not a plain decimal number
+    private static double parseCoordinate(String text, int from, int to) {
+        while (from < to && text.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) == ' ') {
+            to--;
+        }
+        boolean negative = false;
+        if (from < to && (text.charAt(from) == '-' || text.charAt(from) == '+')) {
+            negative = text.charAt(from) == '-';
+            from++;
+        }
+
+        double value = 0;
+        double scale = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (scale == 0) {
+                    value = value * 10 + (c - '0');
+                } else {
+                    value += (c - '0') * scale;
+                    scale /= 10;
+                }
+                digits++;
+            } else if (c == '.' && scale == 0 && digits > 0 && i + 1 < to) {
+                scale = 0.1;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        return negative ? -value : value;
+    }
+
+    // Clause counting mirrors the leaves SearchQueryBuilder turns into match/geo clauses
+    private static int countClauses(List<Provider> providers) {
+        int count = 0;
+        if (providers != null) {
+            for (int i = 0; i < providers.size(); i++) {
+                count += countClauses(providers.get(i));
+            }
+        }
+        return count;
+    }
+
+    private static int countClauses(Provider provider) {
+        if (provider == null) {
+            return 0;
+        }
+        int count = present(provider.getId()) + countClauses(provider.getDescriptor());
+        List<Category> categories = provider.getCategories();
+        if (categories != null) {
+            for (int i = 0; i < categories.size(); i++) {
+                count += categories.get(i) == null ? 0 : present(categories.get(i).getId());
+            }
+        }
+        List<Location> locations = provider.getLocations();
+        if (locations != null) {
+            for (int i = 0; i < locations.size(); i++) {
+                Location location = locations.get(i);
+                if (location != null) {
+                    count += present(location.getId()) + present(location.getGps()) + present(location.getAddress())
+                        + present(location.getAreaCode()) + present(location.getDistrict())
+                        + countClauses(location.getDescriptor())
+                        + (location.getCity() == null ? 0 : present(location.getCity().getName()) + present(location.getCity().getCode()))
+                        + (location.getState() == null ? 0 : present(location.getState().getName()) + present(location.getState().getCode()))
+                        + (location.getCountry() == null ? 0 : present(location.getCountry().getName()) + present(location.getCountry().getCode()));
+                }
+            }
+        }
+        List<Fulfillment> fulfillments = provider.getFulfillments();
+        if (fulfillments != null) {
+            for (int i = 0; i < fulfillments.size(); i++) {
+                Fulfillment fulfillment = fulfillments.get(i);
+                if (fulfillment != null) {
+                    count += present(fulfillment.getId()) + present(fulfillment.getType())
+                        + (fulfillment.getRateable() == null ? 0 : 1);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int countItemClauses(List<Item> items) {
+        int count = 0;
+        if (items != null) {
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                if (item != null) {
+                    count += countClauses(item.getDescriptor()) + countClauses(item.getPrice()) + present(item.getRating());
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int countClauses(Descriptor descriptor) {
+        if (descriptor == null) {
+            return 0;
+        }
+        return present(descriptor.getName()) + present(descriptor.getCode())
+            + present(descriptor.getShortDesc()) + present(descriptor.getLongDesc());
+    }
+
+    private static int countClauses(Price price) {
+        if (price == null) {
+            return 0;
+        }
+        return present(price.getCurrency()) + present(price.getValue()) + present(price.getEstimatedValue())
+            + present(price.getComputedValue()) + present(price.getListedValue()) + present(price.getOfferedValue())
+            + present(price.getMinimumValue()) + present(price.getMaximumValue());
+    }
+
+    private static int present(String value) {
+        return value == null ? 0 : 1;
     }
-} 
\ No newline at end of file
+}
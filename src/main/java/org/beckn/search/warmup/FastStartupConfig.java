@@ -0,0 +1,31 @@
+package org.beckn.search.warmup;
+
+import org.beckn.search.api.SearchController;
+import org.beckn.search.cache.SearchCacheInvalidator;
+import org.beckn.search.elasticsearch.CatalogIngestService;
+import org.beckn.search.elasticsearch.RequestCacheMetrics;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans kept eager when {@code spring.main.lazy-initialization} is on, as in the
+ * {@code fast-startup} profile. Everything else (admin endpoints, index rebuilds,
+ * suggestions and most auto-configuration) is created on first use.
+ */
+@Configuration
+public class FastStartupConfig {
+
+    // SearchController pulls in the whole search path, so the first search doesn't pay for
+    // it. The others do background work nothing would trigger: replaying queued ingests from
+    // the outbox, listening for other nodes' cache invalidations and polling the shard
+    // request cache stats.
+    @Bean
+    public static LazyInitializationExcludeFilter eagerSearchBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            SearchController.class,
+            CatalogIngestService.class,
+            SearchCacheInvalidator.class,
+            RequestCacheMetrics.class);
+    }
+}
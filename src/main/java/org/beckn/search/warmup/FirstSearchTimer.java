@@ -0,0 +1,60 @@
+package org.beckn.search.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time from JVM start to the first search this instance answered successfully, exported
+ * as {@code search.startup.first_search}. Unlike Spring Boot's ready time it covers the
+ * JVM's own startup, the warm-up and the first request, which is what autoscaling and
+ * crash recovery wait for.
+ */
+@Slf4j
+@Component
+public class FirstSearchTimer implements MeterBinder {
+    private final LongSupplier uptimeMillis;
+    private final AtomicLong firstSearchMillis = new AtomicLong(-1);
+
+    public FirstSearchTimer() {
+        this(() -> ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    FirstSearchTimer(LongSupplier uptimeMillis) {
+        this.uptimeMillis = uptimeMillis;
+    }
+
+    /**
+     * Called after every successful search; only the first call is recorded.
+     */
+    public void searchSucceeded() {
+        if (firstSearchMillis.get() >= 0) {
+            return;
+        }
+        long uptime = uptimeMillis.getAsLong();
+        if (firstSearchMillis.compareAndSet(-1, uptime)) {
+            log.info("First successful search {} ms after JVM start", uptime);
+        }
+    }
+
+    public OptionalLong elapsedMillis() {
+        long millis = firstSearchMillis.get();
+        return millis < 0 ? OptionalLong.empty() : OptionalLong.of(millis);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("search.startup.first_search", firstSearchMillis, TimeUnit.MILLISECONDS,
+                millis -> millis.get() < 0 ? Double.NaN : millis.get())
+            .description("Time from JVM start to the first successful search")
+            .register(registry);
+    }
+}
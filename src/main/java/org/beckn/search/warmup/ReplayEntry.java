@@ -0,0 +1,30 @@
+package org.beckn.search.warmup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import org.beckn.search.model.SearchRequestDto;
+
+import java.util.List;
+
+/**
+ * One line of the search replay log: a search as the API received it, with its query
+ * parameters and how often it was seen since the log was last written.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ReplayEntry {
+    private String operator = "AND";
+
+    private List<String> facets;
+
+    @JsonProperty("facets_only")
+    private boolean facetsOnly;
+
+    @JsonProperty("track_total_hits")
+    private boolean trackTotalHits;
+
+    private long count;
+
+    private SearchRequestDto request;
+}
@@ -0,0 +1,128 @@
+package org.beckn.search.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.cache.SearchFingerprint;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most frequent recent searches and periodically writes them, hottest first,
+ * to the replay log that {@link SearchWarmup} reads on the next start. Distinct queries
+ * are tracked in a size-bounded cache, whose frequency-based eviction keeps the popular
+ * ones and drops one-offs.
+ */
+@Slf4j
+@Component
+public class SearchReplayRecorder {
+    private final SearchFingerprint fingerprint;
+    private final ObjectWriter writer;
+    private final boolean enabled;
+    private final Path logPath;
+    private final Cache<String, Recorded> queries;
+
+    private record Recorded(ReplayEntry entry, AtomicLong count) {
+    }
+
+    public SearchReplayRecorder(SearchFingerprint fingerprint,
+                                ObjectMapper objectMapper,
+                                @Value("${search.warmup.record.enabled:true}") boolean enabled,
+                                @Value("${search.warmup.log-path:logs/search-replay.jsonl}") Path logPath,
+                                @Value("${search.warmup.record.max-queries:1000}") long maxQueries) {
+        this.fingerprint = fingerprint;
+        this.writer = objectMapper.writer();
+        this.enabled = enabled;
+        this.logPath = logPath;
+        this.queries = Caffeine.newBuilder()
+            .maximumSize(maxQueries)
+            .build();
+    }
+
+    /**
+     * Counts a search that completed successfully.
+     */
+    public void record(SearchRequestDto request, String operator, SearchOptions options) {
+        if (!enabled || request.getContext() == null || request.getContext().getDomain() == null) {
+            return;
+        }
+        record(request, SearchQueryBuilder.LogicalOperator.valueOf(operator.toUpperCase()), options);
+    }
+
+    private void record(SearchRequestDto request, SearchQueryBuilder.LogicalOperator operator, SearchOptions options) {
+        String key = fingerprint.of(request, operator) + "|" + options.getFacets() + "|" + options.isFacetsOnly()
+            + "|" + options.isTrackTotalHits();
+        queries.get(key, k -> new Recorded(toEntry(request, operator, options), new AtomicLong()))
+            .count()
+            .incrementAndGet();
+    }
+
+    private static ReplayEntry toEntry(SearchRequestDto request, SearchQueryBuilder.LogicalOperator operator, SearchOptions options) {
+        ReplayEntry entry = new ReplayEntry();
+        entry.setOperator(operator.name());
+        entry.setFacets(options.getFacets().stream().map(FacetType::getKey).sorted().toList());
+        entry.setFacetsOnly(options.isFacetsOnly());
+        entry.setTrackTotalHits(options.isTrackTotalHits());
+        entry.setRequest(request);
+        return entry;
+    }
+
+    // The first write waits a full interval so a fresh start doesn't replace the log it is replaying
+    @Scheduled(initialDelayString = "${search.warmup.record.flush-interval-ms:60000}",
+               fixedDelayString = "${search.warmup.record.flush-interval-ms:60000}")
+    public void flush() {
+        if (!enabled || queries.estimatedSize() == 0) {
+            return;
+        }
+        try {
+            write();
+        } catch (IOException e) {
+            log.warn("Could not write search replay log {}: {}", logPath, e.getMessage());
+        }
+    }
+
+    void write() throws IOException {
+        List<ReplayEntry> hottest = queries.asMap().values().stream()
+            .sorted(Comparator.comparingLong((Recorded recorded) -> recorded.count().get()).reversed())
+            .map(recorded -> {
+                recorded.entry().setCount(recorded.count().get());
+                return recorded.entry();
+            })
+            .toList();
+
+        // Written beside the log and moved over it, so a crash never leaves a half-written file
+        Path parent = logPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, logPath.getFileName().toString(), ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (ReplayEntry entry : hottest) {
+                out.write(writer.writeValueAsString(entry));
+                out.newLine();
+            }
+        }
+        Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,170 @@
+package org.beckn.search.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays the hottest searches from the replay log through {@link SearchService} before
+ * the instance takes traffic, so the JIT, the result and facet caches, the ES connections
+ * and the shard caches are warm for the first real requests. Runners finish before Spring
+ * Boot reports the application ready, so the readiness probe stays down until the replay
+ * is done or its time budget runs out.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SearchWarmup implements ApplicationRunner {
+    private final SearchService searchService;
+    private final BecknJsonCodec jsonCodec;
+    private final ObjectReader reader;
+    private final boolean enabled;
+    private final Path logPath;
+    private final int maxQueries;
+    private final int parallelism;
+    private final int passes;
+    private final Duration timeout;
+
+    public SearchWarmup(SearchService searchService,
+                        BecknJsonCodec jsonCodec,
+                        ObjectMapper objectMapper,
+                        @Value("${search.warmup.enabled:true}") boolean enabled,
+                        @Value("${search.warmup.log-path:logs/search-replay.jsonl}") Path logPath,
+                        @Value("${search.warmup.max-queries:500}") int maxQueries,
+                        @Value("${search.warmup.parallelism:4}") int parallelism,
+                        @Value("${search.warmup.passes:3}") int passes,
+                        @Value("${search.warmup.timeout:60s}") Duration timeout) {
+        this.searchService = searchService;
+        this.jsonCodec = jsonCodec;
+        this.reader = objectMapper.readerFor(ReplayEntry.class);
+        this.enabled = enabled;
+        this.logPath = logPath;
+        this.maxQueries = maxQueries;
+        this.parallelism = parallelism;
+        this.passes = passes;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        if (!Files.isReadable(logPath)) {
+            log.info("No search replay log at {}, skipping warm-up", logPath);
+            return;
+        }
+        try {
+            replay(readEntries());
+        } catch (IOException e) {
+            log.warn("Could not read search replay log {}: {}", logPath, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The log is written hottest first, so the first lines are the ones worth replaying
+    List<ReplayEntry> readEntries() throws IOException {
+        List<ReplayEntry> entries = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            String line;
+            while (entries.size() < maxQueries && (line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ReplayEntry entry = reader.readValue(line);
+                    if (entry.getRequest() != null) {
+                        entries.add(entry);
+                    }
+                } catch (IOException e) {
+                    log.debug("Skipping unreadable replay line: {}", e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Runs every entry {@code passes} times with bounded parallelism. The first pass
+     * warms ES and fills the caches; later ones give the JIT hot paths to compile.
+     * Returns the number of searches that failed.
+     */
+    int replay(List<ReplayEntry> entries) throws InterruptedException {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "search-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int pass = 0; pass < passes; pass++) {
+                for (ReplayEntry entry : entries) {
+                    executor.execute(() -> replayOne(entry, failures));
+                }
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Search warm-up did not finish within {}, starting anyway", timeout);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Search warm-up replayed {} queries x {} passes in {} ms ({} failed)",
+            entries.size(), passes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures.get());
+        return failures.get();
+    }
+
+    private void replayOne(ReplayEntry entry, AtomicInteger failures) {
+        try {
+            SearchResponseDto response = searchService.searchAndGetResponse(entry.getRequest(), entry.getOperator(), toOptions(entry));
+            // Serializing warms the response writer the controller uses
+            jsonCodec.writeAsBytes(response);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.debug("Warm-up search failed: {}", e.getMessage());
+        }
+    }
+
+    private static SearchOptions toOptions(ReplayEntry entry) {
+        Set<FacetType> facets = EnumSet.noneOf(FacetType.class);
+        if (entry.getFacets() != null) {
+            entry.getFacets().forEach(facet -> facets.add(FacetType.fromKey(facet)));
+        }
+        return SearchOptions.builder()
+            .facets(facets)
+            .facetsOnly(entry.isFacetsOnly() && !facets.isEmpty())
+            .trackTotalHits(entry.isTrackTotalHits())
+            .build();
+    }
+}
@@ -4,24 +4,38 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.async.AsyncSearchService;
+import org.beckn.search.elasticsearch.SearchOverloadedException;
 import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.json.BecknJsonHttpMessageConverter;
+import org.beckn.search.ratelimit.BapRateLimiter;
+import org.beckn.search.ratelimit.RateLimitProperties;
 import org.beckn.search.elasticsearch.SearchQueryBuilder;
 import org.beckn.search.model.*;
 import org.beckn.search.validation.SearchRequestValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.beckn.search.warmup.FirstSearchTimer;
+import org.beckn.search.warmup.SearchReplayRecorder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -30,6 +44,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SearchController.class)
+@Import({BecknJsonCodec.class, BecknJsonHttpMessageConverter.class, BapRateLimiter.class, RateLimitProperties.class,
+    FirstSearchTimer.class})
 class SearchControllerTest {
 
     @Autowired
@@ -44,6 +60,12 @@ class SearchControllerTest {
     @MockBean
     private SearchRequestValidator requestValidator;
 
+    @MockBean
+    private SearchReplayRecorder replayRecorder;
+
+    @MockBean
+    private AsyncSearchService asyncSearchService;
+
     private String sampleJson;
     private SearchResponseDto mockResponse;
 
@@ -281,4 +303,122 @@ class SearchControllerTest {
         // Verify the service was called
         verify(searchService).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchWithFacets() throws Exception {
+        SearchResponseDto facetResponse = createMockResponse("EcoCharge-Retail-Catalog", "Local Store");
+        facetResponse.getMessage().setFacets(Map.of("category", List.of(new FacetBucket("grocery", 3))));
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenReturn(facetResponse);
+
+        mockMvc.perform(post("/api/v1/search")
+                .param("facets", "category,price")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message.facets.category[0].key").value("grocery"))
+            .andExpect(jsonPath("$.message.facets.category[0].count").value(3));
+
+        verify(searchService).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"),
+            argThat(options -> options.getFacets().equals(Set.of(FacetType.CATEGORY, FacetType.PRICE))));
+        verify(searchService, never()).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"));
+    }
+
+    @Test
+    void testSearchWithInvalidFacet() throws Exception {
+        mockMvc.perform(post("/api/v1/search")
+                .param("facets", "colour")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.code").value("INVALID_REQUEST"));
+    }
+
+    @Test
+    void testSearchWithTotalHits() throws Exception {
+        SearchResponseDto totalResponse = createMockResponse("EcoCharge-Retail-Catalog", "Local Store");
+        totalResponse.getMessage().setTotal(128L);
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenReturn(totalResponse);
+
+        mockMvc.perform(post("/api/v1/search")
+                .param("track_total_hits", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message.total").value(128));
+
+        verify(searchService).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"),
+            argThat(options -> options.isTrackTotalHits() && !options.hasFacets()));
+    }
+
+    @Test
+    void testOverloadedSearchReturnsRetryAfter() throws Exception {
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND")))
+            .thenThrow(new SearchOverloadedException("Search service is overloaded, retry later", 1));
+
+        mockMvc.perform(post("/api/v1/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andDo(print())
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.error.code").value("SERVICE_UNAVAILABLE"));
+    }
+
+    @Test
+    void testDeadlineHeaderIsPassedToTheSearch() throws Exception {
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenReturn(new SearchResponseDto());
+
+        mockMvc.perform(post("/api/v1/search")
+                .header("X-Search-Timeout", "250")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andExpect(status().isOk());
+
+        verify(searchService).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"),
+            argThat(options -> Duration.ofMillis(250).equals(options.getTimeout())));
+    }
+
+    @Test
+    void testInvalidDeadlineHeaderIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/search")
+                .header("X-Search-Timeout", "soon")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.code").value("INVALID_REQUEST"));
+
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    void testAsyncSearchIsAcknowledgedAtOnce() throws Exception {
+        mockMvc.perform(post("/api/v1/search")
+                .param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message.ack.status").value("ACK"));
+
+        verify(asyncSearchService).submit(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class));
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    void testAsyncSearchWithoutBapUriIsRejected() throws Exception {
+        doThrow(new IllegalArgumentException("context.bap_uri is required for asynchronous search"))
+            .when(asyncSearchService).submit(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class));
+
+        mockMvc.perform(post("/api/v1/search")
+                .param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(sampleJson))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.code").value("INVALID_REQUEST"));
+    }
+}
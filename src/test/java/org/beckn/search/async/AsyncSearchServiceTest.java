@@ -0,0 +1,284 @@
+package org.beckn.search.async;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.beckn.search.elasticsearch.SearchOverloadedException;
+import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.Context;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.outbox.Outbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncSearchServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SearchService searchService = mock(SearchService.class);
+    private final BlockingQueue<JsonNode> callbacks = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> authorizations = new LinkedBlockingQueue<>();
+    private final BlockingQueue<byte[]> bodies = new LinkedBlockingQueue<>();
+    // The stub BAP listens on loopback, so only the allowlist applies here
+    private final CallbackTargets targets = new CallbackTargets(List.of("127.0.0.1"), true);
+    private KeyPair keys;
+    private BecknSigner signer;
+    // Replies the stub BAP gives before it starts accepting callbacks
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private HttpServer bap;
+    private OnSearchCallbackClient callbackClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        signer = new BecknSigner("search.example.org", "key-1",
+            Base64.getEncoder().encodeToString(keys.getPrivate().getEncoded()), Duration.ofMinutes(5));
+        bap = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        bap.createContext("/bap/on_search", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            int status = failuresLeft.getAndDecrement() > 0 ? 503 : 200;
+            if (status == 200) {
+                authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+                bodies.add(body);
+                callbacks.add(objectMapper.readTree(body));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        bap.start();
+        callbackClient = new OnSearchCallbackClient(new BecknJsonCodec(objectMapper),
+            new Outbox(false, null, DataSize.ofMegabytes(1), Duration.ofMillis(10), Duration.ofSeconds(10)), targets, signer,
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(2), 3, Duration.ofMillis(10), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bap.stop(0);
+        callbackClient.shutdown();
+    }
+
+    private AsyncSearchService service(int workers, int queueCapacity) {
+        return new AsyncSearchService(searchService, callbackClient, workers, queueCapacity, Duration.ofSeconds(1));
+    }
+
+    private SearchRequestDto request(String bapUri) {
+        Context context = new Context();
+        context.setDomain("retail");
+        context.setAction("search");
+        context.setBapId("buyer-app");
+        context.setBapUri(bapUri);
+        context.setTransactionId("txn-1");
+        context.setMessageId("msg-1");
+        SearchRequestDto request = new SearchRequestDto();
+        request.setContext(context);
+        return request;
+    }
+
+    private String bapUri() {
+        return "http://127.0.0.1:" + bap.getAddress().getPort() + "/bap";
+    }
+
+    private static SearchResponseDto results(String name) {
+        SearchResponseDto response = new SearchResponseDto();
+        SearchResponseDto.Message message = new SearchResponseDto.Message();
+        SearchResponseDto.Catalog catalog = new SearchResponseDto.Catalog();
+        SearchResponseDto.Descriptor descriptor = new SearchResponseDto.Descriptor();
+        descriptor.setName(name);
+        catalog.setDescriptor(descriptor);
+        message.setCatalog(catalog);
+        response.setMessage(message);
+        return response;
+    }
+
+    @Test
+    void testResultsArePostedToTheBapAsOnSearch() throws Exception {
+        SearchResponseDto cached = results("EV");
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenReturn(cached);
+
+        service(2, 10).submit(request(bapUri()), "AND", SearchOptions.defaults());
+
+        JsonNode onSearch = callbacks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onSearch);
+        assertEquals("on_search", onSearch.path("context").path("action").asText());
+        assertEquals("txn-1", onSearch.path("context").path("transaction_id").asText());
+        assertEquals("msg-1", onSearch.path("context").path("message_id").asText());
+        assertEquals("EV", onSearch.path("message").path("catalog").path("descriptor").path("name").asText());
+        assertNull(cached.getContext(), "the cached response is not modified");
+    }
+
+    @Test
+    void testCallbackIsSignedAsBecknRequires() throws Exception {
+        assertTrue(callbackClient.deliver(bapUri(), results("EV")).get(5, TimeUnit.SECONDS));
+
+        String authorization = authorizations.poll(5, TimeUnit.SECONDS);
+        byte[] body = bodies.poll(5, TimeUnit.SECONDS);
+        assertNotNull(authorization);
+        Map<String, String> fields = signatureFields(authorization);
+        assertEquals("search.example.org|key-1|ed25519", fields.get("keyId"));
+        assertEquals("(created) (expires) digest", fields.get("headers"));
+
+        Signature verifier = Signature.getInstance("Ed25519");
+        verifier.initVerify(keys.getPublic());
+        verifier.update(BecknSigner.signingString(Long.parseLong(fields.get("created")), Long.parseLong(fields.get("expires")),
+            BecknSigner.digest(body)).getBytes(StandardCharsets.UTF_8));
+        assertTrue(verifier.verify(Base64.getDecoder().decode(fields.get("signature"))));
+    }
+
+    @Test
+    void testCallbackToANonPublicAddressIsRefused() throws Exception {
+        // A listed name that has been pointed at the cloud metadata endpoint
+        CallbackTargets rebound = new CallbackTargets(List.of("bap.example.org"), false,
+            host -> new InetAddress[] {InetAddress.getByName("169.254.169.254")});
+        OnSearchCallbackClient client = new OnSearchCallbackClient(new BecknJsonCodec(objectMapper),
+            new Outbox(false, null, DataSize.ofMegabytes(1), Duration.ofMillis(10), Duration.ofSeconds(10)), rebound, signer,
+            Duration.ofSeconds(1), Duration.ofSeconds(2), 3, Duration.ofMillis(10), 4);
+
+        assertFalse(client.deliver("http://bap.example.org/bap", results("EV")).get(5, TimeUnit.SECONDS));
+        client.shutdown();
+    }
+
+    @Test
+    void testAsyncSearchNeedsAnAllowedHostAndASigningKey() {
+        AsyncSearchService service = service(1, 10);
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submit(request("http://169.254.169.254/latest"), "AND", SearchOptions.defaults()));
+
+        OnSearchCallbackClient unsigned = new OnSearchCallbackClient(new BecknJsonCodec(objectMapper),
+            new Outbox(false, null, DataSize.ofMegabytes(1), Duration.ofMillis(10), Duration.ofSeconds(10)), targets,
+            new BecknSigner("", "", "", Duration.ofMinutes(5)), Duration.ofSeconds(1), Duration.ofSeconds(2), 3,
+            Duration.ofMillis(10), 4);
+        AsyncSearchService withoutKey = new AsyncSearchService(searchService, unsigned, 1, 10, Duration.ofSeconds(1));
+        assertThrows(IllegalArgumentException.class,
+            () -> withoutKey.submit(request(bapUri()), "AND", SearchOptions.defaults()));
+        unsigned.shutdown();
+    }
+
+    private static Map<String, String> signatureFields(String authorization) {
+        Map<String, String> fields = new HashMap<>();
+        Matcher matcher = Pattern.compile("(\\w+)=\"([^\"]*)\"").matcher(authorization);
+        while (matcher.find()) {
+            fields.put(matcher.group(1), matcher.group(2));
+        }
+        return fields;
+    }
+
+    @Test
+    void testUnavailableBapIsRetried() throws Exception {
+        failuresLeft.set(2);
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenReturn(results("EV"));
+
+        service(1, 10).submit(request(bapUri()), "AND", SearchOptions.defaults());
+
+        assertNotNull(callbacks.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCallbackGivesUpAfterMaxAttempts() throws Exception {
+        failuresLeft.set(10);
+
+        assertFalse(callbackClient.deliver(bapUri(), results("EV")).get(5, TimeUnit.SECONDS));
+        assertEquals(7, failuresLeft.get(), "three attempts");
+    }
+
+    @Test
+    void testFailedSearchIsReportedInTheCallback() throws Exception {
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenThrow(new IOException("cluster down"));
+
+        service(1, 10).submit(request(bapUri()), "AND", SearchOptions.defaults());
+
+        JsonNode onSearch = callbacks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onSearch);
+        assertEquals("SERVICE_UNAVAILABLE", onSearch.path("error").path("code").asText());
+        assertEquals("on_search", onSearch.path("context").path("action").asText());
+    }
+
+    @Test
+    void testCallbackCutOffByARestartIsSentAfterwards(@TempDir Path outboxDir) throws Exception {
+        failuresLeft.set(1);
+        OnSearchCallbackClient beforeRestart = new OnSearchCallbackClient(new BecknJsonCodec(objectMapper),
+            new Outbox(true, outboxDir, DataSize.ofKilobytes(64), Duration.ofMillis(10), Duration.ofSeconds(10)),
+            targets, signer, Duration.ofSeconds(1), Duration.ofSeconds(2), 3, Duration.ofMinutes(10), 4);
+        beforeRestart.deliver(bapUri(), results("EV"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (failuresLeft.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // The retry was still waiting when the process went away
+        beforeRestart.shutdown();
+
+        Outbox outbox = new Outbox(true, outboxDir, DataSize.ofKilobytes(64), Duration.ofMillis(10), Duration.ofSeconds(10));
+        OnSearchCallbackClient afterRestart = new OnSearchCallbackClient(new BecknJsonCodec(objectMapper), outbox,
+            targets, signer, Duration.ofSeconds(1), Duration.ofSeconds(2), 3, Duration.ofMillis(10), 4);
+        outbox.replay();
+
+        JsonNode onSearch = callbacks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onSearch);
+        assertEquals("EV", onSearch.path("message").path("catalog").path("descriptor").path("name").asText());
+        afterRestart.shutdown();
+    }
+
+    @Test
+    void testRequestWithoutBapUriIsRejected() {
+        AsyncSearchService service = service(1, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request(null), "AND", SearchOptions.defaults()));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submit(request("ftp://buyer-app"), "AND", SearchOptions.defaults()));
+    }
+
+    @Test
+    void testFullQueueShedsSearches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class)))
+            .thenAnswer(invocation -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return results("EV");
+            });
+        AsyncSearchService service = service(1, 1);
+
+        service.submit(request(bapUri()), "AND", SearchOptions.defaults());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        service.submit(request(bapUri()), "AND", SearchOptions.defaults());
+
+        assertThrows(SearchOverloadedException.class,
+            () -> service.submit(request(bapUri()), "AND", SearchOptions.defaults()));
+        release.countDown();
+    }
+}
@@ -0,0 +1,62 @@
+package org.beckn.search.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.EdECPrivateKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BecknSignerTest {
+
+    @Test
+    void testDigestIsBlake2b512() {
+        // RFC 7693, appendix A
+        byte[] expected = HexFormat.of().parseHex("ba80a53f981c4d0d6a2797b69f12f6e94c212f14685ac4b74b12bb6fdbffa2d1"
+            + "7d87c5392aab792dc252d5de4533cc9518d38aa8dbf1925ab92386edd4009923");
+        assertEquals("BLAKE-512=" + Base64.getEncoder().encodeToString(expected),
+            BecknSigner.digest("abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testRawSeedSignsLikeThePkcs8Key() throws Exception {
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] seed = ((EdECPrivateKey) keys.getPrivate()).getBytes().orElseThrow();
+        Clock clock = Clock.fixed(Instant.ofEpochSecond(1641287875), ZoneOffset.UTC);
+        byte[] body = "{\"context\":{}}".getBytes(StandardCharsets.UTF_8);
+
+        String fromSeed = new BecknSigner("search.example.org", "key-1", Base64.getEncoder().encodeToString(seed),
+            Duration.ofHours(1), clock).authorization(body);
+        String fromPkcs8 = new BecknSigner("search.example.org", "key-1",
+            Base64.getEncoder().encodeToString(keys.getPrivate().getEncoded()), Duration.ofHours(1), clock).authorization(body);
+
+        // Ed25519 signatures are deterministic
+        assertEquals(fromPkcs8, fromSeed);
+        assertTrue(fromSeed.startsWith("Signature keyId=\"search.example.org|key-1|ed25519\",algorithm=\"ed25519\","
+            + "created=\"1641287875\",expires=\"1641291475\",headers=\"(created) (expires) digest\",signature=\""));
+
+        String signature = fromSeed.substring(fromSeed.indexOf("signature=\"") + 11, fromSeed.length() - 1);
+        Signature verifier = Signature.getInstance("Ed25519");
+        verifier.initVerify(keys.getPublic());
+        verifier.update(BecknSigner.signingString(1641287875, 1641291475, BecknSigner.digest(body)).getBytes(StandardCharsets.UTF_8));
+        assertTrue(verifier.verify(Base64.getDecoder().decode(signature)));
+    }
+
+    @Test
+    void testWithoutAKeyNothingIsSigned() {
+        BecknSigner signer = new BecknSigner("", "", "", Duration.ofMinutes(5));
+
+        assertFalse(signer.isEnabled());
+        assertThrows(IllegalStateException.class, () -> signer.authorization(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new BecknSigner("", "", "c2VlZA==", Duration.ofMinutes(5)));
+    }
+}
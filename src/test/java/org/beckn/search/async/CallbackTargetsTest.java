@@ -0,0 +1,46 @@
+package org.beckn.search.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallbackTargetsTest {
+
+    @Test
+    void testOnlyAllowedHostsGetCallbacks() {
+        CallbackTargets targets = new CallbackTargets(List.of("bap.example.org", "*.buyer.example.com"), false,
+            host -> new InetAddress[0]);
+
+        assertEquals(URI.create("https://bap.example.org/beckn/on_search"), targets.callbackUri("https://bap.example.org/beckn"));
+        assertEquals("EU.buyer.example.com", targets.callbackUri("https://EU.buyer.example.com/").getHost());
+        assertThrows(IllegalArgumentException.class, () -> targets.callbackUri("https://buyer.example.com"));
+        assertThrows(IllegalArgumentException.class, () -> targets.callbackUri("https://evil.example.org"));
+        assertThrows(IllegalArgumentException.class, () -> targets.callbackUri("https://user@bap.example.org"));
+        assertThrows(IllegalArgumentException.class, () -> new CallbackTargets(List.of(), false, host -> new InetAddress[0])
+            .callbackUri("https://bap.example.org"));
+    }
+
+    @Test
+    void testNonPublicAddressesAreRefused() throws Exception {
+        for (String address : List.of("127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "100.64.0.1", "0.0.0.0", "::1", "fe80::1", "fd00::1", "::ffff:127.0.0.1")) {
+            assertFalse(CallbackTargets.isPublic(InetAddress.getByName(address)), address);
+        }
+        assertTrue(CallbackTargets.isPublic(InetAddress.getByName("93.184.216.34")));
+        assertTrue(CallbackTargets.isPublic(InetAddress.getByName("2606:2800:220:1::1")));
+    }
+
+    @Test
+    void testEveryResolvedAddressIsChecked() throws Exception {
+        InetAddress[] addresses = {InetAddress.getByName("93.184.216.34"), InetAddress.getByName("10.0.0.5")};
+        CallbackTargets targets = new CallbackTargets(List.of("bap.example.org"), false, host -> addresses);
+        URI target = targets.callbackUri("https://bap.example.org");
+
+        assertThrows(IllegalArgumentException.class, () -> targets.checkAddresses(target));
+        new CallbackTargets(List.of("bap.example.org"), true, host -> addresses).checkAddresses(target);
+    }
+}
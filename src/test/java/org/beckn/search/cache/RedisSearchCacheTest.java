@@ -0,0 +1,190 @@
+package org.beckn.search.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisURI;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.SearchResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisSearchCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RespStubServer server;
+    private RedisSearchCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new RespStubServer();
+        cache = newCache(100);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.shutdown();
+        server.close();
+    }
+
+    private RedisSearchCache newCache(int compressThreshold) {
+        return new RedisSearchCache(new BecknJsonCodec(objectMapper), objectMapper, RedisURI.create(server.uri()), "test:",
+            Duration.ofMillis(500), Duration.ofSeconds(5), compressThreshold, Clock.systemUTC());
+    }
+
+    private static SearchResponseDto response(String name) {
+        SearchResponseDto response = new SearchResponseDto();
+        SearchResponseDto.Message message = new SearchResponseDto.Message();
+        SearchResponseDto.Catalog catalog = new SearchResponseDto.Catalog();
+        SearchResponseDto.Descriptor descriptor = new SearchResponseDto.Descriptor();
+        descriptor.setName(name);
+        catalog.setDescriptor(descriptor);
+        message.setCatalog(catalog);
+        response.setMessage(message);
+        return response;
+    }
+
+    // The first lookup starts connecting in the background and misses
+    private void awaitConnected() throws Exception {
+        server.data().put("test:connected", cache.encode(response("connected")));
+        assertNotNull(awaitHit("connected"));
+    }
+
+    private RedisSearchCache.Hit awaitHit(String key) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        RedisSearchCache.Hit hit;
+        while ((hit = cache.get(key)) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return hit;
+    }
+
+    @Test
+    void testResponsesRoundTripThroughTheStore() throws Exception {
+        awaitConnected();
+        String longName = "x".repeat(1000);
+
+        cache.put("small", response("EV"), Duration.ofMinutes(1));
+        cache.put("large", response(longName), Duration.ofMinutes(1));
+
+        assertEquals("EV", awaitHit("small").response().getMessage().getCatalog().getDescriptor().getName());
+        assertEquals(longName, awaitHit("large").response().getMessage().getCatalog().getDescriptor().getName());
+        assertTrue(server.data().get("test:large").length < 200, "large values are compressed");
+    }
+
+    @Test
+    void testWriteTimeIsKept() throws IOException {
+        byte[] encoded = cache.encode(response("EV"));
+
+        RedisSearchCache.Hit hit = cache.decode(encoded);
+
+        assertTrue(Math.abs(System.currentTimeMillis() - hit.writtenAtMillis()) < 5_000);
+        assertEquals("EV", hit.response().getMessage().getCatalog().getDescriptor().getName());
+    }
+
+    @Test
+    void testStalledStoreFailsOpenAndIsSkipped() throws Exception {
+        awaitConnected();
+        server.setUnresponsive(true);
+        int before = server.commandCount();
+
+        long start = System.nanoTime();
+        assertNull(cache.get("key"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+
+        // Within the cooldown the store isn't asked at all
+        assertNull(cache.get("key"));
+        Thread.sleep(50);
+        assertEquals(before + 1, server.commandCount());
+    }
+
+    @Test
+    void testUnreachableStoreIsAMiss() throws IOException {
+        server.close();
+
+        assertNull(cache.get("key"));
+        assertDoesNotThrow(() -> cache.put("key", response("EV"), Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testNodesShareResponsesThroughL2() throws Exception {
+        awaitConnected();
+        SearchResultCache first = l1();
+        SearchResultCache second = l1();
+        AtomicInteger loads = new AtomicInteger();
+        SearchResponseDto loaded = response("EV");
+
+        first.get("query", () -> {
+            loads.incrementAndGet();
+            return new SearchResultCache.Loaded(loaded, true);
+        });
+        awaitHit("query");
+        SearchResponseDto shared = second.get("query", () -> {
+            loads.incrementAndGet();
+            return new SearchResultCache.Loaded(response("other"), true);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("EV", shared.getMessage().getCatalog().getDescriptor().getName());
+    }
+
+    @Test
+    void testInvalidationsReachOtherNodes() throws Exception {
+        awaitConnected();
+        RedisSearchCache otherStore = newCache(100);
+        try {
+            SearchResultCache other = l1(otherStore);
+            new SearchCacheInvalidator(other, facetCache(), objectMapper, Optional.of(otherStore));
+            SearchCacheInvalidator invalidator = new SearchCacheInvalidator(l1(cache), facetCache(), objectMapper,
+                Optional.of(cache));
+            AtomicInteger loads = new AtomicInteger();
+            SearchResultCache.Loader loader = () -> {
+                loads.incrementAndGet();
+                return new SearchResultCache.Loaded(response("EV"), true, Set.of("P1"));
+            };
+            other.get("retail|query", loader);
+            awaitSubscribers(2);
+
+            invalidator.providersChanged("retail", List.of("P1"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (loads.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                other.get("retail|query", loader);
+            }
+            assertEquals(2, loads.get());
+        } finally {
+            otherStore.shutdown();
+        }
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.subscriberCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.subscriberCount());
+    }
+
+    private FacetCache facetCache() {
+        return new FacetCache(new SearchFingerprint(objectMapper), Duration.ofSeconds(60), 100);
+    }
+
+    private SearchResultCache l1() {
+        return l1(cache);
+    }
+
+    private SearchResultCache l1(RedisSearchCache l2) {
+        return new SearchResultCache(new SearchFingerprint(objectMapper), true, Duration.ofSeconds(30),
+            Duration.ofMinutes(5), Duration.ofSeconds(10), 100, System::nanoTime, Runnable::run, l2);
+    }
+}
@@ -0,0 +1,201 @@
+package org.beckn.search.cache;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-JVM server speaking the Redis protocol (RESP2), enough for GET/SET/DEL and
+ * PUBLISH/SUBSCRIBE so the L2 cache can be tested without a live Redis. With {@code unresponsive} set it reads
+ * commands but never answers, like a stalled store.
+ */
+class RespStubServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final Map<String, byte[]> data = new ConcurrentHashMap<>();
+    private final List<Socket> clients = new ArrayList<>();
+    private final Map<String, Set<OutputStream>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger commands = new AtomicInteger();
+    private volatile boolean unresponsive;
+
+    RespStubServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "resp-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String uri() {
+        return "redis://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    void setUnresponsive(boolean unresponsive) {
+        this.unresponsive = unresponsive;
+    }
+
+    Map<String, byte[]> data() {
+        return data;
+    }
+
+    int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    int commandCount() {
+        return commands.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                synchronized (clients) {
+                    clients.add(socket);
+                }
+                Thread handler = new Thread(() -> serve(socket), "resp-stub-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            while (true) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                commands.incrementAndGet();
+                if (!unresponsive) {
+                    send(out, execute(command, out));
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    // Replies and published messages can go to one client from different threads
+    private static void send(OutputStream out, byte[] reply) throws IOException {
+        synchronized (out) {
+            out.write(reply);
+            out.flush();
+        }
+    }
+
+    private byte[] execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+        switch (name) {
+            case "GET" -> {
+                byte[] value = data.get(new String(command.get(1), StandardCharsets.UTF_8));
+                return value == null ? "$-1\r\n".getBytes(StandardCharsets.US_ASCII) : bulk(value);
+            }
+            case "SET" -> {
+                data.put(new String(command.get(1), StandardCharsets.UTF_8), command.get(2));
+                return "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+            }
+            case "DEL" -> {
+                int deleted = 0;
+                for (byte[] key : command.subList(1, command.size())) {
+                    if (data.remove(new String(key, StandardCharsets.UTF_8)) != null) {
+                        deleted++;
+                    }
+                }
+                return (":" + deleted + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            }
+            case "SUBSCRIBE" -> {
+                String channel = new String(command.get(1), StandardCharsets.UTF_8);
+                subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(out);
+                return concat(List.of("*3\r\n".getBytes(StandardCharsets.US_ASCII), bulk("subscribe".getBytes(StandardCharsets.US_ASCII)),
+                    bulk(command.get(1)), ":1\r\n".getBytes(StandardCharsets.US_ASCII)));
+            }
+            case "PUBLISH" -> {
+                Set<OutputStream> receivers = subscribers.getOrDefault(new String(command.get(1), StandardCharsets.UTF_8), Set.of());
+                byte[] message = concat(List.of("*3\r\n".getBytes(StandardCharsets.US_ASCII), bulk("message".getBytes(StandardCharsets.US_ASCII)),
+                    bulk(command.get(1)), bulk(command.get(2))));
+                for (OutputStream receiver : receivers) {
+                    send(receiver, message);
+                }
+                return (":" + receivers.size() + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            }
+            case "PING" -> {
+                return "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+            }
+            default -> {
+                return "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+    }
+
+    private static byte[] bulk(byte[] value) {
+        return concat(List.of(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII), value,
+            "\r\n".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] concat(List<byte[]> parts) {
+        int length = parts.stream().mapToInt(part -> part.length).sum();
+        byte[] joined = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return joined;
+    }
+
+    // Commands arrive as arrays of bulk strings: *<n>\r\n then $<len>\r\n<bytes>\r\n per argument
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] arg = in.readNBytes(length);
+            in.readNBytes(2);
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\r') {
+                in.read();
+                return line.toString();
+            }
+            line.append((char) c);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+}
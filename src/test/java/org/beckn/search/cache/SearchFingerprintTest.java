@@ -0,0 +1,51 @@
+package org.beckn.search.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.model.SearchRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchFingerprintTest {
+    private ObjectMapper objectMapper;
+    private SearchFingerprint fingerprint;
+    private String sampleJson;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        fingerprint = new SearchFingerprint(objectMapper);
+
+        ClassPathResource resource = new ClassPathResource("search_intent_body_sample.json");
+        sampleJson = new String(Files.readAllBytes(resource.getFile().toPath()));
+    }
+
+    @Test
+    void testFingerprintIgnoresTransactionAndPagination() throws Exception {
+        SearchRequestDto first = objectMapper.readValue(sampleJson, SearchRequestDto.class);
+        SearchRequestDto second = objectMapper.readValue(sampleJson, SearchRequestDto.class);
+        second.getContext().setTransactionId("another-transaction");
+        second.getContext().setMessageId("another-message");
+        second.getMessage().getIntent().setPage(3);
+        second.getMessage().getIntent().setLimit(50);
+
+        assertEquals(fingerprint.of(first, SearchQueryBuilder.LogicalOperator.AND),
+            fingerprint.of(second, SearchQueryBuilder.LogicalOperator.AND));
+    }
+
+    @Test
+    void testFingerprintChangesWithFiltersAndOperator() throws Exception {
+        SearchRequestDto first = objectMapper.readValue(sampleJson, SearchRequestDto.class);
+        SearchRequestDto second = objectMapper.readValue(sampleJson, SearchRequestDto.class);
+        second.getMessage().getIntent().getItems().get(0).getDescriptor().setName("bread");
+
+        String base = fingerprint.of(first, SearchQueryBuilder.LogicalOperator.AND);
+        assertNotEquals(base, fingerprint.of(second, SearchQueryBuilder.LogicalOperator.AND));
+        assertNotEquals(base, fingerprint.of(first, SearchQueryBuilder.LogicalOperator.OR));
+    }
+}
@@ -0,0 +1,269 @@
+package org.beckn.search.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.model.Context;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+    private static final String KEY = "retail|abc|0|100||false|false";
+
+    private final AtomicLong now = new AtomicLong();
+    private final Queue<Runnable> refreshes = new ArrayDeque<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache(new SearchFingerprint(new ObjectMapper()), true,
+            Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(10), 100,
+            now::get, refreshes::add);
+    }
+
+    private SearchResultCache.Loader loader(SearchResponseDto response) {
+        return () -> {
+            loads.incrementAndGet();
+            return new SearchResultCache.Loaded(response, true);
+        };
+    }
+
+    private SearchResultCache.Loader loader(SearchResponseDto response, String... providerIds) {
+        return () -> {
+            loads.incrementAndGet();
+            return new SearchResultCache.Loaded(response, true, Set.of(providerIds));
+        };
+    }
+
+    private static SearchResponseDto results(String name) {
+        SearchResponseDto response = new SearchResponseDto();
+        SearchResponseDto.Message message = new SearchResponseDto.Message();
+        SearchResponseDto.Catalog catalog = new SearchResponseDto.Catalog();
+        SearchResponseDto.Descriptor descriptor = new SearchResponseDto.Descriptor();
+        descriptor.setName(name);
+        catalog.setDescriptor(descriptor);
+        message.setCatalog(catalog);
+        response.setMessage(message);
+        return response;
+    }
+
+    private static SearchResponseDto noResults() {
+        SearchResponseDto response = new SearchResponseDto();
+        SearchResponseDto.Error error = new SearchResponseDto.Error();
+        error.setCode("NO_SEARCH_RESULTS");
+        response.setError(error);
+        return response;
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void testFreshEntryIsServedWithoutSearching() throws IOException {
+        SearchResponseDto first = results("v1");
+
+        assertSame(first, cache.get(KEY, loader(first)));
+        assertSame(first, cache.get(KEY, loader(results("v2"))));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testStaleEntryIsServedWhileRefreshingInBackground() throws IOException {
+        SearchResponseDto first = results("v1");
+        SearchResponseDto second = results("v2");
+        cache.get(KEY, loader(first));
+        advance(Duration.ofSeconds(31));
+
+        assertSame(first, cache.get(KEY, loader(second)));
+        assertSame(first, cache.get(KEY, loader(second)));
+        assertEquals(1, refreshes.size(), "only one refresh per key at a time");
+
+        refreshes.poll().run();
+        assertSame(second, cache.get(KEY, loader(second)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEntryPastHardTtlIsLoadedAgain() throws IOException {
+        cache.get(KEY, loader(results("v1")));
+        advance(Duration.ofMinutes(6));
+
+        SearchResponseDto second = results("v2");
+        assertSame(second, cache.get(KEY, loader(second)));
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void testNoResultsAreCachedBriefly() throws IOException {
+        SearchResponseDto empty = noResults();
+        SearchResponseDto found = results("v1");
+
+        assertSame(empty, cache.get(KEY, loader(empty)));
+        assertSame(empty, cache.get(KEY, loader(found)));
+        assertEquals(1, loads.get());
+
+        advance(Duration.ofSeconds(11));
+        assertSame(found, cache.get(KEY, loader(found)));
+    }
+
+    @Test
+    void testPartialResponsesAreNotCached() throws IOException {
+        SearchResponseDto partial = results("partial");
+        SearchResultCache.Loader timedOut = () -> {
+            loads.incrementAndGet();
+            return new SearchResultCache.Loaded(partial, false);
+        };
+
+        cache.get(KEY, timedOut);
+        cache.get(KEY, timedOut);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testFailedRefreshKeepsServingTheStaleEntry() throws IOException {
+        SearchResponseDto first = results("v1");
+        cache.get(KEY, loader(first));
+        advance(Duration.ofSeconds(31));
+
+        cache.get(KEY, () -> {
+            throw new IOException("cluster down");
+        });
+        refreshes.poll().run();
+
+        assertSame(first, cache.get(KEY, loader(results("v2"))));
+        assertEquals(1, refreshes.size(), "a new refresh is allowed after a failed one");
+    }
+
+    @Test
+    void testDisabledCacheAlwaysSearches() throws IOException {
+        SearchResultCache disabled = new SearchResultCache(new SearchFingerprint(new ObjectMapper()), false,
+            Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(10), 100, now::get, refreshes::add);
+
+        disabled.get(KEY, loader(results("v1")));
+        disabled.get(KEY, loader(results("v1")));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testProviderChangeEvictsOnlyEntriesHoldingTheProvider() throws IOException {
+        String other = "retail|def|0|100||false|false";
+        cache.get(KEY, loader(results("v1"), "P1", "P2"));
+        cache.get(other, loader(results("v1"), "P3"));
+
+        assertEquals(1, cache.invalidateProviders("retail", List.of("P2")));
+        advance(Duration.ofMillis(1));
+
+        cache.get(KEY, loader(results("v2"), "P1", "P2"));
+        cache.get(other, loader(results("v2"), "P3"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testProviderChangeEvictsDomainWideEntries() throws IOException {
+        String facets = "retail|def|0|100|category|false|false";
+        SearchResponseDto withFacets = results("v1");
+        withFacets.getMessage().setFacets(Map.of());
+        cache.get(KEY, loader(noResults()));
+        cache.get(facets, loader(withFacets, "P1"));
+
+        assertEquals(2, cache.invalidateProviders("retail", List.of("P9")));
+        assertEquals(0, cache.invalidateProviders("mobility", List.of("P1")));
+    }
+
+    @Test
+    void testDomainChangeEvictsEveryEntryOfTheDomain() throws IOException {
+        String otherDomain = "mobility|abc|0|100||false|false";
+        cache.get(KEY, loader(results("v1"), "P1"));
+        cache.get("retail|def|0|100||false|false", loader(noResults()));
+        cache.get(otherDomain, loader(results("v1"), "P1"));
+
+        assertEquals(2, cache.invalidateDomain("retail"));
+        advance(Duration.ofMillis(1));
+        cache.get(otherDomain, loader(results("v2")));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testChangeEvictsMultiDomainAndWildcardSearchesCoveringTheIndex() throws IOException {
+        String multi = "retail^2,deg:ev|abc|0|100||false|false";
+        String wildcard = "DEG:*|abc|0|100||false|false";
+        String unrelated = "mobility,retail|abc|0|100||false|false";
+        cache.get(multi, loader(results("v1"), "P1"));
+        cache.get(wildcard, loader(results("v1"), "P1"));
+        cache.get(unrelated, loader(results("v1"), "P1"));
+
+        // Ingests name the domain the way the catalog's context does
+        assertEquals(2, cache.invalidateProviders("deg:ev", List.of("P1")));
+        assertEquals(1, cache.invalidateDomain("mobility"));
+    }
+
+    @Test
+    void testWildcardSearchOverlappingAChangeIsNotCached() throws IOException {
+        String wildcard = "deg:*|abc|0|100||false|false";
+        SearchResultCache.Loader racing = () -> {
+            loads.incrementAndGet();
+            cache.invalidateProviders("deg:ev", List.of("P1"));
+            advance(Duration.ofMillis(1));
+            return new SearchResultCache.Loaded(results("old"), true, Set.of("P1"));
+        };
+
+        cache.get(wildcard, racing);
+        cache.get(wildcard, loader(results("new"), "P1"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testSearchOverlappingAChangeIsNotCached() throws IOException {
+        SearchResultCache.Loader racing = () -> {
+            loads.incrementAndGet();
+            // The ingest lands after the search has read the index
+            cache.invalidateProviders("retail", List.of("P1"));
+            advance(Duration.ofMillis(1));
+            return new SearchResultCache.Loaded(results("old"), true, Set.of("P1"));
+        };
+
+        cache.get(KEY, racing);
+        cache.get(KEY, loader(results("new"), "P1"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testKeyIgnoresTransactionButNotPage() {
+        SearchRequestDto first = request("txn-1");
+        SearchRequestDto second = request("txn-2");
+        SearchOptions options = SearchOptions.defaults();
+
+        assertEquals(cache.key(first, SearchQueryBuilder.LogicalOperator.AND, 0, 10, options),
+            cache.key(second, SearchQueryBuilder.LogicalOperator.AND, 0, 10, options));
+        assertNotEquals(cache.key(first, SearchQueryBuilder.LogicalOperator.AND, 0, 10, options),
+            cache.key(first, SearchQueryBuilder.LogicalOperator.AND, 1, 10, options));
+    }
+
+    private static SearchRequestDto request(String transactionId) {
+        Context context = new Context();
+        context.setDomain("retail");
+        context.setTransactionId(transactionId);
+        SearchRequestDto request = new SearchRequestDto();
+        request.setContext(context);
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.cache.SearchCacheInvalidator;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.outbox.Outbox;
+import org.beckn.search.store.CatalogStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogIngestServiceTest {
+    private static final Map<String, Object> MILK = Map.of("provider_id", "p1", "items_id", "milk", "items_descriptor_name", "Milk");
+    private static final Map<String, Object> BREAD = Map.of("provider_id", "p1", "items_id", "bread", "items_descriptor_name", "Bread");
+
+    private ElasticsearchClient client;
+    private Outbox outbox;
+    private IndexRebuildService rebuildService;
+    private CatalogIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ElasticsearchClient.class);
+        outbox = mock(Outbox.class);
+        rebuildService = mock(IndexRebuildService.class);
+        when(rebuildService.beginWrite(any())).thenReturn(true);
+        SearchEngine elasticsearch = mock(SearchEngine.class);
+        when(elasticsearch.name()).thenReturn(ElasticsearchSearchEngine.NAME);
+        ingestService = new CatalogIngestService(client, new CatalogRouting("none"),
+            new SearchEngines(List.of(elasticsearch), ElasticsearchSearchEngine.NAME, List.of()),
+            mock(SearchCacheInvalidator.class), outbox, new ObjectMapper(),
+            new CatalogStore(false, Path.of("data/catalog-store"), DataSize.ofMegabytes(1), DataSize.ofMegabytes(8)),
+            rebuildService);
+        ReflectionTestUtils.setField(ingestService, "maxRetryBackoff", Duration.ofMillis(1));
+    }
+
+    private static BulkResponseItem item(int status, String reason) {
+        return BulkResponseItem.of(i -> {
+            i.operationType(OperationType.Index).index("retail").id("doc").status(status);
+            if (reason != null) {
+                i.error(e -> e.type("error").reason(reason));
+            }
+            return i;
+        });
+    }
+
+    private static BulkResponse bulkResponse(BulkResponseItem... items) {
+        boolean errors = List.of(items).stream().anyMatch(item -> item.error() != null);
+        return BulkResponse.of(b -> b.errors(errors).took(1).items(List.of(items)));
+    }
+
+    private static ElasticsearchException esError(int status) {
+        return new ElasticsearchException("bulk", ErrorResponse.of(e -> e
+            .status(status)
+            .error(c -> c.type("error").reason("status " + status))));
+    }
+
+    @Test
+    void testQueuedBatchIsRetriedUntilElasticsearchIsBack() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenThrow(new ConnectException("Connection refused"))
+            .thenThrow(esError(503))
+            .thenThrow(esError(429))
+            .thenThrow(new ConnectException("Connection refused"))
+            .thenReturn(bulkResponse(item(201, null)));
+
+        ingestService.indexQueued(7L, new CatalogIngestService.QueuedIngest("retail", List.of(MILK)));
+
+        verify(client, times(5)).bulk(any(BulkRequest.class));
+        verify(outbox).complete(7L);
+    }
+
+    @Test
+    void testOnlyOverloadedDocumentsAreSentAgain() throws IOException {
+        when(client.bulk(any(BulkRequest.class)))
+            .thenReturn(bulkResponse(item(400, "mapper_parsing_exception"), item(429, "es_rejected_execution_exception")))
+            .thenReturn(bulkResponse(item(201, null)));
+
+        ingestService.indexQueued(7L, new CatalogIngestService.QueuedIngest("retail", List.of(MILK, BREAD)));
+
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulk(requests.capture());
+        assertEquals(2, requests.getAllValues().get(0).operations().size());
+        assertEquals(List.of(BREAD), requests.getAllValues().get(1).operations().stream()
+            .map(op -> op.index().document())
+            .toList());
+        verify(outbox).complete(7L);
+    }
+
+    @Test
+    void testRejectedBatchIsDroppedWithoutRetrying() throws IOException {
+        when(client.bulk(any(BulkRequest.class))).thenThrow(esError(400));
+
+        ingestService.indexQueued(7L, new CatalogIngestService.QueuedIngest("retail", List.of(MILK)));
+
+        verify(client, times(1)).bulk(any(BulkRequest.class));
+        verify(outbox).complete(7L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchesIngestedDuringARebuildAreWrittenAfterIt() throws IOException {
+        when(rebuildService.beginWrite("retail")).thenReturn(false, true);
+        when(client.bulk(any(BulkRequest.class))).thenReturn(bulkResponse(item(201, null)));
+        ingestService.registerCallbacks();
+        ArgumentCaptor<Consumer<String>> finished = ArgumentCaptor.forClass(Consumer.class);
+        verify(rebuildService).onFinished(finished.capture());
+
+        ingestService.indexQueued(1L, new CatalogIngestService.QueuedIngest("retail", List.of(MILK)));
+        // The second batch is allowed to write, but waits behind the held one
+        ingestService.indexQueued(2L, new CatalogIngestService.QueuedIngest("retail", List.of(BREAD)));
+        verify(client, never()).bulk(any(BulkRequest.class));
+        verify(outbox, never()).complete(anyLong());
+
+        finished.getValue().accept("retail");
+
+        verify(outbox, timeout(5000)).complete(2L);
+        verify(outbox).complete(1L);
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulk(requests.capture());
+        assertEquals(List.of(MILK, BREAD), requests.getAllValues().stream()
+            .map(request -> request.operations().get(0).index().document())
+            .toList());
+    }
+
+    @Test
+    void testRetryBackoffIsCapped() {
+        ReflectionTestUtils.setField(ingestService, "maxRetryBackoff", Duration.ofMinutes(1));
+
+        assertEquals(Duration.ofSeconds(1), ingestService.retryBackoff(1));
+        assertEquals(Duration.ofSeconds(8), ingestService.retryBackoff(4));
+        assertEquals(Duration.ofMinutes(1), ingestService.retryBackoff(40));
+    }
+}
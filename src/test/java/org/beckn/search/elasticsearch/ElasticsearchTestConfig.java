@@ -5,6 +5,12 @@ import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.HttpHost;
+import org.beckn.search.cache.FacetCache;
+import org.beckn.search.cache.SearchFingerprint;
+import org.beckn.search.cache.SearchResultCache;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.store.CatalogStore;
+import org.beckn.search.transformer.ProviderFragmentCache;
 import org.beckn.search.transformer.SearchResponseTransformer;
 import org.elasticsearch.client.RestClient;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +20,12 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
 import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 @TestConfiguration
 public class ElasticsearchTestConfig {
@@ -55,15 +67,41 @@ public class ElasticsearchTestConfig {
 
     @Bean
     public SearchResponseTransformer searchResponseTransformer(ObjectMapper objectMapper) {
-        return new SearchResponseTransformer(objectMapper);
+        return new SearchResponseTransformer(objectMapper, new ProviderFragmentCache(DataSize.ofMegabytes(16)));
     }
 
     @Bean
-    public SearchService searchService(
+    public FacetAggregationBuilder facetAggregationBuilder() {
+        return new FacetAggregationBuilder();
+    }
+
+    @Bean
+    public FacetCache facetCache(ObjectMapper objectMapper) {
+        return new FacetCache(new SearchFingerprint(objectMapper), Duration.ofMinutes(1), 1000);
+    }
+
+    @Bean
+    public ElasticsearchSearchEngine elasticsearchSearchEngine(
             ElasticsearchClient elasticsearchClient,
+            FacetAggregationBuilder facetAggregationBuilder) {
+        SearchConcurrencyLimiter concurrencyLimiter = new SearchConcurrencyLimiter(true, 20, 4, 200, Duration.ofSeconds(1), 1000);
+        return new ElasticsearchSearchEngine(elasticsearchClient, facetAggregationBuilder, concurrencyLimiter,
+                new SearchHedger(false, 0.95, Duration.ofMillis(10), 0.1, 64, concurrencyLimiter),
+                new CatalogStore(false, Path.of("data/catalog-store"), DataSize.ofMegabytes(256), DataSize.ofGigabytes(4)));
+    }
+
+    @Bean
+    public SearchService searchService(
+            ElasticsearchSearchEngine elasticsearchSearchEngine,
             SearchQueryBuilder searchQueryBuilder,
             ObjectMapper objectMapper,
-            SearchResponseTransformer searchResponseTransformer) {
-        return new SearchService(elasticsearchClient, searchQueryBuilder, objectMapper, searchResponseTransformer);
+            SearchResponseTransformer searchResponseTransformer,
+            FacetCache facetCache) {
+        return new SearchService(
+                new SearchEngines(List.of(elasticsearchSearchEngine), ElasticsearchSearchEngine.NAME, List.of()),
+                searchQueryBuilder, objectMapper, searchResponseTransformer, facetCache,
+                new SearchFingerprint(objectMapper), new CatalogRouting("none"),
+                new SearchResultCache(new SearchFingerprint(objectMapper), false, Duration.ofSeconds(30),
+                        Duration.ofMinutes(5), Duration.ofSeconds(10), 100, Optional.empty()));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import org.beckn.search.model.FacetType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetAggregationBuilderTest {
+    private final FacetAggregationBuilder builder = new FacetAggregationBuilder();
+
+    private List<AggregationRange> priceRanges() {
+        return builder.buildAggregations(Set.of(FacetType.PRICE)).get(FacetType.PRICE.getKey()).range().ranges();
+    }
+
+    @Test
+    void testPriceRangesLeaveOpenBoundsUnset() {
+        ReflectionTestUtils.setField(builder, "priceRanges", List.of("-100", " 100 - 500 ", "500-"));
+
+        List<AggregationRange> ranges = priceRanges();
+
+        assertNull(ranges.get(0).from());
+        assertEquals("100.0", ranges.get(0).to());
+        assertEquals("100.0", ranges.get(1).from());
+        assertEquals("500.0", ranges.get(1).to());
+        assertEquals("500.0", ranges.get(2).from());
+        assertNull(ranges.get(2).to());
+    }
+
+    @Test
+    void testInvalidPriceRangesAreConfigurationErrors() {
+        ReflectionTestUtils.setField(builder, "priceRanges", List.of("100-abc"));
+        assertThrows(IllegalStateException.class, this::priceRanges);
+
+        ReflectionTestUtils.setField(builder, "priceRanges", List.of("100"));
+        assertThrows(IllegalStateException.class, this::priceRanges);
+    }
+}
@@ -0,0 +1,170 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch.core.ReindexResponse;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetAliasResponse;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesRequest;
+import co.elastic.clients.elasticsearch.indices.get_alias.IndexAliases;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.elasticsearch.tasks.ElasticsearchTasksClient;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import org.beckn.search.model.IndexRebuildStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IndexRebuildServiceTest {
+
+    @Test
+    void testTargetIndexMatchesTemplatePattern() {
+        assertEquals("deg-ev_v20250415103000",
+            IndexRebuildService.targetIndexName("deg-ev", Instant.parse("2025-04-15T10:30:00Z")));
+    }
+
+    @Test
+    void testSwapMovesAliasInOneUpdate() {
+        List<Action> actions = IndexRebuildService.swapActions("retail", "retail_v2", Set.of("retail_v1"), null);
+
+        assertEquals(2, actions.size());
+        assertEquals("retail_v1", actions.get(0).remove().index());
+        assertEquals("retail", actions.get(0).remove().alias());
+        assertEquals("retail_v2", actions.get(1).add().index());
+        assertEquals("retail", actions.get(1).add().alias());
+    }
+
+    @Test
+    void testSwapReplacesLegacyConcreteIndex() {
+        List<Action> actions = IndexRebuildService.swapActions("retail", "retail_v2", Set.of(), "retail");
+
+        assertEquals(2, actions.size());
+        assertTrue(actions.get(0).isRemoveIndex());
+        assertEquals("retail", actions.get(0).removeIndex().index());
+        assertTrue(actions.get(1).isAdd());
+    }
+
+    @Test
+    void testFailedReindexTaskLeavesTheAliasUntouched() throws IOException {
+        GetTasksResponse failed = mock(GetTasksResponse.class);
+        when(failed.completed()).thenReturn(true);
+        when(failed.error()).thenReturn(ErrorCause.of(e -> e.type("search_phase_execution_exception").reason("all shards failed")));
+        ElasticsearchClient client = rebuildClient(failed);
+        IndexRebuildStatus status = rebuild(client);
+
+        assertEquals(IndexRebuildStatus.State.FAILED, status.getState());
+        assertEquals("reindex", status.getStep());
+        assertTrue(status.getError().contains("all shards failed"));
+        verify(client.indices(), never()).updateAliases(any(UpdateAliasesRequest.class));
+        verify(client.indices(), never()).forcemerge(any(Function.class));
+        verify(client.indices()).delete(any(Function.class));
+    }
+
+    @Test
+    void testPartialReindexLeavesTheAliasUntouched() throws IOException {
+        GetTasksResponse partial = mock(GetTasksResponse.class);
+        when(partial.completed()).thenReturn(true);
+        when(partial.response()).thenReturn(JsonData.fromJson(
+            "{\"total\": 100, \"created\": 60, \"updated\": 0, \"noops\": 0, \"failures\": []}"));
+        ElasticsearchClient client = rebuildClient(partial);
+        IndexRebuildStatus status = rebuild(client);
+
+        assertEquals(IndexRebuildStatus.State.FAILED, status.getState());
+        assertEquals("Reindex copied 60 of 100 documents", status.getError());
+        verify(client.indices(), never()).updateAliases(any(UpdateAliasesRequest.class));
+    }
+
+    @Test
+    void testCancelledOrEmptyReindexIsRejected() {
+        GetTasksResponse cancelled = mock(GetTasksResponse.class);
+        when(cancelled.response()).thenReturn(JsonData.fromJson(
+            "{\"total\": 10, \"created\": 10, \"canceled\": \"by user request\"}"));
+        GetTasksResponse empty = mock(GetTasksResponse.class);
+        GetTasksResponse complete = mock(GetTasksResponse.class);
+        when(complete.response()).thenReturn(JsonData.fromJson(
+            "{\"total\": 10, \"created\": 7, \"updated\": 2, \"noops\": 1, \"failures\": []}"));
+
+        assertThrows(IllegalStateException.class, () -> IndexRebuildService.reindexedDocuments(cancelled));
+        assertThrows(IllegalStateException.class, () -> IndexRebuildService.reindexedDocuments(empty));
+        assertEquals(10, IndexRebuildService.reindexedDocuments(complete));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWritesAreHeldOffWhileARebuildRuns() throws Exception {
+        GetTasksResponse failed = mock(GetTasksResponse.class);
+        when(failed.completed()).thenReturn(true);
+        when(failed.error()).thenReturn(ErrorCause.of(e -> e.type("exception").reason("stopped")));
+        ElasticsearchClient client = rebuildClient(failed);
+        IndexRebuildService service = new IndexRebuildService(client, new IndexTemplateProperties(), Duration.ofMillis(1),
+            Duration.ofSeconds(1), false, Clock.fixed(Instant.parse("2025-04-15T10:30:00Z"), ZoneOffset.UTC));
+        List<String> finished = new CopyOnWriteArrayList<>();
+        service.onFinished(finished::add);
+
+        assertTrue(service.beginWrite("retail"));
+        IndexRebuildStatus status = service.startRebuild("retail");
+        assertFalse(service.beginWrite("retail"));
+        assertTrue(service.beginWrite("deg-ev"));
+
+        // The copy waits for the write that was already under way
+        Thread.sleep(100);
+        verify(client, never()).reindex(any(Function.class));
+        service.endWrite("retail");
+        verify(client, timeout(5000)).reindex(any(Function.class));
+        verify(client.indices()).refresh(any(Function.class));
+
+        Instant deadline = Instant.now().plusSeconds(5);
+        while (finished.isEmpty() && Instant.now().isBefore(deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("retail"), finished);
+        assertEquals(IndexRebuildStatus.State.FAILED, status.getState());
+        assertTrue(service.beginWrite("retail"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ElasticsearchClient rebuildClient(GetTasksResponse reindexTask) throws IOException {
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+        ElasticsearchIndicesClient indices = mock(ElasticsearchIndicesClient.class);
+        ElasticsearchTasksClient tasks = mock(ElasticsearchTasksClient.class);
+        when(client.indices()).thenReturn(indices);
+        when(client.tasks()).thenReturn(tasks);
+
+        when(indices.existsAlias(any(Function.class))).thenReturn(new BooleanResponse(true));
+        GetAliasResponse aliases = mock(GetAliasResponse.class);
+        when(aliases.result()).thenReturn(Map.of("retail_v1", mock(IndexAliases.class)));
+        when(indices.getAlias(any(Function.class))).thenReturn(aliases);
+        when(indices.existsIndexTemplate(any(Function.class))).thenReturn(new BooleanResponse(true));
+        ReindexResponse reindex = mock(ReindexResponse.class);
+        when(reindex.task()).thenReturn("node-1:42");
+        when(client.reindex(any(Function.class))).thenReturn(reindex);
+        when(tasks.get(any(Function.class))).thenReturn(reindexTask);
+        return client;
+    }
+
+    private static IndexRebuildStatus rebuild(ElasticsearchClient client) {
+        IndexRebuildService service = new IndexRebuildService(client, new IndexTemplateProperties(), Duration.ofMillis(1),
+            Duration.ofSeconds(1), false, Clock.fixed(Instant.parse("2025-04-15T10:30:00Z"), ZoneOffset.UTC));
+        IndexRebuildStatus status = new IndexRebuildStatus();
+        status.setAlias("retail");
+        status.setTargetIndex("retail_v20250415103000");
+        status.setState(IndexRebuildStatus.State.RUNNING);
+        service.rebuild(status);
+        return status;
+    }
+}
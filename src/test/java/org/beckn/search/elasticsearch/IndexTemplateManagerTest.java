@@ -0,0 +1,115 @@
+package org.beckn.search.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.mapping.Property;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetIndexTemplateResponse;
+import co.elastic.clients.elasticsearch.indices.IndexSegmentSort;
+import co.elastic.clients.elasticsearch.indices.PutIndexTemplateRequest;
+import co.elastic.clients.elasticsearch.indices.SegmentSortOrder;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IndexTemplateManagerTest {
+    private ElasticsearchIndicesClient indicesClient;
+    private IndexTemplateProperties properties;
+    private IndexTemplateManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+        indicesClient = mock(ElasticsearchIndicesClient.class);
+        when(client.indices()).thenReturn(indicesClient);
+
+        properties = new IndexTemplateProperties();
+        properties.setShards(1);
+        properties.setReplicas(1);
+        IndexTemplateProperties.DomainSettings retail = new IndexTemplateProperties.DomainSettings();
+        retail.setShards(6);
+        properties.setDomains(new HashMap<>(Map.of("retail", retail)));
+
+        manager = new IndexTemplateManager(client, properties, new ObjectMapper());
+    }
+
+    @Test
+    void testTemplateUsesDomainSettingsAndLeanMapping() {
+        PutIndexTemplateRequest request = manager.buildTemplate("retail");
+
+        assertEquals("beckn-catalog-retail", request.name());
+        assertEquals(List.of("retail", "retail_v*"), request.indexPatterns());
+        assertEquals("6", request.template().settings().numberOfShards());
+        assertEquals("1", request.template().settings().numberOfReplicas());
+
+        Map<String, Property> fields = request.template().mappings().properties();
+        assertFalse(fields.get("raw_catalog").keyword().index());
+        assertFalse(fields.get("raw_catalog").keyword().docValues());
+        assertTrue(fields.get("items_category_ids").keyword().eagerGlobalOrdinals());
+        assertTrue(fields.get("providers_fulfillments_type").text().fields().get("keyword").keyword().eagerGlobalOrdinals());
+        assertFalse(fields.get("providers_locations_address").text().norms());
+    }
+
+    @Test
+    void testIndexSortPerDomain() {
+        assertNull(manager.buildTemplate("retail").template().settings().sort());
+
+        properties.getDomains().get("retail").setSort(IndexTemplateProperties.IndexSort.GEO);
+        IndexSegmentSort sort = manager.buildTemplate("retail").template().settings().sort();
+
+        assertEquals(List.of("providers_locations_geocell", "provider_id"), sort.field());
+        assertEquals(List.of(SegmentSortOrder.Asc, SegmentSortOrder.Asc), sort.order());
+    }
+
+    @Test
+    void testGeoCellEncoding() {
+        assertEquals("u4pru", GeoCell.encode(57.64911, 10.40744, 5));
+        assertEquals(List.of("tdr1v"), GeoCell.cellsFor(List.of("12.9716,77.5946", "12.9717, 77.5947", "bad")));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testMissingTemplateIsInstalled() throws IOException {
+        when(indicesClient.existsIndexTemplate(any(Function.class))).thenReturn(new BooleanResponse(false));
+
+        assertTrue(manager.installTemplate("retail"));
+        verify(indicesClient).putIndexTemplate(any(PutIndexTemplateRequest.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testTemplateIsReinstalledWhenConfiguredSettingsChange() throws IOException {
+        PutIndexTemplateRequest current = manager.buildTemplate("retail");
+        GetIndexTemplateResponse installed = GetIndexTemplateResponse.of(r -> r.indexTemplates(i -> i
+            .name(current.name())
+            .indexTemplate(t -> t.indexPatterns(current.indexPatterns()).composedOf(List.of())
+                .version(current.version()).meta(current.meta()))));
+        when(indicesClient.existsIndexTemplate(any(Function.class))).thenReturn(new BooleanResponse(true));
+        when(indicesClient.getIndexTemplate(any(Function.class))).thenReturn(installed);
+
+        assertFalse(manager.installTemplate("retail"));
+
+        properties.getDomains().get("retail").setShards(12);
+        assertTrue(manager.installTemplate("retail"));
+        verify(indicesClient).putIndexTemplate(any(PutIndexTemplateRequest.class));
+    }
+
+    @Test
+    void testDisabledManagementTouchesNothing() {
+        properties.setManageTemplates(false);
+
+        manager.run(null);
+
+        verifyNoInteractions(indicesClient);
+    }
+}
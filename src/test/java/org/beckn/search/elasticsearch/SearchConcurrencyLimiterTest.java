@@ -0,0 +1,62 @@
+package org.beckn.search.elasticsearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchConcurrencyLimiterTest {
+    private static final long MS = 1_000_000L;
+
+    private SearchConcurrencyLimiter limiter(int initialLimit) {
+        return new SearchConcurrencyLimiter(true, initialLimit, 2, 100, Duration.ofSeconds(2), 1000);
+    }
+
+    @Test
+    void testRequestsOverTheLimitAreShed() {
+        SearchConcurrencyLimiter limiter = limiter(2);
+        long first = limiter.acquire();
+        limiter.acquire();
+
+        SearchOverloadedException e = assertThrows(SearchOverloadedException.class, limiter::acquire);
+        assertEquals(2, e.getRetryAfterSeconds());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(first, SearchConcurrencyLimiter.Outcome.SUCCESS);
+        assertDoesNotThrow(limiter::acquire);
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyStaysFlat() {
+        SearchConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10 * MS, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyBuildsUp() {
+        SearchConcurrencyLimiter limiter = limiter(50);
+        limiter.onSample(10 * MS, 50);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(100 * MS, 50);
+        }
+
+        assertTrue(limiter.getLimit() < 50);
+    }
+
+    @Test
+    void testIdleLimitDoesNotGrowAndDropsBackOff() {
+        SearchConcurrencyLimiter limiter = limiter(50);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10 * MS, 1);
+        }
+        assertEquals(50, limiter.getLimit());
+
+        limiter.onDrop();
+        assertEquals(45, limiter.getLimit());
+    }
+}
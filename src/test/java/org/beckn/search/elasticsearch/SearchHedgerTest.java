@@ -0,0 +1,232 @@
+package org.beckn.search.elasticsearch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchHedgerTest {
+    private static final long MS = 1_000_000L;
+
+    private SearchHedger hedger;
+
+    @AfterEach
+    void tearDown() {
+        if (hedger != null) {
+            hedger.shutdown();
+        }
+    }
+
+    private SearchHedger hedger(double maxRatio) {
+        return hedger(maxRatio, 64, limiter(20));
+    }
+
+    private SearchHedger hedger(double maxRatio, int maxThreads, SearchConcurrencyLimiter limiter) {
+        hedger = new SearchHedger(true, 0.95, Duration.ofMillis(20), maxRatio, maxThreads, limiter);
+        return hedger;
+    }
+
+    private static SearchConcurrencyLimiter limiter(int limit) {
+        return new SearchConcurrencyLimiter(true, limit, limit, limit, Duration.ofSeconds(1), 1000);
+    }
+
+    private static void warmUp(SearchHedger hedger, long latencyNanos) {
+        for (int i = 0; i < 128; i++) {
+            hedger.recordLatency(latencyNanos);
+        }
+    }
+
+    @Test
+    void testNoHedgingUntilLatenciesAreKnown() throws IOException {
+        SearchHedger hedger = hedger(1.0);
+
+        assertEquals("primary", hedger.execute(hedge -> hedge ? "hedge" : "primary"));
+        assertEquals(Long.MAX_VALUE, hedger.getHedgeDelayNanos());
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    void testDelayFollowsThePercentileWithAFloor() {
+        SearchHedger hedger = hedger(1.0);
+        for (int i = 1; i <= 128; i++) {
+            hedger.recordLatency(i * MS);
+        }
+        assertEquals(122 * MS, hedger.getHedgeDelayNanos());
+
+        SearchHedger fast = new SearchHedger(true, 0.95, Duration.ofMillis(20), 1.0, 64, limiter(20));
+        warmUp(fast, MS);
+        assertEquals(20 * MS, fast.getHedgeDelayNanos());
+        fast.shutdown();
+    }
+
+    @Test
+    void testSlowPrimaryIsHedgedAndHedgeWins() throws Exception {
+        SearchHedger hedger = hedger(1.0);
+        warmUp(hedger, MS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        String result = hedger.execute(hedge -> {
+            if (hedge) {
+                return "hedge";
+            }
+            await(release);
+            return "primary";
+        });
+        release.countDown();
+
+        assertEquals("hedge", result);
+        assertEquals(1, hedger.getHedges());
+        assertEquals(1, hedger.getHedgeWins());
+    }
+
+    @Test
+    void testFastPrimaryIsNotHedged() throws IOException {
+        SearchHedger hedger = hedger(1.0);
+        warmUp(hedger, MS);
+
+        assertEquals("primary", hedger.execute(hedge -> hedge ? "hedge" : "primary"));
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    void testHedgeBudgetIsRespected() throws IOException {
+        SearchHedger hedger = hedger(0.0);
+        warmUp(hedger, MS);
+
+        String result = hedger.execute(hedge -> {
+            sleep(60);
+            return hedge ? "hedge" : "primary";
+        });
+
+        assertEquals("primary", result);
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    void testHedgeTakesItsOwnPermit() throws IOException {
+        SearchConcurrencyLimiter limiter = limiter(4);
+        SearchHedger hedger = hedger(1.0, 64, limiter);
+        warmUp(hedger, MS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        int[] inFlight = new int[1];
+        hedger.execute(hedge -> {
+            if (hedge) {
+                inFlight[0] = limiter.getInFlight();
+                return "hedge";
+            }
+            await(release);
+            return "primary";
+        });
+        release.countDown();
+
+        assertEquals(1, inFlight[0]);
+        // Released once the hedge's thread is done, just after it answered
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    void testNoHedgeWithoutAFreePermit() throws IOException {
+        SearchConcurrencyLimiter limiter = limiter(1);
+        SearchHedger hedger = hedger(1.0, 64, limiter);
+        warmUp(hedger, MS);
+        // The primary's own permit, as the engine takes it
+        long permit = limiter.acquire();
+
+        String result = hedger.execute(hedge -> {
+            sleep(60);
+            return hedge ? "hedge" : "primary";
+        });
+        limiter.release(permit, SearchConcurrencyLimiter.Outcome.IGNORED);
+
+        assertEquals("primary", result);
+        assertEquals(0, hedger.getHedges());
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    void testPrimaryRunsOnTheCallerWhenThePoolIsFull() throws Exception {
+        SearchHedger hedger = hedger(1.0, 1, limiter(20));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> {
+            try {
+                hedger.execute(hedge -> {
+                    started.countDown();
+                    await(release);
+                    return "busy";
+                });
+            } catch (IOException ignored) {
+            }
+        });
+        busy.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread caller = Thread.currentThread();
+        assertSame(caller, hedger.execute(hedge -> Thread.currentThread()));
+        release.countDown();
+        busy.join(5000);
+    }
+
+    @Test
+    void testFailedPrimaryFallsBackToTheHedge() throws IOException {
+        SearchHedger hedger = hedger(1.0);
+        warmUp(hedger, MS);
+
+        String result = hedger.execute(hedge -> {
+            if (!hedge) {
+                sleep(60);
+                throw new IOException("shard copy gone");
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", result);
+    }
+
+    @Test
+    void testErrorIsThrownOnceEveryAttemptFailed() {
+        SearchHedger hedger = hedger(1.0);
+
+        IOException e = assertThrows(IOException.class, () -> hedger.execute(hedge -> {
+            throw new IOException("cluster down");
+        }));
+        assertEquals("cluster down", e.getMessage());
+    }
+
+    @Test
+    void testDisabledHedgerRunsOnTheCallingThread() throws IOException {
+        SearchHedger hedger = new SearchHedger(false, 0.95, Duration.ofMillis(20), 1.0, 64, limiter(20));
+        Thread caller = Thread.currentThread();
+
+        Thread thread = hedger.execute(hedge -> Thread.currentThread());
+        assertSame(caller, thread);
+        hedger.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -373,4 +373,4 @@ class SearchQueryBuilderTest {
         
         return request;
     }
-} 
\ No newline at end of file
+}
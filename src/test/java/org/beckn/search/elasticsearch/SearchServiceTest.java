@@ -1,31 +1,62 @@
 package org.beckn.search.elasticsearch;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
 import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
 import co.elastic.clients.elasticsearch.indices.ExistsRequest;
+import co.elastic.clients.util.ObjectBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.cache.FacetCache;
+import org.beckn.search.cache.SearchFingerprint;
+import org.beckn.search.cache.SearchResultCache;
+import org.beckn.search.engine.EngineQuery;
+import org.beckn.search.engine.EngineResult;
+import org.beckn.search.engine.QueryNode;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.Intent;
+import org.beckn.search.model.Location;
+import org.beckn.search.model.Message;
+import org.beckn.search.model.SearchOptions;
 import org.beckn.search.model.SearchRequestDto;
 import org.beckn.search.model.SearchResponseDto;
 import org.beckn.search.model.Context;
+import org.beckn.search.store.CatalogStore;
 import org.beckn.search.transformer.SearchResponseTransformer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,17 +80,48 @@ class SearchServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
-    @InjectMocks
+    @Spy
+    private FacetAggregationBuilder facetAggregationBuilder = new FacetAggregationBuilder();
+
+    @Spy
+    private SearchFingerprint searchFingerprint = new SearchFingerprint(new ObjectMapper());
+
+    @Spy
+    private CatalogRouting catalogRouting = new CatalogRouting("none");
+
+    @Spy
+    private SearchConcurrencyLimiter concurrencyLimiter = new SearchConcurrencyLimiter(true, 20, 4, 200, Duration.ofSeconds(1), 1000);
+
+    @Spy
+    private SearchHedger searchHedger = new SearchHedger(false, 0.95, Duration.ofMillis(10), 0.1, 64, concurrencyLimiter);
+
+    @Spy
+    private FacetCache facetCache = new FacetCache(new SearchFingerprint(new ObjectMapper()), Duration.ofMinutes(1), 100);
+
+    // Disabled so every call reaches ES; SearchResultCacheTest covers the cache itself
+    @Spy
+    private SearchResultCache resultCache = new SearchResultCache(new SearchFingerprint(new ObjectMapper()), false,
+        Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(10), 100, Optional.empty());
+
+    private ElasticsearchSearchEngine elasticsearchEngine;
+
     private SearchService searchService;
 
     private SearchRequestDto mockRequest;
     private SearchResponseDto mockResponse;
     private String mockRawCatalog;
-    private SearchResponse<Map<String, Object>> mockSearchResponse;
+    private SearchResponse<CatalogDocument> mockSearchResponse;
 
     @SuppressWarnings("unchecked")
     @BeforeEach
     void setUp() throws IOException {
+        elasticsearchEngine = new ElasticsearchSearchEngine(elasticsearchClient, facetAggregationBuilder,
+            concurrencyLimiter, searchHedger, disabledCatalogStore());
+        searchService = new SearchService(new SearchEngines(List.of(elasticsearchEngine), ElasticsearchSearchEngine.NAME, List.of()),
+            queryBuilder, objectMapper, responseTransformer, facetCache, searchFingerprint, catalogRouting, resultCache);
+        ReflectionTestUtils.setField(searchService, "maxResults", 1000);
+        ReflectionTestUtils.setField(searchService, "defaultPageSize", 100);
+
         // Setup mock request
         mockRequest = new SearchRequestDto();
         Context context = new Context();
@@ -87,14 +149,12 @@ class SearchServiceTest {
             """;
 
         // Setup mock Elasticsearch response
-        Map<String, Object> source = new HashMap<>();
-        source.put("raw_catalog", mockRawCatalog);
+        Hit<CatalogDocument> hit = mock(Hit.class);
+        when(hit.source()).thenReturn(new CatalogDocument(mockRawCatalog));
         
-        Hit<Map<String, Object>> hit = mock(Hit.class);
-        when(hit.source()).thenReturn(source);
-        
-        HitsMetadata<Map<String, Object>> hitsMetadata = mock(HitsMetadata.class);
+        HitsMetadata<CatalogDocument> hitsMetadata = mock(HitsMetadata.class);
         when(hitsMetadata.hits()).thenReturn(List.of(hit));
+        when(hitsMetadata.total()).thenReturn(TotalHits.of(t -> t.value(42).relation(TotalHitsRelation.Eq)));
         
         mockSearchResponse = mock(SearchResponse.class);
         when(mockSearchResponse.hits()).thenReturn(hitsMetadata);
@@ -107,16 +167,18 @@ class SearchServiceTest {
         when(elasticsearchClient.indices()).thenReturn(indicesClient);
 
         // Setup mock query builder
-        when(queryBuilder.buildSearchQuery(any(), any(SearchQueryBuilder.LogicalOperator.class)))
-            .thenReturn(mock(Query.class));
+        when(queryBuilder.buildQuery(any(), any(SearchQueryBuilder.LogicalOperator.class)))
+            .thenReturn(QueryNode.matchAll());
 
         // Setup mock elasticsearch client search
-        when(elasticsearchClient.search(any(Function.class), eq(Map.class)))
+        when(elasticsearchClient.search(any(Function.class), eq(CatalogDocument.class)))
             .thenReturn(mockSearchResponse);
 
         // Setup mock transformer
         when(responseTransformer.transformToResponse(any()))
             .thenReturn(mockResponse);
+        when(responseTransformer.transformHits(any()))
+            .thenReturn(mockResponse);
             
         // Setup mock object mapper
         ObjectMapper realObjectMapper = new ObjectMapper();
@@ -130,9 +192,9 @@ class SearchServiceTest {
 
     @Test
     void testSearch() throws IOException {
-        SearchResponse<Map> response = searchService.search(mockRequest);
+        EngineResult response = searchService.search(mockRequest);
         assertNotNull(response);
-        assertEquals(1, response.hits().hits().size());
+        assertEquals(1, response.hits().size());
         verify(elasticsearchClient.indices()).exists(any(Function.class));
     }
 
@@ -170,4 +232,243 @@ class SearchServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> searchService.search(mockRequest));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchWithFacets() throws IOException {
+        when(mockSearchResponse.aggregations()).thenReturn(Map.of("category", Aggregate.of(a -> a
+            .sterms(t -> t.buckets(b -> b.array(List.of(
+                StringTermsBucket.of(sb -> sb.key("grocery").docCount(3)))))))));
+
+        SearchOptions options = SearchOptions.builder().facets(Set.of(FacetType.CATEGORY)).build();
+        SearchResponseDto response = searchService.searchAndGetResponse(mockRequest, "AND", options);
+
+        List<FacetBucket> categories = response.getMessage().getFacets().get("category");
+        assertEquals(1, categories.size());
+        assertEquals("grocery", categories.get(0).getKey());
+        assertEquals(3, categories.get(0).getCount());
+    }
+
+    @Test
+    void testFacetsAreSharedAcrossPages() throws IOException {
+        when(mockSearchResponse.aggregations()).thenReturn(Map.of("category", Aggregate.of(a -> a
+            .sterms(t -> t.buckets(b -> b.array(List.of(
+                StringTermsBucket.of(sb -> sb.key("grocery").docCount(3)))))))));
+        Message message = new Message();
+        message.setIntent(new Intent());
+        mockRequest.setMessage(message);
+        SearchOptions options = SearchOptions.builder().facets(Set.of(FacetType.CATEGORY)).build();
+
+        searchService.searchAndGetResponse(mockRequest, "AND", options);
+        mockRequest.getMessage().getIntent().setPage(2);
+        SearchResponseDto secondPage = searchService.searchAndGetResponse(mockRequest, "AND", options);
+
+        assertEquals("grocery", secondPage.getMessage().getFacets().get("category").get(0).getKey());
+        verify(facetAggregationBuilder, times(1)).parseAggregations(any(), any());
+    }
+
+    @Test
+    void testFacetsOnlySkipsHits() throws IOException {
+        SearchOptions options = SearchOptions.builder()
+            .facets(Set.of(FacetType.PRICE))
+            .facetsOnly(true)
+            .build();
+
+        SearchResponseDto response = searchService.searchAndGetResponse(mockRequest, "AND", options);
+
+        assertNull(response.getMessage().getCatalog());
+        assertNotNull(response.getMessage().getFacets().get("price"));
+        verify(responseTransformer, never()).transformHits(any());
+    }
+
+    @Test
+    void testRepeatedQueriesShareShardPreference() throws IOException {
+        ReflectionTestUtils.setField(elasticsearchEngine, "shardAffinityEnabled", true);
+        ReflectionTestUtils.setField(elasticsearchEngine, "requestCacheEnabled", true);
+
+        searchService.search(mockRequest, 0, 10, SearchQueryBuilder.LogicalOperator.AND);
+        searchService.search(mockRequest, 2, 10, SearchQueryBuilder.LogicalOperator.AND);
+
+        List<SearchRequest> requests = capturedSearchRequests(2);
+        assertNotNull(requests.get(0).preference());
+        assertEquals(requests.get(0).preference(), requests.get(1).preference());
+        assertNull(requests.get(0).requestCache());
+    }
+
+    @Test
+    void testFacetsOnlyUsesRequestCache() throws IOException {
+        ReflectionTestUtils.setField(elasticsearchEngine, "requestCacheEnabled", true);
+        SearchOptions options = SearchOptions.builder()
+            .facets(Set.of(FacetType.CATEGORY))
+            .facetsOnly(true)
+            .build();
+
+        searchService.searchAndGetResponse(mockRequest, "AND", options);
+
+        SearchRequest request = capturedSearchRequests(1).get(0);
+        assertEquals(Boolean.TRUE, request.requestCache());
+        assertEquals(0, request.size());
+        assertNull(request.preference());
+    }
+
+    @Test
+    void testCityScopedSearchIsRoutedToOneShard() throws IOException {
+        ReflectionTestUtils.setField(searchService, "catalogRouting", new CatalogRouting("city"));
+        Location.City city = new Location.City();
+        city.setCode("std:080");
+        Location location = new Location();
+        location.setCity(city);
+        mockRequest.getContext().setLocation(location);
+
+        searchService.search(mockRequest);
+
+        SearchRequest request = capturedSearchRequests(1).get(0);
+        assertEquals("std:080", request.routing());
+        Query routingFilter = request.query().bool().filter().get(0);
+        assertEquals("context_location_city_code", routingFilter.term().field());
+        assertEquals("std:080", routingFilter.term().value().stringValue());
+    }
+
+    @Test
+    void testUnscopedSearchIsNotRouted() throws IOException {
+        ReflectionTestUtils.setField(searchService, "catalogRouting", new CatalogRouting("city"));
+
+        searchService.search(mockRequest);
+
+        assertNull(capturedSearchRequests(1).get(0).routing());
+    }
+
+    @Test
+    void testMultiDomainSearchIsOneRoundTrip() throws IOException {
+        mockRequest.getContext().setDomain("retail^2,deg:ev");
+
+        searchService.search(mockRequest);
+
+        SearchRequest request = capturedSearchRequests(1).get(0);
+        assertEquals(List.of("retail", "deg-ev"), request.index());
+        assertEquals(List.of(Map.of("retail", 2.0)), request.indicesBoost());
+    }
+
+    @Test
+    void testTotalHitsAreNotTrackedByDefault() throws IOException {
+        SearchResponseDto response = searchService.searchAndGetResponse(mockRequest, "OR", SearchOptions.defaults());
+
+        assertFalse(capturedSearchRequests(1).get(0).trackTotalHits().enabled());
+        assertNull(response.getMessage().getTotal());
+    }
+
+    @Test
+    void testTotalHitsWhenRequested() throws IOException {
+        SearchOptions options = SearchOptions.builder().trackTotalHits(true).build();
+
+        SearchResponseDto response = searchService.searchAndGetResponse(mockRequest, "OR", options);
+
+        assertTrue(capturedSearchRequests(1).get(0).trackTotalHits().enabled());
+        assertEquals(42L, response.getMessage().getTotal());
+        assertNull(response.getMessage().getFacets());
+    }
+
+    @Test
+    void testSearchIsShedWhenOverloaded() throws IOException {
+        doThrow(new SearchOverloadedException("overloaded", 1)).when(concurrencyLimiter).acquire();
+
+        assertThrows(SearchOverloadedException.class, () -> searchService.search(mockRequest));
+        verify(elasticsearchClient, never()).search(any(Function.class), eq(CatalogDocument.class));
+    }
+
+    @Test
+    void testPermitIsReleasedAfterSearch() throws IOException {
+        searchService.search(mockRequest);
+
+        verify(concurrencyLimiter).release(anyLong(), eq(SearchConcurrencyLimiter.Outcome.SUCCESS));
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void testDefaultDeadlineIsSentAsTimeout() throws IOException {
+        ReflectionTestUtils.setField(searchService, "defaultTimeout", Duration.ofSeconds(2));
+
+        searchService.search(mockRequest);
+
+        assertEquals("2000ms", capturedSearchRequests(1).get(0).timeout());
+    }
+
+    @Test
+    void testRequestDeadlineIsCappedByMaxTimeout() throws IOException {
+        ReflectionTestUtils.setField(searchService, "defaultTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(searchService, "maxTimeout", Duration.ofSeconds(5));
+
+        searchService.searchAndGetResponse(mockRequest, "AND", SearchOptions.builder().timeout(Duration.ofMillis(250)).build());
+        searchService.searchAndGetResponse(mockRequest, "AND", SearchOptions.builder().timeout(Duration.ofMinutes(1)).build());
+
+        List<SearchRequest> requests = capturedSearchRequests(2);
+        assertEquals("250ms", requests.get(0).timeout());
+        assertEquals("5000ms", requests.get(1).timeout());
+    }
+
+    @Test
+    void testHitsAreCollapsedByProviderWhenEnabled() throws IOException {
+        searchService.search(mockRequest);
+        ReflectionTestUtils.setField(elasticsearchEngine, "providerCollapseEnabled", true);
+        searchService.search(mockRequest);
+
+        List<SearchRequest> requests = capturedSearchRequests(2);
+        assertNull(requests.get(0).collapse());
+        assertEquals("provider_id", requests.get(1).collapse().field());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testCatalogStoreServesHitsFetchedWithoutSource(@TempDir Path storeDir) throws IOException {
+        CatalogStore store = new CatalogStore(true, storeDir, DataSize.ofMegabytes(1), DataSize.ofMegabytes(8));
+        ElasticsearchSearchEngine engine = new ElasticsearchSearchEngine(elasticsearchClient, facetAggregationBuilder,
+            concurrencyLimiter, searchHedger, store);
+
+        Hit<CatalogDocument> hit = mock(Hit.class);
+        when(hit.index()).thenReturn("catalog-retail");
+        when(hit.id()).thenReturn("doc-1");
+        when(hit.seqNo()).thenReturn(4L);
+        when(hit.primaryTerm()).thenReturn(1L);
+        when(hit.routing()).thenReturn("std:080");
+        when(mockSearchResponse.hits().hits()).thenReturn(List.of(hit));
+
+        GetResult<CatalogDocument> fetched = mock(GetResult.class);
+        when(fetched.found()).thenReturn(true);
+        when(fetched.index()).thenReturn("catalog-retail");
+        when(fetched.id()).thenReturn("doc-1");
+        when(fetched.seqNo()).thenReturn(4L);
+        when(fetched.primaryTerm()).thenReturn(1L);
+        when(fetched.source()).thenReturn(new CatalogDocument(mockRawCatalog));
+        MultiGetResponseItem<CatalogDocument> item = mock(MultiGetResponseItem.class);
+        when(item.isResult()).thenReturn(true);
+        when(item.result()).thenReturn(fetched);
+        MgetResponse<CatalogDocument> mgetResponse = mock(MgetResponse.class);
+        when(mgetResponse.docs()).thenReturn(List.of(item));
+        when(elasticsearchClient.mget(any(Function.class), eq(CatalogDocument.class))).thenReturn(mgetResponse);
+
+        EngineQuery query = EngineQuery.builder().indices(List.of("catalog-retail")).query(QueryNode.matchAll()).size(10).build();
+        EngineResult first = engine.search(query);
+        EngineResult second = engine.search(query);
+
+        assertEquals(mockRawCatalog, first.hits().get(0).getRawCatalog());
+        assertEquals(mockRawCatalog, second.hits().get(0).getRawCatalog());
+        // The miss is fetched once, routed to the document's shard; the repeat comes from the store
+        ArgumentCaptor<Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>>> mget = ArgumentCaptor.forClass(Function.class);
+        verify(elasticsearchClient, times(1)).mget(mget.capture(), eq(CatalogDocument.class));
+        assertEquals("std:080", mget.getValue().apply(new MgetRequest.Builder()).build().docs().get(0).routing());
+        assertNotNull(second.hits().get(0).getRawCatalogUtf8());
+        assertFalse(capturedSearchRequests(2).get(0).source().fetch());
+    }
+
+    private static CatalogStore disabledCatalogStore() {
+        return new CatalogStore(false, Path.of("data/catalog-store"), DataSize.ofMegabytes(256), DataSize.ofGigabytes(4));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SearchRequest> capturedSearchRequests(int expectedCalls) throws IOException {
+        ArgumentCaptor<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>> captor = ArgumentCaptor.forClass(Function.class);
+        verify(elasticsearchClient, times(expectedCalls)).search(captor.capture(), eq(CatalogDocument.class));
+        return captor.getAllValues().stream()
+            .map(fn -> fn.apply(new SearchRequest.Builder()).build())
+            .toList();
+    }
+}
\ No newline at end of file
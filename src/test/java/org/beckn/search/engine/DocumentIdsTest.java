@@ -0,0 +1,58 @@
+package org.beckn.search.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentIdsTest {
+
+    private static Map<String, Object> document(String bppId, Object providerId, Object itemIds, String price) {
+        Map<String, Object> document = new HashMap<>();
+        document.put("context_bpp_id", bppId);
+        document.put("provider_id", providerId);
+        document.put("items_id", itemIds);
+        document.put("items_price_value", price);
+        document.put("raw_catalog", "{\"price\":\"" + price + "\"}");
+        return document;
+    }
+
+    @Test
+    void testRepushedCatalogKeepsItsId() {
+        String id = DocumentIds.of(document("bpp.example.org", "p1", List.of("milk", "curd"), "60"));
+
+        // A changed price or a different listing order still replaces the earlier copy
+        assertEquals(id, DocumentIds.of(document("bpp.example.org", List.of("p1"), List.of("curd", "milk"), "65")));
+        assertTrue(id.matches("[A-Za-z0-9_-]{43}"));
+    }
+
+    @Test
+    void testIdsAreScopedToTheBppAndItems() {
+        String id = DocumentIds.of(document("bpp.example.org", "p1", List.of("milk"), "60"));
+
+        assertNotEquals(id, DocumentIds.of(document("other-bpp.example.org", "p1", List.of("milk"), "60")));
+        assertNotEquals(id, DocumentIds.of(document("bpp.example.org", "p1", List.of("bread"), "60")));
+        assertNotEquals(id, DocumentIds.of(document("bpp.example.org", List.of("p1", "p2"), List.of("milk"), "60")));
+    }
+
+    @Test
+    void testCallerSuppliedDocumentIdWins() {
+        Map<String, Object> document = document("bpp.example.org", List.of("p1", "p2"), List.of("milk"), "60");
+        document.put(DocumentIds.DOCUMENT_ID_FIELD, "dairy-catalog");
+        Map<String, Object> changed = document("bpp.example.org", List.of("p1", "p3"), List.of("milk", "ghee"), "70");
+        changed.put(DocumentIds.DOCUMENT_ID_FIELD, "dairy-catalog");
+
+        assertEquals(DocumentIds.of(document), DocumentIds.of(changed));
+    }
+
+    @Test
+    void testDocumentsWithoutKeyFieldsAreIdentifiedByContent() {
+        Map<String, Object> document = Map.of("items_descriptor_name", "Paneer", "raw_catalog", "{}");
+
+        assertEquals(DocumentIds.of(document), DocumentIds.of(new HashMap<>(document)));
+        assertNotEquals(DocumentIds.of(document), DocumentIds.of(Map.of("items_descriptor_name", "Ghee", "raw_catalog", "{}")));
+    }
+}
@@ -0,0 +1,158 @@
+package org.beckn.search.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.cache.FacetCache;
+import org.beckn.search.cache.SearchFingerprint;
+import org.beckn.search.cache.SearchResultCache;
+import org.beckn.search.elasticsearch.CatalogRouting;
+import org.beckn.search.elasticsearch.SearchQueryBuilder;
+import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.beckn.search.transformer.ProviderFragmentCache;
+import org.beckn.search.transformer.SearchResponseTransformer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySearchEngineTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private InMemorySearchEngine engine;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemorySearchEngine();
+        engine.index("retail", "dairy", Map.of(
+            "providers_id", "p-dairy",
+            "items_descriptor_name", List.of("Fresh Milk", "Butter"),
+            "items_category_ids", List.of("dairy"),
+            "items_price_value", List.of(60),
+            "providers_locations_gps", "12.9716,77.5946",
+            "raw_catalog", rawCatalog("Dairy Catalog", "p-dairy")));
+        engine.index("retail", "bakery", Map.of(
+            "providers_id", "p-bakery",
+            "items_descriptor_name", List.of("Bread"),
+            "items_category_ids", List.of("bakery"),
+            "items_price_value", List.of(30, 250),
+            "providers_locations_gps", "13.0827,80.2707",
+            "raw_catalog", rawCatalog("Bakery Catalog", "p-bakery")));
+
+        SearchFingerprint fingerprint = new SearchFingerprint(objectMapper);
+        searchService = new SearchService(new SearchEngines(List.of(engine), InMemorySearchEngine.NAME, List.of()),
+            new SearchQueryBuilder(objectMapper), objectMapper,
+            new SearchResponseTransformer(objectMapper, new ProviderFragmentCache(DataSize.ofMegabytes(1))),
+            new FacetCache(fingerprint, Duration.ofMinutes(1), 100), fingerprint, new CatalogRouting("none"),
+            new SearchResultCache(fingerprint, false, Duration.ofSeconds(30), Duration.ofMinutes(5),
+                Duration.ofSeconds(10), 100, Optional.empty()));
+        ReflectionTestUtils.setField(searchService, "maxResults", 1000);
+        ReflectionTestUtils.setField(searchService, "defaultPageSize", 100);
+    }
+
+    private static String rawCatalog(String name, String providerId) {
+        return "{\"message\": {\"catalog\": {\"descriptor\": {\"name\": \"" + name
+            + "\"}, \"providers\": [{\"id\": \"" + providerId + "\"}]}}}";
+    }
+
+    private SearchRequestDto request(String intent) throws IOException {
+        return objectMapper.readValue("{\"context\": {\"domain\": \"retail\"}"
+            + (intent == null ? "" : ", \"message\": {\"intent\": " + intent + "}") + "}", SearchRequestDto.class);
+    }
+
+    @Test
+    void testSearchServiceRunsOnTheEngine() throws IOException {
+        SearchResponseDto response = searchService.searchAndGetResponse(
+            request("{\"items\": [{\"descriptor\": {\"name\": \"milk\"}}]}"), "AND");
+
+        JsonNode providers = objectMapper.readTree(objectMapper.writeValueAsString(response))
+            .path("message").path("catalog").path("providers");
+        assertEquals(1, providers.size());
+        assertEquals("p-dairy", providers.get(0).get("id").asText());
+    }
+
+    @Test
+    void testFacetsAndTotal() throws IOException {
+        SearchOptions options = SearchOptions.builder()
+            .facets(new LinkedHashSet<>(List.of(FacetType.CATEGORY, FacetType.PRICE)))
+            .facetsOnly(true)
+            .trackTotalHits(true)
+            .build();
+
+        SearchResponseDto response = searchService.searchAndGetResponse(request(null), "AND", options);
+
+        assertEquals(2L, response.getMessage().getTotal());
+        Map<String, List<FacetBucket>> facets = response.getMessage().getFacets();
+        assertEquals(List.of(new FacetBucket("bakery", 1), new FacetBucket("dairy", 1)), facets.get("category"));
+        List<FacetBucket> prices = facets.get("price");
+        assertEquals(new FacetBucket("0.0-100.0", 2, 0.0, 100.0), prices.get(0));
+        assertEquals(new FacetBucket("100.0-500.0", 1, 100.0, 500.0), prices.get(1));
+        assertEquals(new FacetBucket("1000.0-*", 0, 1000.0, null), prices.get(3));
+    }
+
+    @Test
+    void testGeoDistanceAndOrSemantics() {
+        QueryNode nearBangalore = new QueryNode.GeoDistance("providers_locations_gps", 12.97, 77.59, "5km");
+        QueryNode bread = new QueryNode.Match("items_descriptor_name", "bread", 1.0f);
+
+        EngineResult and = engine.search(query(QueryNode.Bool.must(List.of(nearBangalore, bread))));
+        EngineResult or = engine.search(query(QueryNode.Bool.should(List.of(nearBangalore, bread), 1)));
+
+        assertTrue(and.hits().isEmpty());
+        assertEquals(List.of("dairy", "bakery"), or.hits().stream().map(CatalogHit::getId).sorted(Comparator.reverseOrder()).toList());
+        assertEquals(2L, or.total());
+    }
+
+    @Test
+    void testMissingIndexIsRejected() {
+        EngineQuery query = EngineQuery.builder().indices(List.of("mobility")).query(QueryNode.matchAll()).size(10).build();
+
+        assertThrows(IllegalArgumentException.class, () -> engine.search(query));
+    }
+
+    @Test
+    void testDomainsArePinnedToEngines() {
+        SearchEngine other = new InMemorySearchEngine() {
+            @Override
+            public String name() {
+                return "other";
+            }
+        };
+        SearchEngines engines = new SearchEngines(List.of(engine, other), InMemorySearchEngine.NAME, List.of("deg:ev=other"));
+
+        assertSame(engine, engines.forIndices(List.of("retail")));
+        assertSame(other, engines.forIndices(List.of("deg-ev")));
+        assertThrows(IllegalArgumentException.class, () -> engines.forIndices(List.of("retail", "deg-ev")));
+        // Patterns go to the engine of the configured domains they cover
+        assertSame(other, engines.forIndices(List.of("deg-*")));
+        assertSame(engine, engines.forIndices(List.of("retail-*")));
+        SearchEngines split = new SearchEngines(List.of(engine, other), InMemorySearchEngine.NAME,
+            List.of("deg:ev=other", "deg:food=" + InMemorySearchEngine.NAME));
+        assertThrows(IllegalArgumentException.class, () -> split.forIndices(List.of("deg-*")));
+        assertThrows(IllegalStateException.class, () -> new SearchEngines(List.of(engine), "lucene", List.of()));
+    }
+
+    private static EngineQuery query(QueryNode node) {
+        return EngineQuery.builder()
+            .indices(List.of("retail"))
+            .query(node)
+            .size(10)
+            .trackTotalHits(true)
+            .build();
+    }
+}
@@ -0,0 +1,37 @@
+package org.beckn.search.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexNamesTest {
+
+    @Test
+    void testSingleDomainResolvesToOneIndex() {
+        IndexNames.Selection selection = IndexNames.resolve("deg:EV");
+
+        assertEquals(List.of("deg-ev"), selection.getIndices());
+        assertTrue(selection.getBoosts().isEmpty());
+    }
+
+    @Test
+    void testDomainListWithBoostsAndPatterns() {
+        IndexNames.Selection selection = IndexNames.resolve("retail^2, deg:*, retail,");
+
+        assertEquals(List.of("retail", "deg-*"), selection.getIndices());
+        assertEquals(Map.of("retail", 2.0), selection.getBoosts());
+    }
+
+    @Test
+    void testInvalidDomainsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> IndexNames.resolve("*"));
+        assertThrows(IllegalArgumentException.class, () -> IndexNames.resolve("-retail"));
+        assertThrows(IllegalArgumentException.class, () -> IndexNames.resolve(".security"));
+        assertThrows(IllegalArgumentException.class, () -> IndexNames.resolve("retail^abc"));
+        assertThrows(IllegalArgumentException.class, () -> IndexNames.resolve("retail^-1"));
+        assertThrows(IllegalArgumentException.class, () -> IndexNames.resolve(" , "));
+    }
+}
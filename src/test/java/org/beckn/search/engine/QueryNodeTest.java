@@ -0,0 +1,24 @@
+package org.beckn.search.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryNodeTest {
+
+    @Test
+    void testIsGeoOnly() {
+        QueryNode geo = new QueryNode.GeoDistance("providers_locations_gps", 12.97, 77.59, "1km");
+        QueryNode match = new QueryNode.Match("items_descriptor_name", "milk", null);
+
+        assertTrue(geo.isGeoOnly());
+        assertTrue(QueryNode.Bool.must(List.of(geo)).isGeoOnly());
+        assertTrue(QueryNode.Bool.must(List.of()).withFilter(geo).isGeoOnly());
+        assertFalse(QueryNode.Bool.must(List.of(geo, match)).isGeoOnly());
+        assertFalse(QueryNode.Bool.must(List.of()).isGeoOnly());
+        assertFalse(match.isGeoOnly());
+        assertFalse(QueryNode.matchAll().isGeoOnly());
+    }
+}
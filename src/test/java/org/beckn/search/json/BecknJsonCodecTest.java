@@ -0,0 +1,58 @@
+package org.beckn.search.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BecknJsonCodecTest {
+    private BecknJsonCodec codec;
+    private byte[] sampleJson;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        codec = new BecknJsonCodec(new ObjectMapper().registerModule(new BlackbirdModule()));
+
+        ClassPathResource resource = new ClassPathResource("search_intent_body_sample.json");
+        sampleJson = Files.readAllBytes(resource.getFile().toPath());
+    }
+
+    @Test
+    void testReadRequest() throws Exception {
+        SearchRequestDto request = codec.read(SearchRequestDto.class, sampleJson);
+
+        assertEquals("retail", request.getContext().getDomain());
+        assertEquals("milk", request.getMessage().getIntent().getItems().get(0).getDescriptor().getName());
+    }
+
+    @Test
+    void testSupportedTypes() {
+        assertTrue(codec.canRead(SearchRequestDto.class));
+        assertTrue(codec.canWrite(SearchResponseDto.class));
+        assertFalse(codec.canRead(SearchResponseDto.class));
+        assertFalse(codec.canWrite(String.class));
+    }
+
+    @Test
+    void testRawProvidersAreWrittenVerbatim() throws Exception {
+        String providers = "[{\"id\":\"P1\",\"descriptor\":{\"name\":\"Café Charger\"}}]";
+        SearchResponseDto response = new SearchResponseDto();
+        SearchResponseDto.Message message = new SearchResponseDto.Message();
+        SearchResponseDto.Catalog catalog = new SearchResponseDto.Catalog();
+        catalog.setProviders(RawJson.node(providers.getBytes(StandardCharsets.UTF_8)));
+        message.setCatalog(catalog);
+        response.setMessage(message);
+
+        String json = new String(codec.writeAsBytes(response), StandardCharsets.UTF_8);
+
+        assertEquals("{\"message\":{\"catalog\":{\"providers\":" + providers + "}}}", json);
+    }
+}
@@ -0,0 +1,231 @@
+package org.beckn.search.lucene;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.beckn.search.engine.EngineQuery;
+import org.beckn.search.engine.EngineResult;
+import org.beckn.search.engine.InMemorySearchEngine;
+import org.beckn.search.engine.QueryNode;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.model.CatalogHit;
+import org.beckn.search.model.FacetBucket;
+import org.beckn.search.model.FacetType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LuceneSearchEngineTest {
+    private static final List<String> PRICE_RANGES = List.of("0-100", "100-500", "500-1000", "1000-");
+
+    @TempDir
+    Path directory;
+
+    private LuceneSearchEngine engine;
+    private InMemorySearchEngine reference;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = open();
+        reference = new InMemorySearchEngine(20, PRICE_RANGES);
+        index("dairy", Map.of(
+            "provider_id", "p-dairy",
+            "items_descriptor_name", List.of("Fresh Milk", "Butter"),
+            "items_category_ids", List.of("dairy"),
+            "items_price_value", List.of(60),
+            "providers_locations_gps", "12.9716,77.5946",
+            "context_location_city_code", "std:080"));
+        index("bakery", Map.of(
+            "provider_id", "p-bakery",
+            "items_descriptor_name", List.of("Bread", "Milk Bread"),
+            "items_category_ids", List.of("bakery"),
+            "items_price_value", List.of(30, 250),
+            "providers_locations_gps", "13.0827,80.2707",
+            "context_location_city_code", "std:044"));
+        index("grocery", Map.of(
+            "provider_id", "p-grocery",
+            "items_descriptor_name", List.of("Rice"),
+            "items_category_ids", List.of("staples", "dairy"),
+            "items_price_value", List.of(1200),
+            "providers_locations_gps", "12.98,77.60",
+            "context_location_city_code", "std:080"));
+        engine.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    private LuceneSearchEngine open() throws IOException {
+        return new LuceneSearchEngine(new ObjectMapper(), directory, Duration.ofHours(1), Duration.ofHours(1), 20, PRICE_RANGES);
+    }
+
+    // The same document in both engines; the raw catalog carries the name to identify hits by
+    private void index(String name, Map<String, Object> fields) throws IOException {
+        Map<String, Object> document = new HashMap<>(fields);
+        document.put("raw_catalog", "{\"name\": \"" + name + "\"}");
+        engine.index("retail", List.of(document));
+        reference.index("retail", name, document);
+    }
+
+    private static Set<String> names(EngineResult result) {
+        return result.hits().stream().map(CatalogHit::getRawCatalog).collect(Collectors.toSet());
+    }
+
+    private static EngineQuery query(QueryNode node) {
+        return EngineQuery.builder().indices(List.of("retail")).query(node).size(10).trackTotalHits(true).build();
+    }
+
+    @Test
+    void testMatchesLikeTheReferenceEngine() throws IOException {
+        QueryNode milk = new QueryNode.Match("items_descriptor_name", "milk", 2.0f);
+        QueryNode nearBangalore = new QueryNode.GeoDistance("providers_locations_gps", 12.97, 77.59, "5km");
+        QueryNode bangalore = new QueryNode.Term("context_location_city_code", "std:080");
+        List<QueryNode> queries = List.of(
+            QueryNode.matchAll(),
+            milk,
+            new QueryNode.Match("items_descriptor_name", "fresh bread", null),
+            nearBangalore,
+            QueryNode.Bool.must(List.of(milk, nearBangalore)),
+            QueryNode.Bool.should(List.of(milk, nearBangalore), 1),
+            QueryNode.Bool.should(List.of(milk, nearBangalore), 2),
+            QueryNode.Bool.must(List.of(QueryNode.matchAll())).withFilter(bangalore),
+            new QueryNode.Match("items_category_ids", "dairy", null),
+            new QueryNode.Match("items_price_value", "1200", null),
+            new QueryNode.Match("unknown_field", "milk", null));
+
+        for (QueryNode node : queries) {
+            EngineResult expected = reference.search(query(node));
+            EngineResult actual = engine.search(query(node));
+            assertEquals(names(expected), names(actual), node.toString());
+            assertEquals(expected.total(), actual.total(), node.toString());
+        }
+    }
+
+    @Test
+    void testRanksMoreMatchingDocumentsFirst() throws IOException {
+        EngineResult result = engine.search(query(QueryNode.Bool.should(List.of(
+            new QueryNode.Match("items_descriptor_name", "milk", null),
+            new QueryNode.GeoDistance("providers_locations_gps", 12.97, 77.59, "5km")), 1)));
+
+        assertEquals("{\"name\": \"dairy\"}", result.hits().get(0).getRawCatalog());
+        assertEquals(3, result.hits().size());
+    }
+
+    @Test
+    void testFacetsAndPaging() throws IOException {
+        EngineQuery query = EngineQuery.builder()
+            .indices(List.of("retail"))
+            .query(QueryNode.matchAll())
+            .from(2)
+            .size(2)
+            .facets(new LinkedHashSet<>(List.of(FacetType.CATEGORY, FacetType.PRICE)))
+            .trackTotalHits(true)
+            .build();
+
+        EngineResult result = engine.search(query);
+
+        assertEquals(1, result.hits().size());
+        assertEquals(3L, result.total());
+        assertEquals(reference.search(query).facets(), result.facets());
+        assertEquals(List.of(new FacetBucket("dairy", 2), new FacetBucket("bakery", 1), new FacetBucket("staples", 1)),
+            result.facets().get("category"));
+    }
+
+    @Test
+    void testDocumentsAreVisibleAfterRefresh() throws IOException {
+        engine.index("retail", List.of(Map.of("items_descriptor_name", "Paneer", "raw_catalog", "{}")));
+        QueryNode paneer = new QueryNode.Match("items_descriptor_name", "paneer", null);
+
+        assertTrue(engine.search(query(paneer)).hits().isEmpty());
+        engine.refresh();
+        assertEquals(1, engine.search(query(paneer)).hits().size());
+    }
+
+    @Test
+    void testIndicesSurviveARestart() throws IOException {
+        engine.index("retail", List.of(Map.of("items_stock", 7, "raw_catalog", "{}")));
+        engine.close();
+        engine = open();
+
+        assertEquals(4L, engine.search(query(QueryNode.matchAll())).total());
+        // The dynamically mapped number is still searched as a number
+        assertEquals(1, engine.search(query(new QueryNode.Term("items_stock", "7.0"))).hits().size());
+    }
+
+    @Test
+    void testIngestsAreCommittedBeforeIndexReturns() throws IOException {
+        engine.index("retail", List.of(Map.of("items_descriptor_name", "Paneer", "raw_catalog", "{}")));
+
+        // A reader on the directory sees only the last commit, as a restart after a crash would
+        try (FSDirectory retail = FSDirectory.open(directory.resolve("retail"));
+             DirectoryReader committed = DirectoryReader.open(retail)) {
+            assertEquals(4, committed.numDocs());
+        }
+    }
+
+    @Test
+    void testReindexingADocumentReplacesIt() throws IOException {
+        Map<String, Object> paneer = Map.of("items_descriptor_name", "Paneer", "raw_catalog", "{}");
+        engine.index("retail", List.of(paneer));
+        engine.index("retail", List.of(paneer));
+        engine.refresh();
+
+        assertEquals(1, engine.search(query(new QueryNode.Match("items_descriptor_name", "paneer", null))).hits().size());
+        assertEquals(4L, engine.search(query(QueryNode.matchAll())).total());
+    }
+
+    @Test
+    void testRepushedCatalogReplacesItsEarlierCopy() throws IOException {
+        engine.index("retail", List.of(Map.of("provider_id", "p-paneer", "items_id", "paneer",
+            "items_descriptor_name", "Paneer", "items_price_value", 300, "raw_catalog", "{\"price\": 300}")));
+        engine.index("retail", List.of(Map.of("provider_id", "p-paneer", "items_id", "paneer",
+            "items_descriptor_name", "Paneer", "items_price_value", 280, "raw_catalog", "{\"price\": 280}")));
+        engine.refresh();
+
+        EngineResult result = engine.search(query(new QueryNode.Match("items_descriptor_name", "paneer", null)));
+        assertEquals(List.of("{\"price\": 280}"), result.hits().stream().map(CatalogHit::getRawCatalog).toList());
+    }
+
+    @Test
+    void testTopTermsCountLiveDocuments() throws IOException {
+        // Replaced twice, so two deleted copies are left in the index
+        Map<String, Object> milkBread = Map.of("items_descriptor_name", "Milk Bread", "raw_catalog", "{}");
+        engine.index("retail", List.of(milkBread));
+        engine.index("retail", List.of(milkBread));
+        reference.index("retail", "milk-bread", milkBread);
+        engine.refresh();
+        List<String> fields = List.of("items_descriptor_name.keyword", "items_category_ids");
+
+        Map<String, List<FacetBucket>> terms = engine.topTerms("retail", fields, 3);
+
+        assertEquals(reference.topTerms("retail", fields, 3), terms);
+        assertEquals(List.of(new FacetBucket("Milk Bread", 2), new FacetBucket("Bread", 1), new FacetBucket("Butter", 1)),
+            terms.get("items_descriptor_name.keyword"));
+        assertEquals(Map.of(), engine.topTerms("mobility", fields, 3));
+    }
+
+    @Test
+    void testIndexPatternsAndMissingIndices() throws IOException {
+        SearchEngine searchEngine = engine;
+        EngineQuery pattern = EngineQuery.builder().indices(List.of("ret*", "deg-*")).query(QueryNode.matchAll()).size(10).build();
+        EngineQuery missing = EngineQuery.builder().indices(List.of("mobility")).query(QueryNode.matchAll()).size(10).build();
+
+        assertEquals(3, searchEngine.search(pattern).hits().size());
+        assertThrows(IllegalArgumentException.class, () -> searchEngine.search(missing));
+    }
+}
@@ -0,0 +1,150 @@
+package org.beckn.search.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+    private static final byte KIND = 1;
+
+    @TempDir
+    Path dir;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(WriteAheadLog log) {
+        return log.pending().stream().map(record -> new String(record.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testPendingRecordsSurviveReopening() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir, 4096);
+        long first = log.append(KIND, bytes("one"));
+        log.append(KIND, bytes("two"));
+        log.append(KIND, bytes("three"));
+        log.complete(first);
+
+        // No close or sync: the pages are already in the mapped file, as after a process crash
+        WriteAheadLog reopened = new WriteAheadLog(dir, 4096);
+
+        assertEquals(List.of("two", "three"), payloads(reopened));
+        long next = reopened.append(KIND, bytes("four"));
+        assertTrue(next > first + 2, "ids keep increasing across restarts");
+        assertEquals(List.of("two", "three", "four"), payloads(new WriteAheadLog(dir, 4096)));
+    }
+
+    @Test
+    void testTornRecordIsIgnored() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir, 4096);
+        log.append(KIND, bytes("kept"));
+        log.append(KIND, bytes("torn"));
+        log.sync();
+
+        // Flip a payload byte of the last record, as if the write was cut short
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int secondRecord = 17 + 4;
+            file.seek(secondRecord + 17);
+            file.write('X');
+        }
+
+        WriteAheadLog reopened = new WriteAheadLog(dir, 4096);
+        assertEquals(List.of("kept"), payloads(reopened));
+        reopened.append(KIND, bytes("after"));
+        assertEquals(List.of("kept", "after"), payloads(new WriteAheadLog(dir, 4096)));
+    }
+
+    @Test
+    void testFinishedSegmentsAreDeleted() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir, 256);
+        for (int i = 0; i < 40; i++) {
+            log.complete(log.append(KIND, bytes("record-" + i)));
+        }
+        assertTrue(log.segmentCount() > 1);
+
+        log.compact(0.5);
+
+        assertEquals(1, log.segmentCount());
+        assertEquals(1, segmentFiles());
+        assertTrue(new WriteAheadLog(dir, 256).pending().isEmpty());
+    }
+
+    @Test
+    void testFewPendingRecordsAreCopiedForward() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir, 256);
+        long stuck = log.append(KIND, bytes("stuck"));
+        for (int i = 0; i < 40; i++) {
+            log.complete(log.append(KIND, bytes("record-" + i)));
+        }
+
+        log.compact(0.5);
+
+        assertEquals(1, log.segmentCount());
+        List<WriteAheadLog.Record> pending = new WriteAheadLog(dir, 256).pending();
+        assertEquals(1, pending.size());
+        assertEquals(stuck, pending.get(0).id());
+        assertEquals("stuck", new String(pending.get(0).payload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBusySegmentIsKept() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir, 256);
+        for (int i = 0; i < 40; i++) {
+            log.append(KIND, bytes("record-" + i));
+        }
+        int segments = log.segmentCount();
+
+        assertEquals(0, log.compact(0.5));
+        assertEquals(segments, log.segmentCount());
+    }
+
+    @Test
+    void testRollsWithoutAnAppendGetNewSegmentFiles() throws IOException {
+        // With 17-byte segments every record and every ack rolls a segment of its own
+        WriteAheadLog log = new WriteAheadLog(dir, 17);
+        long first = log.append(KIND, bytes("a"));
+        long second = log.append(KIND, bytes("b"));
+
+        log.complete(first);
+        assertEquals(List.of("b"), payloads(new WriteAheadLog(dir, 17)));
+        log.complete(second);
+        assertEquals(List.of(), payloads(new WriteAheadLog(dir, 17)));
+        assertEquals(log.segmentCount(), segmentFiles());
+
+        // Numbering picks up after the highest segment on disk
+        WriteAheadLog reopened = new WriteAheadLog(dir, 17);
+        reopened.append(KIND, bytes("c"));
+        assertEquals(List.of("c"), payloads(new WriteAheadLog(dir, 17)));
+        assertEquals(reopened.segmentCount(), segmentFiles());
+    }
+
+    @Test
+    void testRecordLargerThanASegmentGetsItsOwn() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir, 64);
+        String large = "x".repeat(500);
+
+        log.append(KIND, bytes(large));
+
+        assertEquals(List.of(large), payloads(new WriteAheadLog(dir, 64)));
+    }
+}
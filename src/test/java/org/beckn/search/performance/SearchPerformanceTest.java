@@ -2,16 +2,24 @@ package org.beckn.search.performance;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.beckn.search.api.SearchController;
+import org.beckn.search.async.AsyncSearchService;
 import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.json.BecknJsonHttpMessageConverter;
+import org.beckn.search.ratelimit.BapRateLimiter;
+import org.beckn.search.ratelimit.RateLimitProperties;
 import org.beckn.search.model.SearchRequestDto;
 import org.beckn.search.model.SearchResponseDto;
 import org.beckn.search.validation.SearchRequestValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Disabled;
+import org.beckn.search.warmup.FirstSearchTimer;
+import org.beckn.search.warmup.SearchReplayRecorder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -34,6 +42,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @Disabled("Disable Search Performance Test")
 @WebMvcTest(SearchController.class)
+@Import({BecknJsonCodec.class, BecknJsonHttpMessageConverter.class, BapRateLimiter.class, RateLimitProperties.class,
+    FirstSearchTimer.class})
 class SearchPerformanceTest {
 
     @Autowired
@@ -48,6 +58,12 @@ class SearchPerformanceTest {
     @MockBean
     private SearchRequestValidator requestValidator;
 
+    @MockBean
+    private SearchReplayRecorder replayRecorder;
+
+    @MockBean
+    private AsyncSearchService asyncSearchService;
+
     private String sampleJson;
     private String complexJson;
     private SearchResponseDto mockResponse;
@@ -0,0 +1,80 @@
+package org.beckn.search.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BapRateLimitFilterTest {
+    private static final String AUTHORIZATION = "Signature keyId=\"buyer-app.beckn.org|key-1|ed25519\","
+        + "algorithm=\"ed25519\",created=\"1641287875\",expires=\"1641291475\",signature=\"abc\"";
+
+    @Test
+    void testOnlyVerifiedSubscribersAreKeyedById() {
+        MockHttpServletRequest verified = search("10.0.0.1");
+        verified.setAttribute(BapRateLimitFilter.VERIFIED_SUBSCRIBER_ATTRIBUTE, "buyer-app.beckn.org");
+
+        assertEquals("buyer-app.beckn.org", BapRateLimitFilter.rateLimitKey(verified));
+        assertEquals("ip:10.0.0.1", BapRateLimitFilter.rateLimitKey(search("10.0.0.1")));
+    }
+
+    @Test
+    void testVerifiedRequestsAreLimitedBeforeTheBodyIsRead() throws Exception {
+        BapRateLimitFilter filter = filter();
+
+        MockHttpServletRequest first = verifiedSearch("10.0.0.1");
+        filter.doFilter(first, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(Boolean.TRUE, first.getAttribute(BapRateLimitFilter.CHARGED_ATTRIBUTE));
+
+        // Same subscriber from another address shares the bucket
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(verifiedSearch("10.0.0.2"), rejected, chain);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("RATE_LIMITED"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testUnverifiedSignatureCannotSpendAnotherBapsBudget() throws Exception {
+        BapRateLimitFilter filter = filter();
+
+        MockHttpServletRequest forged = search("10.0.0.9");
+        forged.addHeader("Authorization", AUTHORIZATION);
+        MockHttpServletResponse forgedResponse = new MockHttpServletResponse();
+        filter.doFilter(forged, forgedResponse, new MockFilterChain());
+        assertEquals(200, forgedResponse.getStatus());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(verifiedSearch("10.0.0.1"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+
+    private static BapRateLimitFilter filter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        RateLimitProperties.Tier tier = new RateLimitProperties.Tier();
+        tier.setRate(1);
+        tier.setBurst(1);
+        properties.setTiers(Map.of("standard", tier));
+        return new BapRateLimitFilter(new BapRateLimiter(properties));
+    }
+
+    private static MockHttpServletRequest verifiedSearch(String remoteAddr) {
+        MockHttpServletRequest request = search(remoteAddr);
+        request.addHeader("Authorization", AUTHORIZATION);
+        request.setAttribute(BapRateLimitFilter.VERIFIED_SUBSCRIBER_ATTRIBUTE, "buyer-app.beckn.org");
+        return request;
+    }
+
+    private static MockHttpServletRequest search(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/search");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
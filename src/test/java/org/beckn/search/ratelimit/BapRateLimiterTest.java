@@ -0,0 +1,72 @@
+package org.beckn.search.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BapRateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private BapRateLimiter limiter(double rate, int burst) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        RateLimitProperties.Tier standard = new RateLimitProperties.Tier();
+        standard.setRate(rate);
+        standard.setBurst(burst);
+        RateLimitProperties.Tier partner = new RateLimitProperties.Tier();
+        partner.setRate(rate * 10);
+        partner.setBurst(burst * 10);
+        properties.setTiers(Map.of("standard", standard, "partner", partner));
+        properties.setBaps(Map.of("partner-bap", "partner"));
+        return new BapRateLimiter(properties);
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        BapRateLimiter limiter = new BapRateLimiter(new RateLimitProperties());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:10.0.0.1", 5 * SECOND));
+        }
+    }
+
+    @Test
+    void testBurstThenSustainedRate() {
+        BapRateLimiter limiter = limiter(10, 3);
+        long now = 5 * SECOND;
+
+        assertEquals(0, limiter.tryAcquire("bap", now));
+        assertEquals(0, limiter.tryAcquire("bap", now));
+        assertEquals(0, limiter.tryAcquire("bap", now));
+        long wait = limiter.tryAcquire("bap", now);
+        assertTrue(wait > 0 && wait <= SECOND / 10, "wait " + wait);
+
+        // One token comes back every 100ms
+        assertEquals(0, limiter.tryAcquire("bap", now + SECOND / 10));
+        assertTrue(limiter.tryAcquire("bap", now + SECOND / 10) > 0);
+    }
+
+    @Test
+    void testBapsAreLimitedIndependentlyAndByTier() {
+        BapRateLimiter limiter = limiter(1, 1);
+        long now = SECOND;
+
+        assertEquals(0, limiter.tryAcquire("noisy-bap", now));
+        assertTrue(limiter.tryAcquire("noisy-bap", now) > 0);
+        assertEquals(0, limiter.tryAcquire("quiet-bap", now));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("partner-bap", now));
+        }
+    }
+
+    @Test
+    void testAcquireReportsRetryAfter() {
+        BapRateLimiter limiter = limiter(0.5, 1);
+        limiter.acquire("bap");
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> limiter.acquire("bap"));
+        assertEquals(2, e.getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,97 @@
+package org.beckn.search.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private CatalogStore open(DataSize segmentSize, DataSize maxSize) {
+        return new CatalogStore(true, directory, segmentSize, maxSize);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        return buffer == null ? null : StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    @Test
+    void testReturnsOnlyTheStoredVersion() {
+        CatalogStore store = open(DataSize.ofKilobytes(64), DataSize.ofMegabytes(1));
+        store.put("catalog-retail", "doc-1", 4, 1, bytes("{\"v\": 4}"));
+
+        assertEquals("{\"v\": 4}", string(store.get("catalog-retail", "doc-1", 4, 1)));
+        assertNull(store.get("catalog-retail", "doc-1", 5, 1));
+        assertNull(store.get("catalog-retail", "doc-2", 4, 1));
+        assertNull(store.get("catalog-mobility", "doc-1", 4, 1));
+
+        store.put("catalog-retail", "doc-1", 5, 1, bytes("{\"v\": 5}"));
+        // An older version arriving late doesn't replace the newer one
+        store.put("catalog-retail", "doc-1", 3, 1, bytes("{\"v\": 3}"));
+        assertEquals("{\"v\": 5}", string(store.get("catalog-retail", "doc-1", 5, 1)));
+        assertNull(store.get("catalog-retail", "doc-1", 4, 1));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testViewsAreReadOnly() {
+        CatalogStore store = open(DataSize.ofKilobytes(64), DataSize.ofMegabytes(1));
+        store.put("catalog-retail", "doc-1", 1, 1, bytes("{}"));
+
+        ByteBuffer catalog = store.get("catalog-retail", "doc-1", 1, 1);
+        assertTrue(catalog.isReadOnly());
+        assertThrows(RuntimeException.class, () -> catalog.put(0, (byte) 'x'));
+    }
+
+    @Test
+    void testCatalogsSurviveARestart() {
+        CatalogStore store = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+        for (int i = 0; i < 200; i++) {
+            store.put("catalog-retail", "doc-" + i, 1, 1, bytes("{\"provider\": " + i + "}"));
+        }
+        store.put("catalog-retail", "doc-7", 2, 1, bytes("{\"provider\": \"updated\"}"));
+        assertTrue(store.segmentCount() > 1);
+
+        CatalogStore reopened = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+
+        assertEquals(200, reopened.size());
+        assertEquals("{\"provider\": 199}", string(reopened.get("catalog-retail", "doc-199", 1, 1)));
+        assertEquals("{\"provider\": \"updated\"}", string(reopened.get("catalog-retail", "doc-7", 2, 1)));
+        assertNull(reopened.get("catalog-retail", "doc-7", 1, 1));
+    }
+
+    @Test
+    void testOldestSegmentsAreEvictedBeyondTheMaxSize() {
+        CatalogStore store = open(DataSize.ofKilobytes(4), DataSize.ofKilobytes(16));
+        String catalog = "{\"description\": \"" + "x".repeat(400) + "\"}";
+        for (int i = 0; i < 100; i++) {
+            store.put("catalog-retail", "doc-" + i, 1, 1, bytes(catalog));
+        }
+
+        assertTrue(store.segmentCount() <= 4);
+        assertNull(store.get("catalog-retail", "doc-0", 1, 1));
+        assertEquals(catalog, string(store.get("catalog-retail", "doc-99", 1, 1)));
+        assertTrue(store.size() < 100);
+    }
+
+    @Test
+    void testDisabledStoreKeepsNothing() {
+        CatalogStore store = new CatalogStore(false, directory, DataSize.ofKilobytes(64), DataSize.ofMegabytes(1));
+        store.put("catalog-retail", "doc-1", 1, 1, bytes("{}"));
+
+        assertFalse(store.isEnabled());
+        assertNull(store.get("catalog-retail", "doc-1", 1, 1));
+    }
+}
@@ -0,0 +1,56 @@
+package org.beckn.search.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapIndexTest {
+
+    @Test
+    void testCollidingHashesAreToldApartByTheCaller() {
+        OffHeapIndex index = new OffHeapIndex(16);
+        index.put(42, 1, location -> location == 1);
+        index.put(42, 2, location -> location == 2);
+
+        assertEquals(1, index.get(42, location -> location == 1));
+        assertEquals(2, index.get(42, location -> location == 2));
+        assertEquals(OffHeapIndex.NOT_FOUND, index.get(42, location -> location == 3));
+
+        index.remove(42, 1);
+        assertEquals(OffHeapIndex.NOT_FOUND, index.get(42, location -> location == 1));
+        assertEquals(2, index.get(42, location -> location == 2));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testMatchesAHashMapThroughGrowthAndRemovals() {
+        // Few distinct hashes, so probe runs are long and removals have to shift entries back
+        OffHeapIndex index = new OffHeapIndex(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            long key = random.nextInt(2000);
+            long hash = key % 97;
+            if (random.nextInt(3) == 0) {
+                Long location = expected.remove(key);
+                if (location != null) {
+                    index.remove(hash, location);
+                }
+            } else {
+                long location = key * 10_000 + i;
+                expected.put(key, location);
+                index.put(hash, location, candidate -> candidate / 10_000 == key);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (long key = 0; key < 2000; key++) {
+            long k = key;
+            assertEquals(expected.getOrDefault(key, OffHeapIndex.NOT_FOUND), index.get(k % 97, candidate -> candidate / 10_000 == k));
+        }
+    }
+}
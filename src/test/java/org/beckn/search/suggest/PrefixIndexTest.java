@@ -0,0 +1,57 @@
+package org.beckn.search.suggest;
+
+import org.beckn.search.model.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+    private PrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = PrefixIndex.build(List.of(
+            new Suggestion("180kW DC Charger", "item", 40),
+            new Suggestion("Fast Charger", "item", 25),
+            new Suggestion("Milk", "item", 90),
+            new Suggestion("Fresh Milk", "item", 10),
+            new Suggestion("Milkman Dairy", "provider", 5),
+            new Suggestion("EcoCharge", "provider", 60)
+        ), 10);
+    }
+
+    @Test
+    void testPrefixMatchesAreRankedByWeight() {
+        List<String> texts = texts(index.suggest("mil", 10));
+        assertEquals(List.of("Milk", "Fresh Milk", "Milkman Dairy"), texts);
+    }
+
+    @Test
+    void testWordStartsMatch() {
+        List<String> texts = texts(index.suggest("charg", 10));
+        assertEquals(List.of("180kW DC Charger", "Fast Charger"), texts);
+    }
+
+    @Test
+    void testShortPrefixUsesPrecomputedTopK() {
+        List<String> texts = texts(index.suggest("E", 10));
+        assertEquals(List.of("EcoCharge"), texts);
+        assertEquals(List.of("Milk", "Fresh Milk"), texts(index.suggest("m", 2)));
+    }
+
+    @Test
+    void testLimitAndNoMatch() {
+        assertEquals(1, index.suggest("c", 1).size());
+        assertTrue(index.suggest("xyz", 5).isEmpty());
+        assertTrue(index.suggest("  ", 5).isEmpty());
+        assertTrue(PrefixIndex.empty().suggest("milk", 5).isEmpty());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,52 @@
+package org.beckn.search.suggest;
+
+import org.beckn.search.engine.InMemorySearchEngine;
+import org.beckn.search.engine.SearchEngine;
+import org.beckn.search.engine.SearchEngines;
+import org.beckn.search.model.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SuggestionServiceTest {
+    private InMemorySearchEngine memory;
+    private SearchEngine elasticsearch;
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        memory = new InMemorySearchEngine();
+        memory.index("deg-ev", "charger", Map.of(
+            "items_descriptor_name", List.of("Fast Charger", "Slow Charger"),
+            "provider_descriptor_name", "EcoCharge"));
+        memory.index("deg-ev", "station", Map.of(
+            "items_descriptor_name", List.of("Fast Charger"),
+            "provider_descriptor_name", "Fast Lane"));
+        elasticsearch = mock(SearchEngine.class);
+        when(elasticsearch.name()).thenReturn("elasticsearch");
+        SearchEngines engines = new SearchEngines(List.of(elasticsearch, memory), "elasticsearch",
+            List.of("deg:ev=" + InMemorySearchEngine.NAME, "deg:food=" + InMemorySearchEngine.NAME));
+        suggestionService = new SuggestionService(engines, 100, 20, Duration.ofMinutes(5), 10);
+    }
+
+    @Test
+    void testSuggestionsComeFromTheEngineServingTheDomain() throws IOException {
+        List<Suggestion> suggestions = suggestionService.suggest("deg:ev", "fast", 10);
+
+        assertEquals(List.of(new Suggestion("Fast Charger", "item", 2), new Suggestion("Fast Lane", "provider", 1)),
+            suggestions);
+        verify(elasticsearch, never()).topTerms(any(), any(), anyInt());
+    }
+
+    @Test
+    void testMissingIndexHasNoSuggestions() {
+        assertEquals(List.of(), suggestionService.suggest("deg:food", "fast", 10));
+    }
+}
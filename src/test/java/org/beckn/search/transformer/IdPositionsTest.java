@@ -0,0 +1,20 @@
+package org.beckn.search.transformer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdPositionsTest {
+
+    @Test
+    void testKeepsTheFirstPositionOfEachId() {
+        IdPositions positions = new IdPositions(2);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(IdPositions.ABSENT, positions.putIfAbsent("provider-" + i, i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, positions.putIfAbsent("provider-" + i, 5000 + i));
+        }
+        assertEquals(1000, positions.size());
+    }
+}
@@ -1,26 +1,37 @@
 package org.beckn.search.transformer;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.model.CatalogHit;
 import org.beckn.search.model.SearchResponseDto;
 import org.beckn.search.transformer.SearchResponseTransformer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class SearchResponseTransformerTest {
     private SearchResponseTransformer transformer;
+    private ProviderFragmentCache fragmentCache;
     private ObjectMapper objectMapper;
     private String catalogJson;
 
     @BeforeEach
     void setUp() throws IOException {
         objectMapper = new ObjectMapper();
-        transformer = new SearchResponseTransformer(objectMapper);
+        fragmentCache = new ProviderFragmentCache(DataSize.ofMegabytes(1));
+        transformer = new SearchResponseTransformer(objectMapper, fragmentCache);
         
         ClassPathResource resource = new ClassPathResource("beckn_catalog.json");
         catalogJson = new String(Files.readAllBytes(resource.getFile().toPath()));
@@ -69,4 +80,96 @@ class SearchResponseTransformerTest {
         
         assertTrue(exception.getMessage().contains("Failed to transform response"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testTransformHitsMatchesRawCatalogTransform() throws IOException {
+        String rawCatalog = transformer.extractRawCatalog(catalogJson);
+        SearchResponseDto expected = transformer.transformToResponse(objectMapper.writeValueAsString(List.of(rawCatalog)));
+
+        SearchResponseDto response = transformer.transformHits(List.of(new CatalogHit("retail", "doc-1", 4L, 1L, rawCatalog)));
+
+        assertEquals(expected.getMessage().getCatalog().getDescriptor(), response.getMessage().getCatalog().getDescriptor());
+        assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void testTransformHitsParsesStoredCatalogBytes() throws IOException {
+        String rawCatalog = transformer.extractRawCatalog(catalogJson);
+        SearchResponseDto expected = transformer.transformHits(List.of(new CatalogHit("retail", "doc-1", null, null, rawCatalog)));
+
+        ByteBuffer utf8 = ByteBuffer.wrap(rawCatalog.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        SearchResponseDto response = transformer.transformHits(List.of(new CatalogHit("retail", "doc-1", null, null, utf8)));
+
+        assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void testTransformHitsReusesFragmentsPerDocumentVersion() throws IOException {
+        SearchResponseTransformer spyTransformer = spy(transformer);
+        String rawCatalog = transformer.extractRawCatalog(catalogJson);
+
+        spyTransformer.transformHits(List.of(new CatalogHit("retail", "doc-1", 4L, 1L, rawCatalog)));
+        spyTransformer.transformHits(List.of(new CatalogHit("retail", "doc-1", 4L, 1L, rawCatalog)));
+        verify(spyTransformer, times(1)).parseFragments(rawCatalog);
+
+        // A new version of the document is parsed again
+        spyTransformer.transformHits(List.of(new CatalogHit("retail", "doc-1", 5L, 1L, rawCatalog)));
+        verify(spyTransformer, times(2)).parseFragments(rawCatalog);
+    }
+
+    @Test
+    void testDuplicateProvidersAreMergedById() throws IOException {
+        String first = "{\"message\": {\"catalog\": {\"providers\": [{\"id\": \"p1\", \"descriptor\": {\"name\": \"Dairy\"},"
+            + " \"items\": [{\"id\": \"milk\"}, {\"id\": \"curd\"}]}, {\"id\": \"p2\"}]}}}";
+        String second = "{\"message\": {\"catalog\": {\"providers\": [{\"id\": \"p1\", \"descriptor\": {\"name\": \"Old\"},"
+            + " \"rating\": \"4\", \"items\": {\"id\": \"milk\", \"stale\": true}}, {\"id\": \"p3\"}]}}}";
+        String third = "{\"message\": {\"catalog\": {\"providers\": {\"id\": \"p1\", \"items\": [{\"id\": \"ghee\"}]}}}}";
+        String expected = "[{\"id\":\"p1\",\"descriptor\":{\"name\":\"Dairy\"},"
+            + "\"items\":[{\"id\":\"milk\"},{\"id\":\"curd\"},{\"id\":\"ghee\"}],\"rating\":\"4\"},"
+            + "{\"id\":\"p2\"},{\"id\":\"p3\"}]";
+
+        SearchResponseDto fromHits = transformer.transformHits(List.of(
+            new CatalogHit("retail", "doc-1", 1L, 1L, first),
+            new CatalogHit("retail", "doc-2", 1L, 1L, second),
+            new CatalogHit("retail", "doc-3", 1L, 1L, third)));
+        SearchResponseDto fromRawCatalogs = transformer.transformToResponse(objectMapper.writeValueAsString(List.of(first, second, third)));
+
+        assertEquals(objectMapper.readTree(expected), providers(fromHits));
+        assertEquals(objectMapper.readTree(expected), providers(fromRawCatalogs));
+        // The cached fragments keep their own copy of the provider
+        JsonNode again = providers(transformer.transformHits(List.of(new CatalogHit("retail", "doc-1", 1L, 1L, first))));
+        assertEquals(2, again.get(0).get("items").size());
+        assertFalse(again.get(0).has("rating"));
+    }
+
+    @Test
+    void testSameProviderIdFromDifferentBppsIsNotMerged() throws IOException {
+        String first = "{\"context\": {\"bpp_id\": \"bpp-a\"}, \"message\": {\"catalog\": {\"providers\": "
+            + "[{\"id\": \"p1\", \"items\": [{\"id\": \"milk\"}]}]}}}";
+        String second = "{\"context\": {\"bpp_id\": \"bpp-b\"}, \"message\": {\"catalog\": {\"providers\": "
+            + "[{\"id\": \"p1\", \"items\": [{\"id\": \"bread\"}]}]}}}";
+        String third = "{\"context\": {\"bpp_id\": \"bpp-a\"}, \"message\": {\"catalog\": {\"providers\": "
+            + "[{\"id\": \"p1\", \"items\": [{\"id\": \"curd\"}]}]}}}";
+        String expected = "[{\"id\":\"p1\",\"items\":[{\"id\":\"milk\"},{\"id\":\"curd\"}]},"
+            + "{\"id\":\"p1\",\"items\":[{\"id\":\"bread\"}]}]";
+
+        SearchResponseDto fromHits = transformer.transformHits(List.of(
+            new CatalogHit("retail", "doc-1", 1L, 1L, first),
+            new CatalogHit("retail", "doc-2", 1L, 1L, second),
+            new CatalogHit("retail", "doc-3", 1L, 1L, third)));
+        SearchResponseDto fromRawCatalogs = transformer.transformToResponse(objectMapper.writeValueAsString(List.of(first, second, third)));
+
+        assertEquals(objectMapper.readTree(expected), providers(fromHits));
+        assertEquals(objectMapper.readTree(expected), providers(fromRawCatalogs));
+    }
+
+    private JsonNode providers(SearchResponseDto response) throws IOException {
+        return objectMapper.readTree(objectMapper.writeValueAsString(response)).path("message").path("catalog").path("providers");
+    }
+
+    @Test
+    void testTransformHitsWithNoHits() {
+        SearchResponseDto response = transformer.transformHits(List.of());
+        assertEquals("NO_SEARCH_RESULTS", response.getError().getCode());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package org.beckn.search.validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchRequestValidatorTest {
+    private SearchRequestValidator validator;
+    private SearchRequestDto request;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        validator = new SearchRequestValidator(10, 100, 20);
+
+        ClassPathResource resource = new ClassPathResource("search_intent_body_sample.json");
+        String sampleJson = new String(Files.readAllBytes(resource.getFile().toPath()));
+        request = new ObjectMapper().readValue(sampleJson, SearchRequestDto.class);
+    }
+
+    @Test
+    void testValidRequest() {
+        assertDoesNotThrow(() -> validator.validate(request));
+    }
+
+    @Test
+    void testMissingRequiredFields() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> validator.validate(new SearchRequestDto()));
+        assertEquals("context: context is required, message: message is required", ex.getMessage());
+
+        request.getContext().setDomain(null);
+        request.getMessage().setIntent(null);
+        ex = assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+        assertEquals("context.domain: must not be null, message.intent: must not be null", ex.getMessage());
+    }
+
+    @Test
+    void testPageBounds() {
+        request.getMessage().getIntent().setPage(-1);
+        assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+
+        request.getMessage().getIntent().setPage(11);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("Page number must be at most 10"));
+
+        request.getMessage().getIntent().setPage(1);
+        request.getMessage().getIntent().setLimit(0);
+        assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+
+        request.getMessage().getIntent().setLimit(101);
+        ex = assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("Page size must be at most 100"));
+    }
+
+    @Test
+    void testGpsFormat() {
+        assertTrue(SearchRequestValidator.isValidGps("12.9716,77.5946"));
+        assertTrue(SearchRequestValidator.isValidGps("-33.8688, 151.2093"));
+        assertTrue(SearchRequestValidator.isValidGps(null));
+        assertFalse(SearchRequestValidator.isValidGps("12.9716"));
+        assertFalse(SearchRequestValidator.isValidGps("91,10"));
+        assertFalse(SearchRequestValidator.isValidGps("10,-181"));
+        assertFalse(SearchRequestValidator.isValidGps("north,east"));
+        assertFalse(SearchRequestValidator.isValidGps("1.2.3,4"));
+        assertFalse(SearchRequestValidator.isValidGps("1,2,3"));
+
+        Location location = new Location();
+        location.setGps("12.97;77.59");
+        Provider provider = new Provider();
+        provider.setLocations(List.of(location));
+        request.getMessage().getIntent().setProviders(List.of(provider));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("locations.gps"));
+    }
+
+    @Test
+    void testClauseLimit() {
+        List<Item> items = new ArrayList<>(request.getMessage().getIntent().getItems());
+        for (int i = 0; i < 5; i++) {
+            Item item = new Item();
+            Descriptor descriptor = new Descriptor();
+            descriptor.setName("item-" + i);
+            item.setDescriptor(descriptor);
+            items.add(item);
+        }
+        request.getMessage().getIntent().setItems(items);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("search clauses exceed the limit of 20"));
+    }
+}
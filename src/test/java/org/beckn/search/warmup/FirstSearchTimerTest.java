@@ -0,0 +1,31 @@
+package org.beckn.search.warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirstSearchTimerTest {
+
+    @Test
+    void testOnlyTheFirstSearchIsRecorded() {
+        AtomicLong uptime = new AtomicLong(4200);
+        FirstSearchTimer timer = new FirstSearchTimer(uptime::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        timer.bindTo(registry);
+
+        assertEquals(OptionalLong.empty(), timer.elapsedMillis());
+        assertTrue(Double.isNaN(registry.get("search.startup.first_search").timeGauge().value()));
+
+        timer.searchSucceeded();
+        uptime.set(9000);
+        timer.searchSucceeded();
+
+        assertEquals(OptionalLong.of(4200), timer.elapsedMillis());
+        assertEquals(4.2, registry.get("search.startup.first_search").timeGauge().value(TimeUnit.SECONDS), 1e-9);
+    }
+}
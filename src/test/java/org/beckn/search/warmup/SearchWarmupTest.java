@@ -0,0 +1,139 @@
+package org.beckn.search.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beckn.search.cache.SearchFingerprint;
+import org.beckn.search.elasticsearch.SearchService;
+import org.beckn.search.json.BecknJsonCodec;
+import org.beckn.search.model.Context;
+import org.beckn.search.model.FacetType;
+import org.beckn.search.model.SearchOptions;
+import org.beckn.search.model.SearchRequestDto;
+import org.beckn.search.model.SearchResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SearchWarmupTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    private Path logPath;
+    private SearchReplayRecorder recorder;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        logPath = tempDir.resolve("search-replay.jsonl");
+        recorder = new SearchReplayRecorder(new SearchFingerprint(objectMapper), objectMapper, true, logPath, 100);
+        searchService = mock(SearchService.class);
+    }
+
+    private SearchWarmup warmup(int maxQueries, int passes) {
+        return new SearchWarmup(searchService, new BecknJsonCodec(objectMapper), objectMapper, true, logPath,
+            maxQueries, 2, passes, Duration.ofSeconds(10));
+    }
+
+    private static SearchRequestDto request(String domain) {
+        Context context = new Context();
+        context.setDomain(domain);
+        context.setTransactionId("txn-" + domain);
+        SearchRequestDto request = new SearchRequestDto();
+        request.setContext(context);
+        return request;
+    }
+
+    @Test
+    void testRecorderWritesHottestQueriesFirst() throws IOException {
+        SearchOptions facets = SearchOptions.builder().facets(Set.of(FacetType.CATEGORY)).build();
+        recorder.record(request("retail"), "AND", SearchOptions.defaults());
+        for (int i = 0; i < 3; i++) {
+            recorder.record(request("deg:ev"), "or", facets);
+        }
+
+        recorder.write();
+
+        List<ReplayEntry> entries = warmup(10, 1).readEntries();
+        assertEquals(2, entries.size());
+        assertEquals("deg:ev", entries.get(0).getRequest().getContext().getDomain());
+        assertEquals(3, entries.get(0).getCount());
+        assertEquals("OR", entries.get(0).getOperator());
+        assertEquals(List.of("category"), entries.get(0).getFacets());
+        assertEquals("retail", entries.get(1).getRequest().getContext().getDomain());
+    }
+
+    @Test
+    void testNothingIsWrittenBeforeAnySearch() {
+        recorder.flush();
+
+        assertFalse(Files.exists(logPath));
+    }
+
+    @Test
+    void testWarmupReplaysEveryEntryForEachPass() throws Exception {
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), anyString(), any(SearchOptions.class)))
+            .thenReturn(new SearchResponseDto());
+        recorder.record(request("retail"), "AND", SearchOptions.defaults());
+        recorder.record(request("deg:ev"), "AND", SearchOptions.builder().facets(Set.of(FacetType.CATEGORY)).build());
+        recorder.write();
+
+        warmup(10, 3).run(null);
+
+        verify(searchService, times(6)).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"), any(SearchOptions.class));
+        verify(searchService, times(3)).searchAndGetResponse(any(SearchRequestDto.class), eq("AND"),
+            argThat(options -> options.getFacets().contains(FacetType.CATEGORY)));
+    }
+
+    @Test
+    void testWarmupReadsOnlyTheHottestQueries() throws Exception {
+        recorder.record(request("retail"), "AND", SearchOptions.defaults());
+        recorder.record(request("retail"), "AND", SearchOptions.defaults());
+        recorder.record(request("deg:ev"), "AND", SearchOptions.defaults());
+        recorder.write();
+
+        List<ReplayEntry> entries = warmup(1, 1).readEntries();
+
+        assertEquals(1, entries.size());
+        assertEquals("retail", entries.get(0).getRequest().getContext().getDomain());
+    }
+
+    @Test
+    void testFailedSearchesDoNotStopTheWarmup() throws Exception {
+        when(searchService.searchAndGetResponse(any(SearchRequestDto.class), anyString(), any(SearchOptions.class)))
+            .thenThrow(new IOException("es down"));
+        Files.writeString(logPath, "not json\n"
+            + objectMapper.writeValueAsString(entry("retail")) + "\n"
+            + objectMapper.writeValueAsString(entry("deg:ev")) + "\n");
+
+        SearchWarmup warmup = warmup(10, 1);
+        assertEquals(2, warmup.replay(warmup.readEntries()));
+    }
+
+    @Test
+    void testMissingLogSkipsWarmup() {
+        warmup(10, 1).run(null);
+
+        verifyNoInteractions(searchService);
+    }
+
+    private static ReplayEntry entry(String domain) {
+        ReplayEntry entry = new ReplayEntry();
+        entry.setRequest(request(domain));
+        return entry;
+    }
+}